@@ -0,0 +1,206 @@
+package edu.ucalgary.oop;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * BenchmarkData is a deterministic data set for the benchmark suite: a fleet of
+ * drivers and vehicles and a number of pending ride requests per day.
+ * The same sizes and seed always produce the same data, so results of different
+ * runs can be compared.
+ *
+ * @author Group 16
+ * @version 1.0
+ * @since 1.3
+ */
+
+public class BenchmarkData {
+    public static final long DEFAULT_SEED = 409L;
+    public static final LocalDate FIRST_DAY = LocalDate.of(2025, 3, 3);
+
+    // Share of the fleet and of the rides with each property
+    private static final double AVAILABLE_DRIVER_SHARE = 0.9;
+    private static final double ACCESSIBLE_VEHICLE_SHARE = 0.3;
+    private static final double WHEELCHAIR_RIDE_SHARE = 0.2;
+
+    // Pickups and drop-offs are numbered from 100 to 999 on one street each
+    private static final int FIRST_HOUSE_NUMBER = 100;
+    private static final int HOUSE_NUMBERS = 900;
+
+    // Locations are spread over Calgary
+    private static final double SOUTH_LATITUDE = 50.88;
+    private static final double NORTH_LATITUDE = 51.18;
+    private static final double WEST_LONGITUDE = -114.25;
+    private static final double EAST_LONGITUDE = -113.93;
+
+    // Rides are spread between 06:00 and 20:00 in five minute steps
+    private static final int FIRST_PICKUP_MINUTE = 6 * 60;
+    private static final int PICKUP_STEPS = (20 - 6) * 12;
+
+    private final int driverCount;
+    private final int vehicleCount;
+    private final int ridesPerDay;
+    private final int days;
+    private final long seed;
+    private final List<Driver> drivers;
+    private final List<Vehicle> vehicles;
+    private final List<RideRequest> rides;
+
+    /**
+     * Generates a data set.
+     *
+     * @param driverCount number of drivers
+     * @param vehicleCount number of vehicles
+     * @param ridesPerDay number of ride requests on each day
+     * @param days number of consecutive days starting at {@link #FIRST_DAY}
+     * @param seed seed of the random generator
+     */
+    public BenchmarkData(int driverCount, int vehicleCount, int ridesPerDay, int days, long seed) {
+        this.driverCount = driverCount;
+        this.vehicleCount = vehicleCount;
+        this.ridesPerDay = ridesPerDay;
+        this.days = days;
+        this.seed = seed;
+
+        Random random = new Random(seed);
+
+        List<Driver> generatedDrivers = new ArrayList<>();
+        for (int id = 1; id <= driverCount; id++) {
+            Driver driver = new Driver();
+            driver.setDriverID(id);
+            driver.setName("Driver " + id);
+            driver.setPhoneNumber("555-" + (1000 + id));
+            driver.setLicenseNumber("D" + (1000000 + id));
+            driver.setAvailable(random.nextDouble() < AVAILABLE_DRIVER_SHARE);
+            generatedDrivers.add(driver);
+        }
+
+        List<Vehicle> generatedVehicles = new ArrayList<>();
+        for (int id = 1; id <= vehicleCount; id++) {
+            Vehicle vehicle = new Vehicle();
+            vehicle.setVehicleID(id);
+            vehicle.setLicensePlate("BEN" + id);
+            vehicle.setCapacity(2 + random.nextInt(7));
+            vehicle.setWheelchairAccessible(random.nextDouble() < ACCESSIBLE_VEHICLE_SHARE);
+            vehicle.setCurrentLocation("Stop " + id);
+            vehicle.setMaintenanceDueDate(FIRST_DAY.plusDays(30 + random.nextInt(180)));
+            generatedVehicles.add(vehicle);
+        }
+
+        List<RideRequest> generatedRides = new ArrayList<>();
+        int requestId = 1;
+        for (int day = 0; day < days; day++) {
+            for (int i = 0; i < ridesPerDay; i++) {
+                RideRequest ride = new RideRequest();
+                ride.setRequestID(requestId++);
+                ride.setClientName("Client " + ride.getRequestID());
+                ride.setPickUpLocation((FIRST_HOUSE_NUMBER + random.nextInt(HOUSE_NUMBERS)) + " Pickup St");
+                ride.setDropOffLocation((FIRST_HOUSE_NUMBER + random.nextInt(HOUSE_NUMBERS)) + " Dropoff Ave");
+                ride.setPassengerCount(1 + random.nextInt(4));
+                ride.setSpecialRequirements(random.nextDouble() < WHEELCHAIR_RIDE_SHARE ? "Wheelchair" : null);
+                ride.setRequestDate(FIRST_DAY.plusDays(day));
+                ride.setPickupTime(LocalTime.MIN.plusMinutes(FIRST_PICKUP_MINUTE + random.nextInt(PICKUP_STEPS) * 5));
+                ride.setStatus("Pending");
+                generatedRides.add(ride);
+            }
+        }
+
+        this.drivers = Collections.unmodifiableList(generatedDrivers);
+        this.vehicles = Collections.unmodifiableList(generatedVehicles);
+        this.rides = Collections.unmodifiableList(generatedRides);
+    }
+
+    /**
+     * Creates an in-memory repository holding the fleet and the ride requests,
+     * all of them "Pending" and none scheduled.
+     *
+     * @return a new repository
+     * @throws SQLException declared by the repository
+     */
+    public InMemoryRepository newDataManager() throws SQLException {
+        InMemoryRepository repository = new InMemoryRepository();
+        for (Driver driver : drivers) {
+            repository.addDriver(driver);
+        }
+        for (Vehicle vehicle : vehicles) {
+            repository.addVehicle(vehicle);
+        }
+        // The repository copies each ride and numbers them in the same order as the data set
+        for (RideRequest ride : rides) {
+            RideRequest copy = new RideRequest();
+            copy.setClientName(ride.getClientName());
+            copy.setPickUpLocation(ride.getPickUpLocation());
+            copy.setDropOffLocation(ride.getDropOffLocation());
+            copy.setPassengerCount(ride.getPassengerCount());
+            copy.setSpecialRequirements(ride.getSpecialRequirements());
+            copy.setRequestDate(ride.getRequestDate());
+            copy.setPickupTime(ride.getPickupTime());
+            copy.setStatus(ride.getStatus());
+            repository.addRideRequest(copy);
+        }
+        return repository;
+    }
+
+    /**
+     * Creates an in-memory repository in which every day has been scheduled
+     * with {@link SchedulingService#scheduleBatch(LocalDate)}.
+     *
+     * @return a new repository with a fully scheduled data set
+     * @throws SQLException declared by the repository
+     */
+    public InMemoryRepository newScheduledDataManager() throws SQLException {
+        InMemoryRepository dataManager = newDataManager();
+        SchedulingService service = new SchedulingService(dataManager);
+        for (int day = 0; day < days; day++) {
+            service.scheduleBatch(FIRST_DAY.plusDays(day));
+        }
+        return dataManager;
+    }
+
+    /**
+     * Creates a registry with coordinates for every vehicle location, pickup and
+     * drop-off of the data set, spread at random over the city.
+     *
+     * @return a new location registry
+     */
+    public LocationRegistry newLocationRegistry() {
+        // A separate generator, so adding locations does not change the rest of the data
+        Random random = new Random(seed);
+        LocationRegistry locations = new LocationRegistry();
+        for (int id = 1; id <= vehicleCount; id++) {
+            placeAtRandom(locations, "Stop " + id, random);
+        }
+        for (int number = FIRST_HOUSE_NUMBER; number < FIRST_HOUSE_NUMBER + HOUSE_NUMBERS; number++) {
+            placeAtRandom(locations, number + " Pickup St", random);
+            placeAtRandom(locations, number + " Dropoff Ave", random);
+        }
+        return locations;
+    }
+
+    private static void placeAtRandom(LocationRegistry locations, String address, Random random) {
+        locations.setCoordinates(address,
+                SOUTH_LATITUDE + random.nextDouble() * (NORTH_LATITUDE - SOUTH_LATITUDE),
+                WEST_LONGITUDE + random.nextDouble() * (EAST_LONGITUDE - WEST_LONGITUDE));
+    }
+
+    public int getDriverCount() {
+        return driverCount;
+    }
+
+    public int getVehicleCount() {
+        return vehicleCount;
+    }
+
+    public int getRidesPerDay() {
+        return ridesPerDay;
+    }
+
+    public int getDays() {
+        return days;
+    }
+}
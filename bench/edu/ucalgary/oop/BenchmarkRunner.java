@@ -0,0 +1,242 @@
+package edu.ucalgary.oop;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * BenchmarkRunner runs the benchmark suite for every combination of the requested
+ * fleet sizes and prints, per benchmark and data set, the throughput in operations
+ * per second, the 50th, 90th and 99th latency percentiles, the bytes allocated
+ * per operation and the database round trips per operation.
+ * <p>
+ * Each benchmark is warmed up before it is measured so the JIT compiler has settled.
+ * The bench folder is a test source root, so after a build the suite runs with:
+ * <pre>
+ * java -cp "out/production/ENSF-409-Final-Project-Group-16:out/test/ENSF-409-Final-Project-Group-16:lib/*" \
+ *     edu.ucalgary.oop.BenchmarkRunner \
+ *     --drivers=20,200 --vehicles=20,200 --rides=200,2000 --benchmarks=scheduleBatch
+ * </pre>
+ * Options:
+ * <ul>
+ *   <li>{@code --drivers}, {@code --vehicles}, {@code --rides}: comma separated sizes</li>
+ *   <li>{@code --days}: number of days in each data set (default 7)</li>
+ *   <li>{@code --threads}: comma separated worker thread counts for parallel scheduling (default 1,2,4,8,16)</li>
+ *   <li>{@code --warmup}, {@code --iterations}: number of warm-up and measured iterations</li>
+ *   <li>{@code --iteration-ms}: length of one iteration in milliseconds</li>
+ *   <li>{@code --benchmarks}: comma separated names of the benchmarks to run (default all)</li>
+ *   <li>{@code --live}: run the availability queries against the configured database,
+ *       next to the per-row probe loop they replaced</li>
+ * </ul>
+ *
+ * @author Group 16
+ * @version 1.2
+ * @since 1.3
+ */
+
+public class BenchmarkRunner {
+    private int[] driverCounts = {20, 200};
+    private int[] vehicleCounts = {20, 200};
+    private int[] rideCounts = {200, 2000};
+    private int days = 7;
+    private int[] threadCounts = {1, 2, 4, 8, 16};
+    private int warmupIterations = 2;
+    private int measuredIterations = 5;
+    private long iterationMillis = 500;
+    private Set<String> selected = new HashSet<>();
+    private boolean live = false;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner runner = new BenchmarkRunner();
+        runner.parseOptions(args);
+        runner.run();
+    }
+
+    /**
+     * Reads the command line options.
+     *
+     * @param args the command line arguments
+     * @throws IllegalArgumentException if an option is unknown or malformed
+     */
+    private void parseOptions(String[] args) {
+        for (String arg : args) {
+            if (arg.equals("--live")) {
+                live = true;
+                continue;
+            }
+
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+            String name = arg.substring(2, equals);
+            String value = arg.substring(equals + 1);
+
+            switch (name) {
+                case "drivers":
+                    driverCounts = parseSizes(value);
+                    break;
+                case "vehicles":
+                    vehicleCounts = parseSizes(value);
+                    break;
+                case "rides":
+                    rideCounts = parseSizes(value);
+                    break;
+                case "days":
+                    days = Integer.parseInt(value);
+                    break;
+                case "threads":
+                    threadCounts = parseSizes(value);
+                    break;
+                case "warmup":
+                    warmupIterations = Integer.parseInt(value);
+                    break;
+                case "iterations":
+                    measuredIterations = Integer.parseInt(value);
+                    break;
+                case "iteration-ms":
+                    iterationMillis = Long.parseLong(value);
+                    break;
+                case "benchmarks":
+                    selected = new HashSet<>(Arrays.asList(value.split(",")));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+    }
+
+    private static int[] parseSizes(String value) {
+        return Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+    }
+
+    /**
+     * Runs every selected benchmark on every combination of fleet sizes.
+     */
+    private void run() throws Exception {
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        System.out.printf("Available processors: %d%n", Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-28s %8s %8s %8s %12s %10s %10s %10s %12s %10s%n",
+                "Benchmark", "drivers", "vehicles", "rides", "ops/s", "p50 us", "p90 us", "p99 us", "B/op",
+                "trips/op");
+
+        for (int drivers : driverCounts) {
+            for (int vehicles : vehicleCounts) {
+                for (int rides : rideCounts) {
+                    BenchmarkData data = new BenchmarkData(drivers, vehicles, rides, days, BenchmarkData.DEFAULT_SEED);
+                    for (SchedulingBenchmarks.Benchmark benchmark : SchedulingBenchmarks.all(live, threadCounts)) {
+                        if (selected.isEmpty() || selected.contains(benchmark.getName())) {
+                            Result result = measure(benchmark, data);
+                            System.out.printf("%-28s %8d %8d %8d %12.1f %10.1f %10.1f %10.1f %12d %10.1f%n",
+                                    benchmark.getName(), drivers, vehicles, rides, result.opsPerSecond,
+                                    result.p50Micros, result.p90Micros, result.p99Micros, result.bytesPerOp,
+                                    result.roundTripsPerOp);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Warms up and measures one benchmark on one data set.
+     */
+    private Result measure(SchedulingBenchmarks.Benchmark benchmark, BenchmarkData data) throws Exception {
+        benchmark.setUp(data);
+        try {
+            for (int i = 0; i < warmupIterations; i++) {
+                runIteration(benchmark, null);
+            }
+
+            LatencySamples samples = new LatencySamples();
+            for (int i = 0; i < measuredIterations; i++) {
+                runIteration(benchmark, samples);
+            }
+            return samples.toResult();
+        } finally {
+            benchmark.tearDown();
+        }
+    }
+
+    /**
+     * Invokes a benchmark repeatedly for one iteration, recording each invocation
+     * in the samples unless they are null.
+     */
+    private void runIteration(SchedulingBenchmarks.Benchmark benchmark, LatencySamples samples) throws Exception {
+        long thread = Thread.currentThread().threadId();
+        long deadline = System.nanoTime() + iterationMillis * 1_000_000L;
+
+        do {
+            benchmark.prepare();
+
+            long roundTripsBefore = benchmark.getRoundTrips();
+            long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            benchmark.invoke();
+            long elapsed = System.nanoTime() - start;
+            long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+            long roundTrips = benchmark.getRoundTrips() - roundTripsBefore;
+
+            if (samples != null) {
+                samples.add(elapsed, allocated, roundTrips);
+            }
+        } while (System.nanoTime() < deadline);
+    }
+
+    /**
+     * Latency and allocation of every measured invocation.
+     */
+    private static class LatencySamples {
+        private long[] nanos = new long[1024];
+        private int count = 0;
+        private long totalNanos = 0;
+        private long totalBytes = 0;
+        private long totalRoundTrips = 0;
+
+        void add(long elapsedNanos, long allocatedBytes, long roundTrips) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = elapsedNanos;
+            totalNanos += elapsedNanos;
+            totalBytes += allocatedBytes;
+            totalRoundTrips += roundTrips;
+        }
+
+        Result toResult() {
+            long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+
+            Result result = new Result();
+            result.opsPerSecond = count / (totalNanos / 1e9);
+            result.p50Micros = percentile(sorted, 0.50) / 1e3;
+            result.p90Micros = percentile(sorted, 0.90) / 1e3;
+            result.p99Micros = percentile(sorted, 0.99) / 1e3;
+            result.bytesPerOp = totalBytes / count;
+            result.roundTripsPerOp = (double) totalRoundTrips / count;
+            return result;
+        }
+
+        private static long percentile(long[] sorted, double fraction) {
+            int index = (int) Math.ceil(fraction * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        }
+    }
+
+    /**
+     * Summary of one benchmark on one data set.
+     */
+    private static class Result {
+        private double opsPerSecond;
+        private double p50Micros;
+        private double p90Micros;
+        private double p99Micros;
+        private long bytesPerOp;
+        private double roundTripsPerOp;
+    }
+}
@@ -0,0 +1,247 @@
+package edu.ucalgary.oop;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * HttpLoadTest starts an HttpApiServer on a generated in-memory data set and keeps
+ * it busy with concurrent clients for a fixed time, then prints the sustained
+ * requests per second, the 50th and 99th latency percentiles and the error count.
+ * <p>
+ * Each client is a virtual thread that sends its requests one after the other over
+ * a shared HTTP/1.1 client, so connections are kept alive and reused. The clients
+ * cycle through the read endpoints: single ride requests and drivers, and the
+ * driver, vehicle and ride request listings. After a build it runs with:
+ * <pre>
+ * java -cp "out/production/ENSF-409-Final-Project-Group-16:out/test/ENSF-409-Final-Project-Group-16:lib/*" \
+ *     edu.ucalgary.oop.HttpLoadTest --clients=16,64,256 --seconds=10
+ * </pre>
+ * Options:
+ * <ul>
+ *   <li>{@code --clients}: comma separated numbers of concurrent clients (default 16,64,256)</li>
+ *   <li>{@code --seconds}: measured seconds per client count (default 10)</li>
+ *   <li>{@code --warmup-seconds}: unmeasured seconds before each measurement (default 3)</li>
+ *   <li>{@code --drivers}, {@code --vehicles}, {@code --rides}: size of the data set</li>
+ *   <li>{@code --limit}: the controller's concurrency limit (default 16)</li>
+ * </ul>
+ *
+ * @author Group 16
+ * @version 1.1
+ * @since 1.3
+ */
+
+public class HttpLoadTest {
+    private int[] clientCounts = {16, 64, 256};
+    private int seconds = 10;
+    private int warmupSeconds = 3;
+    private int drivers = 50;
+    private int vehicles = 50;
+    private int rides = 500;
+    private int limit = 16;
+
+    public static void main(String[] args) throws Exception {
+        // As Main does, so small responses are not held back by delayed ACKs
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+
+        HttpLoadTest test = new HttpLoadTest();
+        test.parseOptions(args);
+        test.run();
+    }
+
+    /**
+     * Reads the command line options.
+     *
+     * @param args the command line arguments
+     * @throws IllegalArgumentException if an option is unknown or malformed
+     */
+    private void parseOptions(String[] args) {
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+            String name = arg.substring(2, equals);
+            String value = arg.substring(equals + 1);
+
+            switch (name) {
+                case "clients":
+                    clientCounts = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+                    break;
+                case "seconds":
+                    seconds = Integer.parseInt(value);
+                    break;
+                case "warmup-seconds":
+                    warmupSeconds = Integer.parseInt(value);
+                    break;
+                case "drivers":
+                    drivers = Integer.parseInt(value);
+                    break;
+                case "vehicles":
+                    vehicles = Integer.parseInt(value);
+                    break;
+                case "rides":
+                    rides = Integer.parseInt(value);
+                    break;
+                case "limit":
+                    limit = Integer.parseInt(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+    }
+
+    /**
+     * Serves one data set and measures every client count against it.
+     */
+    private void run() throws Exception {
+        BenchmarkData data = new BenchmarkData(drivers, vehicles, rides, 1, BenchmarkData.DEFAULT_SEED);
+        InMemoryRepository repository = data.newScheduledDataManager();
+        TransportationController controller = new TransportationController(repository,
+                new SchedulingService(repository), new ReportGeneratorService(repository));
+
+        try (AsyncTransportationController async = new AsyncTransportationController(controller, limit);
+             HttpApiServer server = new HttpApiServer(async,
+                     new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            server.start();
+
+            String base = "http://localhost:" + server.getPort() + "/api";
+            List<URI> targets = new ArrayList<>();
+            for (int i = 1; i <= rides; i++) {
+                targets.add(URI.create(base + "/rides/" + i));
+                if (i <= drivers) {
+                    targets.add(URI.create(base + "/drivers/" + i));
+                }
+            }
+            targets.add(URI.create(base + "/drivers"));
+            targets.add(URI.create(base + "/vehicles"));
+            targets.add(URI.create(base + "/rides"));
+
+            System.out.printf("Available processors: %d, concurrency limit: %d%n",
+                    Runtime.getRuntime().availableProcessors(), limit);
+            System.out.printf("%8s %12s %10s %10s %8s%n", "clients", "requests/s", "p50 us", "p99 us", "errors");
+
+            for (int clients : clientCounts) {
+                measure(targets, clients, warmupSeconds);
+                Result result = measure(targets, clients, seconds);
+                System.out.printf("%8d %12.1f %10.1f %10.1f %8d%n", clients, result.requestsPerSecond,
+                        result.p50Micros, result.p99Micros, result.errors);
+            }
+        }
+    }
+
+    /**
+     * Runs the clients for the given time and collects every request latency.
+     */
+    private Result measure(List<URI> targets, int clients, int durationSeconds) throws Exception {
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        long start = System.nanoTime();
+        long deadline = start + durationSeconds * 1_000_000_000L;
+
+        List<Future<Client>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                Client client = new Client(http, targets, i * 7919);
+                futures.add(executor.submit(() -> client.runUntil(deadline)));
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long[] all = new long[0];
+        int count = 0;
+        long errors = 0;
+        for (Future<Client> future : futures) {
+            Client client = future.get();
+            if (count + client.count > all.length) {
+                all = Arrays.copyOf(all, Math.max(all.length * 2, count + client.count));
+            }
+            System.arraycopy(client.nanos, 0, all, count, client.count);
+            count += client.count;
+            errors += client.errors;
+        }
+        long[] sorted = Arrays.copyOf(all, count);
+        Arrays.sort(sorted);
+
+        Result result = new Result();
+        result.requestsPerSecond = count / (elapsed / 1e9);
+        result.p50Micros = percentile(sorted, 0.50) / 1e3;
+        result.p99Micros = percentile(sorted, 0.99) / 1e3;
+        result.errors = errors;
+        return result;
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    /**
+     * One client sending requests back to back and recording their latencies.
+     */
+    private static class Client {
+        private final HttpClient http;
+        private final List<URI> targets;
+        private int next;
+        private long[] nanos = new long[1024];
+        private int count = 0;
+        private long errors = 0;
+
+        Client(HttpClient http, List<URI> targets, int offset) {
+            this.http = http;
+            this.targets = targets;
+            this.next = offset % targets.size();
+        }
+
+        Client runUntil(long deadline) {
+            while (System.nanoTime() < deadline) {
+                HttpRequest request = HttpRequest.newBuilder(targets.get(next)).GET().build();
+                next = (next + 1) % targets.size();
+
+                long start = System.nanoTime();
+                try {
+                    HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() != 200) {
+                        errors++;
+                    }
+                } catch (Exception e) {
+                    errors++;
+                    continue;
+                }
+
+                if (count == nanos.length) {
+                    nanos = Arrays.copyOf(nanos, count * 2);
+                }
+                nanos[count++] = System.nanoTime() - start;
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Summary of one client count.
+     */
+    private static class Result {
+        private double requestsPerSecond;
+        private double p50Micros;
+        private double p99Micros;
+        private long errors;
+    }
+}
@@ -0,0 +1,580 @@
+package edu.ucalgary.oop;
+
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SchedulingBenchmarks defines the operations measured by the benchmark suite:
+ * scheduling single rides and whole days, the availability checks and nearest
+ * vehicle selection behind scheduling, and the daily and weekly reports. Each
+ * benchmark runs against a BenchmarkData set. In live mode the availability queries
+ * are also compared with the per-row probe loop they replaced.
+ *
+ * @author Group 16
+ * @version 1.2
+ * @since 1.3
+ */
+
+public class SchedulingBenchmarks {
+
+    /**
+     * A measured operation. {@link #setUp} runs once per data set, {@link #prepare}
+     * before every invocation and is not measured, and {@link #invoke} is the
+     * measured operation itself.
+     */
+    public interface Benchmark {
+        String getName();
+
+        void setUp(BenchmarkData data) throws Exception;
+
+        default void prepare() throws Exception {
+        }
+
+        void invoke() throws Exception;
+
+        default void tearDown() throws Exception {
+        }
+
+        /**
+         * Gets the number of statements sent to the database so far, or 0 if the
+         * benchmark does not use one.
+         */
+        default long getRoundTrips() {
+            return 0;
+        }
+    }
+
+    private SchedulingBenchmarks() {
+        // Only static factory methods
+    }
+
+    /**
+     * Creates every benchmark of the suite.
+     *
+     * @param live whether availability queries run against the configured database
+     *             instead of the in-memory data set
+     * @param threadCounts the worker thread counts to measure parallel scheduling with
+     * @return the benchmarks
+     */
+    public static List<Benchmark> all(boolean live, int[] threadCounts) {
+        List<Benchmark> benchmarks = new ArrayList<>();
+        benchmarks.add(new ScheduleRideRequest(false));
+        benchmarks.add(new ScheduleRideRequest(true));
+        for (int threads : threadCounts) {
+            benchmarks.add(new ScheduleParallel(threads));
+        }
+        benchmarks.add(new ScheduleBatch());
+        benchmarks.add(new AvailabilityIndex());
+        benchmarks.add(new AvailabilityQuery(live));
+        if (live) {
+            benchmarks.add(new AvailabilityProbeLoop());
+        }
+        benchmarks.add(new ProximitySelection());
+        benchmarks.add(new DailyReport());
+        benchmarks.add(new WeeklyReport());
+        return benchmarks;
+    }
+
+    /**
+     * Schedules the rides of the first day one request at a time, as the user
+     * interface does. Once every ride was tried the day starts over on fresh data.
+     * With locations, the service has a registry of the data set's addresses and
+     * places each ride with its ProximitySelector.
+     */
+    private static class ScheduleRideRequest implements Benchmark {
+        private final boolean located;
+        private BenchmarkData data;
+        private SchedulingService service;
+        private List<RideRequest> rides = new ArrayList<>();
+        private int next;
+
+        ScheduleRideRequest(boolean located) {
+            this.located = located;
+        }
+
+        @Override
+        public String getName() {
+            return located ? "scheduleRideRequest(located)" : "scheduleRideRequest";
+        }
+
+        @Override
+        public void setUp(BenchmarkData data) {
+            this.data = data;
+            this.rides = new ArrayList<>();
+            this.next = 0;
+        }
+
+        @Override
+        public void prepare() throws Exception {
+            if (next == rides.size()) {
+                InMemoryRepository dataManager = data.newDataManager();
+                service = located
+                        ? new SchedulingService(dataManager,
+                                TripDurationEstimator.fixed(TripDurationEstimator.DEFAULT_MINUTES),
+                                data.newLocationRegistry())
+                        : new SchedulingService(dataManager);
+                rides = dataManager.getRideRequestsByDateAndStatus(BenchmarkData.FIRST_DAY, "Pending");
+                next = 0;
+            }
+        }
+
+        @Override
+        public void invoke() {
+            service.scheduleRideRequest(rides.get(next++));
+        }
+    }
+
+    /**
+     * Schedules every ride of the data set one request at a time on a pool of worker
+     * threads. Each day is a separate partition, so the throughput at different thread
+     * counts shows how well scheduling scales across cores. Bytes per operation only
+     * count the calling thread, not the workers.
+     */
+    private static class ScheduleParallel implements Benchmark {
+        private final int threads;
+        private BenchmarkData data;
+        private SchedulingService service;
+        private List<RideRequest> rides;
+
+        ScheduleParallel(int threads) {
+            this.threads = threads;
+        }
+
+        @Override
+        public String getName() {
+            return "scheduleParallel(" + threads + ")";
+        }
+
+        @Override
+        public void setUp(BenchmarkData data) {
+            this.data = data;
+        }
+
+        @Override
+        public void prepare() throws Exception {
+            InMemoryRepository dataManager = data.newDataManager();
+            service = new SchedulingService(dataManager);
+            rides = dataManager.getAllRideRequests();
+        }
+
+        @Override
+        public void invoke() {
+            service.scheduleRideRequests(rides, threads);
+        }
+    }
+
+    /**
+     * Schedules all pending rides of the first day in one batch.
+     */
+    private static class ScheduleBatch implements Benchmark {
+        private BenchmarkData data;
+        private SchedulingService service;
+
+        @Override
+        public String getName() {
+            return "scheduleBatch";
+        }
+
+        @Override
+        public void setUp(BenchmarkData data) {
+            this.data = data;
+        }
+
+        @Override
+        public void prepare() throws Exception {
+            service = new SchedulingService(data.newDataManager());
+        }
+
+        @Override
+        public void invoke() {
+            service.scheduleBatch(BenchmarkData.FIRST_DAY);
+        }
+    }
+
+    /**
+     * Finds every free driver and vehicle for a ride window in an occupancy index
+     * holding a fully scheduled day, which is the in-memory availability check.
+     */
+    private static class AvailabilityIndex implements Benchmark {
+        private final OccupancyIndex occupancy = new OccupancyIndex(1);
+        private List<Driver> drivers;
+        private List<Vehicle> vehicles;
+        private LocalTime[] windows;
+        private int next;
+        private int freeCount;
+
+        @Override
+        public String getName() {
+            return "availabilityIndex";
+        }
+
+        @Override
+        public void setUp(BenchmarkData data) throws Exception {
+            InMemoryRepository dataManager = data.newScheduledDataManager();
+            drivers = dataManager.getAllDrivers();
+            vehicles = dataManager.getAllVehicles();
+
+            occupancy.resetDay(BenchmarkData.FIRST_DAY);
+            for (Schedule schedule : dataManager.getSchedulesByDate(BenchmarkData.FIRST_DAY)) {
+                occupancy.book(BenchmarkData.FIRST_DAY, schedule.getRideRequest().getRequestID(),
+                        schedule.getDriver().getDriverID(), schedule.getVehicle().getVehicleID(),
+                        schedule.getTime(), schedule.getTime().plusMinutes(30));
+            }
+            windows = randomWindows();
+            next = 0;
+        }
+
+        @Override
+        public void invoke() {
+            LocalTime start = windows[next++ % windows.length];
+            LocalTime end = start.plusMinutes(90);
+            for (Driver driver : drivers) {
+                if (occupancy.isDriverFree(BenchmarkData.FIRST_DAY, driver.getDriverID(), start, end)) {
+                    freeCount++;
+                }
+            }
+            for (Vehicle vehicle : vehicles) {
+                if (occupancy.isVehicleFree(BenchmarkData.FIRST_DAY, vehicle.getVehicleID(), start, end)) {
+                    freeCount++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the available driver and vehicle queries for a ride window. By default the
+     * queries run on the in-memory data set; in live mode they go to the database
+     * configured in DatabaseConnector, whose contents are not generated by the suite.
+     */
+    private static class AvailabilityQuery implements Benchmark {
+        private final boolean live;
+        private TransportationRepository dataManager;
+        private StatementCountingDataAccessManager database;
+        private LocalTime[] windows;
+        private int next;
+
+        AvailabilityQuery(boolean live) {
+            this.live = live;
+        }
+
+        @Override
+        public String getName() {
+            return live ? "availabilityQuery(live)" : "availabilityQuery";
+        }
+
+        @Override
+        public void setUp(BenchmarkData data) throws Exception {
+            if (live) {
+                database = new StatementCountingDataAccessManager();
+                dataManager = database;
+            } else {
+                dataManager = data.newScheduledDataManager();
+            }
+            windows = randomWindows();
+            next = 0;
+        }
+
+        @Override
+        public void invoke() throws Exception {
+            LocalTime start = windows[next++ % windows.length];
+            LocalTime end = start.plusMinutes(90);
+            dataManager.getAvailableDrivers(BenchmarkData.FIRST_DAY, start, end);
+            dataManager.getAvailableVehicles(BenchmarkData.FIRST_DAY, start, end, next % 5 == 0, 2);
+        }
+
+        @Override
+        public long getRoundTrips() {
+            return database == null ? 0 : database.getStatementCount();
+        }
+    }
+
+    /**
+     * The availability check as it was before each query became one anti-join, kept
+     * as the baseline for availabilityQuery(live): the candidate drivers or vehicles
+     * are read first, then a COUNT(*) probe is sent for every candidate, so a check
+     * costs 1 + N round trips instead of one. The statements are the old ones unchanged
+     * and see the same windows as availabilityQuery. Only runs in live mode.
+     */
+    private static class AvailabilityProbeLoop implements Benchmark {
+        private static final String AVAILABLE_DRIVERS = "SELECT * FROM Drivers WHERE IsAvailable = TRUE";
+        private static final String MATCHING_VEHICLES = "SELECT * FROM Vehicles WHERE " +
+                "Capacity >= ? AND IsWheelchairAccessible >= ?";
+        private static final String DRIVER_PROBE = "SELECT COUNT(*) FROM Schedules s " +
+                "JOIN RideRequests r ON s.RequestID = r.RequestID " +
+                "WHERE s.DriverID = ? AND s.ScheduledDate = ? " +
+                "AND r.Status = 'Scheduled' " +
+                "AND ((s.ScheduledTime <= ? AND CAST(s.ScheduledTime AS TIME) + INTERVAL '30 minutes' >= ?) " +
+                "OR (s.ScheduledTime <= ? AND CAST(s.ScheduledTime AS TIME) + INTERVAL '30 minutes' >= ?))";
+        private static final String VEHICLE_PROBE = "SELECT COUNT(*) FROM Schedules s " +
+                "JOIN RideRequests r ON s.RequestID = r.RequestID " +
+                "WHERE s.VehicleID = ? AND s.ScheduledDate = ? " +
+                "AND r.Status = 'Scheduled' " +
+                "AND ((s.ScheduledTime <= ? AND CAST(s.ScheduledTime AS TIME) + INTERVAL '30 minutes' >= ?) " +
+                "OR (s.ScheduledTime <= ? AND CAST(s.ScheduledTime AS TIME) + INTERVAL '30 minutes' >= ?))";
+
+        private StatementCountingDataAccessManager database;
+        private LocalTime[] windows;
+        private int next;
+        private int freeCount;
+
+        @Override
+        public String getName() {
+            return "availabilityProbeLoop(live)";
+        }
+
+        @Override
+        public void setUp(BenchmarkData data) throws Exception {
+            database = new StatementCountingDataAccessManager();
+            windows = randomWindows();
+            next = 0;
+        }
+
+        @Override
+        public void invoke() throws Exception {
+            LocalTime start = windows[next++ % windows.length];
+            LocalTime end = start.plusMinutes(90);
+            try (Connection conn = database.getConnection()) {
+                try (PreparedStatement pstmt = conn.prepareStatement(AVAILABLE_DRIVERS)) {
+                    freeCount += countUnscheduled(conn, pstmt, "DriverID", DRIVER_PROBE, start, end);
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(MATCHING_VEHICLES)) {
+                    pstmt.setInt(1, 2);
+                    pstmt.setBoolean(2, next % 5 == 0);
+                    freeCount += countUnscheduled(conn, pstmt, "VehicleID", VEHICLE_PROBE, start, end);
+                }
+            }
+        }
+
+        /**
+         * Runs a candidate query and probes every candidate row for a ride overlapping the window.
+         */
+        private static int countUnscheduled(Connection conn, PreparedStatement candidates, String idColumn,
+                                            String probe, LocalTime start, LocalTime end) throws SQLException {
+            int free = 0;
+            try (ResultSet rs = candidates.executeQuery();
+                 PreparedStatement probeStmt = conn.prepareStatement(probe)) {
+                while (rs.next()) {
+                    probeStmt.setInt(1, rs.getInt(idColumn));
+                    probeStmt.setDate(2, java.sql.Date.valueOf(BenchmarkData.FIRST_DAY));
+                    probeStmt.setTime(3, java.sql.Time.valueOf(end));
+                    probeStmt.setTime(4, java.sql.Time.valueOf(start));
+                    probeStmt.setTime(5, java.sql.Time.valueOf(start));
+                    probeStmt.setTime(6, java.sql.Time.valueOf(end));
+                    try (ResultSet count = probeStmt.executeQuery()) {
+                        if (count.next() && count.getInt(1) == 0) {
+                            free++;
+                        }
+                    }
+                }
+            }
+            return free;
+        }
+
+        @Override
+        public long getRoundTrips() {
+            return database.getStatementCount();
+        }
+    }
+
+    /**
+     * A DataAccessManager on the configured database that counts the statements it
+     * executes, so benchmarks can report round trips per operation.
+     */
+    private static class StatementCountingDataAccessManager extends DataAccessManager {
+        private final AtomicLong statements = new AtomicLong();
+
+        StatementCountingDataAccessManager() throws SQLException {
+            super();
+        }
+
+        long getStatementCount() {
+            return statements.get();
+        }
+
+        @Override
+        protected Connection getConnection() throws SQLException {
+            return counting(Connection.class, super.getConnection());
+        }
+
+        /**
+         * Wraps a connection or statement so every execute call is counted, including
+         * those of the statements it creates.
+         */
+        private <T> T counting(Class<T> type, T target) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                    (proxy, method, args) -> {
+                        Object result;
+                        try {
+                            result = method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                        if (method.getName().startsWith("execute")) {
+                            statements.incrementAndGet();
+                        }
+                        if (result instanceof PreparedStatement) {
+                            return counting(PreparedStatement.class, (PreparedStatement) result);
+                        }
+                        if (result instanceof Statement) {
+                            return counting(Statement.class, (Statement) result);
+                        }
+                        return result;
+                    }));
+        }
+    }
+
+    /**
+     * Picks the driver and vehicle nearest to a pickup in a fully scheduled day, which
+     * is the proximity selection of a single ride. Vehicles are placed at their current
+     * location or where their last ride ended; free drivers and vehicles are checked
+     * in the occupancy index as the nearest candidates are visited. The cost should
+     * stay well below a millisecond with a thousand vehicles.
+     */
+    private static class ProximitySelection implements Benchmark {
+        private final OccupancyIndex occupancy = new OccupancyIndex(1);
+        private ProximitySelector selector;
+        private List<Driver> drivers;
+        private Set<Integer> driverIds;
+        private List<RideRequest> rides;
+        private int next;
+        private int selected;
+
+        @Override
+        public String getName() {
+            return "proximitySelection";
+        }
+
+        @Override
+        public void setUp(BenchmarkData data) throws Exception {
+            InMemoryRepository dataManager = data.newScheduledDataManager();
+            LocationRegistry locations = data.newLocationRegistry();
+
+            occupancy.resetDay(BenchmarkData.FIRST_DAY);
+            for (Schedule schedule : dataManager.getSchedulesByDate(BenchmarkData.FIRST_DAY)) {
+                int dropOff = locations.find(schedule.getRideRequest().getDropOffLocation());
+                occupancy.book(BenchmarkData.FIRST_DAY, schedule.getRideRequest().getRequestID(),
+                        schedule.getDriver().getDriverID(), schedule.getVehicle().getVehicleID(),
+                        schedule.getTime(), schedule.getEndTime(),
+                        locations.getLatitude(dropOff), locations.getLongitude(dropOff));
+            }
+
+            selector = new ProximitySelector(locations, occupancy);
+            selector.updateVehicles(dataManager.getAllVehicles());
+
+            drivers = new ArrayList<>();
+            driverIds = new HashSet<>();
+            for (Driver driver : dataManager.getAllDrivers()) {
+                if (driver.isAvailable()) {
+                    drivers.add(driver);
+                    driverIds.add(driver.getDriverID());
+                }
+            }
+            rides = dataManager.getRideRequestsByDateAndStatus(BenchmarkData.FIRST_DAY, "Scheduled");
+            if (rides.isEmpty()) {
+                rides = dataManager.getRideRequestsByDateAndStatus(BenchmarkData.FIRST_DAY, "Pending");
+            }
+            next = 0;
+        }
+
+        @Override
+        public void invoke() {
+            RideRequest ride = rides.get(next++ % rides.size());
+            LocalDate date = ride.getRequestDate();
+            LocalTime start = ride.getPickupTime().minusMinutes(30);
+            LocalTime end = ride.getPickupTime().plusMinutes(60);
+
+            ProximitySelector.Choice choice = selector.select(date, ride.getPickupTime(), ride.getPickUpLocation(),
+                    drivers,
+                    id -> driverIds.contains(id) && occupancy.isDriverFree(date, id, start, end),
+                    id -> occupancy.isVehicleFree(date, id, start, end));
+            if (choice != null) {
+                selected++;
+            }
+        }
+    }
+
+    /**
+     * Writes the daily schedule file of a fully scheduled day.
+     */
+    private static class DailyReport implements Benchmark {
+        private ReportGeneratorService reports;
+
+        @Override
+        public String getName() {
+            return "dailyReport";
+        }
+
+        @Override
+        public void setUp(BenchmarkData data) throws Exception {
+            reports = new ReportGeneratorService(data.newScheduledDataManager());
+        }
+
+        @Override
+        public void invoke() throws Exception {
+            reports.createDailyScheduleFile(BenchmarkData.FIRST_DAY);
+        }
+
+        @Override
+        public void tearDown() {
+            new File("daily_schedule_" +
+                    BenchmarkData.FIRST_DAY.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")) + ".txt").delete();
+        }
+    }
+
+    /**
+     * Writes the weekly report of a fully scheduled week.
+     */
+    private static class WeeklyReport implements Benchmark {
+        private ReportGeneratorService reports;
+
+        @Override
+        public String getName() {
+            return "weeklyReport";
+        }
+
+        @Override
+        public void setUp(BenchmarkData data) throws Exception {
+            reports = new ReportGeneratorService(data.newScheduledDataManager());
+        }
+
+        @Override
+        public void invoke() throws Exception {
+            reports.createWeeklyReportFile(BenchmarkData.FIRST_DAY);
+        }
+
+        @Override
+        public void tearDown() {
+            LocalDate monday = BenchmarkData.FIRST_DAY.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            new File("weekly_report_" + monday.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")) + ".txt").delete();
+        }
+    }
+
+    /**
+     * Creates a fixed sequence of window start times spread over the service day.
+     */
+    private static LocalTime[] randomWindows() {
+        Random random = new Random(BenchmarkData.DEFAULT_SEED);
+        LocalTime[] windows = new LocalTime[1024];
+        for (int i = 0; i < windows.length; i++) {
+            windows[i] = LocalTime.of(6, 0).plusMinutes(random.nextInt(14 * 12) * 5L);
+        }
+        return windows;
+    }
+}
@@ -0,0 +1,302 @@
+package edu.ucalgary.oop;
+
+import java.io.Reader;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * AsyncTransportationController offers the operations of a TransportationController
+ * as CompletableFutures, for front ends such as a server that handle many requests
+ * at once.
+ * <p>
+ * Every operation runs on its own virtual thread, so a caller waiting on a database
+ * round trip does not tie up a platform thread. How many operations run at the same
+ * time is limited by a fair semaphore, by default to the size of the connection pool:
+ * the rest wait their turn on their virtual threads instead of queueing for a
+ * connection and timing out. An operation that fails completes its future
+ * exceptionally with the original exception, such as an SQLException.
+ *
+ * @author Group 16
+ * @version 1.1
+ * @since 1.3
+ */
+
+public class AsyncTransportationController implements AutoCloseable {
+    private final TransportationController controller;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+    private final int maxConcurrency;
+
+    /**
+     * Constructs a facade that runs as many operations at once as the shared
+     * connection pool has connections.
+     *
+     * @param controller the controller whose operations are run
+     */
+    public AsyncTransportationController(TransportationController controller) {
+        this(controller, DatabaseConnector.getMaxConnections());
+    }
+
+    /**
+     * Constructs a facade.
+     *
+     * @param controller the controller whose operations are run
+     * @param maxConcurrency the maximum number of operations running at the same time
+     * @throws IllegalArgumentException if maxConcurrency is less than 1
+     */
+    public AsyncTransportationController(TransportationController controller, int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Invalid concurrency limit: " + maxConcurrency);
+        }
+        this.controller = controller;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency, true);
+    }
+
+    //------------------------------------------------------------
+    // RideRequest operations
+    //------------------------------------------------------------
+
+    /**
+     * Retrieves all ride requests.
+     * @return a future list of all RideRequest objects
+     */
+    public CompletableFuture<List<RideRequest>> viewAllRideRequests() {
+        return submit(controller::viewAllRideRequests);
+    }
+
+    /**
+     * Retrieves one page of the ride requests matching a filter.
+     * @param filter the criteria to match, or null to list every ride request
+     * @param afterId the afterId of the next page, or 0 for the first page
+     * @param pageSize the number of ride requests per page
+     * @return a future page of RideRequest objects
+     */
+    public CompletableFuture<Page<RideRequest>> viewRideRequests(ListingFilter filter, int afterId, int pageSize) {
+        return submit(() -> controller.viewRideRequests(filter, afterId, pageSize));
+    }
+
+    /**
+     * Retrieves a specific ride request by ID.
+     * @param id the ID of the ride request
+     * @return a future RideRequest, or null if not found
+     */
+    public CompletableFuture<RideRequest> getRideRequestById(int id) {
+        return submit(() -> controller.getRideRequestById(id));
+    }
+
+    /**
+     * Adds a new ride request and attempts to schedule it.
+     * @param request the RideRequest object to add
+     * @return a future that is true if the request was added
+     */
+    public CompletableFuture<Boolean> addRideRequest(RideRequest request) {
+        return submit(() -> controller.addRideRequest(request));
+    }
+
+    /**
+     * Imports ride requests in bulk from CSV content and schedules their dates.
+     * @param csv the CSV content, read on the operation's thread
+     * @return a future result listing the imported IDs and rejected rows
+     */
+    public CompletableFuture<RideRequestImporter.Result> importRideRequests(Reader csv) {
+        return submit(() -> controller.importRideRequests(csv));
+    }
+
+    /**
+     * Modifies an existing ride request and reschedules it if necessary.
+     * @param request the RideRequest object with updated information
+     * @return a future that is true if the request was updated
+     */
+    public CompletableFuture<Boolean> modifyRideRequest(RideRequest request) {
+        return submit(() -> controller.modifyRideRequest(request));
+    }
+
+    /**
+     * Cancels a ride request.
+     * @param id the ID of the ride request to cancel
+     * @return a future that is true if the request was cancelled
+     */
+    public CompletableFuture<Boolean> cancelRideRequest(int id) {
+        return submit(() -> controller.cancelRideRequest(id));
+    }
+
+    /**
+     * Marks a scheduled ride request as completed.
+     * @param id the ID of the ride request to complete
+     * @return a future that is true if the request was completed
+     */
+    public CompletableFuture<Boolean> completeRideRequest(int id) {
+        return submit(() -> controller.completeRideRequest(id));
+    }
+
+    //------------------------------------------------------------
+    // Driver and vehicle operations
+    //------------------------------------------------------------
+
+    /**
+     * Retrieves all drivers.
+     * @return a future list of all Driver objects
+     */
+    public CompletableFuture<List<Driver>> viewAllDrivers() {
+        return submit(controller::viewAllDrivers);
+    }
+
+    /**
+     * Retrieves a specific driver by ID.
+     * @param id the ID of the driver
+     * @return a future Driver, or null if not found
+     */
+    public CompletableFuture<Driver> getDriverById(int id) {
+        return submit(() -> controller.getDriverById(id));
+    }
+
+    /**
+     * Updates a driver's availability, rescheduling their rides if they became unavailable.
+     * @param id the ID of the driver
+     * @param isAvailable the new availability status
+     * @return a future that is true if the availability was updated
+     */
+    public CompletableFuture<Boolean> modifyDriverAvailability(int id, boolean isAvailable) {
+        return submit(() -> controller.modifyDriverAvailability(id, isAvailable));
+    }
+
+    /**
+     * Retrieves all vehicles.
+     * @return a future list of all Vehicle objects
+     */
+    public CompletableFuture<List<Vehicle>> viewAllVehicles() {
+        return submit(controller::viewAllVehicles);
+    }
+
+    //------------------------------------------------------------
+    // Schedule and report operations
+    //------------------------------------------------------------
+
+    /**
+     * Retrieves all schedule entries.
+     * @return a future list of all Schedule objects
+     */
+    public CompletableFuture<List<Schedule>> viewAllSchedules() {
+        return submit(controller::viewAllSchedules);
+    }
+
+    /**
+     * Retrieves one page of the schedule entries matching a filter.
+     * @param filter the criteria to match, or null to list every schedule entry
+     * @param afterId the afterId of the next page, or 0 for the first page
+     * @param pageSize the number of schedule entries per page
+     * @return a future page of Schedule objects
+     */
+    public CompletableFuture<Page<Schedule>> viewSchedules(ListingFilter filter, int afterId, int pageSize) {
+        return submit(() -> controller.viewSchedules(filter, afterId, pageSize));
+    }
+
+    /**
+     * Schedules all pending ride requests of a date in a single batch pass.
+     * @param date the date whose pending ride requests should be scheduled
+     * @return a future number of ride requests that were scheduled
+     */
+    public CompletableFuture<Integer> schedulePendingRides(LocalDate date) {
+        return submit(() -> controller.schedulePendingRides(date));
+    }
+
+    /**
+     * Generates the daily schedule file for a date.
+     * @param date the date for which to generate the schedule
+     * @return a future that is true if the file was generated
+     */
+    public CompletableFuture<Boolean> generateDailySchedule(LocalDate date) {
+        return submit(() -> controller.generateDailySchedule(date));
+    }
+
+    /**
+     * Generates the weekly report file for the current week.
+     * @return a future that is true if the report was generated
+     */
+    public CompletableFuture<Boolean> generateWeeklyReport() {
+        return submit(controller::generateWeeklyReport);
+    }
+
+    //------------------------------------------------------------
+    // Monitoring and shutdown
+    //------------------------------------------------------------
+
+    /**
+     * Gets the maximum number of operations running at the same time.
+     * @return the concurrency limit
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Gets the number of operations running right now.
+     * @return the active count
+     */
+    public int getActiveCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * Gets an estimate of the number of operations waiting for their turn.
+     * @return the waiting count
+     */
+    public int getWaitingCount() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * Stops accepting operations and waits for the submitted ones to finish.
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    /**
+     * Runs an operation on a virtual thread once a permit is free.
+     */
+    private <T> CompletableFuture<T> submit(Operation<T> operation) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    future.completeExceptionally(e);
+                    return;
+                }
+
+                // Free the permit before completing, so a caller that sees the
+                // result never sees the operation still counted as active
+                T result;
+                try {
+                    result = operation.run();
+                } catch (Throwable e) {
+                    permits.release();
+                    future.completeExceptionally(e);
+                    return;
+                }
+                permits.release();
+                future.complete(result);
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * A controller operation that may fail with an SQLException or IOException.
+     */
+    @FunctionalInterface
+    private interface Operation<T> {
+        T run() throws Exception;
+    }
+}
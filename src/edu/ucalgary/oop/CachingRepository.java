@@ -0,0 +1,506 @@
+package edu.ucalgary.oop;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * CachingRepository sits in front of another TransportationRepository and keeps
+ * the drivers and vehicles it reads. These rarely change but are read on every
+ * scheduling pass, report and lookup, so most reads no longer need a database
+ * round trip.
+ * <p>
+ * The cache is read-through: a miss loads from the wrapped repository and keeps
+ * the result. Each cache is bounded, and when it is full the least recently used
+ * entry is dropped. Entries also expire after a time to live, so changes made
+ * outside this application are picked up eventually. A driver availability change
+ * made through this repository is written to the wrapped repository first and then
+ * drops the cached driver. Everything else is passed through unchanged.
+ * <p>
+ * Cached objects are copied on the way in and out, so callers cannot change them.
+ * The class is thread-safe.
+ *
+ * @author Group 16
+ * @version 1.0
+ * @since 1.3
+ */
+
+public class CachingRepository implements TransportationRepository {
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * Hit, miss, eviction and invalidation counters of one CachingRepository.
+     */
+    public static class Counters {
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong evictions = new AtomicLong();
+        private final AtomicLong invalidations = new AtomicLong();
+
+        /**
+         * Gets the number of reads answered from the cache.
+         * @return the hit count
+         */
+        public long getHitCount() {
+            return hits.get();
+        }
+
+        /**
+         * Gets the number of reads that went to the wrapped repository.
+         * @return the miss count
+         */
+        public long getMissCount() {
+            return misses.get();
+        }
+
+        /**
+         * Gets the number of entries dropped because the cache was full or they expired.
+         * @return the eviction count
+         */
+        public long getEvictionCount() {
+            return evictions.get();
+        }
+
+        /**
+         * Gets the number of times cached data was dropped because it was changed.
+         * @return the invalidation count
+         */
+        public long getInvalidationCount() {
+            return invalidations.get();
+        }
+    }
+
+    private final TransportationRepository delegate;
+    private final Counters counters = new Counters();
+    private final ReferenceCache<Driver> drivers;
+    private final ReferenceCache<Vehicle> vehicles;
+
+    /**
+     * Constructs a cache with the default size and time to live.
+     *
+     * @param delegate the repository to read from and write to
+     */
+    public CachingRepository(TransportationRepository delegate) {
+        this(delegate, DEFAULT_MAX_ENTRIES, DEFAULT_TTL_MILLIS);
+    }
+
+    /**
+     * Constructs a cache.
+     *
+     * @param delegate the repository to read from and write to
+     * @param maxEntries the maximum number of drivers, and of vehicles, kept
+     * @param ttlMillis how long an entry is used before it is read again
+     * @throws IllegalArgumentException if the size or time to live is not positive
+     */
+    public CachingRepository(TransportationRepository delegate, int maxEntries, long ttlMillis) {
+        this(delegate, maxEntries, ttlMillis, System::nanoTime);
+    }
+
+    /**
+     * Constructs a cache that reads the time from the given clock, for tests.
+     */
+    CachingRepository(TransportationRepository delegate, int maxEntries, long ttlMillis, LongSupplier nanoClock) {
+        if (maxEntries < 1 || ttlMillis < 1) {
+            throw new IllegalArgumentException("Invalid cache settings: " + maxEntries + " entries, " +
+                    ttlMillis + " ms");
+        }
+        this.delegate = delegate;
+        long ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.drivers = new ReferenceCache<>(maxEntries, ttlNanos, nanoClock, Driver::getDriverID, CachingRepository::copy);
+        this.vehicles = new ReferenceCache<>(maxEntries, ttlNanos, nanoClock, Vehicle::getVehicleID, CachingRepository::copy);
+    }
+
+    /**
+     * Gets the hit, miss, eviction and invalidation counters.
+     * @return the counters
+     */
+    public Counters getCounters() {
+        return counters;
+    }
+
+    /**
+     * Drops every cached driver and vehicle, for use after they were changed
+     * without going through this repository.
+     */
+    public void invalidateAll() {
+        drivers.invalidateAll();
+        vehicles.invalidateAll();
+    }
+
+    //------------------------------------------------------------
+    // Cached reference data
+    //------------------------------------------------------------
+
+    @Override
+    public List<Driver> getAllDrivers() throws SQLException {
+        List<Driver> cached = drivers.getAll();
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = drivers.getGeneration();
+        List<Driver> loaded = delegate.getAllDrivers();
+        drivers.putAll(loaded, generation);
+        return loaded;
+    }
+
+    @Override
+    public Driver getDriverById(int id) throws SQLException {
+        Driver cached = drivers.get(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = drivers.getGeneration();
+        Driver loaded = delegate.getDriverById(id);
+        if (loaded != null) {
+            drivers.put(loaded, generation);
+        }
+        return loaded;
+    }
+
+    @Override
+    public boolean updateDriverAvailability(int id, boolean isAvailable) throws SQLException {
+        try {
+            return delegate.updateDriverAvailability(id, isAvailable);
+        } finally {
+            // Dropped even on failure, the database state is then unknown
+            drivers.invalidate(id);
+        }
+    }
+
+    @Override
+    public List<Vehicle> getAllVehicles() throws SQLException {
+        List<Vehicle> cached = vehicles.getAll();
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = vehicles.getGeneration();
+        List<Vehicle> loaded = delegate.getAllVehicles();
+        vehicles.putAll(loaded, generation);
+        return loaded;
+    }
+
+    @Override
+    public Vehicle getVehicleById(int id) throws SQLException {
+        Vehicle cached = vehicles.get(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = vehicles.getGeneration();
+        Vehicle loaded = delegate.getVehicleById(id);
+        if (loaded != null) {
+            vehicles.put(loaded, generation);
+        }
+        return loaded;
+    }
+
+    //------------------------------------------------------------
+    // Passed through; availability depends on the current schedules
+    //------------------------------------------------------------
+
+    @Override
+    public List<Driver> getAvailableDrivers(LocalDate date, LocalTime startTime, LocalTime endTime)
+            throws SQLException {
+        return delegate.getAvailableDrivers(date, startTime, endTime);
+    }
+
+    @Override
+    public List<Vehicle> getAvailableVehicles(LocalDate date, LocalTime startTime, LocalTime endTime,
+                                              boolean needsWheelchair, int passengerCount) throws SQLException {
+        return delegate.getAvailableVehicles(date, startTime, endTime, needsWheelchair, passengerCount);
+    }
+
+    @Override
+    public List<RideRequest> getAllRideRequests() throws SQLException {
+        return delegate.getAllRideRequests();
+    }
+
+    @Override
+    public List<Integer> importRideRequests(Iterator<RideRequest> requests) throws SQLException {
+        return delegate.importRideRequests(requests);
+    }
+
+    @Override
+    public Page<RideRequest> getRideRequestPage(ListingFilter filter, int afterId, int pageSize)
+            throws SQLException {
+        return delegate.getRideRequestPage(filter, afterId, pageSize);
+    }
+
+    @Override
+    public RideRequest getRideRequestById(int id) throws SQLException {
+        return delegate.getRideRequestById(id);
+    }
+
+    @Override
+    public List<RideRequest> getRideRequestsByDateAndStatus(LocalDate date, String status) throws SQLException {
+        return delegate.getRideRequestsByDateAndStatus(date, status);
+    }
+
+    @Override
+    public boolean addRideRequest(RideRequest request) throws SQLException {
+        return delegate.addRideRequest(request);
+    }
+
+    @Override
+    public boolean updateRideRequest(RideRequest request) throws SQLException {
+        return delegate.updateRideRequest(request);
+    }
+
+    @Override
+    public boolean updateRideStatus(int id, String status) throws SQLException {
+        return delegate.updateRideStatus(id, status);
+    }
+
+    @Override
+    public int updateRideStatuses(Map<Integer, String> statuses) throws SQLException {
+        return delegate.updateRideStatuses(statuses);
+    }
+
+    @Override
+    public List<Schedule> getAllSchedules() throws SQLException {
+        return delegate.getAllSchedules();
+    }
+
+    @Override
+    public Page<Schedule> getSchedulePage(ListingFilter filter, int afterId, int pageSize) throws SQLException {
+        return delegate.getSchedulePage(filter, afterId, pageSize);
+    }
+
+    @Override
+    public boolean addSchedule(Schedule schedule) throws SQLException {
+        return delegate.addSchedule(schedule);
+    }
+
+    @Override
+    public List<Integer> addSchedules(List<Schedule> schedules) throws SQLException {
+        return delegate.addSchedules(schedules);
+    }
+
+    @Override
+    public boolean commitSchedules(List<Schedule> schedules) throws SQLException {
+        return delegate.commitSchedules(schedules);
+    }
+
+    @Override
+    public boolean reserveSchedules(List<Schedule> schedules, int bufferMinutes) throws SQLException {
+        return delegate.reserveSchedules(schedules, bufferMinutes);
+    }
+
+    @Override
+    public int releaseSchedules(List<Schedule> schedules) throws SQLException {
+        return delegate.releaseSchedules(schedules);
+    }
+
+    @Override
+    public boolean updateSchedule(Schedule schedule) throws SQLException {
+        return delegate.updateSchedule(schedule);
+    }
+
+    @Override
+    public boolean deleteSchedulesByDriverId(int driverId) throws SQLException {
+        return delegate.deleteSchedulesByDriverId(driverId);
+    }
+
+    @Override
+    public List<Schedule> getSchedulesByDate(LocalDate date) throws SQLException {
+        return delegate.getSchedulesByDate(date);
+    }
+
+    @Override
+    public void forEachScheduleByDate(LocalDate date, Consumer<Schedule> action) throws SQLException {
+        delegate.forEachScheduleByDate(date, action);
+    }
+
+    @Override
+    public RideSummary getRideSummary(LocalDate startDate, LocalDate endDate) throws SQLException {
+        return delegate.getRideSummary(startDate, endDate);
+    }
+
+    @Override
+    public List<Schedule> getSchedulesByDriverId(int driverId) throws SQLException {
+        return delegate.getSchedulesByDriverId(driverId);
+    }
+
+    @Override
+    public List<Schedule> getSchedulesByDriverId(int driverId, LocalDate fromDate) throws SQLException {
+        return delegate.getSchedulesByDriverId(driverId, fromDate);
+    }
+
+    @Override
+    public List<Schedule> getSchedulesByDateRange(LocalDate startDate, LocalDate endDate) throws SQLException {
+        return delegate.getSchedulesByDateRange(startDate, endDate);
+    }
+
+    private static Driver copy(Driver driver) {
+        Driver copy = new Driver();
+        copy.setDriverID(driver.getDriverID());
+        copy.setName(driver.getName());
+        copy.setPhoneNumber(driver.getPhoneNumber());
+        copy.setLicenseNumber(driver.getLicenseNumber());
+        copy.setAvailable(driver.isAvailable());
+        return copy;
+    }
+
+    private static Vehicle copy(Vehicle vehicle) {
+        Vehicle copy = new Vehicle();
+        copy.setVehicleID(vehicle.getVehicleID());
+        copy.setLicensePlate(vehicle.getLicensePlate());
+        copy.setCapacity(vehicle.getCapacity());
+        copy.setWheelchairAccessible(vehicle.isWheelchairAccessible());
+        copy.setCurrentLocation(vehicle.getCurrentLocation());
+        copy.setMaintenanceDueDate(vehicle.getMaintenanceDueDate());
+        return copy;
+    }
+
+    /**
+     * Bounded, expiring cache of one kind of reference data: single records by ID,
+     * plus the full list as one entry.
+     * <p>
+     * Loads run without holding the lock. Every invalidation bumps a generation
+     * number, and a load started before an invalidation is not stored, so a slow
+     * read can never put back data that was just changed.
+     */
+    private class ReferenceCache<V> {
+        private final int maxEntries;
+        private final long ttlNanos;
+        private final LongSupplier nanoClock;
+        private final ToIntFunction<V> idOf;
+        private final UnaryOperator<V> copier;
+
+        // Access-ordered so the eldest entry is always the least recently used one
+        private final LinkedHashMap<Integer, Entry<V>> byId = new LinkedHashMap<>(16, 0.75f, true);
+        private Entry<List<V>> all = null;
+        private long generation = 0;
+
+        ReferenceCache(int maxEntries, long ttlNanos, LongSupplier nanoClock,
+                       ToIntFunction<V> idOf, UnaryOperator<V> copier) {
+            this.maxEntries = maxEntries;
+            this.ttlNanos = ttlNanos;
+            this.nanoClock = nanoClock;
+            this.idOf = idOf;
+            this.copier = copier;
+        }
+
+        synchronized long getGeneration() {
+            return generation;
+        }
+
+        synchronized V get(int id) {
+            Entry<V> entry = byId.get(id);
+            if (entry != null && isExpired(entry)) {
+                byId.remove(id);
+                counters.evictions.incrementAndGet();
+                entry = null;
+            }
+
+            if (entry == null) {
+                counters.misses.incrementAndGet();
+                return null;
+            }
+            counters.hits.incrementAndGet();
+            return copier.apply(entry.value);
+        }
+
+        synchronized List<V> getAll() {
+            if (all != null && isExpired(all)) {
+                all = null;
+                counters.evictions.incrementAndGet();
+            }
+
+            if (all == null) {
+                counters.misses.incrementAndGet();
+                return null;
+            }
+            counters.hits.incrementAndGet();
+            return copyList(all.value);
+        }
+
+        synchronized void put(V value, long loadedGeneration) {
+            if (loadedGeneration == generation) {
+                store(value, nanoClock.getAsLong());
+                evictIfFull();
+            }
+        }
+
+        synchronized void putAll(List<V> values, long loadedGeneration) {
+            if (loadedGeneration != generation) {
+                return;
+            }
+
+            long now = nanoClock.getAsLong();
+            all = new Entry<>(copyList(values), now);
+            // The list also answers the lookups by ID that usually follow it
+            for (V value : values) {
+                store(value, now);
+            }
+            evictIfFull();
+        }
+
+        synchronized void invalidate(int id) {
+            byId.remove(id);
+            all = null;
+            generation++;
+            counters.invalidations.incrementAndGet();
+        }
+
+        synchronized void invalidateAll() {
+            byId.clear();
+            all = null;
+            generation++;
+            counters.invalidations.incrementAndGet();
+        }
+
+        private void store(V value, long now) {
+            byId.put(idOf.applyAsInt(value), new Entry<>(copier.apply(value), now));
+        }
+
+        private void evictIfFull() {
+            Iterator<Entry<V>> eldest = byId.values().iterator();
+            while (byId.size() > maxEntries) {
+                eldest.next();
+                eldest.remove();
+                counters.evictions.incrementAndGet();
+            }
+        }
+
+        private boolean isExpired(Entry<?> entry) {
+            return nanoClock.getAsLong() - entry.loadedAt >= ttlNanos;
+        }
+
+        private List<V> copyList(List<V> values) {
+            List<V> copies = new ArrayList<>(values.size());
+            for (V value : values) {
+                copies.add(copier.apply(value));
+            }
+            return copies;
+        }
+    }
+
+    /**
+     * A cached value and when it was loaded.
+     */
+    private static class Entry<V> {
+        private final V value;
+        private final long loadedAt;
+
+        Entry(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
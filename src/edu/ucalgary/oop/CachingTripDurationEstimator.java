@@ -0,0 +1,95 @@
+package edu.ucalgary.oop;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CachingTripDurationEstimator remembers the estimates of another estimator, so
+ * the pickup and drop-off pairs that come up again and again, such as a client's
+ * regular trip to a day program, are only estimated once.
+ * <p>
+ * At most a fixed number of pairs is kept; the least recently used pair is dropped
+ * first. The wrapped estimator must give the same answer for the same pair every time.
+ *
+ * @author Group 16
+ * @version 1.0
+ * @since 1.3
+ */
+
+public class CachingTripDurationEstimator implements TripDurationEstimator {
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    private final TripDurationEstimator delegate;
+    private final Map<String, Integer> estimates;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Constructs a cache of DEFAULT_MAX_ENTRIES pairs.
+     *
+     * @param delegate the estimator whose estimates are cached
+     */
+    public CachingTripDurationEstimator(TripDurationEstimator delegate) {
+        this(delegate, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Constructs a cache.
+     *
+     * @param delegate the estimator whose estimates are cached
+     * @param maxEntries the maximum number of pairs kept
+     * @throws IllegalArgumentException if maxEntries is less than 1
+     */
+    public CachingTripDurationEstimator(TripDurationEstimator delegate, int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Invalid cache size: " + maxEntries);
+        }
+        this.delegate = delegate;
+        // Access-ordered so the least recently used pair is evicted first
+        this.estimates = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public int estimateMinutes(String pickupLocation, String dropOffLocation) {
+        String key = pickupLocation + '\n' + dropOffLocation;
+        synchronized (estimates) {
+            Integer minutes = estimates.get(key);
+            if (minutes != null) {
+                hits.incrementAndGet();
+                return minutes;
+            }
+        }
+
+        // Estimated outside the lock; two threads may both estimate a new pair once
+        misses.incrementAndGet();
+        int minutes = delegate.estimateMinutes(pickupLocation, dropOffLocation);
+        synchronized (estimates) {
+            estimates.put(key, minutes);
+        }
+        return minutes;
+    }
+
+    /**
+     * Gets the number of estimates answered from the cache.
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of estimates passed on to the wrapped estimator.
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+}
@@ -6,7 +6,14 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
 import java.sql.SQLException;
+import java.util.function.Consumer;
 
 /**
  * The CommandLineUI class implements the UserInterface interface to provide
@@ -16,13 +23,14 @@ import java.sql.SQLException;
  * output messages.
  *
  * @author Group 16
- * @version 1.7
+ * @version 1.8
  * @since 1.0
  */
 
 public class CommandLineUI implements UserInterface {
     private Scanner scanner;
     private TransportationController controller;
+    private int pageSize;
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
@@ -34,8 +42,20 @@ public class CommandLineUI implements UserInterface {
      */
 
     public CommandLineUI(TransportationController controller) {
+        this(controller, TransportationController.DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Constructs a new CommandLineUI that lists ride requests and schedules
+     * a given number of entries at a time.
+     * @param controller the TransportationController that will process user requests
+     * @param pageSize the number of entries shown per page
+     */
+
+    public CommandLineUI(TransportationController controller, int pageSize) {
         this.scanner = new Scanner(System.in);
         this.controller = controller;
+        this.pageSize = pageSize;
     }
 
     /**
@@ -101,8 +121,10 @@ public class CommandLineUI implements UserInterface {
             showMessage("3. Modify Ride Request");
             showMessage("4. Cancel Ride Request");
             showMessage("5. Complete Ride Request");
-            showMessage("6. Back to Main Menu");
-            showMessage("Enter your choice (1-6): ");
+            showMessage("6. Search Ride Requests");
+            showMessage("7. Import Ride Requests from CSV");
+            showMessage("8. Back to Main Menu");
+            showMessage("Enter your choice (1-8): ");
 
             String choice = getInput();
 
@@ -123,42 +145,92 @@ public class CommandLineUI implements UserInterface {
                     completeRideRequest();
                     break;
                 case "6":
+                    searchRideRequests();
+                    break;
+                case "7":
+                    importRideRequests();
+                    break;
+                case "8":
                     back = true;
                     break;
                 default:
-                    showError("Invalid choice. Please enter a number between 1 and 6.");
+                    showError("Invalid choice. Please enter a number between 1 and 8.");
             }
         }
     }
 
     /**
-     * Displays all ride requests in the system.
+     * Displays all ride requests in the system, one page at a time.
      * @throws SQLException if a database error occurs
      */
     private void viewAllRideRequests() throws SQLException {
         showMessage("\n--- All Ride Requests ---");
-        List<RideRequest> requests = controller.viewAllRideRequests();
+        showPages((afterId, size) -> controller.viewRideRequests(null, afterId, size),
+                this::showRideRequest, "No ride requests found.");
+    }
+
+    /**
+     * Asks for search criteria and displays the matching ride requests, one page at a time.
+     * @throws SQLException if a database error occurs
+     */
+    private void searchRideRequests() throws SQLException {
+        showMessage("\n--- Search Ride Requests ---");
+        ListingFilter filter = getFilterInput();
+        showPages((afterId, size) -> controller.viewRideRequests(filter, afterId, size),
+                this::showRideRequest, "No matching ride requests found.");
+    }
 
-        if (requests.isEmpty()) {
-            showMessage("No ride requests found.");
+    /**
+     * Imports ride requests from a CSV file and reports the rows that were rejected.
+     * @throws SQLException if a database error occurs
+     */
+    private void importRideRequests() throws SQLException {
+        showMessage("\n--- Import Ride Requests from CSV ---");
+        showMessage("Columns: ClientName, PickupLocation, DropoffLocation, PassengerCount, "
+                + "SpecialRequirements, RequestDate (YYYY-MM-DD), PickupTime (HH:MM)");
+        showMessage("Enter the path of the CSV file: ");
+        String path = getInput().trim();
+
+        RideRequestImporter.Result result;
+        try (Reader csv = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            result = controller.importRideRequests(csv);
+        } catch (IOException | InvalidPathException e) {
+            showError("Could not read " + path + ": " + e.getMessage());
+            return;
+        } catch (IllegalArgumentException e) {
+            showError(e.getMessage());
             return;
         }
 
-        for (RideRequest request : requests) {
-            showMessage("\nRequest ID: " + request.getRequestID());
-            showMessage("Client: " + request.getClientName());
-            showMessage("Pickup: " + request.getPickUpLocation());
-            showMessage("Dropoff: " + request.getDropOffLocation());
-            showMessage("Passengers: " + request.getPassengerCount());
-            showMessage("Special Requirements: " +
-                    (request.getSpecialRequirements() != null ? request.getSpecialRequirements() : "None"));
-            showMessage("Date: " + request.getRequestDate().format(DATE_FORMATTER));
-            showMessage("Time: " + request.getPickupTime().format(TIME_FORMATTER));
-            showMessage("Status: " + request.getStatus());
-            showMessage("------------------------");
+        showMessage("Imported " + result.getImportedIds().size() + " ride requests, "
+                + result.getRejectCount() + " rows rejected.");
+        showMessage(result.getScheduledCount() + " ride requests were scheduled.");
+        for (RideRequestImporter.Reject reject : result.getRejects()) {
+            showError("Line " + reject.getLineNumber() + ": " + reject.getReason());
+        }
+        if (result.getRejectCount() > result.getRejects().size()) {
+            showError("... and " + (result.getRejectCount() - result.getRejects().size()) + " more rejected rows.");
         }
     }
 
+    /**
+     * Displays the details of a ride request.
+     * @param request the ride request to display
+     */
+    private void showRideRequest(RideRequest request) {
+        showMessage("\nRequest ID: " + request.getRequestID());
+        showMessage("Client: " + request.getClientName());
+        showMessage("Pickup: " + request.getPickUpLocation());
+        showMessage("Dropoff: " + request.getDropOffLocation());
+        showMessage("Passengers: " + request.getPassengerCount());
+        showMessage("Special Requirements: " +
+                (request.getSpecialRequirements() != null ? request.getSpecialRequirements() : "None"));
+        showMessage("Date: " + request.getRequestDate().format(DATE_FORMATTER));
+        showMessage("Time: " + request.getPickupTime().format(TIME_FORMATTER));
+        showMessage("Status: " + request.getStatus());
+        showMessage("------------------------");
+    }
+
     /**
      * Collects user input to create and add a new ride request.
      * @throws SQLException if a database error occurs
@@ -463,8 +535,9 @@ public class CommandLineUI implements UserInterface {
             showMessage("\n----- Schedule Management -----");
             showMessage("1. View All Schedules");
             showMessage("2. Generate Daily Schedule");
-            showMessage("3. Back to Main Menu");
-            showMessage("Enter your choice (1-3): ");
+            showMessage("3. Search Schedules");
+            showMessage("4. Back to Main Menu");
+            showMessage("Enter your choice (1-4): ");
 
             String choice = getInput();
 
@@ -476,38 +549,53 @@ public class CommandLineUI implements UserInterface {
                     generateDailySchedule();
                     break;
                 case "3":
+                    searchSchedules();
+                    break;
+                case "4":
                     back = true;
                     break;
                 default:
-                    showError("Invalid choice. Please enter a number between 1 and 3.");
+                    showError("Invalid choice. Please enter a number between 1 and 4.");
             }
         }
     }
 
     /**
-     * Displays all schedules in the system.
+     * Displays all schedules in the system, one page at a time.
      * @throws SQLException if a database error occurs
      */
     private void viewAllSchedules() throws SQLException {
         showMessage("\n--- All Schedules ---");
-        List<Schedule> schedules = controller.viewAllSchedules();
+        showPages((afterId, size) -> controller.viewSchedules(null, afterId, size),
+                this::showSchedule, "No schedules found.");
+    }
 
-        if (schedules.isEmpty()) {
-            showMessage("No schedules found.");
-            return;
-        }
+    /**
+     * Asks for search criteria and displays the matching schedules, one page at a time.
+     * @throws SQLException if a database error occurs
+     */
+    private void searchSchedules() throws SQLException {
+        showMessage("\n--- Search Schedules ---");
+        ListingFilter filter = getFilterInput();
+        showPages((afterId, size) -> controller.viewSchedules(filter, afterId, size),
+                this::showSchedule, "No matching schedules found.");
+    }
 
-        for (Schedule schedule : schedules) {
-            showMessage("\nSchedule ID: " + schedule.getScheduleID());
-            showMessage("Date: " + schedule.getDate().format(DATE_FORMATTER));
-            showMessage("Time: " + schedule.getTime().format(TIME_FORMATTER));
-            showMessage("Driver: " + schedule.getDriver().getName() + " (ID: " + schedule.getDriver().getDriverID() + ")");
-            showMessage("Vehicle: " + schedule.getVehicle().getLicensePlate() + " (ID: " + schedule.getVehicle().getVehicleID() + ")");
-            showMessage("Client: " + schedule.getRideRequest().getClientName());
-            showMessage("Pickup: " + schedule.getRideRequest().getPickUpLocation());
-            showMessage("Dropoff: " + schedule.getRideRequest().getDropOffLocation());
-            showMessage("------------------------");
-        }
+    /**
+     * Displays the details of a schedule.
+     * @param schedule the schedule to display
+     */
+    private void showSchedule(Schedule schedule) {
+        showMessage("\nSchedule ID: " + schedule.getScheduleID());
+        showMessage("Date: " + schedule.getDate().format(DATE_FORMATTER));
+        showMessage("Time: " + schedule.getTime().format(TIME_FORMATTER) +
+                " to " + schedule.getEndTime().format(TIME_FORMATTER));
+        showMessage("Driver: " + schedule.getDriver().getName() + " (ID: " + schedule.getDriver().getDriverID() + ")");
+        showMessage("Vehicle: " + schedule.getVehicle().getLicensePlate() + " (ID: " + schedule.getVehicle().getVehicleID() + ")");
+        showMessage("Client: " + schedule.getRideRequest().getClientName());
+        showMessage("Pickup: " + schedule.getRideRequest().getPickUpLocation());
+        showMessage("Dropoff: " + schedule.getRideRequest().getDropOffLocation());
+        showMessage("------------------------");
     }
 
     /**
@@ -542,6 +630,75 @@ public class CommandLineUI implements UserInterface {
         }
     }
 
+    /**
+     * Displays a listing one page at a time. After each full page the user can
+     * press Enter to see the next one or type Q to stop.
+     * @param source fetches a page given the afterId and the page size
+     * @param display displays one entry
+     * @param emptyMessage the message shown if the listing is empty
+     * @throws SQLException if a database error occurs
+     */
+    private <T> void showPages(PageSource<T> source, Consumer<T> display, String emptyMessage)
+            throws SQLException {
+        int afterId = 0;
+        int shown = 0;
+
+        while (true) {
+            Page<T> page = source.fetch(afterId, pageSize);
+            for (T item : page.getItems()) {
+                display.accept(item);
+            }
+            shown += page.getItems().size();
+
+            if (!page.hasNext()) {
+                break;
+            }
+            showMessage("Showing " + shown + " so far. Press Enter for the next page, or type Q to stop: ");
+            if (getInput().trim().equalsIgnoreCase("q")) {
+                return;
+            }
+            afterId = page.getNextAfterId();
+        }
+
+        if (shown == 0) {
+            showMessage(emptyMessage);
+        }
+    }
+
+    /**
+     * Asks for the criteria of a search. Every criterion can be left blank to match anything.
+     * @return the filter holding the entered criteria
+     */
+    private ListingFilter getFilterInput() {
+        ListingFilter filter = new ListingFilter();
+
+        showMessage("Enter status (Pending, Scheduled, Completed, Cancelled) or leave blank for any: ");
+        String status = getInput().trim();
+        if (!status.isEmpty()) {
+            filter.setStatus(Character.toUpperCase(status.charAt(0)) + status.substring(1).toLowerCase());
+        }
+
+        filter.setFromDate(getOptionalDateInput("Enter first date (YYYY-MM-DD) or leave blank: "));
+        filter.setToDate(getOptionalDateInput("Enter last date (YYYY-MM-DD) or leave blank: "));
+
+        showMessage("Enter part of the client name or leave blank for any: ");
+        String client = getInput().trim();
+        if (!client.isEmpty()) {
+            filter.setClientName(client);
+        }
+
+        filter.setDriverId(getOptionalIntInput("Enter driver ID or leave blank for any: "));
+        return filter;
+    }
+
+    /**
+     * Fetches one page of a listing.
+     */
+    @FunctionalInterface
+    private interface PageSource<T> {
+        Page<T> fetch(int afterId, int pageSize) throws SQLException;
+    }
+
     /**
      * Gets input from the user via the console.
      * @return the user's input as a String
@@ -603,6 +760,48 @@ public class CommandLineUI implements UserInterface {
         }
     }
 
+    /**
+     * Helper method to get an optional integer input from the user with validation.
+     * Repeatedly prompts until a valid number or a blank line is entered.
+     * @param prompt the message to display to the user
+     * @return the validated integer input, or null if left blank
+     */
+    private Integer getOptionalIntInput(String prompt) {
+        while (true) {
+            showMessage(prompt);
+            String input = getInput().trim();
+            if (input.isEmpty()) {
+                return null;
+            }
+            try {
+                return Integer.parseInt(input);
+            } catch (NumberFormatException e) {
+                showError("Please enter a valid number.");
+            }
+        }
+    }
+
+    /**
+     * Helper method to get an optional date input from the user with validation.
+     * Repeatedly prompts until a valid date or a blank line is entered.
+     * @param prompt the message to display to the user
+     * @return the validated LocalDate input, or null if left blank
+     */
+    private LocalDate getOptionalDateInput(String prompt) {
+        while (true) {
+            showMessage(prompt);
+            String input = getInput().trim();
+            if (input.isEmpty()) {
+                return null;
+            }
+            try {
+                return LocalDate.parse(input, DATE_FORMATTER);
+            } catch (DateTimeParseException e) {
+                showError("Invalid date format. Please use YYYY-MM-DD.");
+            }
+        }
+    }
+
     /**
      * Helper method to get time input from the user with validation.
      * Repeatedly prompts until valid input is received.
@@ -0,0 +1,666 @@
+package edu.ucalgary.oop;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ConnectionPool is a bounded, thread-safe pool of JDBC connections.
+ * Callers borrow a connection with {@link #getConnection()} and hand it back by
+ * closing it, which lets several threads run database work in parallel while
+ * never opening more than the configured maximum number of connections.
+ * <p>
+ * Idle connections are validated before being lent out, connections idle for
+ * longer than the idle timeout are evicted down to the minimum size, and
+ * connections held longer than the leak threshold are reported with the current
+ * stack of the thread that borrowed them. Each physical connection can keep its
+ * prepared statements in a StatementCache.
+ *
+ * @author Group 16
+ * @version 1.2
+ * @since 1.1
+ */
+
+public class ConnectionPool implements AutoCloseable {
+
+    /**
+     * Opens new physical connections for the pool.
+     */
+    public interface ConnectionFactory {
+        Connection createConnection() throws SQLException;
+    }
+
+    // Seconds a validation query may take before a connection is considered broken
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    // Connections returned more recently than this are lent out without re-validation
+    private static final long VALIDATION_SKIP_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final ConnectionFactory factory;
+    private final int minSize;
+    private final int maxSize;
+
+    private volatile long maxWaitMillis = 30_000;
+    private volatile long idleTimeoutMillis = 600_000;
+    private volatile long leakThresholdMillis = 60_000;
+    private volatile int statementCacheSize = 0;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition connectionReturned = lock.newCondition();
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Map<PooledConnection, Boolean> borrowed = new IdentityHashMap<>();
+    private int totalConnections = 0;
+    private boolean closed = false;
+
+    // Null unless the pool was created with background housekeeping
+    private volatile ScheduledExecutorService housekeeper;
+
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final StatementCache.Counters statementCacheCounters = new StatementCache.Counters();
+
+    /**
+     * Constructs a pool that opens connections with the given factory, without
+     * background housekeeping. Use {@link #create(ConnectionFactory, int, int, long)}
+     * for a pool that evicts idle connections and reports leaks on its own.
+     *
+     * @param factory the factory used to open physical connections
+     * @param minSize the number of connections kept open even when idle
+     * @param maxSize the maximum number of connections open at the same time
+     * @throws IllegalArgumentException if the sizes are out of range
+     */
+    public ConnectionPool(ConnectionFactory factory, int minSize, int maxSize) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min " + minSize + ", max " + maxSize);
+        }
+
+        this.factory = factory;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Creates a pool that opens connections with the given factory and runs
+     * housekeeping (idle eviction, minimum size top-up and leak detection) in the background.
+     * Housekeeping is scheduled once the pool is fully constructed.
+     *
+     * @param factory the factory used to open physical connections
+     * @param minSize the number of connections kept open even when idle
+     * @param maxSize the maximum number of connections open at the same time
+     * @param housekeepingIntervalMillis how often housekeeping runs, or 0 to disable background housekeeping
+     * @return the new pool
+     * @throws IllegalArgumentException if the sizes are out of range
+     */
+    public static ConnectionPool create(ConnectionFactory factory, int minSize, int maxSize,
+                                        long housekeepingIntervalMillis) {
+        ConnectionPool pool = new ConnectionPool(factory, minSize, maxSize);
+        if (housekeepingIntervalMillis > 0) {
+            ScheduledExecutorService housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "connection-pool-housekeeper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            housekeeper.scheduleWithFixedDelay(pool::runHousekeeping, housekeepingIntervalMillis,
+                    housekeepingIntervalMillis, TimeUnit.MILLISECONDS);
+            pool.housekeeper = housekeeper;
+        }
+        return pool;
+    }
+
+    /**
+     * Borrows a connection from the pool, opening a new one if none is idle and the
+     * pool is below its maximum size. Otherwise waits up to the maximum wait time for
+     * another thread to return one. The connection goes back to the pool when closed.
+     *
+     * @return a validated connection that must be closed by the caller
+     * @throws SQLException if the pool is closed, the wait times out, or a connection cannot be opened
+     */
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+
+        while (true) {
+            PooledConnection candidate = null;
+            boolean create = false;
+
+            lock.lock();
+            try {
+                while (candidate == null && !create) {
+                    if (closed) {
+                        throw new SQLException("Connection pool is closed");
+                    }
+
+                    candidate = idle.pollFirst();
+                    if (candidate == null) {
+                        if (totalConnections < maxSize) {
+                            // Reserve the slot now, open the connection outside the lock
+                            totalConnections++;
+                            create = true;
+                        } else {
+                            long remaining = deadline - System.nanoTime();
+                            if (remaining <= 0) {
+                                timeoutCount.incrementAndGet();
+                                throw new SQLException("Timed out after " + maxWaitMillis +
+                                        " ms waiting for a database connection");
+                            }
+                            connectionReturned.awaitNanos(remaining);
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a database connection", e);
+            } finally {
+                lock.unlock();
+            }
+
+            if (create) {
+                try {
+                    candidate = newPooledConnection();
+                } catch (SQLException | RuntimeException e) {
+                    discard(null);
+                    throw e;
+                }
+            } else if (!isValid(candidate)) {
+                discard(candidate);
+                continue;
+            }
+
+            return lend(candidate, start);
+        }
+    }
+
+    /**
+     * Runs one housekeeping pass: closes connections idle longer than the idle timeout
+     * while the pool is above its minimum size, tops the pool back up to the minimum
+     * size, and reports connections borrowed for longer than the leak threshold.
+     */
+    void runHousekeeping() {
+        evictIdleConnections();
+        fillToMinimum();
+        detectLeaks();
+    }
+
+    /**
+     * Closes the pool. Idle connections are closed immediately and borrowed
+     * connections are closed as soon as they are returned.
+     */
+    @Override
+    public void close() {
+        List<PooledConnection> toClose;
+
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            totalConnections -= idle.size();
+            idle.clear();
+            connectionReturned.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        if (housekeeper != null) {
+            housekeeper.shutdownNow();
+        }
+
+        for (PooledConnection connection : toClose) {
+            closeQuietly(connection.raw);
+        }
+    }
+
+    /**
+     * Checks whether this pool has been closed.
+     *
+     * @return true if the pool is closed
+     */
+    public boolean isClosed() {
+        lock.lock();
+        try {
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //------------------------------------------------------------
+    // Configuration
+    //------------------------------------------------------------
+
+    /**
+     * Sets how long a borrower waits for a connection before giving up.
+     *
+     * @param maxWaitMillis the maximum wait in milliseconds
+     */
+    public void setMaxWaitMillis(long maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    /**
+     * Sets how long a connection may stay idle before it becomes eligible for eviction.
+     *
+     * @param idleTimeoutMillis the idle timeout in milliseconds
+     */
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    /**
+     * Sets how long a connection may stay borrowed before it is reported as a possible leak.
+     *
+     * @param leakThresholdMillis the leak threshold in milliseconds, or 0 to disable leak detection
+     */
+    public void setLeakThresholdMillis(long leakThresholdMillis) {
+        this.leakThresholdMillis = leakThresholdMillis;
+    }
+
+    /**
+     * Sets how many prepared statements each connection keeps cached. Applies to
+     * connections opened after the call.
+     *
+     * @param statementCacheSize the cache size per connection, or 0 to disable statement caching
+     */
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    //------------------------------------------------------------
+    // Metrics
+    //------------------------------------------------------------
+
+    /**
+     * Gets the number of connections currently open, idle or borrowed.
+     * @return the total connection count
+     */
+    public int getTotalCount() {
+        lock.lock();
+        try {
+            return totalConnections;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of connections currently sitting idle in the pool.
+     * @return the idle connection count
+     */
+    public int getIdleCount() {
+        lock.lock();
+        try {
+            return idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of connections currently borrowed.
+     * @return the active connection count
+     */
+    public int getActiveCount() {
+        lock.lock();
+        try {
+            return borrowed.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of successful borrows since the pool was created.
+     * @return the borrow count
+     */
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    /**
+     * Gets the average time borrowers waited for a connection.
+     * @return the average wait in milliseconds
+     */
+    public double getAverageWaitMillis() {
+        long borrows = borrowCount.get();
+        return borrows == 0 ? 0.0 : totalWaitNanos.get() / (double) borrows / 1_000_000.0;
+    }
+
+    /**
+     * Gets the longest time a borrower waited for a connection.
+     * @return the maximum wait in milliseconds
+     */
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * Gets the number of borrows that gave up after the maximum wait time.
+     * @return the timeout count
+     */
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    /**
+     * Gets the number of idle connections closed by eviction.
+     * @return the eviction count
+     */
+    public long getEvictedCount() {
+        return evictedCount.get();
+    }
+
+    /**
+     * Gets the number of borrowed connections reported as possible leaks.
+     * @return the leak count
+     */
+    public long getLeakCount() {
+        return leakCount.get();
+    }
+
+    /**
+     * Gets the prepared statement cache hit, miss and eviction counters of all connections.
+     * @return the statement cache counters
+     */
+    public StatementCache.Counters getStatementCacheCounters() {
+        return statementCacheCounters;
+    }
+
+    //------------------------------------------------------------
+    // Internals
+    //------------------------------------------------------------
+
+    /**
+     * Opens a physical connection and attaches a statement cache if caching is enabled.
+     */
+    private PooledConnection newPooledConnection() throws SQLException {
+        int cacheSize = statementCacheSize;
+        StatementCache cache = cacheSize > 0 ? new StatementCache(cacheSize, statementCacheCounters) : null;
+        return new PooledConnection(factory.createConnection(), cache);
+    }
+
+    /**
+     * Records a borrow and wraps the connection so that closing it returns it to the pool.
+     */
+    private Connection lend(PooledConnection connection, long waitStart) {
+        long waited = System.nanoTime() - waitStart;
+        borrowCount.incrementAndGet();
+        totalWaitNanos.addAndGet(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+        // Only the borrower is recorded here; its stack is taken if the connection is reported as leaked
+        connection.borrowedAt = System.nanoTime();
+        connection.leakReported = false;
+        connection.borrower = Thread.currentThread();
+
+        lock.lock();
+        try {
+            borrowed.put(connection, Boolean.TRUE);
+        } finally {
+            lock.unlock();
+        }
+
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new BorrowedConnectionHandler(connection));
+    }
+
+    /**
+     * Takes a connection back from a borrower and makes it available to the next one.
+     */
+    private void release(PooledConnection connection) {
+        boolean reusable;
+        try {
+            reusable = !connection.raw.isClosed();
+            if (reusable && !connection.raw.getAutoCommit()) {
+                // Never hand out a connection with a half-finished transaction
+                connection.raw.rollback();
+                connection.raw.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            reusable = false;
+        }
+
+        lock.lock();
+        try {
+            borrowed.remove(connection);
+            if (reusable && !closed) {
+                connection.lastReturned = System.nanoTime();
+                connection.borrower = null;
+                idle.addFirst(connection);
+                connectionReturned.signal();
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        discard(connection);
+    }
+
+    /**
+     * Closes a connection (if any) and frees its slot in the pool.
+     */
+    private void discard(PooledConnection connection) {
+        if (connection != null) {
+            closeQuietly(connection.raw);
+        }
+
+        lock.lock();
+        try {
+            totalConnections--;
+            connectionReturned.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks an idle connection before lending it out.
+     */
+    private boolean isValid(PooledConnection connection) {
+        if (System.nanoTime() - connection.lastReturned < VALIDATION_SKIP_NANOS) {
+            return true;
+        }
+
+        try {
+            return connection.raw.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void evictIdleConnections() {
+        List<PooledConnection> evicted = new ArrayList<>();
+        long now = System.nanoTime();
+        long idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+
+        lock.lock();
+        try {
+            // Oldest idle connections sit at the tail since returns are pushed to the head
+            Iterator<PooledConnection> oldestFirst = idle.descendingIterator();
+            while (oldestFirst.hasNext() && totalConnections > minSize) {
+                PooledConnection connection = oldestFirst.next();
+                if (now - connection.lastReturned >= idleTimeoutNanos) {
+                    oldestFirst.remove();
+                    totalConnections--;
+                    evicted.add(connection);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        for (PooledConnection connection : evicted) {
+            closeQuietly(connection.raw);
+            evictedCount.incrementAndGet();
+        }
+    }
+
+    private void fillToMinimum() {
+        while (true) {
+            lock.lock();
+            try {
+                if (closed || totalConnections >= minSize) {
+                    return;
+                }
+                totalConnections++;
+            } finally {
+                lock.unlock();
+            }
+
+            PooledConnection connection;
+            try {
+                connection = newPooledConnection();
+            } catch (SQLException | RuntimeException e) {
+                discard(null);
+                System.err.println("Connection pool could not open a connection: " + e.getMessage());
+                return;
+            }
+
+            lock.lock();
+            try {
+                if (!closed) {
+                    idle.addLast(connection);
+                    connectionReturned.signal();
+                    continue;
+                }
+            } finally {
+                lock.unlock();
+            }
+            discard(connection);
+            return;
+        }
+    }
+
+    private void detectLeaks() {
+        long threshold = leakThresholdMillis;
+        if (threshold <= 0) {
+            return;
+        }
+
+        List<PooledConnection> leaked = new ArrayList<>();
+        long now = System.nanoTime();
+
+        lock.lock();
+        try {
+            for (PooledConnection connection : borrowed.keySet()) {
+                if (!connection.leakReported &&
+                        now - connection.borrowedAt >= TimeUnit.MILLISECONDS.toNanos(threshold)) {
+                    connection.leakReported = true;
+                    leaked.add(connection);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        for (PooledConnection connection : leaked) {
+            leakCount.incrementAndGet();
+            Thread borrower = connection.borrower;
+            System.err.println("Possible connection leak: connection held for more than " + threshold +
+                    " ms by " + (borrower == null ? "an unknown thread" : borrower.getName()));
+            if (borrower != null && borrower.isAlive()) {
+                // Where the borrower is now, which is usually where it still holds the connection
+                for (StackTraceElement element : borrower.getStackTrace()) {
+                    System.err.println("\tat " + element);
+                }
+            }
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            // The connection is being thrown away, nothing more to do
+        }
+    }
+
+    /**
+     * Pool bookkeeping for one physical connection.
+     */
+    private static class PooledConnection {
+        private final Connection raw;
+        private final StatementCache statementCache;
+        private volatile long lastReturned;
+        private volatile long borrowedAt;
+        private volatile boolean leakReported;
+        private volatile Thread borrower;
+
+        PooledConnection(Connection raw, StatementCache statementCache) {
+            this.raw = raw;
+            this.statementCache = statementCache;
+            this.lastReturned = System.nanoTime();
+        }
+    }
+
+    /**
+     * Forwards calls to the pooled connection until the borrower closes it,
+     * at which point the connection is returned to the pool instead of being closed.
+     */
+    private class BorrowedConnectionHandler implements InvocationHandler {
+        private final PooledConnection connection;
+        private boolean returned = false;
+
+        BorrowedConnectionHandler(PooledConnection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public synchronized Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(connection);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || connection.raw.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + connection.raw;
+                default:
+                    break;
+            }
+
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+
+            if (connection.statementCache != null && method.getName().equals("prepareStatement")
+                    && args.length == 1) {
+                return connection.statementCache.prepare(connection.raw, (Connection) proxy, (String) args[0]);
+            }
+
+            try {
+                return method.invoke(connection.raw, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -1,25 +1,88 @@
 package edu.ucalgary.oop;
 
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.IOException;
+import java.io.StringReader;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 /**
  * DataAccessManager provides a centralized way to interact with the PostgreSQL
  * database for the Accessible Transportation system.
- * It supports operations for RideRequests, Vehicles, Drivers, and Schedules.
+ * It supports operations for RideRequests, Vehicles, Drivers, and Schedules,
+ * and is the PostgreSQL implementation of TransportationRepository.
  * @author Group 16
- * @version 1.0
+ * @version 1.6
  * @since 1.0
  */
-public class DataAccessManager {
+public class DataAccessManager implements TransportationRepository {
+
+    // Loads each schedule together with its driver, vehicle and ride request in one round trip.
+    // The selected column names are unique across the joined tables, so the regular row mappers apply.
+    private static final String SCHEDULE_SELECT = "SELECT s.ScheduleID, s.ScheduledDate, s.ScheduledTime, " +
+            "s.DurationMinutes, " +
+            "d.*, v.*, r.* FROM Schedules s " +
+            "JOIN Drivers d ON s.DriverID = d.DriverID " +
+            "JOIN Vehicles v ON s.VehicleID = v.VehicleID " +
+            "JOIN RideRequests r ON s.RequestID = r.RequestID";
+
+    // Matches a scheduled ride (aliases s and r) whose time range overlaps a window, including
+    // rides that only touch it. The range overlap can be answered from the GiST indexes on
+    // (DriverID, ScheduledPeriod) and (VehicleID, ScheduledPeriod).
+    // Parameters: window start, window end.
+    private static final String SCHEDULE_OVERLAP = "r.Status = 'Scheduled' " +
+            "AND s.ScheduledPeriod && TSRANGE(CAST(? AS TIMESTAMP), CAST(? AS TIMESTAMP), '[]')";
+
+    // The scheduler's hot queries, also checked by checkQueryPlans()
+    private static final String AVAILABLE_DRIVERS = "SELECT d.* FROM Drivers d WHERE d.IsAvailable = TRUE " +
+            "AND NOT EXISTS (SELECT 1 FROM Schedules s " +
+            "JOIN RideRequests r ON s.RequestID = r.RequestID " +
+            "WHERE s.DriverID = d.DriverID AND " + SCHEDULE_OVERLAP + ")";
+
+    private static final String AVAILABLE_VEHICLES = "SELECT v.* FROM Vehicles v WHERE " +
+            "v.Capacity >= ? AND v.IsWheelchairAccessible >= ? " +
+            "AND NOT EXISTS (SELECT 1 FROM Schedules s " +
+            "JOIN RideRequests r ON s.RequestID = r.RequestID " +
+            "WHERE s.VehicleID = v.VehicleID AND " + SCHEDULE_OVERLAP + ")";
+
+    private static final String REQUESTS_BY_DATE_AND_STATUS =
+            "SELECT * FROM RideRequests WHERE RequestDate = ? AND Status = ? ORDER BY PickupTime";
+
+    private static final String SCHEDULES_BY_DATE_RANGE = SCHEDULE_SELECT + " WHERE s.ScheduledDate BETWEEN ? AND ?";
 
-    private Connection dbConnection;
+    // Tables that grow with every ride, so a hot query must not read them from start to end
+    private static final String[] LARGE_TABLES = {"schedules", "riderequests"};
+
+    // Rows fetched per round trip when a query is streamed instead of loaded into a list
+    private static final int STREAM_FETCH_SIZE = 200;
+
+    // Ride requests sent per COPY during a bulk import
+    private static final int IMPORT_CHUNK_SIZE = 5000;
+
+    private static final String IMPORT_COPY = "COPY RideRequests (RequestID, ClientName, PickupLocation, " +
+            "DropoffLocation, PassengerCount, SpecialRequirements, RequestDate, PickupTime, Status) " +
+            "FROM STDIN WITH (FORMAT csv)";
+
+    // Addresses of loaded rows go through the registry, so rows repeating one share its String
+    private volatile LocationRegistry locations = new LocationRegistry();
 
     /**
-     * Constructs a DataAccessManager and establishes a connection to the database.
+     * Constructs a DataAccessManager and verifies that the database can be reached.
      *
      * @throws SQLException if a database access error occurs
      */
@@ -28,21 +91,58 @@ public class DataAccessManager {
     }
 
     /**
-     * Connects to the database using DatabaseConnector.
+     * Connects to the database using DatabaseConnector. A pooled connection is
+     * borrowed and returned straight away so that connection problems surface early.
      *
      * @throws SQLException if a database access error occurs
      */
     public void connect() throws SQLException {
-        this.dbConnection = DatabaseConnector.getConnection();
+        getConnection().close();
     }
 
     /**
-     * Disconnects from the database.
+     * Disconnects from the database. Connections are borrowed per operation and
+     * returned when it finishes, so there is nothing to release here; the shared
+     * pool is shut down with DatabaseConnector.closeConnection().
      *
      * @throws SQLException if a database access error occurs
      */
     public void disconnect() throws SQLException {
-        this.dbConnection = null;
+        // Nothing is held between operations
+    }
+
+    /**
+     * Borrows a connection from the shared pool for a single operation.
+     * Callers must close it to return it to the pool.
+     *
+     * @return a pooled database connection
+     * @throws SQLException if a database access error occurs
+     */
+    protected Connection getConnection() throws SQLException {
+        return DatabaseConnector.getConnection();
+    }
+
+    /**
+     * Gets the registry the addresses of loaded ride requests and vehicles are interned in.
+     *
+     * @return the location registry
+     */
+    public LocationRegistry getLocationRegistry() {
+        return locations;
+    }
+
+    /**
+     * Sets the registry the addresses of loaded ride requests and vehicles are interned in,
+     * such as one loaded with coordinates. Rows loaded earlier keep their strings.
+     *
+     * @param locations the location registry
+     * @throws IllegalArgumentException if locations is null
+     */
+    public void setLocationRegistry(LocationRegistry locations) {
+        if (locations == null) {
+            throw new IllegalArgumentException("Location registry is required");
+        }
+        this.locations = locations;
     }
 
     //------------------------------------------------------------
@@ -59,7 +159,8 @@ public class DataAccessManager {
         List<RideRequest> requests = new ArrayList<>();
         String query = "SELECT * FROM RideRequests";
 
-        try (Statement stmt = dbConnection.createStatement();
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(query)) {
 
             while (rs.next()) {
@@ -71,6 +172,43 @@ public class DataAccessManager {
         return requests;
     }
 
+    /**
+     * Retrieves one page of the ride requests matching a filter. The page is read by
+     * key from the RequestID primary key index rather than with an OFFSET, so later
+     * pages cost the same as the first.
+     *
+     * @param filter the criteria to match, or null to match every request
+     * @param afterId only requests with a greater ID are returned; 0 for the first page
+     * @param pageSize the maximum number of requests on the page
+     * @return the page of RideRequest objects
+     * @throws IllegalArgumentException if pageSize is less than 1
+     * @throws SQLException if a database access error occurs
+     */
+    public Page<RideRequest> getRideRequestPage(ListingFilter filter, int afterId, int pageSize)
+            throws SQLException {
+        checkPageSize(pageSize);
+        StringBuilder query = new StringBuilder("SELECT * FROM RideRequests r WHERE r.RequestID > ?");
+        List<Object> parameters = new ArrayList<>();
+        parameters.add(afterId);
+        appendFilter(query, parameters, filter, "r.RequestDate",
+                "EXISTS (SELECT 1 FROM Schedules s WHERE s.RequestID = r.RequestID AND s.DriverID = ?)");
+        query.append(" ORDER BY r.RequestID LIMIT ?");
+        // One extra row shows whether there is a next page
+        parameters.add(pageSize + 1);
+
+        List<RideRequest> fetched = new ArrayList<>();
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query.toString())) {
+            bindParameters(pstmt, parameters);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    fetched.add(mapResultSetToRideRequest(rs));
+                }
+            }
+        }
+        return Page.fromFetched(fetched, pageSize, afterId, RideRequest::getRequestID);
+    }
+
     /**
      * Retrieves a ride request by its ID.
      *
@@ -81,7 +219,8 @@ public class DataAccessManager {
     public RideRequest getRideRequestById(int id) throws SQLException {
         String query = "SELECT * FROM RideRequests WHERE RequestID = ?";
 
-        try (PreparedStatement pstmt = dbConnection.prepareStatement(query)) {
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setInt(1, id);
 
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -94,6 +233,33 @@ public class DataAccessManager {
         return null;
     }
 
+    /**
+     * Retrieves the ride requests for a date that have a given status,
+     * ordered by pickup time.
+     *
+     * @param date the request date
+     * @param status the status to match, such as "Pending"
+     * @return a list of RideRequest objects
+     * @throws SQLException if a database access error occurs
+     */
+    public List<RideRequest> getRideRequestsByDateAndStatus(LocalDate date, String status) throws SQLException {
+        List<RideRequest> requests = new ArrayList<>();
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(REQUESTS_BY_DATE_AND_STATUS)) {
+            pstmt.setDate(1, java.sql.Date.valueOf(date));
+            pstmt.setString(2, status);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    requests.add(mapResultSetToRideRequest(rs));
+                }
+            }
+        }
+
+        return requests;
+    }
+
     /**
      * Adds a new ride request to the database.
      *
@@ -106,7 +272,8 @@ public class DataAccessManager {
                 "PassengerCount, SpecialRequirements, RequestDate, PickupTime, Status) " +
                 "VALUES (?, ?, ?, ?, ?, ?, ?, ?) RETURNING RequestID";
 
-        try (PreparedStatement pstmt = dbConnection.prepareStatement(query)) {
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setString(1, request.getClientName());
             pstmt.setString(2, request.getPickUpLocation());
             pstmt.setString(3, request.getDropOffLocation());
@@ -138,6 +305,105 @@ public class DataAccessManager {
         return false;
     }
 
+    /**
+     * Adds ride requests in bulk with PostgreSQL COPY, in a single transaction.
+     * The requests are taken from the iterator IMPORT_CHUNK_SIZE at a time. For each chunk
+     * the IDs are drawn from the RequestID sequence first, so they are known without
+     * reading the rows back, and the chunk is then streamed to the server as CSV.
+     *
+     * @param requests the ride requests to add; their IDs are set once loaded
+     * @return the generated IDs, in the order of the requests
+     * @throws SQLException if a database access error occurs, after rolling the transaction back
+     */
+    public List<Integer> importRideRequests(Iterator<RideRequest> requests) throws SQLException {
+        List<Integer> requestIds = new ArrayList<>();
+        inTransaction(conn -> {
+            CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+            List<RideRequest> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+
+            while (requests.hasNext()) {
+                chunk.clear();
+                while (requests.hasNext() && chunk.size() < IMPORT_CHUNK_SIZE) {
+                    chunk.add(requests.next());
+                }
+
+                List<Integer> chunkIds = allocateRequestIds(conn, chunk.size());
+                StringBuilder csv = new StringBuilder(chunk.size() * 128);
+                for (int i = 0; i < chunk.size(); i++) {
+                    RideRequest request = chunk.get(i);
+                    request.setRequestID(chunkIds.get(i));
+                    appendCsvRow(csv, request);
+                }
+
+                try {
+                    copyManager.copyIn(IMPORT_COPY, new StringReader(csv.toString()));
+                } catch (IOException e) {
+                    throw new SQLException("Failed to stream ride requests to the database", e);
+                }
+                requestIds.addAll(chunkIds);
+            }
+            return true;
+        });
+        return requestIds;
+    }
+
+    /**
+     * Draws a number of new ride request IDs from the RequestID sequence.
+     *
+     * @param conn the connection of the import transaction
+     * @param count the number of IDs needed
+     * @return the IDs in ascending order
+     * @throws SQLException if a database access error occurs
+     */
+    private List<Integer> allocateRequestIds(Connection conn, int count) throws SQLException {
+        String query = "SELECT nextval(pg_get_serial_sequence('riderequests', 'requestid')) " +
+                "FROM generate_series(1, ?)";
+
+        List<Integer> ids = new ArrayList<>(count);
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setInt(1, count);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    /**
+     * Appends a ride request as a line in the CSV format COPY reads. Text is always
+     * quoted so an empty string stays distinct from NULL, which is an empty unquoted field.
+     */
+    private static void appendCsvRow(StringBuilder csv, RideRequest request) {
+        csv.append(request.getRequestID()).append(',');
+        appendCsvText(csv, request.getClientName());
+        csv.append(',');
+        appendCsvText(csv, request.getPickUpLocation());
+        csv.append(',');
+        appendCsvText(csv, request.getDropOffLocation());
+        csv.append(',').append(request.getPassengerCount()).append(',');
+        appendCsvText(csv, request.getSpecialRequirements());
+        csv.append(',');
+        if (request.getRequestDate() != null) {
+            csv.append(request.getRequestDate());
+        }
+        csv.append(',');
+        if (request.getPickupTime() != null) {
+            csv.append(request.getPickupTime());
+        }
+        csv.append(',');
+        appendCsvText(csv, request.getStatus());
+        csv.append('\n');
+    }
+
+    private static void appendCsvText(StringBuilder csv, String value) {
+        if (value != null) {
+            csv.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+    }
+
     /**
      * Updates an existing ride request in the database.
      *
@@ -151,7 +417,8 @@ public class DataAccessManager {
                 "RequestDate = ?, PickupTime = ?, Status = ? " +
                 "WHERE RequestID = ?";
 
-        try (PreparedStatement pstmt = dbConnection.prepareStatement(query)) {
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setString(1, request.getClientName());
             pstmt.setString(2, request.getPickUpLocation());
             pstmt.setString(3, request.getDropOffLocation());
@@ -187,9 +454,24 @@ public class DataAccessManager {
      * @throws SQLException if a database access error occurs
      */
     public boolean updateRideStatus(int id, String status) throws SQLException {
+        try (Connection conn = getConnection()) {
+            return updateRideStatus(conn, id, status);
+        }
+    }
+
+    /**
+     * Updates the status of a ride request using the given connection.
+     *
+     * @param conn the connection to run the update on
+     * @param id the ID of the ride request
+     * @param status the new status
+     * @return true if the update was successful, false otherwise
+     * @throws SQLException if a database access error occurs
+     */
+    private boolean updateRideStatus(Connection conn, int id, String status) throws SQLException {
         String query = "UPDATE RideRequests SET Status = ? WHERE RequestID = ?";
 
-        try (PreparedStatement pstmt = dbConnection.prepareStatement(query)) {
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setString(1, status);
             pstmt.setInt(2, id);
 
@@ -198,6 +480,48 @@ public class DataAccessManager {
         }
     }
 
+    /**
+     * Updates the status of several ride requests with one JDBC batch in a single transaction.
+     *
+     * @param statuses the new status of each ride request, keyed by request ID
+     * @return the number of ride requests updated
+     * @throws SQLException if a database access error occurs, after rolling the transaction back
+     */
+    public int updateRideStatuses(Map<Integer, String> statuses) throws SQLException {
+        int[] updated = {0};
+        inTransaction(conn -> {
+            updated[0] = updateRideStatuses(conn, statuses);
+            return true;
+        });
+        return updated[0];
+    }
+
+    /**
+     * Updates the status of several ride requests with one JDBC batch on the given connection.
+     *
+     * @param conn the connection to run the batch on
+     * @param statuses the new status of each ride request, keyed by request ID
+     * @return the number of ride requests updated
+     * @throws SQLException if a database access error occurs
+     */
+    private int updateRideStatuses(Connection conn, Map<Integer, String> statuses) throws SQLException {
+        if (statuses.isEmpty()) {
+            return 0;
+        }
+
+        String query = "UPDATE RideRequests SET Status = ? WHERE RequestID = ?";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            for (Map.Entry<Integer, String> entry : statuses.entrySet()) {
+                pstmt.setString(1, entry.getValue());
+                pstmt.setInt(2, entry.getKey());
+                pstmt.addBatch();
+            }
+
+            return countUpdatedRows(pstmt.executeBatch());
+        }
+    }
+
     /**
      * Converts the current row of a ResultSet into a RideRequest object.
      *
@@ -210,8 +534,8 @@ public class DataAccessManager {
 
         request.setRequestID(rs.getInt("RequestID"));
         request.setClientName(rs.getString("ClientName"));
-        request.setPickUpLocation(rs.getString("PickupLocation"));
-        request.setDropOffLocation(rs.getString("DropoffLocation"));
+        request.setPickUpLocation(locations.share(rs.getString("PickupLocation")));
+        request.setDropOffLocation(locations.share(rs.getString("DropoffLocation")));
         request.setPassengerCount(rs.getInt("PassengerCount"));
         request.setSpecialRequirements(rs.getString("SpecialRequirements"));
 
@@ -239,7 +563,8 @@ public class DataAccessManager {
         List<Vehicle> vehicles = new ArrayList<>();
         String query = "SELECT * FROM Vehicles";
 
-        try (Statement stmt = dbConnection.createStatement();
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(query)) {
 
             while (rs.next()) {
@@ -261,7 +586,8 @@ public class DataAccessManager {
     public Vehicle getVehicleById(int id) throws SQLException {
         String query = "SELECT * FROM Vehicles WHERE VehicleID = ?";
 
-        try (PreparedStatement pstmt = dbConnection.prepareStatement(query)) {
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setInt(1, id);
 
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -290,22 +616,16 @@ public class DataAccessManager {
                                               int passengerCount) throws SQLException {
         List<Vehicle> availableVehicles = new ArrayList<>();
 
-        // First get all vehicles that meet the basic requirements
-        String query = "SELECT * FROM Vehicles WHERE " +
-                "Capacity >= ? AND IsWheelchairAccessible >= ?";
-
-        try (PreparedStatement pstmt = dbConnection.prepareStatement(query)) {
+        // Vehicles that meet the basic requirements and have no scheduled ride overlapping the window
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(AVAILABLE_VEHICLES)) {
             pstmt.setInt(1, passengerCount);
             pstmt.setBoolean(2, needsWheelchair);
+            bindWindow(pstmt, 3, date, startTime, endTime);
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    Vehicle vehicle = mapResultSetToVehicle(rs);
-
-                    // Check if this vehicle is already scheduled during the requested time
-                    if (!isVehicleScheduled(vehicle.getVehicleID(), date, startTime, endTime)) {
-                        availableVehicles.add(vehicle);
-                    }
+                    availableVehicles.add(mapResultSetToVehicle(rs));
                 }
             }
         }
@@ -313,44 +633,6 @@ public class DataAccessManager {
         return availableVehicles;
     }
 
-    /**
-     * Checks whether a specific vehicle is already scheduled for a ride
-     * that overlaps with the given time window on a specific date.
-     *
-     * @param vehicleId the ID of the vehicle to check
-     * @param date the date to check for scheduling conflicts
-     * @param startTime the start of the time window
-     * @param endTime the end of the time window
-     * @return true if the vehicle is already scheduled during the time window; false otherwise
-     * @throws SQLException if a database access error occurs
-     */
-    private boolean isVehicleScheduled(int vehicleId, LocalDate date,
-                                       LocalTime startTime, LocalTime endTime) throws SQLException {
-        String query = "SELECT COUNT(*) FROM Schedules s " +
-                "JOIN RideRequests r ON s.RequestID = r.RequestID " +
-                "WHERE s.VehicleID = ? AND s.ScheduledDate = ? " +
-                "AND r.Status = 'Scheduled' " +
-                "AND ((s.ScheduledTime <= ? AND CAST(s.ScheduledTime AS TIME) + INTERVAL '30 minutes' >= ?) " +
-                "OR (s.ScheduledTime <= ? AND CAST(s.ScheduledTime AS TIME) + INTERVAL '30 minutes' >= ?))";
-
-        try (PreparedStatement pstmt = dbConnection.prepareStatement(query)) {
-            pstmt.setInt(1, vehicleId);
-            pstmt.setDate(2, java.sql.Date.valueOf(date));
-            pstmt.setTime(3, java.sql.Time.valueOf(endTime));
-            pstmt.setTime(4, java.sql.Time.valueOf(startTime));
-            pstmt.setTime(5, java.sql.Time.valueOf(startTime));
-            pstmt.setTime(6, java.sql.Time.valueOf(endTime));
-
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1) > 0;
-                }
-            }
-        }
-
-        return false;
-    }
-
     /**
      * Converts a SQL ResultSet row into a Vehicle object.
      *
@@ -365,7 +647,7 @@ public class DataAccessManager {
         vehicle.setLicensePlate(rs.getString("LicensePlate"));
         vehicle.setCapacity(rs.getInt("Capacity"));
         vehicle.setWheelchairAccessible(rs.getBoolean("IsWheelchairAccessible"));
-        vehicle.setCurrentLocation(rs.getString("CurrentLocation"));
+        vehicle.setCurrentLocation(locations.share(rs.getString("CurrentLocation")));
 
         java.sql.Date sqlDate = rs.getDate("MaintenanceDueDate");
         vehicle.setMaintenanceDueDate(sqlDate.toLocalDate());
@@ -386,7 +668,8 @@ public class DataAccessManager {
         List<Driver> drivers = new ArrayList<>();
         String query = "SELECT * FROM Drivers";
 
-        try (Statement stmt = dbConnection.createStatement();
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(query)) {
 
             while (rs.next()) {
@@ -408,7 +691,8 @@ public class DataAccessManager {
     public Driver getDriverById(int id) throws SQLException {
         String query = "SELECT * FROM Drivers WHERE DriverID = ?";
 
-        try (PreparedStatement pstmt = dbConnection.prepareStatement(query)) {
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setInt(1, id);
 
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -434,18 +718,14 @@ public class DataAccessManager {
                                             LocalTime endTime) throws SQLException {
         List<Driver> availableDrivers = new ArrayList<>();
 
-        // First get all drivers that are marked as available
-        String query = "SELECT * FROM Drivers WHERE IsAvailable = TRUE";
+        // Drivers marked as available with no scheduled ride overlapping the window
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(AVAILABLE_DRIVERS)) {
+            bindWindow(pstmt, 1, date, startTime, endTime);
 
-        try (PreparedStatement pstmt = dbConnection.prepareStatement(query)) {
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    Driver driver = mapResultSetToDriver(rs);
-
-                    // Check if this driver is already scheduled during the requested time
-                    if (!isDriverScheduled(driver.getDriverID(), date, startTime, endTime)) {
-                        availableDrivers.add(driver);
-                    }
+                    availableDrivers.add(mapResultSetToDriver(rs));
                 }
             }
         }
@@ -453,44 +733,6 @@ public class DataAccessManager {
         return availableDrivers;
     }
 
-    /**
-     * Checks whether a specific driver is already scheduled for a ride
-     * that overlaps with the specified time window on a given date.
-     *
-     * @param driverId the ID of the driver to check
-     * @param date the date for which to check the schedule
-     * @param startTime the start of the time window
-     * @param endTime the end of the time window
-     * @return true if the driver is scheduled during the specified time; false otherwise
-     * @throws SQLException if a database access error occurs
-     */
-    private boolean isDriverScheduled(int driverId, LocalDate date,
-                                      LocalTime startTime, LocalTime endTime) throws SQLException {
-        String query = "SELECT COUNT(*) FROM Schedules s " +
-                "JOIN RideRequests r ON s.RequestID = r.RequestID " +
-                "WHERE s.DriverID = ? AND s.ScheduledDate = ? " +
-                "AND r.Status = 'Scheduled' " +
-                "AND ((s.ScheduledTime <= ? AND CAST(s.ScheduledTime AS TIME) + INTERVAL '30 minutes' >= ?) " +
-                "OR (s.ScheduledTime <= ? AND CAST(s.ScheduledTime AS TIME) + INTERVAL '30 minutes' >= ?))";
-
-        try (PreparedStatement pstmt = dbConnection.prepareStatement(query)) {
-            pstmt.setInt(1, driverId);
-            pstmt.setDate(2, java.sql.Date.valueOf(date));
-            pstmt.setTime(3, java.sql.Time.valueOf(endTime));
-            pstmt.setTime(4, java.sql.Time.valueOf(startTime));
-            pstmt.setTime(5, java.sql.Time.valueOf(startTime));
-            pstmt.setTime(6, java.sql.Time.valueOf(endTime));
-
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1) > 0;
-                }
-            }
-        }
-
-        return false;
-    }
-
     /**
      * Updates a driver's availability in the database.
      *
@@ -502,7 +744,8 @@ public class DataAccessManager {
     public boolean updateDriverAvailability(int id, boolean isAvailable) throws SQLException {
         String query = "UPDATE Drivers SET IsAvailable = ? WHERE DriverID = ?";
 
-        try (PreparedStatement pstmt = dbConnection.prepareStatement(query)) {
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setBoolean(1, isAvailable);
             pstmt.setInt(2, id);
 
@@ -542,19 +785,129 @@ public class DataAccessManager {
      * @throws SQLException if a database access error occurs
      */
     public List<Schedule> getAllSchedules() throws SQLException {
-        List<Schedule> schedules = new ArrayList<>();
-        String query = "SELECT * FROM Schedules";
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SCHEDULE_SELECT)) {
+            return loadSchedules(pstmt);
+        }
+    }
 
-        try (Statement stmt = dbConnection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+    /**
+     * Retrieves one page of the schedules matching a filter, read by key from the
+     * ScheduleID primary key index.
+     *
+     * @param filter the criteria to match, or null to match every schedule
+     * @param afterId only schedules with a greater ID are returned; 0 for the first page
+     * @param pageSize the maximum number of schedules on the page
+     * @return the page of Schedule objects
+     * @throws IllegalArgumentException if pageSize is less than 1
+     * @throws SQLException if a database access error occurs
+     */
+    public Page<Schedule> getSchedulePage(ListingFilter filter, int afterId, int pageSize) throws SQLException {
+        checkPageSize(pageSize);
+        StringBuilder query = new StringBuilder(SCHEDULE_SELECT).append(" WHERE s.ScheduleID > ?");
+        List<Object> parameters = new ArrayList<>();
+        parameters.add(afterId);
+        appendFilter(query, parameters, filter, "s.ScheduledDate", "s.DriverID = ?");
+        query.append(" ORDER BY s.ScheduleID LIMIT ?");
+        parameters.add(pageSize + 1);
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query.toString())) {
+            bindParameters(pstmt, parameters);
+            return Page.fromFetched(loadSchedules(pstmt), pageSize, afterId, Schedule::getScheduleID);
+        }
+    }
 
-            while (rs.next()) {
-                Schedule schedule = mapResultSetToSchedule(rs);
-                schedules.add(schedule);
+    /**
+     * Appends the conditions of a listing filter to a query whose ride requests have
+     * the alias r, adding the values to bind in the same order.
+     *
+     * @param query the query, ending in a WHERE clause
+     * @param parameters the values bound so far
+     * @param filter the filter, or null for no conditions
+     * @param dateColumn the column the date range applies to
+     * @param driverCondition the condition matching the driver, with one parameter
+     */
+    private static void appendFilter(StringBuilder query, List<Object> parameters, ListingFilter filter,
+                                     String dateColumn, String driverCondition) {
+        if (filter == null) {
+            return;
+        }
+        if (filter.getStatus() != null) {
+            query.append(" AND r.Status = ?");
+            parameters.add(filter.getStatus());
+        }
+        if (filter.getFromDate() != null) {
+            query.append(" AND ").append(dateColumn).append(" >= ?");
+            parameters.add(filter.getFromDate());
+        }
+        if (filter.getToDate() != null) {
+            query.append(" AND ").append(dateColumn).append(" <= ?");
+            parameters.add(filter.getToDate());
+        }
+        if (filter.getClientName() != null) {
+            // Escape LIKE wildcards so the name is matched literally
+            query.append(" AND r.ClientName ILIKE ?");
+            parameters.add("%" + filter.getClientName().replaceAll("([\\\\%_])", "\\\\$1") + "%");
+        }
+        if (filter.getDriverId() != null) {
+            query.append(" AND ").append(driverCondition);
+            parameters.add(filter.getDriverId());
+        }
+    }
+
+    /**
+     * Binds integers, booleans, strings, dates, times and timestamps to the parameters of a statement in order.
+     *
+     * @param pstmt the statement to bind
+     * @param parameters the values to bind
+     * @throws SQLException if binding fails
+     */
+    private static void bindParameters(PreparedStatement pstmt, List<Object> parameters) throws SQLException {
+        for (int i = 0; i < parameters.size(); i++) {
+            Object value = parameters.get(i);
+            if (value instanceof Integer) {
+                pstmt.setInt(i + 1, (Integer) value);
+            } else if (value instanceof Boolean) {
+                pstmt.setBoolean(i + 1, (Boolean) value);
+            } else if (value instanceof LocalDate) {
+                pstmt.setDate(i + 1, java.sql.Date.valueOf((LocalDate) value));
+            } else if (value instanceof LocalTime) {
+                pstmt.setTime(i + 1, java.sql.Time.valueOf((LocalTime) value));
+            } else if (value instanceof LocalDateTime) {
+                pstmt.setTimestamp(i + 1, Timestamp.valueOf((LocalDateTime) value));
+            } else {
+                pstmt.setString(i + 1, (String) value);
             }
         }
+    }
 
-        return schedules;
+    /**
+     * Binds the start and end of a time window on a date to two consecutive parameters.
+     * A window whose end is before its start runs past midnight into the next day.
+     *
+     * @param pstmt the statement to bind
+     * @param index the parameter index of the window start
+     * @param date the date of the window
+     * @param startTime the start of the window
+     * @param endTime the end of the window
+     * @throws SQLException if binding fails
+     */
+    private static void bindWindow(PreparedStatement pstmt, int index, LocalDate date,
+                                   LocalTime startTime, LocalTime endTime) throws SQLException {
+        LocalDateTime start = date.atTime(startTime);
+        LocalDateTime end = date.atTime(endTime);
+        if (end.isBefore(start)) {
+            end = end.plusDays(1);
+        }
+        pstmt.setTimestamp(index, Timestamp.valueOf(start));
+        pstmt.setTimestamp(index + 1, Timestamp.valueOf(end));
+    }
+
+    private static void checkPageSize(int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Invalid page size: " + pageSize);
+        }
     }
 
     /**
@@ -565,26 +918,331 @@ public class DataAccessManager {
      * @throws SQLException if a database access error occurs
      */
     public boolean addSchedule(Schedule schedule) throws SQLException {
-        String query = "INSERT INTO Schedules (DriverID, VehicleID, RequestID, " +
-                "ScheduledDate, ScheduledTime) VALUES (?, ?, ?, ?, ?) RETURNING ScheduleID";
+        try (Connection conn = getConnection()) {
+            return addSchedule(conn, schedule);
+        }
+    }
 
-        try (PreparedStatement pstmt = dbConnection.prepareStatement(query)) {
-            pstmt.setInt(1, schedule.getDriver().getDriverID());
-            pstmt.setInt(2, schedule.getVehicle().getVehicleID());
-            pstmt.setInt(3, schedule.getRideRequest().getRequestID());
+    /**
+     * Adds several schedules with one JDBC batch in a single transaction.
+     *
+     * @param schedules the schedules to add; their IDs are set once saved
+     * @return the generated schedule IDs, in the order of the given schedules
+     * @throws SQLException if a database access error occurs, after rolling the transaction back
+     */
+    public List<Integer> addSchedules(List<Schedule> schedules) throws SQLException {
+        List<Integer> scheduleIds = new ArrayList<>();
+        inTransaction(conn -> {
+            scheduleIds.addAll(addSchedules(conn, schedules));
+            return true;
+        });
+        return scheduleIds;
+    }
 
-            if (schedule.getDate() != null) {
-                pstmt.setDate(4, java.sql.Date.valueOf(schedule.getDate()));
-            } else {
-                pstmt.setNull(4, java.sql.Types.DATE);
+    /**
+     * Saves a set of new schedules and marks their ride requests as "Scheduled"
+     * in a single transaction, so either every schedule is saved or none is.
+     * Both the inserts and the status updates are sent as JDBC batches.
+     *
+     * @param schedules the schedules to add; their IDs are set once saved
+     * @return true if all schedules were saved
+     * @throws SQLException if a database access error occurs, after rolling the transaction back
+     */
+    public boolean commitSchedules(List<Schedule> schedules) throws SQLException {
+        return inTransaction(conn -> {
+            Map<Integer, String> statuses = new HashMap<>();
+            for (Schedule schedule : schedules) {
+                statuses.put(schedule.getRideRequest().getRequestID(), "Scheduled");
             }
 
-            if (schedule.getTime() != null) {
-                pstmt.setTime(5, java.sql.Time.valueOf(schedule.getTime()));
-            } else {
-                pstmt.setNull(5, java.sql.Types.TIME);
+            return addSchedules(conn, schedules).size() == schedules.size() &&
+                    updateRideStatuses(conn, statuses) == statuses.size();
+        });
+    }
+
+    /**
+     * Removes a set of schedules and sets their ride requests back to "Pending" in a
+     * single transaction, freeing the driver and vehicle slots they held.
+     *
+     * @param schedules the schedules to remove
+     * @return the number of schedules removed
+     * @throws SQLException if a database access error occurs, after rolling the transaction back
+     */
+    public int releaseSchedules(List<Schedule> schedules) throws SQLException {
+        if (schedules.isEmpty()) {
+            return 0;
+        }
+
+        String query = "DELETE FROM Schedules WHERE ScheduleID = ?";
+        int[] removed = {0};
+
+        inTransaction(conn -> {
+            Map<Integer, String> statuses = new HashMap<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+                for (Schedule schedule : schedules) {
+                    pstmt.setInt(1, schedule.getScheduleID());
+                    pstmt.addBatch();
+                    statuses.put(schedule.getRideRequest().getRequestID(), "Pending");
+                }
+                removed[0] = countUpdatedRows(pstmt.executeBatch());
             }
 
+            updateRideStatuses(conn, statuses);
+            return true;
+        });
+
+        return removed[0];
+    }
+
+    /**
+     * Saves a set of new schedules and marks their ride requests as "Scheduled", but
+     * only if none of them conflicts with a ride saved in the meantime, so several
+     * dispatchers in this or other processes can schedule at the same time without
+     * double-booking a driver or vehicle.
+     * <p>
+     * The rows of the drivers and vehicles involved are locked in ID order first, so
+     * reservations of the same driver or vehicle run one after another while others
+     * run in parallel. Each driver must still be available and each vehicle must still
+     * exist. With the locks held, each new ride is checked against the scheduled rides
+     * of its driver and vehicle, and the saved status of each ride request must still
+     * be the status on the given request object. Saved rides of requests reserved
+     * again are replaced by the new ones.
+     *
+     * @param schedules the schedules to add; their IDs are set once saved
+     * @param bufferMinutes the free time required between a new ride's block
+     *                      and any other ride of the same driver or vehicle
+     * @return true if every schedule was saved, false if one conflicted and nothing was saved
+     * @throws SQLException if a database access error occurs, after rolling the transaction back
+     */
+    public boolean reserveSchedules(List<Schedule> schedules, int bufferMinutes) throws SQLException {
+        if (schedules.isEmpty()) {
+            return true;
+        }
+
+        Set<Integer> driverIds = new TreeSet<>();
+        Set<Integer> vehicleIds = new TreeSet<>();
+        for (Schedule schedule : schedules) {
+            driverIds.add(schedule.getDriver().getDriverID());
+            vehicleIds.add(schedule.getVehicle().getVehicleID());
+        }
+
+        return inTransaction(conn -> {
+            // Drivers before vehicles and in ID order everywhere, so two reservations cannot deadlock.
+            // A driver made unavailable or a vehicle deleted since planning is not locked, and fails the reservation.
+            if (lockRows(conn, "Drivers", "DriverID", "IsAvailable = TRUE", driverIds) != driverIds.size() ||
+                    lockRows(conn, "Vehicles", "VehicleID", "TRUE", vehicleIds) != vehicleIds.size()) {
+                return false;
+            }
+
+            if (hasReservationConflict(conn, schedules, driverIds, vehicleIds, bufferMinutes) ||
+                    claimRideRequests(conn, schedules) != schedules.size()) {
+                return false;
+            }
+
+            // A request reserved again replaces its previous rides rather than adding to them
+            deleteSchedulesOfRequests(conn, schedules);
+            return addSchedules(conn, schedules).size() == schedules.size();
+        });
+    }
+
+    /**
+     * Deletes the saved schedules of the ride requests of new schedules.
+     *
+     * @return the number of schedules deleted
+     * @throws SQLException if a database access error occurs
+     */
+    private int deleteSchedulesOfRequests(Connection conn, List<Schedule> schedules) throws SQLException {
+        String query = "DELETE FROM Schedules WHERE RequestID = ANY(?)";
+
+        Set<Integer> requestIds = new TreeSet<>();
+        for (Schedule schedule : schedules) {
+            requestIds.add(schedule.getRideRequest().getRequestID());
+        }
+
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setArray(1, conn.createArrayOf("integer", requestIds.toArray()));
+            return pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Locks the rows with the given IDs that meet a condition, in ID order, until the
+     * transaction ends. The locking SELECT runs as a subquery of a single count, so the
+     * server locks every row before answering with one row.
+     *
+     * @param conn the connection of the transaction
+     * @param table the table holding the rows
+     * @param idColumn the ID column of the table
+     * @param condition an SQL condition the rows must meet to be locked
+     * @param ids the IDs to lock
+     * @return the number of rows locked, less than the number of IDs if some are missing
+     *         or do not meet the condition
+     * @throws SQLException if a database access error occurs
+     */
+    private int lockRows(Connection conn, String table, String idColumn, String condition, Set<Integer> ids)
+            throws SQLException {
+        String query = "SELECT COUNT(*) FROM (SELECT " + idColumn + " FROM " + table +
+                " WHERE " + idColumn + " = ANY(?) AND " + condition + " ORDER BY " + idColumn + " FOR UPDATE) locked";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setArray(1, conn.createArrayOf("integer", ids.toArray()));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Checks new schedules against the scheduled rides of their drivers and vehicles,
+     * and against each other. Rides whose requests are being reserved again are skipped,
+     * since those requests are about to be placed anew.
+     *
+     * @return true if any new ride comes within the buffer of another ride of its driver or vehicle
+     * @throws SQLException if a database access error occurs
+     */
+    private boolean hasReservationConflict(Connection conn, List<Schedule> schedules, Set<Integer> driverIds,
+                                           Set<Integer> vehicleIds, int bufferMinutes) throws SQLException {
+        // Only rides overlapping the new rides' blocks widened by the buffer can conflict
+        String query = "SELECT s.RequestID, s.DriverID, s.VehicleID, s.ScheduledDate, s.ScheduledTime, " +
+                "s.DurationMinutes " +
+                "FROM Schedules s JOIN RideRequests r ON s.RequestID = r.RequestID " +
+                "WHERE (s.DriverID = ANY(?) OR s.VehicleID = ANY(?)) AND " + SCHEDULE_OVERLAP;
+
+        Set<Integer> requestIds = new HashSet<>();
+        LocalDateTime earliest = null;
+        LocalDateTime latest = null;
+        for (Schedule schedule : schedules) {
+            requestIds.add(schedule.getRideRequest().getRequestID());
+            LocalDateTime start = schedule.getDate().atTime(schedule.getTime());
+            LocalDateTime end = start.plusMinutes(schedule.getDurationMinutes());
+            if (earliest == null || start.isBefore(earliest)) {
+                earliest = start;
+            }
+            if (latest == null || end.isAfter(latest)) {
+                latest = end;
+            }
+        }
+
+        // Existing rides as {driver, vehicle, start and end in minutes since the epoch}
+        List<long[]> booked = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setArray(1, conn.createArrayOf("integer", driverIds.toArray()));
+            pstmt.setArray(2, conn.createArrayOf("integer", vehicleIds.toArray()));
+            pstmt.setTimestamp(3, Timestamp.valueOf(earliest.minusMinutes(bufferMinutes)));
+            pstmt.setTimestamp(4, Timestamp.valueOf(latest.plusMinutes(bufferMinutes)));
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    if (!requestIds.contains(rs.getInt("RequestID"))) {
+                        long start = epochMinute(rs.getDate("ScheduledDate").toLocalDate(),
+                                rs.getTime("ScheduledTime").toLocalTime());
+                        booked.add(new long[]{rs.getInt("DriverID"), rs.getInt("VehicleID"),
+                                start, start + rs.getInt("DurationMinutes")});
+                    }
+                }
+            }
+        }
+
+        // Two blocks of the same driver or vehicle must be more than the buffer apart
+        for (Schedule schedule : schedules) {
+            long start = epochMinute(schedule.getDate(), schedule.getTime());
+            long[] ride = {schedule.getDriver().getDriverID(), schedule.getVehicle().getVehicleID(),
+                    start, start + schedule.getDurationMinutes()};
+            for (long[] other : booked) {
+                if ((other[0] == ride[0] || other[1] == ride[1]) &&
+                        other[2] <= ride[3] + bufferMinutes && ride[2] <= other[3] + bufferMinutes) {
+                    return true;
+                }
+            }
+            booked.add(ride);
+        }
+        return false;
+    }
+
+    private static long epochMinute(LocalDate date, LocalTime time) {
+        return date.toEpochDay() * 24 * 60 + time.toSecondOfDay() / 60;
+    }
+
+    /**
+     * Marks the ride requests of new schedules as "Scheduled", each only if its saved
+     * status is still the status on the request object. Requests are updated in ID
+     * order so concurrent reservations lock them in the same order.
+     *
+     * @return the number of ride requests claimed
+     * @throws SQLException if a database access error occurs
+     */
+    private int claimRideRequests(Connection conn, List<Schedule> schedules) throws SQLException {
+        String query = "UPDATE RideRequests SET Status = 'Scheduled' " +
+                "WHERE RequestID = ? AND Status IS NOT DISTINCT FROM ?";
+
+        List<RideRequest> requests = new ArrayList<>();
+        for (Schedule schedule : schedules) {
+            requests.add(schedule.getRideRequest());
+        }
+        requests.sort(Comparator.comparingInt(RideRequest::getRequestID));
+
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            for (RideRequest request : requests) {
+                pstmt.setInt(1, request.getRequestID());
+                pstmt.setString(2, request.getStatus());
+                pstmt.addBatch();
+            }
+            return countUpdatedRows(pstmt.executeBatch());
+        }
+    }
+
+    /**
+     * Adds several schedules with one JDBC batch on the given connection.
+     *
+     * @param conn the connection to run the batch on
+     * @param schedules the schedules to add; their IDs are set once saved
+     * @return the generated schedule IDs, in the order of the given schedules
+     * @throws SQLException if a database access error occurs
+     */
+    private List<Integer> addSchedules(Connection conn, List<Schedule> schedules) throws SQLException {
+        List<Integer> scheduleIds = new ArrayList<>();
+        if (schedules.isEmpty()) {
+            return scheduleIds;
+        }
+
+        String query = "INSERT INTO Schedules (DriverID, VehicleID, RequestID, " +
+                "ScheduledDate, ScheduledTime, DurationMinutes) VALUES (?, ?, ?, ?, ?, ?)";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+            for (Schedule schedule : schedules) {
+                bindSchedule(pstmt, schedule);
+                pstmt.addBatch();
+            }
+
+            pstmt.executeBatch();
+
+            try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                int index = 0;
+                while (rs.next() && index < schedules.size()) {
+                    int scheduleId = rs.getInt("ScheduleID");
+                    schedules.get(index++).setScheduleID(scheduleId);
+                    scheduleIds.add(scheduleId);
+                }
+            }
+        }
+
+        return scheduleIds;
+    }
+
+    /**
+     * Adds a new schedule entry to the database using the given connection.
+     *
+     * @param conn the connection to run the insert on
+     * @param schedule the Schedule to add
+     * @return true if the schedule was added successfully
+     * @throws SQLException if a database access error occurs
+     */
+    private boolean addSchedule(Connection conn, Schedule schedule) throws SQLException {
+        String query = "INSERT INTO Schedules (DriverID, VehicleID, RequestID, " +
+                "ScheduledDate, ScheduledTime, DurationMinutes) VALUES (?, ?, ?, ?, ?, ?) RETURNING ScheduleID";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            bindSchedule(pstmt, schedule);
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
@@ -597,6 +1255,34 @@ public class DataAccessManager {
         return false;
     }
 
+    /**
+     * Binds the driver, vehicle, request, date and time of a schedule to the
+     * first five parameters of an insert statement.
+     *
+     * @param pstmt the statement to bind
+     * @param schedule the schedule to read the values from
+     * @throws SQLException if a parameter cannot be set
+     */
+    private void bindSchedule(PreparedStatement pstmt, Schedule schedule) throws SQLException {
+        pstmt.setInt(1, schedule.getDriver().getDriverID());
+        pstmt.setInt(2, schedule.getVehicle().getVehicleID());
+        pstmt.setInt(3, schedule.getRideRequest().getRequestID());
+
+        if (schedule.getDate() != null) {
+            pstmt.setDate(4, java.sql.Date.valueOf(schedule.getDate()));
+        } else {
+            pstmt.setNull(4, java.sql.Types.DATE);
+        }
+
+        if (schedule.getTime() != null) {
+            pstmt.setTime(5, java.sql.Time.valueOf(schedule.getTime()));
+        } else {
+            pstmt.setNull(5, java.sql.Types.TIME);
+        }
+
+        pstmt.setInt(6, schedule.getDurationMinutes());
+    }
+
     /**
      * Updates an existing schedule in the database.
      *
@@ -606,15 +1292,17 @@ public class DataAccessManager {
      */
     public boolean updateSchedule(Schedule schedule) throws SQLException {
         String query = "UPDATE Schedules SET DriverID = ?, VehicleID = ?, RequestID = ?, " +
-                "ScheduledDate = ?, ScheduledTime = ? WHERE ScheduleID = ?";
+                "ScheduledDate = ?, ScheduledTime = ?, DurationMinutes = ? WHERE ScheduleID = ?";
 
-        try (PreparedStatement pstmt = dbConnection.prepareStatement(query)) {
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setInt(1, schedule.getDriver().getDriverID());
             pstmt.setInt(2, schedule.getVehicle().getVehicleID());
             pstmt.setInt(3, schedule.getRideRequest().getRequestID());
             pstmt.setDate(4, java.sql.Date.valueOf(schedule.getDate().toString()));
             pstmt.setTime(5, java.sql.Time.valueOf(schedule.getTime().toString()));
-            pstmt.setInt(6, schedule.getScheduleID());
+            pstmt.setInt(6, schedule.getDurationMinutes());
+            pstmt.setInt(7, schedule.getScheduleID());
 
             int rowsAffected = pstmt.executeUpdate();
             return rowsAffected > 0;
@@ -631,7 +1319,8 @@ public class DataAccessManager {
     public boolean deleteSchedulesByDriverId(int driverId) throws SQLException {
         String query = "DELETE FROM Schedules WHERE DriverID = ?";
 
-        try (PreparedStatement pstmt = dbConnection.prepareStatement(query)) {
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setInt(1, driverId);
 
             int rowsAffected = pstmt.executeUpdate();
@@ -647,21 +1336,109 @@ public class DataAccessManager {
      * @throws SQLException if a database access error occurs
      */
     public List<Schedule> getSchedulesByDate(LocalDate date) throws SQLException {
-        List<Schedule> schedules = new ArrayList<>();
-        String query = "SELECT * FROM Schedules WHERE ScheduledDate = ?";
+        String query = SCHEDULE_SELECT + " WHERE s.ScheduledDate = ?";
 
-        try (PreparedStatement pstmt = dbConnection.prepareStatement(query)) {
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setDate(1, java.sql.Date.valueOf(date));
+            return loadSchedules(pstmt);
+        }
+    }
+
+    /**
+     * Streams the schedules of a date to an action, ordered by driver ID and then by time.
+     * Rows are read from a forward-only cursor a bounded number at a time, so memory use
+     * does not grow with the number of rides on the date. Schedules of the same driver
+     * share one Driver object.
+     *
+     * @param date the date to retrieve schedules for
+     * @param action called once for each schedule, in order
+     * @throws SQLException if a database access error occurs
+     */
+    public void forEachScheduleByDate(LocalDate date, Consumer<Schedule> action) throws SQLException {
+        String query = SCHEDULE_SELECT + " WHERE s.ScheduledDate = ? ORDER BY s.DriverID, s.ScheduledTime";
+
+        try (Connection conn = getConnection()) {
+            // The PostgreSQL driver only fetches in chunks inside a transaction
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(query,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                pstmt.setFetchSize(STREAM_FETCH_SIZE);
+                pstmt.setDate(1, java.sql.Date.valueOf(date));
+
+                Map<Integer, Driver> drivers = new HashMap<>();
+                Map<Integer, Vehicle> vehicles = new HashMap<>();
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        // Rows arrive grouped by driver, so only the current driver is kept
+                        if (!drivers.containsKey(rs.getInt("DriverID"))) {
+                            drivers.clear();
+                        }
+                        action.accept(mapResultSetToSchedule(rs, drivers, vehicles));
+                    }
+                }
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Counts the schedules of a date range in a single query: the total, the rides per
+     * vehicle, the rides per driver, and wheelchair versus standard rides. A ride counts
+     * as a wheelchair ride when its special requirements mention "Wheelchair".
+     * The counting is done by PostgreSQL with GROUPING SETS, so no schedule rows are
+     * transferred.
+     *
+     * @param startDate the beginning date (inclusive)
+     * @param endDate the end date (inclusive)
+     * @return the ride counts of the range
+     * @throws SQLException if a database access error occurs
+     */
+    public RideSummary getRideSummary(LocalDate startDate, LocalDate endDate) throws SQLException {
+        // GROUPING(...) tells which set a row belongs to: 3 per vehicle, 5 per driver,
+        // 6 per wheelchair flag and 7 for the grand total
+        String query = "SELECT VehicleID, DriverID, Wheelchair, COUNT(*) AS Rides, " +
+                "GROUPING(VehicleID, DriverID, Wheelchair) AS GroupingSet FROM (" +
+                "SELECT s.VehicleID, s.DriverID, " +
+                "COALESCE(r.SpecialRequirements LIKE '%Wheelchair%', FALSE) AS Wheelchair " +
+                "FROM Schedules s JOIN RideRequests r ON s.RequestID = r.RequestID " +
+                "WHERE s.ScheduledDate BETWEEN ? AND ?) AS w " +
+                "GROUP BY GROUPING SETS ((VehicleID), (DriverID), (Wheelchair), ())";
+
+        RideSummary summary = new RideSummary();
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setDate(1, java.sql.Date.valueOf(startDate));
+            pstmt.setDate(2, java.sql.Date.valueOf(endDate));
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    Schedule schedule = mapResultSetToSchedule(rs);
-                    schedules.add(schedule);
+                    int rides = rs.getInt("Rides");
+                    switch (rs.getInt("GroupingSet")) {
+                        case 3:
+                            summary.setRidesForVehicle(rs.getInt("VehicleID"), rides);
+                            break;
+                        case 5:
+                            summary.setRidesForDriver(rs.getInt("DriverID"), rides);
+                            break;
+                        case 6:
+                            if (rs.getBoolean("Wheelchair")) {
+                                summary.setWheelchairRides(rides);
+                            } else {
+                                summary.setStandardRides(rides);
+                            }
+                            break;
+                        default:
+                            summary.setTotalRides(rides);
+                            break;
+                    }
                 }
             }
         }
 
-        return schedules;
+        return summary;
     }
 
     /**
@@ -672,21 +1449,33 @@ public class DataAccessManager {
      * @throws SQLException if a database access error occurs
      */
     public List<Schedule> getSchedulesByDriverId(int driverId) throws SQLException {
-        List<Schedule> schedules = new ArrayList<>();
-        String query = "SELECT * FROM Schedules WHERE DriverID = ?";
+        String query = SCHEDULE_SELECT + " WHERE s.DriverID = ?";
 
-        try (PreparedStatement pstmt = dbConnection.prepareStatement(query)) {
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setInt(1, driverId);
-
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    Schedule schedule = mapResultSetToSchedule(rs);
-                    schedules.add(schedule);
-                }
-            }
+            return loadSchedules(pstmt);
         }
+    }
 
-        return schedules;
+    /**
+     * Retrieves the schedules of a driver from a given date onwards, in date and time order.
+     *
+     * @param driverId the ID of the driver
+     * @param fromDate the first date to include
+     * @return a list of Schedule objects
+     * @throws SQLException if a database access error occurs
+     */
+    public List<Schedule> getSchedulesByDriverId(int driverId, LocalDate fromDate) throws SQLException {
+        String query = SCHEDULE_SELECT + " WHERE s.DriverID = ? AND s.ScheduledDate >= ?" +
+                " ORDER BY s.ScheduledDate, s.ScheduledTime";
+
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setInt(1, driverId);
+            pstmt.setDate(2, java.sql.Date.valueOf(fromDate));
+            return loadSchedules(pstmt);
+        }
     }
 
     /**
@@ -698,18 +1487,32 @@ public class DataAccessManager {
      * @throws SQLException if a database access error occurs
      */
     public List<Schedule> getSchedulesByDateRange(LocalDate startDate, LocalDate endDate) throws SQLException {
-        List<Schedule> schedules = new ArrayList<>();
-        String query = "SELECT * FROM Schedules WHERE ScheduledDate BETWEEN ? AND ?";
-
-        try (PreparedStatement pstmt = dbConnection.prepareStatement(query)) {
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SCHEDULES_BY_DATE_RANGE)) {
             pstmt.setDate(1, java.sql.Date.valueOf(startDate));
             pstmt.setDate(2, java.sql.Date.valueOf(endDate));
+            return loadSchedules(pstmt);
+        }
+    }
 
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    Schedule schedule = mapResultSetToSchedule(rs);
-                    schedules.add(schedule);
-                }
+    /**
+     * Executes a prepared schedule query built on SCHEDULE_SELECT and maps every row.
+     * Drivers and vehicles that appear on several rows are shared between the
+     * resulting Schedule objects instead of being mapped again for each row.
+     *
+     * @param pstmt the prepared statement with all parameters already bound
+     * @return a list of fully populated Schedule objects
+     * @throws SQLException if a database access error occurs
+     */
+    private List<Schedule> loadSchedules(PreparedStatement pstmt) throws SQLException {
+        List<Schedule> schedules = new ArrayList<>();
+        Map<Integer, Driver> drivers = new HashMap<>();
+        Map<Integer, Vehicle> vehicles = new HashMap<>();
+
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                Schedule schedule = mapResultSetToSchedule(rs, drivers, vehicles);
+                schedules.add(schedule);
             }
         }
 
@@ -717,21 +1520,34 @@ public class DataAccessManager {
     }
 
     /**
-     * Converts the current row of a ResultSet into a Schedule object by
-     * retrieving and assembling the related Driver, Vehicle, and RideRequest.
+     * Converts the current row of a joined schedule ResultSet into a Schedule object,
+     * assembling the related Driver, Vehicle, and RideRequest from the same row.
      *
-     * @param rs the ResultSet positioned at a row containing schedule data
+     * @param rs the ResultSet positioned at a row produced by SCHEDULE_SELECT
+     * @param drivers drivers already mapped for this result, keyed by driver ID
+     * @param vehicles vehicles already mapped for this result, keyed by vehicle ID
      * @return a fully populated Schedule object
-     * @throws SQLException if accessing the result set or related entities fails
+     * @throws SQLException if accessing the result set fails
      */
-    private Schedule mapResultSetToSchedule(ResultSet rs) throws SQLException {
+    private Schedule mapResultSetToSchedule(ResultSet rs, Map<Integer, Driver> drivers,
+                                            Map<Integer, Vehicle> vehicles) throws SQLException {
         Schedule schedule = new Schedule();
 
         schedule.setScheduleID(rs.getInt("ScheduleID"));
 
-        Driver driver = getDriverById(rs.getInt("DriverID"));
-        Vehicle vehicle = getVehicleById(rs.getInt("VehicleID"));
-        RideRequest request = getRideRequestById(rs.getInt("RequestID"));
+        Driver driver = drivers.get(rs.getInt("DriverID"));
+        if (driver == null) {
+            driver = mapResultSetToDriver(rs);
+            drivers.put(driver.getDriverID(), driver);
+        }
+
+        Vehicle vehicle = vehicles.get(rs.getInt("VehicleID"));
+        if (vehicle == null) {
+            vehicle = mapResultSetToVehicle(rs);
+            vehicles.put(vehicle.getVehicleID(), vehicle);
+        }
+
+        RideRequest request = mapResultSetToRideRequest(rs);
 
         schedule.setDriver(driver);
         schedule.setVehicle(vehicle);
@@ -742,9 +1558,140 @@ public class DataAccessManager {
 
         java.sql.Time sqlTime = rs.getTime("ScheduledTime");
         schedule.setTime(sqlTime.toLocalTime());
+        schedule.setDurationMinutes(rs.getInt("DurationMinutes"));
 
         return schedule;
     }
-}
 
+    //------------------------------------------------------------
+    // Query plan check
+    //------------------------------------------------------------
 
+    /**
+     * Checks that the scheduler's hot queries can be answered without reading the
+     * Schedules or RideRequests tables from start to end, which would make every
+     * availability check slower as the tables grow.
+     * <p>
+     * Each query is explained with sequential scans disabled, so the planner uses an
+     * index wherever one applies even while the tables are small enough for a scan to
+     * be cheaper. A sequential scan that remains means no index covers the query.
+     * The queries are only explained, not run, in a transaction that is rolled back.
+     *
+     * @return one warning per query and table that falls back to a sequential scan,
+     *         or an empty list if every hot query can use an index
+     * @throws SQLException if a database access error occurs
+     */
+    public List<String> checkQueryPlans() throws SQLException {
+        List<String> warnings = new ArrayList<>();
+        LocalDate date = LocalDate.now();
+        LocalTime start = LocalTime.of(9, 0);
+        LocalTime end = start.plusMinutes(30);
+
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("SET LOCAL enable_seqscan = off");
+
+                explain(conn, "available drivers", AVAILABLE_DRIVERS,
+                        List.of(date.atTime(start), date.atTime(end)), warnings);
+                explain(conn, "available vehicles", AVAILABLE_VEHICLES,
+                        List.of(1, false, date.atTime(start), date.atTime(end)), warnings);
+                explain(conn, "ride requests by date and status", REQUESTS_BY_DATE_AND_STATUS,
+                        List.of(date, "Pending"), warnings);
+                explain(conn, "schedules by date range", SCHEDULES_BY_DATE_RANGE,
+                        List.of(date, date.plusDays(6)), warnings);
+            } finally {
+                conn.rollback();
+                conn.setAutoCommit(true);
+            }
+        }
+
+        return warnings;
+    }
+
+    /**
+     * Explains one query and records a warning for each sequential scan of a large table.
+     *
+     * @param conn the connection to explain the query on
+     * @param name the name of the query used in warnings
+     * @param query the query to explain
+     * @param parameters sample values for its parameters
+     * @param warnings the list warnings are added to
+     * @throws SQLException if a database access error occurs
+     */
+    private void explain(Connection conn, String name, String query, List<Object> parameters,
+                         List<String> warnings) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("EXPLAIN " + query)) {
+            bindParameters(pstmt, parameters);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    String line = rs.getString(1).trim();
+                    String lower = line.toLowerCase();
+                    for (String table : LARGE_TABLES) {
+                        if (lower.contains("seq scan on " + table + " ") || lower.endsWith("seq scan on " + table)) {
+                            warnings.add("The " + name + " query scans all of " + table + ": " + line);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    //------------------------------------------------------------
+    // Transaction helpers
+    //------------------------------------------------------------
+
+    /**
+     * Work that runs on one connection inside a transaction.
+     */
+    private interface TransactionWork {
+        boolean run(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Runs work on a single borrowed connection inside one transaction. The transaction
+     * is committed if the work returns true and rolled back if it returns false or throws.
+     *
+     * @param work the work to run
+     * @return the result of the work
+     * @throws SQLException if a database access error occurs, after rolling the transaction back
+     */
+    private boolean inTransaction(TransactionWork work) throws SQLException {
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                boolean success = work.run(conn);
+                if (success) {
+                    conn.commit();
+                } else {
+                    conn.rollback();
+                }
+                return success;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Adds up the row counts returned by a JDBC batch. Statements that succeeded
+     * without reporting a count are counted as one row.
+     *
+     * @param counts the update counts from executeBatch
+     * @return the total number of rows affected
+     */
+    private static int countUpdatedRows(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            if (count == Statement.SUCCESS_NO_INFO) {
+                total++;
+            } else if (count > 0) {
+                total += count;
+            }
+        }
+        return total;
+    }
+}
@@ -3,15 +3,17 @@ package edu.ucalgary.oop;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.Properties;
 
 /**
- * DatabaseConnector is a singleton class that manages database connections
- * for the Accessible Transportation Scheduler application.
+ * DatabaseConnector manages database connections for the Accessible
+ * Transportation Scheduler application.
  * It provides a centralized connection management facility to ensure
- * consistent database access throughout the application.
+ * consistent database access throughout the application, backed by a
+ * shared bounded ConnectionPool so several threads can work in parallel.
  *
  * @author Group 16
- * @version 1.0
+ * @version 1.2
  * @since 1.0
  */
 
@@ -21,48 +23,102 @@ public class DatabaseConnector {
     private static final String USERNAME = "oop";
     private static final String PASSWORD = "ucalgary";
 
-    // Singleton instance
-    private static Connection instance = null;
+    // Pool sizing defaults
+    private static final int DEFAULT_MIN_CONNECTIONS = 2;
+    private static final int DEFAULT_MAX_CONNECTIONS = 10;
+    private static final long HOUSEKEEPING_INTERVAL_MILLIS = 30_000;
+
+    // Statements cached per connection; the driver's own prepare threshold and
+    // server-side statement cache keep their defaults
+    private static final int STATEMENT_CACHE_SIZE = 64;
+
+    // Shared pool, created on first use
+    private static ConnectionPool pool = null;
+    private static int minConnections = DEFAULT_MIN_CONNECTIONS;
+    private static int maxConnections = DEFAULT_MAX_CONNECTIONS;
 
     /**
      * Private constructor to prevent instantiation
      */
     private DatabaseConnector() {
-        // Private constructor to enforce singleton pattern
+        // Private constructor, all access is static
     }
 
     /**
-     * Get a connection to the database.
-     * If a connection doesn't exist, creates one. Otherwise, returns the existing connection.
+     * Sets the pool size used the next time the pool is created.
+     * Call before the first connection is requested, or after closeConnection().
      *
-     * @return The database connection
-     * @throws SQLException If a database error occurs
+     * @param minSize the number of connections kept open even when idle
+     * @param maxSize the maximum number of connections open at the same time
+     * @throws IllegalArgumentException if the sizes are out of range
      */
-    public static Connection getConnection() throws SQLException {
-        if (instance == null || instance.isClosed()) {
+    public static synchronized void configurePool(int minSize, int maxSize) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min " + minSize + ", max " + maxSize);
+        }
+        minConnections = minSize;
+        maxConnections = maxSize;
+    }
+
+    /**
+     * Gets the maximum number of connections the pool opens at the same time,
+     * which is also how many database operations can run in parallel.
+     *
+     * @return the maximum pool size
+     */
+    public static synchronized int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * Get the shared connection pool, creating it if it doesn't exist yet.
+     *
+     * @return The connection pool
+     * @throws SQLException If the PostgreSQL JDBC driver cannot be loaded
+     */
+    public static synchronized ConnectionPool getPool() throws SQLException {
+        if (pool == null || pool.isClosed()) {
             try {
                 // Load the PostgreSQL JDBC driver
                 Class.forName("org.postgresql.Driver");
-
-                // Create a new connection
-                instance = DriverManager.getConnection(URL, USERNAME, PASSWORD);
-                instance.setAutoCommit(true);
             } catch (ClassNotFoundException e) {
                 throw new SQLException("PostgreSQL JDBC driver not found", e);
             }
+
+            Properties properties = new Properties();
+            properties.setProperty("user", USERNAME);
+            properties.setProperty("password", PASSWORD);
+
+            pool = ConnectionPool.create(() -> {
+                Connection connection = DriverManager.getConnection(URL, properties);
+                connection.setAutoCommit(true);
+                return connection;
+            }, minConnections, maxConnections, HOUSEKEEPING_INTERVAL_MILLIS);
+            pool.setStatementCacheSize(STATEMENT_CACHE_SIZE);
         }
-        return instance;
+        return pool;
+    }
+
+    /**
+     * Borrow a connection to the database from the shared pool.
+     * The caller must close the connection, which returns it to the pool.
+     *
+     * @return The database connection
+     * @throws SQLException If a database error occurs or no connection becomes available in time
+     */
+    public static Connection getConnection() throws SQLException {
+        return getPool().getConnection();
     }
 
     /**
-     * Closes the database connection if it exists and is open.
+     * Closes the connection pool and every connection it holds.
      *
      * @throws SQLException If a database error occurs
      */
-    public static void closeConnection() throws SQLException {
-        if (instance != null && !instance.isClosed()) {
-            instance.close();
-            instance = null;
+    public static synchronized void closeConnection() throws SQLException {
+        if (pool != null) {
+            pool.close();
+            pool = null;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,647 @@
+package edu.ucalgary.oop;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * HttpApiServer exposes the ride request, driver, vehicle and schedule operations
+ * of the system as JSON endpoints, using the HTTP server built into the JDK:
+ * <pre>
+ * GET  /api/rides                      ride requests, filtered and paged
+ * POST /api/rides                      add a ride request and try to schedule it
+ * GET  /api/rides/{id}                 one ride request
+ * PUT  /api/rides/{id}                 modify a ride request
+ * POST /api/rides/{id}/cancel          cancel a ride request
+ * POST /api/rides/{id}/complete        complete a ride request
+ * GET  /api/drivers                    all drivers
+ * GET  /api/drivers/{id}               one driver
+ * PUT  /api/drivers/{id}/availability  change a driver's availability
+ * GET  /api/vehicles                   all vehicles
+ * GET  /api/schedules                  schedule entries, filtered and paged
+ * POST /api/schedules/batch?date=...   schedule the pending rides of a date
+ * </pre>
+ * Every exchange is handled on its own virtual thread, and the operations run through
+ * an AsyncTransportationController, which limits how many reach the database at
+ * once. Connections are kept alive between requests. Listings are streamed with
+ * chunked encoding one element at a time, so a large listing is never held in memory
+ * as one JSON string.
+ * <p>
+ * The ride request and schedule listings take the query parameters of a
+ * ListingFilter: {@code status}, {@code from} and {@code to} (dates, inclusive),
+ * {@code client} (part of the client name) and {@code driver} (a driver ID). They
+ * are read in ID order, in keyset pages of at most MAX_PAGE_SIZE entries, and each
+ * page is written out before the next one is read, so neither listing is ever
+ * loaded whole. {@code limit} caps the number of entries returned and {@code after}
+ * continues a listing after the last ID a client has seen.
+ * <p>
+ * The JDK server only sets TCP_NODELAY when the JVM runs with
+ * {@code -Dsun.net.httpserver.nodelay=true}; without it small responses on a
+ * kept-alive connection wait for the client's delayed ACK. Main sets the property
+ * before it starts a server.
+ * <p>
+ * Errors are answered with a status code and a body of the form
+ * {@code {"error":"..."}}: 400 for malformed input, 404 for an unknown resource,
+ * 405 for an unsupported method, 409 for an operation the resource's state does not
+ * allow and 500 for a database error.
+ *
+ * @author Group 16
+ * @version 1.1
+ * @since 1.3
+ */
+
+public class HttpApiServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 8080;
+
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final String JSON = "application/json; charset=utf-8";
+
+    private final AsyncTransportationController controller;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Constructs a server bound to an address. It does not accept requests until
+     * it is started.
+     *
+     * @param controller the controller whose operations are exposed
+     * @param address the address to listen on; port 0 picks a free port
+     * @throws IOException if the address cannot be bound
+     */
+    public HttpApiServer(AsyncTransportationController controller, InetSocketAddress address) throws IOException {
+        this.controller = controller;
+        this.server = HttpServer.create(address, 0);
+        server.setExecutor(executor);
+        server.createContext("/api/rides", exchange -> handle(exchange, this::routeRides));
+        server.createContext("/api/drivers", exchange -> handle(exchange, this::routeDrivers));
+        server.createContext("/api/vehicles", exchange -> handle(exchange, this::routeVehicles));
+        server.createContext("/api/schedules", exchange -> handle(exchange, this::routeSchedules));
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Gets the port the server listens on.
+     * @return the port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests and waits for the ones in progress to finish.
+     * The controller is not closed.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    //------------------------------------------------------------
+    // Routes
+    //------------------------------------------------------------
+
+    private void routeRides(Exchange exchange) throws IOException, SQLException {
+        String[] path = exchange.path;
+
+        if (path.length == 0) {
+            switch (exchange.method) {
+                case "GET":
+                    ListingFilter filter = exchange.listingFilter();
+                    exchange.sendPages((afterId, size) -> await(controller.viewRideRequests(filter, afterId, size)),
+                            HttpApiServer::writeRideRequest);
+                    return;
+                case "POST":
+                    RideRequest request = new RideRequest();
+                    request.setStatus("Pending");
+                    readRideRequest(exchange.readBody(), request);
+                    if (request.getRequestDate() == null || request.getPickupTime() == null) {
+                        throw new IllegalArgumentException("requestDate and pickupTime are required");
+                    }
+                    if (!await(controller.addRideRequest(request))) {
+                        throw new SQLException("Ride request could not be added");
+                    }
+                    exchange.sendObject(201, request, HttpApiServer::writeRideRequest);
+                    return;
+                default:
+                    throw new MethodNotAllowed();
+            }
+        }
+
+        int id = parseId(path[0]);
+        if (path.length == 1) {
+            RideRequest request = await(controller.getRideRequestById(id));
+            if (request == null) {
+                throw new NotFound("Ride request " + id);
+            }
+            switch (exchange.method) {
+                case "GET":
+                    exchange.sendObject(200, request, HttpApiServer::writeRideRequest);
+                    return;
+                case "PUT":
+                    readRideRequest(exchange.readBody(), request);
+                    request.setRequestID(id);
+                    if (!await(controller.modifyRideRequest(request))) {
+                        throw new SQLException("Ride request " + id + " could not be updated");
+                    }
+                    exchange.sendObject(200, await(controller.getRideRequestById(id)),
+                            HttpApiServer::writeRideRequest);
+                    return;
+                default:
+                    throw new MethodNotAllowed();
+            }
+        }
+
+        if (path.length == 2 && exchange.method.equals("POST")) {
+            boolean changed;
+            switch (path[1]) {
+                case "cancel":
+                    changed = await(controller.cancelRideRequest(id));
+                    break;
+                case "complete":
+                    changed = await(controller.completeRideRequest(id));
+                    break;
+                default:
+                    throw new NotFound(exchange.uri.getPath());
+            }
+            RideRequest request = await(controller.getRideRequestById(id));
+            if (request == null) {
+                throw new NotFound("Ride request " + id);
+            }
+            if (!changed) {
+                exchange.sendError(409, "Ride request " + id + " is " + request.getStatus());
+                return;
+            }
+            exchange.sendObject(200, request, HttpApiServer::writeRideRequest);
+            return;
+        }
+
+        throw new NotFound(exchange.uri.getPath());
+    }
+
+    private void routeDrivers(Exchange exchange) throws IOException, SQLException {
+        String[] path = exchange.path;
+
+        if (path.length == 0) {
+            exchange.requireMethod("GET");
+            exchange.sendList(await(controller.viewAllDrivers()), HttpApiServer::writeDriver);
+            return;
+        }
+
+        int id = parseId(path[0]);
+        if (path.length == 1) {
+            exchange.requireMethod("GET");
+            Driver driver = await(controller.getDriverById(id));
+            if (driver == null) {
+                throw new NotFound("Driver " + id);
+            }
+            exchange.sendObject(200, driver, HttpApiServer::writeDriver);
+            return;
+        }
+
+        if (path.length == 2 && path[1].equals("availability")) {
+            exchange.requireMethod("PUT");
+            Object available = exchange.readBody().get("available");
+            if (!(available instanceof Boolean)) {
+                throw new IllegalArgumentException("available must be true or false");
+            }
+            if (await(controller.getDriverById(id)) == null) {
+                throw new NotFound("Driver " + id);
+            }
+            if (!await(controller.modifyDriverAvailability(id, (Boolean) available))) {
+                throw new SQLException("Availability of driver " + id + " could not be updated");
+            }
+            exchange.sendObject(200, await(controller.getDriverById(id)), HttpApiServer::writeDriver);
+            return;
+        }
+
+        throw new NotFound(exchange.uri.getPath());
+    }
+
+    private void routeVehicles(Exchange exchange) throws IOException, SQLException {
+        if (exchange.path.length != 0) {
+            throw new NotFound(exchange.uri.getPath());
+        }
+        exchange.requireMethod("GET");
+        exchange.sendList(await(controller.viewAllVehicles()), HttpApiServer::writeVehicle);
+    }
+
+    private void routeSchedules(Exchange exchange) throws IOException, SQLException {
+        String[] path = exchange.path;
+
+        if (path.length == 0) {
+            exchange.requireMethod("GET");
+            ListingFilter filter = exchange.listingFilter();
+            exchange.sendPages((afterId, size) -> await(controller.viewSchedules(filter, afterId, size)),
+                    HttpApiServer::writeSchedule);
+            return;
+        }
+
+        if (path.length == 1 && path[0].equals("batch")) {
+            exchange.requireMethod("POST");
+            String date = exchange.queryParameter("date");
+            if (date == null) {
+                throw new IllegalArgumentException("date is required");
+            }
+            int scheduled = await(controller.schedulePendingRides(LocalDate.parse(date)));
+            exchange.sendObject(200, scheduled, (json, count) ->
+                    json.beginObject().name("scheduled").value((long) count).endObject());
+            return;
+        }
+
+        throw new NotFound(exchange.uri.getPath());
+    }
+
+    //------------------------------------------------------------
+    // JSON mapping
+    //------------------------------------------------------------
+
+    private static void writeRideRequest(Json.Writer json, RideRequest request) throws IOException {
+        json.beginObject()
+                .name("requestId").value(request.getRequestID())
+                .name("clientName").value(request.getClientName())
+                .name("pickUpLocation").value(request.getPickUpLocation())
+                .name("dropOffLocation").value(request.getDropOffLocation())
+                .name("passengerCount").value(request.getPassengerCount())
+                .name("specialRequirements").value(request.getSpecialRequirements())
+                .name("requestDate").value((Object) request.getRequestDate())
+                .name("pickupTime").value((Object) request.getPickupTime())
+                .name("status").value(request.getStatus())
+                .endObject();
+    }
+
+    private static void writeDriver(Json.Writer json, Driver driver) throws IOException {
+        json.beginObject()
+                .name("driverId").value(driver.getDriverID())
+                .name("name").value(driver.getName())
+                .name("phoneNumber").value(driver.getPhoneNumber())
+                .name("licenseNumber").value(driver.getLicenseNumber())
+                .name("available").value(driver.isAvailable())
+                .endObject();
+    }
+
+    private static void writeVehicle(Json.Writer json, Vehicle vehicle) throws IOException {
+        json.beginObject()
+                .name("vehicleId").value(vehicle.getVehicleID())
+                .name("licensePlate").value(vehicle.getLicensePlate())
+                .name("capacity").value(vehicle.getCapacity())
+                .name("wheelchairAccessible").value(vehicle.isWheelchairAccessible())
+                .name("currentLocation").value(vehicle.getCurrentLocation())
+                .name("maintenanceDueDate").value((Object) vehicle.getMaintenanceDueDate())
+                .endObject();
+    }
+
+    private static void writeSchedule(Json.Writer json, Schedule schedule) throws IOException {
+        json.beginObject()
+                .name("scheduleId").value(schedule.getScheduleID())
+                .name("date").value((Object) schedule.getDate())
+                .name("time").value((Object) schedule.getTime())
+                .name("durationMinutes").value(schedule.getDurationMinutes());
+        if (schedule.getRideRequest() != null) {
+            json.name("requestId").value(schedule.getRideRequest().getRequestID());
+        }
+        if (schedule.getDriver() != null) {
+            json.name("driverId").value(schedule.getDriver().getDriverID());
+        }
+        if (schedule.getVehicle() != null) {
+            json.name("vehicleId").value(schedule.getVehicle().getVehicleID());
+        }
+        json.endObject();
+    }
+
+    /**
+     * Copies the members present in a request body onto a ride request. Members
+     * that are absent keep their current value.
+     */
+    private static void readRideRequest(Map<String, Object> body, RideRequest request) {
+        if (body.containsKey("clientName")) {
+            request.setClientName(stringMember(body, "clientName"));
+        }
+        if (body.containsKey("pickUpLocation")) {
+            request.setPickUpLocation(stringMember(body, "pickUpLocation"));
+        }
+        if (body.containsKey("dropOffLocation")) {
+            request.setDropOffLocation(stringMember(body, "dropOffLocation"));
+        }
+        if (body.containsKey("passengerCount")) {
+            Object count = body.get("passengerCount");
+            if (!(count instanceof Long) || (Long) count < 1 || (Long) count > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("passengerCount must be a positive integer");
+            }
+            request.setPassengerCount(((Long) count).intValue());
+        }
+        if (body.containsKey("specialRequirements")) {
+            request.setSpecialRequirements(stringMember(body, "specialRequirements"));
+        }
+        if (body.containsKey("requestDate")) {
+            request.setRequestDate(LocalDate.parse(stringMember(body, "requestDate")));
+        }
+        if (body.containsKey("pickupTime")) {
+            request.setPickupTime(LocalTime.parse(stringMember(body, "pickupTime")));
+        }
+    }
+
+    private static String stringMember(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (value != null && !(value instanceof String)) {
+            throw new IllegalArgumentException(name + " must be a string");
+        }
+        return (String) value;
+    }
+
+    private static int parseId(String segment) {
+        try {
+            return Integer.parseInt(segment);
+        } catch (NumberFormatException e) {
+            throw new NotFound("/" + segment);
+        }
+    }
+
+    //------------------------------------------------------------
+    // Exchange handling
+    //------------------------------------------------------------
+
+    /**
+     * Waits for an operation of the controller, passing on its exception.
+     */
+    private static <T> T await(CompletableFuture<T> future) throws SQLException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the database", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Runs a route and turns its exceptions into error responses. The request body
+     * is always drained and the exchange closed, so the connection can be reused.
+     */
+    private void handle(HttpExchange httpExchange, Route route) throws IOException {
+        Exchange exchange = new Exchange(httpExchange);
+        try {
+            if (exchange.path == null) {
+                throw new NotFound(exchange.uri.getPath());
+            }
+            route.handle(exchange);
+        } catch (NotFound e) {
+            exchange.sendError(404, e.getMessage() + " not found");
+        } catch (MethodNotAllowed e) {
+            exchange.sendError(405, "Method " + exchange.method + " not allowed");
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            exchange.sendError(400, e.getMessage());
+        } catch (SQLException e) {
+            e.printStackTrace();
+            exchange.sendError(500, e.getMessage());
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            exchange.sendError(500, "Internal error");
+        } finally {
+            try (InputStream body = httpExchange.getRequestBody()) {
+                body.transferTo(OutputStream.nullOutputStream());
+            }
+            httpExchange.close();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Route {
+        void handle(Exchange exchange) throws IOException, SQLException;
+    }
+
+    @FunctionalInterface
+    private interface JsonMapper<T> {
+        void write(Json.Writer json, T value) throws IOException;
+    }
+
+    /**
+     * Fetches one page of a listing.
+     */
+    @FunctionalInterface
+    private interface PageSource<T> {
+        Page<T> fetch(int afterId, int pageSize) throws SQLException;
+    }
+
+    /**
+     * One request with its path split into segments below the context. The path is
+     * null if the request only shares a prefix with the context.
+     */
+    private static class Exchange {
+        private final HttpExchange exchange;
+        private final URI uri;
+        private final String method;
+        private final String[] path;
+        private boolean responded = false;
+
+        Exchange(HttpExchange exchange) {
+            this.exchange = exchange;
+            this.uri = exchange.getRequestURI();
+            this.method = exchange.getRequestMethod();
+
+            String rest = uri.getPath().substring(exchange.getHttpContext().getPath().length());
+            if (!rest.isEmpty() && !rest.startsWith("/")) {
+                // Such as /api/ridesx, which the context prefix also matches
+                this.path = null;
+                return;
+            }
+            rest = rest.replaceAll("^/+|/+$", "");
+            this.path = rest.isEmpty() ? new String[0] : rest.split("/+");
+        }
+
+        void requireMethod(String expected) {
+            if (!method.equals(expected)) {
+                throw new MethodNotAllowed();
+            }
+        }
+
+        String queryParameter(String name) {
+            String query = uri.getRawQuery();
+            if (query == null) {
+                return null;
+            }
+            for (String pair : query.split("&")) {
+                int equals = pair.indexOf('=');
+                if (equals > 0 && URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8).equals(name)) {
+                    return URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Gets an optional integer query parameter.
+         *
+         * @throws IllegalArgumentException if the parameter is not an integer of at least min
+         */
+        Integer intParameter(String name, int min) {
+            String value = queryParameter(name);
+            if (value == null) {
+                return null;
+            }
+            try {
+                int number = Integer.parseInt(value);
+                if (number >= min) {
+                    return number;
+                }
+            } catch (NumberFormatException e) {
+                // Reported below
+            }
+            throw new IllegalArgumentException(name + " must be an integer of at least " + min);
+        }
+
+        /**
+         * Builds the filter of a listing from the query parameters.
+         */
+        ListingFilter listingFilter() {
+            ListingFilter filter = new ListingFilter();
+            filter.setStatus(queryParameter("status"));
+            String from = queryParameter("from");
+            filter.setFromDate(from == null ? null : LocalDate.parse(from));
+            String to = queryParameter("to");
+            filter.setToDate(to == null ? null : LocalDate.parse(to));
+            filter.setClientName(queryParameter("client"));
+            filter.setDriverId(intParameter("driver", 1));
+            return filter;
+        }
+
+        Map<String, Object> readBody() throws IOException {
+            byte[] body = exchange.getRequestBody().readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                throw new IllegalArgumentException("Request body is larger than " + MAX_BODY_BYTES + " bytes");
+            }
+            return Json.parseObject(new String(body, StandardCharsets.UTF_8));
+        }
+
+        /**
+         * Sends a single value with a known length.
+         */
+        <T> void sendObject(int status, T value, JsonMapper<T> mapper) throws IOException {
+            StringWriter text = new StringWriter();
+            mapper.write(new Json.Writer(text), value);
+            sendText(status, text.toString());
+        }
+
+        /**
+         * Streams a listing as a JSON array in chunks, one element at a time.
+         */
+        <T> void sendList(List<T> values, JsonMapper<T> mapper) throws IOException {
+            exchange.getResponseHeaders().set("Content-Type", JSON);
+            exchange.sendResponseHeaders(200, 0);
+            responded = true;
+
+            try (Writer out = new BufferedWriter(
+                    new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+                Json.Writer json = new Json.Writer(out);
+                json.beginArray();
+                for (T value : values) {
+                    mapper.write(json, value);
+                }
+                json.endArray();
+            }
+        }
+
+        /**
+         * Streams a paged listing as a JSON array, starting after the {@code after}
+         * parameter and stopping after {@code limit} entries. The first page is read
+         * before the headers are sent, so an error there still gets a status code.
+         */
+        <T> void sendPages(PageSource<T> source, JsonMapper<T> mapper) throws IOException, SQLException {
+            Integer after = intParameter("after", 0);
+            Integer limit = intParameter("limit", 1);
+            int afterId = after == null ? 0 : after;
+            int remaining = limit == null ? Integer.MAX_VALUE : limit;
+            Page<T> page = source.fetch(afterId, Math.min(remaining, TransportationController.MAX_PAGE_SIZE));
+
+            exchange.getResponseHeaders().set("Content-Type", JSON);
+            exchange.sendResponseHeaders(200, 0);
+            responded = true;
+
+            try (Writer out = new BufferedWriter(
+                    new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+                Json.Writer json = new Json.Writer(out);
+                json.beginArray();
+                while (true) {
+                    for (T value : page.getItems()) {
+                        mapper.write(json, value);
+                    }
+                    remaining -= page.getItems().size();
+                    if (!page.hasNext() || remaining <= 0) {
+                        break;
+                    }
+                    out.flush();
+                    page = source.fetch(page.getNextAfterId(),
+                            Math.min(remaining, TransportationController.MAX_PAGE_SIZE));
+                }
+                json.endArray();
+            }
+        }
+
+        void sendError(int status, String message) throws IOException {
+            if (responded) {
+                // Too late for a status code; the client sees a truncated body
+                return;
+            }
+            StringWriter text = new StringWriter();
+            new Json.Writer(text).beginObject().name("error").value(message).endObject();
+            sendText(status, text.toString());
+        }
+
+        private void sendText(int status, String text) throws IOException {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", JSON);
+            exchange.sendResponseHeaders(status, bytes.length);
+            responded = true;
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static class NotFound extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        NotFound(String resource) {
+            super(resource);
+        }
+    }
+
+    private static class MethodNotAllowed extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+}
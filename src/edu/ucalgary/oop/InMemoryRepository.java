@@ -0,0 +1,869 @@
+package edu.ucalgary.oop;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * InMemoryRepository keeps RideRequests, Vehicles, Drivers, and Schedules in memory.
+ * It follows the same rules as the PostgreSQL DataAccessManager and serves as a fast
+ * standalone store for tests, offline simulations and load tests.
+ * <p>
+ * Every record is indexed by ID, ride requests and schedules in sorted maps so pages
+ * can be read from any ID onwards. Ride requests and schedules are also bucketed by
+ * date, and schedules are indexed by driver and by ride request. The busy time of
+ * each driver and vehicle is kept in an OccupancyIndex, so availability checks only
+ * look at the bookings near the requested window.
+ * <p>
+ * Objects are copied on the way in and out, like rows of a database, so changing a
+ * returned object does not change the store until it is saved. The class is thread-safe:
+ * reads run in parallel and writes are exclusive, and batch operations are all or none.
+ *
+ * @author Group 16
+ * @version 1.4
+ * @since 1.3
+ */
+
+public class InMemoryRepository implements TransportationRepository {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final TreeMap<Integer, RideRequest> requests = new TreeMap<>();
+    private final TreeMap<LocalDate, Set<Integer>> requestsByDate = new TreeMap<>();
+    private final Map<Integer, Driver> drivers = new LinkedHashMap<>();
+    private final Map<Integer, Vehicle> vehicles = new LinkedHashMap<>();
+
+    private final TreeMap<Integer, ScheduleRow> schedules = new TreeMap<>();
+    private final TreeMap<LocalDate, Set<Integer>> schedulesByDate = new TreeMap<>();
+    private final Map<Integer, Set<Integer>> schedulesByDriver = new HashMap<>();
+    private final Map<Integer, Set<Integer>> schedulesByRequest = new HashMap<>();
+
+    // Every date is kept, the store is the source of truth
+    private final OccupancyIndex occupancy = new OccupancyIndex(Integer.MAX_VALUE);
+
+    private int nextRequestId = 1;
+    private int nextDriverId = 1;
+    private int nextVehicleId = 1;
+    private int nextScheduleId = 1;
+
+    //------------------------------------------------------------
+    // Fleet setup
+    //------------------------------------------------------------
+
+    /**
+     * Adds a driver. A driver with an ID of 0 or less is given the next free ID.
+     *
+     * @param driver the driver to add
+     * @return true once the driver was added
+     */
+    public boolean addDriver(Driver driver) {
+        lock.writeLock().lock();
+        try {
+            if (driver.getDriverID() <= 0) {
+                driver.setDriverID(nextDriverId);
+            }
+            nextDriverId = Math.max(nextDriverId, driver.getDriverID() + 1);
+            drivers.put(driver.getDriverID(), copy(driver));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a vehicle. A vehicle with an ID of 0 or less is given the next free ID.
+     *
+     * @param vehicle the vehicle to add
+     * @return true once the vehicle was added
+     */
+    public boolean addVehicle(Vehicle vehicle) {
+        lock.writeLock().lock();
+        try {
+            if (vehicle.getVehicleID() <= 0) {
+                vehicle.setVehicleID(nextVehicleId);
+            }
+            nextVehicleId = Math.max(nextVehicleId, vehicle.getVehicleID() + 1);
+            vehicles.put(vehicle.getVehicleID(), copy(vehicle));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //------------------------------------------------------------
+    // RideRequest methods
+    //------------------------------------------------------------
+
+    @Override
+    public List<RideRequest> getAllRideRequests() {
+        lock.readLock().lock();
+        try {
+            List<RideRequest> all = new ArrayList<>();
+            for (RideRequest request : requests.values()) {
+                all.add(copy(request));
+            }
+            return all;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Page<RideRequest> getRideRequestPage(ListingFilter filter, int afterId, int pageSize) {
+        checkPageSize(pageSize);
+        lock.readLock().lock();
+        try {
+            List<RideRequest> fetched = new ArrayList<>();
+            for (RideRequest request : requests.tailMap(afterId, false).values()) {
+                if (filter == null || matches(filter, request)) {
+                    fetched.add(copy(request));
+                    if (fetched.size() > pageSize) {
+                        break;
+                    }
+                }
+            }
+            return Page.fromFetched(fetched, pageSize, afterId, RideRequest::getRequestID);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public RideRequest getRideRequestById(int id) {
+        lock.readLock().lock();
+        try {
+            RideRequest request = requests.get(id);
+            return request == null ? null : copy(request);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<RideRequest> getRideRequestsByDateAndStatus(LocalDate date, String status) {
+        lock.readLock().lock();
+        try {
+            List<RideRequest> matches = new ArrayList<>();
+            for (int id : requestsByDate.getOrDefault(date, Set.of())) {
+                RideRequest request = requests.get(id);
+                if (status.equals(request.getStatus())) {
+                    matches.add(copy(request));
+                }
+            }
+            matches.sort(Comparator.comparing(RideRequest::getPickupTime,
+                    Comparator.nullsLast(Comparator.naturalOrder())));
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean addRideRequest(RideRequest request) {
+        lock.writeLock().lock();
+        try {
+            request.setRequestID(nextRequestId++);
+            RideRequest stored = copy(request);
+            requests.put(stored.getRequestID(), stored);
+            indexByDate(requestsByDate, stored.getRequestDate(), stored.getRequestID());
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Integer> importRideRequests(Iterator<RideRequest> requests) {
+        lock.writeLock().lock();
+        try {
+            // Read everything first so a failing iterator leaves the store unchanged
+            List<RideRequest> staged = new ArrayList<>();
+            while (requests.hasNext()) {
+                staged.add(requests.next());
+            }
+
+            List<Integer> requestIds = new ArrayList<>(staged.size());
+            for (RideRequest request : staged) {
+                request.setRequestID(nextRequestId++);
+                RideRequest stored = copy(request);
+                this.requests.put(stored.getRequestID(), stored);
+                indexByDate(requestsByDate, stored.getRequestDate(), stored.getRequestID());
+                requestIds.add(stored.getRequestID());
+            }
+            return requestIds;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean updateRideRequest(RideRequest request) {
+        lock.writeLock().lock();
+        try {
+            RideRequest previous = requests.get(request.getRequestID());
+            if (previous == null) {
+                return false;
+            }
+
+            RideRequest stored = copy(request);
+            requests.put(stored.getRequestID(), stored);
+            unindexByDate(requestsByDate, previous.getRequestDate(), stored.getRequestID());
+            indexByDate(requestsByDate, stored.getRequestDate(), stored.getRequestID());
+            refreshBookings(stored.getRequestID());
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean updateRideStatus(int id, String status) {
+        lock.writeLock().lock();
+        try {
+            return setStatus(id, status);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int updateRideStatuses(Map<Integer, String> statuses) {
+        lock.writeLock().lock();
+        try {
+            int updated = 0;
+            for (Map.Entry<Integer, String> entry : statuses.entrySet()) {
+                if (setStatus(entry.getKey(), entry.getValue())) {
+                    updated++;
+                }
+            }
+            return updated;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //------------------------------------------------------------
+    // Vehicle methods
+    //------------------------------------------------------------
+
+    @Override
+    public List<Vehicle> getAllVehicles() {
+        lock.readLock().lock();
+        try {
+            List<Vehicle> all = new ArrayList<>();
+            for (Vehicle vehicle : vehicles.values()) {
+                all.add(copy(vehicle));
+            }
+            return all;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Vehicle getVehicleById(int id) {
+        lock.readLock().lock();
+        try {
+            Vehicle vehicle = vehicles.get(id);
+            return vehicle == null ? null : copy(vehicle);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Vehicle> getAvailableVehicles(LocalDate date, LocalTime startTime, LocalTime endTime,
+                                              boolean needsWheelchair, int passengerCount) {
+        lock.readLock().lock();
+        try {
+            List<Vehicle> available = new ArrayList<>();
+            for (Vehicle vehicle : vehicles.values()) {
+                if (vehicle.getCapacity() >= passengerCount &&
+                        (!needsWheelchair || vehicle.isWheelchairAccessible()) &&
+                        occupancy.isVehicleFree(date, vehicle.getVehicleID(), startTime, endTime)) {
+                    available.add(copy(vehicle));
+                }
+            }
+            return available;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //------------------------------------------------------------
+    // Driver methods
+    //------------------------------------------------------------
+
+    @Override
+    public List<Driver> getAllDrivers() {
+        lock.readLock().lock();
+        try {
+            List<Driver> all = new ArrayList<>();
+            for (Driver driver : drivers.values()) {
+                all.add(copy(driver));
+            }
+            return all;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Driver getDriverById(int id) {
+        lock.readLock().lock();
+        try {
+            Driver driver = drivers.get(id);
+            return driver == null ? null : copy(driver);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Driver> getAvailableDrivers(LocalDate date, LocalTime startTime, LocalTime endTime) {
+        lock.readLock().lock();
+        try {
+            List<Driver> available = new ArrayList<>();
+            for (Driver driver : drivers.values()) {
+                if (driver.isAvailable() &&
+                        occupancy.isDriverFree(date, driver.getDriverID(), startTime, endTime)) {
+                    available.add(copy(driver));
+                }
+            }
+            return available;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean updateDriverAvailability(int id, boolean isAvailable) {
+        lock.writeLock().lock();
+        try {
+            Driver driver = drivers.get(id);
+            if (driver == null) {
+                return false;
+            }
+            driver.setAvailable(isAvailable);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //------------------------------------------------------------
+    // Schedule methods
+    //------------------------------------------------------------
+
+    @Override
+    public List<Schedule> getAllSchedules() {
+        lock.readLock().lock();
+        try {
+            return toSchedules(schedules.keySet(), null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Page<Schedule> getSchedulePage(ListingFilter filter, int afterId, int pageSize) {
+        checkPageSize(pageSize);
+        lock.readLock().lock();
+        try {
+            List<Integer> fetched = new ArrayList<>();
+            for (ScheduleRow row : schedules.tailMap(afterId, false).values()) {
+                if (filter == null || matches(filter, row)) {
+                    fetched.add(row.scheduleId);
+                    if (fetched.size() > pageSize) {
+                        break;
+                    }
+                }
+            }
+            return Page.fromFetched(toSchedules(fetched, null), pageSize, afterId, Schedule::getScheduleID);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean addSchedule(Schedule schedule) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            checkReferences(schedule);
+            insertSchedule(schedule);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Integer> addSchedules(List<Schedule> newSchedules) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            // Check everything first so a bad schedule leaves the store unchanged
+            for (Schedule schedule : newSchedules) {
+                checkReferences(schedule);
+            }
+
+            List<Integer> scheduleIds = new ArrayList<>();
+            for (Schedule schedule : newSchedules) {
+                insertSchedule(schedule);
+                scheduleIds.add(schedule.getScheduleID());
+            }
+            return scheduleIds;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean commitSchedules(List<Schedule> newSchedules) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            addSchedules(newSchedules);
+            for (Schedule schedule : newSchedules) {
+                setStatus(schedule.getRideRequest().getRequestID(), "Scheduled");
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean reserveSchedules(List<Schedule> newSchedules, int bufferMinutes) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            for (Schedule schedule : newSchedules) {
+                checkReferences(schedule);
+                RideRequest stored = requests.get(schedule.getRideRequest().getRequestID());
+                if (!Objects.equals(stored.getStatus(), schedule.getRideRequest().getStatus()) ||
+                        !drivers.get(schedule.getDriver().getDriverID()).isAvailable()) {
+                    return false;
+                }
+            }
+
+            // The requests are placed again, so their current rides do not count as conflicts.
+            // New rides are booked as they pass, which also checks them against each other.
+            for (Schedule schedule : newSchedules) {
+                occupancy.release(schedule.getRideRequest().getRequestID());
+            }
+            boolean free = true;
+            for (Schedule schedule : newSchedules) {
+                if (!isReservable(schedule, bufferMinutes)) {
+                    free = false;
+                    break;
+                }
+                book(schedule.getRideRequest().getRequestID(), schedule.getDate(), schedule.getDriver().getDriverID(),
+                        schedule.getVehicle().getVehicleID(), schedule.getTime(), schedule.getDurationMinutes());
+            }
+
+            if (free) {
+                // A request reserved again replaces its previous rides rather than adding to them
+                for (Schedule schedule : newSchedules) {
+                    for (int scheduleId : new ArrayList<>(schedulesByRequest.getOrDefault(
+                            schedule.getRideRequest().getRequestID(), Set.of()))) {
+                        removeSchedule(scheduleId);
+                    }
+                }
+            }
+            for (Schedule schedule : newSchedules) {
+                if (free) {
+                    insertSchedule(schedule);
+                    setStatus(schedule.getRideRequest().getRequestID(), "Scheduled");
+                } else {
+                    refreshBookings(schedule.getRideRequest().getRequestID());
+                }
+            }
+            return free;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int releaseSchedules(List<Schedule> released) {
+        lock.writeLock().lock();
+        try {
+            int removed = 0;
+            for (Schedule schedule : released) {
+                if (removeSchedule(schedule.getScheduleID())) {
+                    removed++;
+                }
+                setStatus(schedule.getRideRequest().getRequestID(), "Pending");
+            }
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean updateSchedule(Schedule schedule) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            ScheduleRow previous = schedules.get(schedule.getScheduleID());
+            if (previous == null) {
+                return false;
+            }
+            checkReferences(schedule);
+
+            removeSchedule(previous.scheduleId);
+            indexSchedule(new ScheduleRow(schedule));
+            refreshBookings(schedule.getRideRequest().getRequestID());
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean deleteSchedulesByDriverId(int driverId) {
+        lock.writeLock().lock();
+        try {
+            boolean deleted = false;
+            for (int scheduleId : new ArrayList<>(schedulesByDriver.getOrDefault(driverId, Set.of()))) {
+                deleted |= removeSchedule(scheduleId);
+            }
+            return deleted;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Schedule> getSchedulesByDate(LocalDate date) {
+        lock.readLock().lock();
+        try {
+            return toSchedules(schedulesByDate.getOrDefault(date, Set.of()),
+                    Comparator.comparing(row -> row.time));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void forEachScheduleByDate(LocalDate date, Consumer<Schedule> action) {
+        // Copy the day out first so the action runs without holding the lock
+        List<Schedule> day;
+        lock.readLock().lock();
+        try {
+            day = toSchedules(schedulesByDate.getOrDefault(date, Set.of()),
+                    Comparator.comparingInt((ScheduleRow row) -> row.driverId).thenComparing(row -> row.time));
+        } finally {
+            lock.readLock().unlock();
+        }
+        day.forEach(action);
+    }
+
+    @Override
+    public RideSummary getRideSummary(LocalDate startDate, LocalDate endDate) {
+        lock.readLock().lock();
+        try {
+            Map<Integer, Integer> perVehicle = new HashMap<>();
+            Map<Integer, Integer> perDriver = new HashMap<>();
+            int total = 0;
+            int wheelchair = 0;
+
+            for (Set<Integer> day : schedulesByDate.subMap(startDate, true, endDate, true).values()) {
+                for (int scheduleId : day) {
+                    ScheduleRow row = schedules.get(scheduleId);
+                    perVehicle.merge(row.vehicleId, 1, Integer::sum);
+                    perDriver.merge(row.driverId, 1, Integer::sum);
+                    String specialReqs = requests.get(row.requestId).getSpecialRequirements();
+                    if (specialReqs != null && specialReqs.contains("Wheelchair")) {
+                        wheelchair++;
+                    }
+                    total++;
+                }
+            }
+
+            RideSummary summary = new RideSummary();
+            summary.setTotalRides(total);
+            summary.setWheelchairRides(wheelchair);
+            summary.setStandardRides(total - wheelchair);
+            perVehicle.forEach(summary::setRidesForVehicle);
+            perDriver.forEach(summary::setRidesForDriver);
+            return summary;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Schedule> getSchedulesByDriverId(int driverId) {
+        return getSchedulesByDriverId(driverId, LocalDate.MIN);
+    }
+
+    @Override
+    public List<Schedule> getSchedulesByDriverId(int driverId, LocalDate fromDate) {
+        lock.readLock().lock();
+        try {
+            List<Integer> matches = new ArrayList<>();
+            for (int scheduleId : schedulesByDriver.getOrDefault(driverId, Set.of())) {
+                if (!schedules.get(scheduleId).date.isBefore(fromDate)) {
+                    matches.add(scheduleId);
+                }
+            }
+            return toSchedules(matches, Comparator.comparing((ScheduleRow row) -> row.date)
+                    .thenComparing(row -> row.time));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Schedule> getSchedulesByDateRange(LocalDate startDate, LocalDate endDate) {
+        lock.readLock().lock();
+        try {
+            List<Integer> matches = new ArrayList<>();
+            for (Set<Integer> day : schedulesByDate.subMap(startDate, true, endDate, true).values()) {
+                matches.addAll(day);
+            }
+            return toSchedules(matches, null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //------------------------------------------------------------
+    // Index maintenance, called with the write lock held
+    //------------------------------------------------------------
+
+    private boolean setStatus(int requestId, String status) {
+        RideRequest request = requests.get(requestId);
+        if (request == null) {
+            return false;
+        }
+        request.setStatus(status);
+        refreshBookings(requestId);
+        return true;
+    }
+
+    /**
+     * Rejects a schedule whose driver, vehicle or ride request is not stored,
+     * as the foreign keys of the database would.
+     */
+    private void checkReferences(Schedule schedule) throws SQLException {
+        if (!drivers.containsKey(schedule.getDriver().getDriverID()) ||
+                !vehicles.containsKey(schedule.getVehicle().getVehicleID()) ||
+                !requests.containsKey(schedule.getRideRequest().getRequestID())) {
+            throw new SQLException("Schedule refers to a driver, vehicle or ride request that does not exist");
+        }
+    }
+
+    private void insertSchedule(Schedule schedule) {
+        schedule.setScheduleID(nextScheduleId++);
+        indexSchedule(new ScheduleRow(schedule));
+        refreshBookings(schedule.getRideRequest().getRequestID());
+    }
+
+    private void indexSchedule(ScheduleRow row) {
+        schedules.put(row.scheduleId, row);
+        indexByDate(schedulesByDate, row.date, row.scheduleId);
+        schedulesByDriver.computeIfAbsent(row.driverId, id -> new LinkedHashSet<>()).add(row.scheduleId);
+        schedulesByRequest.computeIfAbsent(row.requestId, id -> new LinkedHashSet<>()).add(row.scheduleId);
+    }
+
+    private boolean removeSchedule(int scheduleId) {
+        ScheduleRow row = schedules.remove(scheduleId);
+        if (row == null) {
+            return false;
+        }
+
+        unindexByDate(schedulesByDate, row.date, scheduleId);
+        removeFromIndex(schedulesByDriver, row.driverId, scheduleId);
+        removeFromIndex(schedulesByRequest, row.requestId, scheduleId);
+        refreshBookings(row.requestId);
+        return true;
+    }
+
+    /**
+     * Rebuilds the bookings of a ride request: its schedules occupy their driver and
+     * vehicle only while the request is "Scheduled".
+     */
+    private void refreshBookings(int requestId) {
+        occupancy.release(requestId);
+
+        RideRequest request = requests.get(requestId);
+        if (request == null || !"Scheduled".equals(request.getStatus())) {
+            return;
+        }
+
+        for (int scheduleId : schedulesByRequest.getOrDefault(requestId, Set.of())) {
+            ScheduleRow row = schedules.get(scheduleId);
+            if (row.date == null || row.time == null) {
+                continue;
+            }
+            book(requestId, row.date, row.driverId, row.vehicleId, row.time, row.durationMinutes);
+        }
+    }
+
+    private void book(int requestId, LocalDate date, int driverId, int vehicleId, LocalTime time,
+                      int durationMinutes) {
+        if (!occupancy.isLoaded(date)) {
+            occupancy.resetDay(date);
+        }
+        occupancy.book(date, requestId, driverId, vehicleId, time, time.plusMinutes(durationMinutes));
+    }
+
+    private boolean isReservable(Schedule schedule, int bufferMinutes) {
+        // The buffered block may start on the day before or end on the day after
+        LocalDateTime start = schedule.getDate().atTime(schedule.getTime());
+        LocalDateTime from = start.minusMinutes(bufferMinutes);
+        LocalDateTime to = start.plusMinutes(schedule.getDurationMinutes() + bufferMinutes);
+        return occupancy.isDriverFree(schedule.getDriver().getDriverID(), from, to) &&
+                occupancy.isVehicleFree(schedule.getVehicle().getVehicleID(), from, to);
+    }
+
+    private static void checkPageSize(int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Invalid page size: " + pageSize);
+        }
+    }
+
+    private boolean matches(ListingFilter filter, RideRequest request) {
+        if (!filter.includesDate(request.getRequestDate()) || !filter.matchesRequest(request)) {
+            return false;
+        }
+        if (filter.getDriverId() == null) {
+            return true;
+        }
+        for (int scheduleId : schedulesByRequest.getOrDefault(request.getRequestID(), Set.of())) {
+            if (schedules.get(scheduleId).driverId == filter.getDriverId()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean matches(ListingFilter filter, ScheduleRow row) {
+        return filter.includesDate(row.date) &&
+                (filter.getDriverId() == null || row.driverId == filter.getDriverId()) &&
+                filter.matchesRequest(requests.get(row.requestId));
+    }
+
+    private static void indexByDate(TreeMap<LocalDate, Set<Integer>> index, LocalDate date, int id) {
+        if (date != null) {
+            index.computeIfAbsent(date, d -> new LinkedHashSet<>()).add(id);
+        }
+    }
+
+    private static void unindexByDate(TreeMap<LocalDate, Set<Integer>> index, LocalDate date, int id) {
+        if (date != null) {
+            removeFromIndex(index, date, id);
+        }
+    }
+
+    private static <K> void removeFromIndex(Map<K, Set<Integer>> index, K key, int id) {
+        Set<Integer> ids = index.get(key);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    //------------------------------------------------------------
+    // Copies, called with a lock held
+    //------------------------------------------------------------
+
+    private List<Schedule> toSchedules(Iterable<Integer> scheduleIds, Comparator<ScheduleRow> order) {
+        List<ScheduleRow> rows = new ArrayList<>();
+        for (int scheduleId : scheduleIds) {
+            rows.add(schedules.get(scheduleId));
+        }
+        if (order != null) {
+            rows.sort(order);
+        }
+
+        // Schedules of the same driver, vehicle or request share one copy, as DataAccessManager does
+        Map<Integer, Driver> driverCopies = new HashMap<>();
+        Map<Integer, Vehicle> vehicleCopies = new HashMap<>();
+        List<Schedule> result = new ArrayList<>(rows.size());
+        for (ScheduleRow row : rows) {
+            Schedule schedule = new Schedule(row.scheduleId,
+                    driverCopies.computeIfAbsent(row.driverId, id -> copy(drivers.get(id))),
+                    vehicleCopies.computeIfAbsent(row.vehicleId, id -> copy(vehicles.get(id))),
+                    copy(requests.get(row.requestId)), row.date, row.time);
+            schedule.setDurationMinutes(row.durationMinutes);
+            result.add(schedule);
+        }
+        return result;
+    }
+
+    private static RideRequest copy(RideRequest request) {
+        RideRequest copy = new RideRequest();
+        copy.setRequestID(request.getRequestID());
+        copy.setClientName(request.getClientName());
+        copy.setPickUpLocation(request.getPickUpLocation());
+        copy.setDropOffLocation(request.getDropOffLocation());
+        copy.setPassengerCount(request.getPassengerCount());
+        copy.setSpecialRequirements(request.getSpecialRequirements());
+        copy.setRequestDate(request.getRequestDate());
+        copy.setPickupTime(request.getPickupTime());
+        copy.setStatus(request.getStatus());
+        return copy;
+    }
+
+    private static Driver copy(Driver driver) {
+        Driver copy = new Driver();
+        copy.setDriverID(driver.getDriverID());
+        copy.setName(driver.getName());
+        copy.setPhoneNumber(driver.getPhoneNumber());
+        copy.setLicenseNumber(driver.getLicenseNumber());
+        copy.setAvailable(driver.isAvailable());
+        return copy;
+    }
+
+    private static Vehicle copy(Vehicle vehicle) {
+        Vehicle copy = new Vehicle();
+        copy.setVehicleID(vehicle.getVehicleID());
+        copy.setLicensePlate(vehicle.getLicensePlate());
+        copy.setCapacity(vehicle.getCapacity());
+        copy.setWheelchairAccessible(vehicle.isWheelchairAccessible());
+        copy.setCurrentLocation(vehicle.getCurrentLocation());
+        copy.setMaintenanceDueDate(vehicle.getMaintenanceDueDate());
+        return copy;
+    }
+
+    /**
+     * Stored form of a schedule, referring to its driver, vehicle and request by ID
+     * like a row of the Schedules table.
+     */
+    private static class ScheduleRow {
+        private final int scheduleId;
+        private final int driverId;
+        private final int vehicleId;
+        private final int requestId;
+        private final LocalDate date;
+        private final LocalTime time;
+        private final int durationMinutes;
+
+        ScheduleRow(Schedule schedule) {
+            this.scheduleId = schedule.getScheduleID();
+            this.driverId = schedule.getDriver().getDriverID();
+            this.vehicleId = schedule.getVehicle().getVehicleID();
+            this.requestId = schedule.getRideRequest().getRequestID();
+            this.date = schedule.getDate();
+            this.time = schedule.getTime();
+            this.durationMinutes = schedule.getDurationMinutes();
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package edu.ucalgary.oop;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Json holds the small amount of JSON support the HTTP API needs: a streaming
+ * writer that sends values to the output as they are produced, and a parser for
+ * the flat request bodies the API accepts.
+ * <p>
+ * Parsed objects map each name to a String, Long, Double, Boolean or null. Nested
+ * objects and arrays are not accepted in request bodies.
+ *
+ * @author Group 16
+ * @version 1.0
+ * @since 1.3
+ */
+
+public final class Json {
+
+    private Json() {
+        // Only static helpers
+    }
+
+    /**
+     * Parses a JSON object whose values are strings, numbers, booleans or null.
+     *
+     * @param text the JSON text
+     * @return the members of the object, in the order they appear
+     * @throws IllegalArgumentException if the text is not such an object
+     */
+    public static Map<String, Object> parseObject(String text) {
+        Parser parser = new Parser(text);
+        parser.skipWhitespace();
+        Map<String, Object> members = parser.readObject();
+        parser.skipWhitespace();
+        if (!parser.atEnd()) {
+            throw parser.error("Unexpected content after object");
+        }
+        return members;
+    }
+
+    /**
+     * Recursive descent parser over a string.
+     */
+    private static class Parser {
+        private final String text;
+        private int position = 0;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Map<String, Object> readObject() {
+            Map<String, Object> members = new LinkedHashMap<>();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                position++;
+                return members;
+            }
+
+            while (true) {
+                skipWhitespace();
+                String name = readString();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                members.put(name, readValue());
+                skipWhitespace();
+
+                char next = next();
+                if (next == '}') {
+                    return members;
+                }
+                if (next != ',') {
+                    throw error("Expected ',' or '}'");
+                }
+            }
+        }
+
+        private Object readValue() {
+            char c = peek();
+            if (c == '"') {
+                return readString();
+            }
+            if (c == '-' || (c >= '0' && c <= '9')) {
+                return readNumber();
+            }
+            if (text.startsWith("true", position)) {
+                position += 4;
+                return Boolean.TRUE;
+            }
+            if (text.startsWith("false", position)) {
+                position += 5;
+                return Boolean.FALSE;
+            }
+            if (text.startsWith("null", position)) {
+                position += 4;
+                return null;
+            }
+            throw error("Unsupported value");
+        }
+
+        private String readString() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+
+                char escaped = next();
+                switch (escaped) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        value.append(escaped);
+                        break;
+                    case 'b':
+                        value.append('\b');
+                        break;
+                    case 'f':
+                        value.append('\f');
+                        break;
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'u':
+                        if (position + 4 > text.length()) {
+                            throw error("Incomplete unicode escape");
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("Invalid unicode escape");
+                        }
+                        position += 4;
+                        break;
+                    default:
+                        throw error("Invalid escape");
+                }
+            }
+        }
+
+        private Object readNumber() {
+            int start = position;
+            boolean decimal = false;
+            while (!atEnd()) {
+                char c = text.charAt(position);
+                if (c == '.' || c == 'e' || c == 'E') {
+                    decimal = true;
+                } else if (!(c == '-' || c == '+' || (c >= '0' && c <= '9'))) {
+                    break;
+                }
+                position++;
+            }
+
+            String number = text.substring(start, position);
+            try {
+                return decimal ? (Object) Double.parseDouble(number) : (Object) Long.parseLong(number);
+            } catch (NumberFormatException e) {
+                throw error("Invalid number");
+            }
+        }
+
+        void skipWhitespace() {
+            while (!atEnd() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+
+        boolean atEnd() {
+            return position >= text.length();
+        }
+
+        private char peek() {
+            if (atEnd()) {
+                throw error("Unexpected end of input");
+            }
+            return text.charAt(position);
+        }
+
+        private char next() {
+            char c = peek();
+            position++;
+            return c;
+        }
+
+        private void expect(char expected) {
+            if (next() != expected) {
+                throw error("Expected '" + expected + "'");
+            }
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + position);
+        }
+    }
+
+    /**
+     * Writes JSON to an Appendable as it is produced, adding the commas between
+     * members and array elements. Nothing is buffered beyond what the Appendable
+     * itself buffers, so a long array can be streamed element by element.
+     */
+    public static class Writer {
+        private final Appendable out;
+        // One entry per open object or array, true until its first member is written
+        private final Deque<Boolean> first = new ArrayDeque<>();
+        private boolean afterName = false;
+
+        /**
+         * Constructs a writer.
+         *
+         * @param out where the JSON text is written
+         */
+        public Writer(Appendable out) {
+            this.out = out;
+        }
+
+        public Writer beginObject() throws IOException {
+            separate();
+            out.append('{');
+            first.push(true);
+            return this;
+        }
+
+        public Writer endObject() throws IOException {
+            first.pop();
+            out.append('}');
+            return this;
+        }
+
+        public Writer beginArray() throws IOException {
+            separate();
+            out.append('[');
+            first.push(true);
+            return this;
+        }
+
+        public Writer endArray() throws IOException {
+            first.pop();
+            out.append(']');
+            return this;
+        }
+
+        /**
+         * Writes the name of the next object member.
+         *
+         * @param name the member name
+         * @return this writer
+         * @throws IOException if writing fails
+         */
+        public Writer name(String name) throws IOException {
+            separate();
+            quote(name);
+            out.append(':');
+            afterName = true;
+            return this;
+        }
+
+        public Writer value(String value) throws IOException {
+            separate();
+            if (value == null) {
+                out.append("null");
+            } else {
+                quote(value);
+            }
+            return this;
+        }
+
+        public Writer value(long value) throws IOException {
+            separate();
+            out.append(Long.toString(value));
+            return this;
+        }
+
+        public Writer value(boolean value) throws IOException {
+            separate();
+            out.append(value ? "true" : "false");
+            return this;
+        }
+
+        /**
+         * Writes a value by its string form, or null, such as a date or time.
+         *
+         * @param value the value to write
+         * @return this writer
+         * @throws IOException if writing fails
+         */
+        public Writer value(Object value) throws IOException {
+            return value(value == null ? null : value.toString());
+        }
+
+        /**
+         * Writes the comma before a member or element unless it is the first one.
+         */
+        private void separate() throws IOException {
+            if (afterName) {
+                afterName = false;
+                return;
+            }
+            if (!first.isEmpty()) {
+                if (!first.peek()) {
+                    out.append(',');
+                } else {
+                    first.pop();
+                    first.push(false);
+                }
+            }
+        }
+
+        private void quote(String value) throws IOException {
+            out.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"':
+                        out.append("\\\"");
+                        break;
+                    case '\\':
+                        out.append("\\\\");
+                        break;
+                    case '\n':
+                        out.append("\\n");
+                        break;
+                    case '\r':
+                        out.append("\\r");
+                        break;
+                    case '\t':
+                        out.append("\\t");
+                        break;
+                    default:
+                        if (c < 0x20) {
+                            out.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            out.append(c);
+                        }
+                }
+            }
+            out.append('"');
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package edu.ucalgary.oop;
+
+import java.time.LocalDate;
+
+/**
+ * ListingFilter narrows a paginated listing of ride requests or schedules.
+ * Every criterion is optional; a criterion left null matches everything.
+ * <p>
+ * For ride requests the date range applies to the request date and the driver
+ * matches rides with a schedule for that driver. For schedules the date range
+ * applies to the scheduled date, and the status and client apply to the ride
+ * request of the schedule.
+ *
+ * @author Group 16
+ * @version 1.0
+ * @since 1.3
+ */
+
+public class ListingFilter {
+    private String status;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private String clientName;
+    private Integer driverId;
+
+    public ListingFilter() {}
+
+    /**
+     * Gets the ride request status to match, such as "Pending".
+     * @return the status, or null for any status
+     */
+    public String getStatus() { return this.status; }
+
+    /**
+     * Gets the first date to include.
+     * @return the first date, or null for no lower bound
+     */
+    public LocalDate getFromDate() { return this.fromDate; }
+
+    /**
+     * Gets the last date to include.
+     * @return the last date, or null for no upper bound
+     */
+    public LocalDate getToDate() { return this.toDate; }
+
+    /**
+     * Gets the text the client name must contain, ignoring case.
+     * @return the client name text, or null for any client
+     */
+    public String getClientName() { return this.clientName; }
+
+    /**
+     * Gets the ID of the driver to match.
+     * @return the driver ID, or null for any driver
+     */
+    public Integer getDriverId() { return this.driverId; }
+
+    /**
+     * Sets the ride request status to match.
+     * @param status the status, or null for any status
+     */
+    public void setStatus(String status) { this.status = status; }
+
+    /**
+     * Sets the first date to include.
+     * @param fromDate the first date, or null for no lower bound
+     */
+    public void setFromDate(LocalDate fromDate) { this.fromDate = fromDate; }
+
+    /**
+     * Sets the last date to include.
+     * @param toDate the last date, or null for no upper bound
+     */
+    public void setToDate(LocalDate toDate) { this.toDate = toDate; }
+
+    /**
+     * Sets the text the client name must contain, ignoring case.
+     * @param clientName the client name text, or null for any client
+     */
+    public void setClientName(String clientName) { this.clientName = clientName; }
+
+    /**
+     * Sets the ID of the driver to match.
+     * @param driverId the driver ID, or null for any driver
+     */
+    public void setDriverId(Integer driverId) { this.driverId = driverId; }
+
+    /**
+     * Checks whether a date lies within the date range.
+     * @param date the date to check
+     * @return true if the date is in the range
+     */
+    public boolean includesDate(LocalDate date) {
+        if (fromDate != null && (date == null || date.isBefore(fromDate))) {
+            return false;
+        }
+        return toDate == null || (date != null && !date.isAfter(toDate));
+    }
+
+    /**
+     * Checks whether a ride request matches the status and client criteria.
+     * @param request the ride request to check
+     * @return true if the status and client name match
+     */
+    public boolean matchesRequest(RideRequest request) {
+        if (status != null && !status.equals(request.getStatus())) {
+            return false;
+        }
+        return clientName == null || (request.getClientName() != null &&
+                request.getClientName().toLowerCase().contains(clientName.toLowerCase()));
+    }
+}
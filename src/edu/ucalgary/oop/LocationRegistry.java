@@ -0,0 +1,317 @@
+package edu.ucalgary.oop;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * LocationRegistry gives every distinct address a compact integer ID and, where
+ * known, its coordinates.
+ * <p>
+ * Addresses are free text, so the same place is written many ways. They are
+ * registered under a canonical key that ignores case, punctuation, spacing and
+ * spelled-out street types and quadrants, so "1403 29 Street N.W." and
+ * "1403 29 st NW" get the same ID. Each ID keeps one display string, the first
+ * one registered. Rows loaded through the registry share one String per spelling
+ * instead of holding a copy each.
+ * <p>
+ * Coordinates are usually loaded from a file, one address per line:
+ * <pre>
+ * # Comments and blank lines are ignored
+ * "Foothills Medical Centre",51.0650,-114.1337
+ * 1403 29 St NW,51.0652,-114.1330
+ * </pre>
+ * The registry is safe to use from several threads.
+ *
+ * @author Group 16
+ * @version 1.0
+ * @since 1.3
+ */
+
+public class LocationRegistry {
+    /**
+     * The ID of a missing or blank address. Registered addresses start at 1.
+     */
+    public static final int UNKNOWN = 0;
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    // Spelled-out words and the abbreviations they are registered as
+    private static final Map<String, String> ABBREVIATIONS = Map.ofEntries(
+            Map.entry("street", "st"), Map.entry("avenue", "ave"), Map.entry("road", "rd"),
+            Map.entry("drive", "dr"), Map.entry("boulevard", "blvd"), Map.entry("trail", "tr"),
+            Map.entry("crescent", "cres"), Map.entry("court", "ct"), Map.entry("place", "pl"),
+            Map.entry("northwest", "nw"), Map.entry("northeast", "ne"),
+            Map.entry("southwest", "sw"), Map.entry("southeast", "se"));
+
+    // Exact strings seen before, so rows repeating an address skip the normalization
+    private final Map<String, Integer> idsByAddress = new HashMap<>();
+    private final Map<String, Integer> idsByKey = new HashMap<>();
+    private final Map<String, String> spellings = new HashMap<>();
+    // Indexed by ID; index 0 stands for UNKNOWN
+    private final List<String> addresses = new ArrayList<>();
+    private double[] latitudes = new double[16];
+    private double[] longitudes = new double[16];
+
+    /**
+     * Constructs an empty registry.
+     */
+    public LocationRegistry() {
+        addresses.add(null);
+        Arrays.fill(latitudes, Double.NaN);
+        Arrays.fill(longitudes, Double.NaN);
+    }
+
+    /**
+     * Loads a registry from the coordinate file format described above.
+     *
+     * @param source the file content
+     * @return the loaded registry
+     * @throws IOException if reading fails
+     * @throws IllegalArgumentException if a line is malformed, naming its line number
+     */
+    public static LocationRegistry load(Reader source) throws IOException {
+        LocationRegistry registry = new LocationRegistry();
+        BufferedReader reader = new BufferedReader(source);
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+
+            try {
+                List<String> fields = RideRequestImporter.splitFields(trimmed);
+                if (fields.size() != 3) {
+                    throw new IllegalArgumentException("Expected ADDRESS,LATITUDE,LONGITUDE");
+                }
+                registry.setCoordinates(fields.get(0),
+                        Double.parseDouble(fields.get(1).trim()), Double.parseDouble(fields.get(2).trim()));
+            } catch (IllegalArgumentException e) {
+                // NumberFormatException is an IllegalArgumentException too
+                throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        return registry;
+    }
+
+    /**
+     * Gets the ID of an address, registering it if it is new.
+     *
+     * @param address the address as written
+     * @return the ID, or UNKNOWN if the address is null or blank
+     */
+    public synchronized int intern(String address) {
+        if (address == null) {
+            return UNKNOWN;
+        }
+        Integer id = idsByAddress.get(address);
+        if (id != null) {
+            return id;
+        }
+
+        String key = key(address);
+        if (key.isEmpty()) {
+            return UNKNOWN;
+        }
+        id = idsByKey.get(key);
+        if (id == null) {
+            id = addresses.size();
+            addresses.add(address.trim().replaceAll("\\s+", " "));
+            idsByKey.put(key, id);
+            ensureCapacity(id + 1);
+        }
+        idsByAddress.put(address, id);
+        return id;
+    }
+
+    /**
+     * Gets the ID of an address without registering it.
+     *
+     * @param address the address as written
+     * @return the ID, or UNKNOWN if the address has not been registered
+     */
+    public synchronized int find(String address) {
+        if (address == null) {
+            return UNKNOWN;
+        }
+        Integer id = idsByAddress.get(address);
+        if (id == null) {
+            id = idsByKey.get(key(address));
+        }
+        return id == null ? UNKNOWN : id;
+    }
+
+    /**
+     * Registers an address and returns the String every caller gets for the same
+     * spelling, so rows repeating an address hold it once. The spelling itself is
+     * kept; rows are not rewritten to the display string of the ID.
+     *
+     * @param address the address as written
+     * @return an equal, shared String, or the address itself if it is null or blank
+     */
+    public synchronized String share(String address) {
+        if (intern(address) == UNKNOWN) {
+            return address;
+        }
+        return spellings.computeIfAbsent(address, spelling -> spelling);
+    }
+
+    /**
+     * Gets the display string of an ID.
+     *
+     * @param id a registered location ID
+     * @return the address first registered under the ID
+     * @throws IllegalArgumentException if the ID is not registered
+     */
+    public synchronized String getAddress(int id) {
+        checkId(id);
+        return addresses.get(id);
+    }
+
+    /**
+     * Sets the coordinates of an address, registering it if it is new.
+     *
+     * @param address the address as written
+     * @param latitude the latitude in degrees
+     * @param longitude the longitude in degrees
+     * @return the ID of the address
+     * @throws IllegalArgumentException if the address is blank or the coordinates are out of range
+     */
+    public synchronized int setCoordinates(String address, double latitude, double longitude) {
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Invalid coordinates: " + latitude + ", " + longitude);
+        }
+        int id = intern(address);
+        if (id == UNKNOWN) {
+            throw new IllegalArgumentException("Address is required");
+        }
+        latitudes[id] = latitude;
+        longitudes[id] = longitude;
+        return id;
+    }
+
+    /**
+     * Checks whether the coordinates of an ID are known.
+     *
+     * @param id a location ID
+     * @return true if the ID is registered and has coordinates
+     */
+    public synchronized boolean hasCoordinates(int id) {
+        return id > UNKNOWN && id < addresses.size() && !Double.isNaN(latitudes[id]);
+    }
+
+    /**
+     * Gets the latitude of an ID.
+     *
+     * @param id a registered location ID
+     * @return the latitude in degrees, or NaN if it is unknown
+     * @throws IllegalArgumentException if the ID is not registered
+     */
+    public synchronized double getLatitude(int id) {
+        checkId(id);
+        return latitudes[id];
+    }
+
+    /**
+     * Gets the longitude of an ID.
+     *
+     * @param id a registered location ID
+     * @return the longitude in degrees, or NaN if it is unknown
+     * @throws IllegalArgumentException if the ID is not registered
+     */
+    public synchronized double getLongitude(int id) {
+        checkId(id);
+        return longitudes[id];
+    }
+
+    /**
+     * Gets the straight-line distance between two locations.
+     *
+     * @param fromId a location ID
+     * @param toId a location ID
+     * @return the distance in kilometres, or NaN if either location has no coordinates
+     */
+    public synchronized double distanceKm(int fromId, int toId) {
+        if (!hasCoordinates(fromId) || !hasCoordinates(toId)) {
+            return Double.NaN;
+        }
+        return distanceKm(latitudes[fromId], longitudes[fromId], latitudes[toId], longitudes[toId]);
+    }
+
+    /**
+     * Gets the great-circle distance between two points.
+     *
+     * @param fromLatitude the latitude of the first point in degrees
+     * @param fromLongitude the longitude of the first point in degrees
+     * @param toLatitude the latitude of the second point in degrees
+     * @param toLongitude the longitude of the second point in degrees
+     * @return the distance in kilometres
+     */
+    public static double distanceKm(double fromLatitude, double fromLongitude,
+                                    double toLatitude, double toLongitude) {
+        double dLat = Math.toRadians(toLatitude - fromLatitude);
+        double dLon = Math.toRadians(toLongitude - fromLongitude);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+                Math.cos(Math.toRadians(fromLatitude)) * Math.cos(Math.toRadians(toLatitude)) *
+                        Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * Gets the number of registered addresses.
+     *
+     * @return the number of IDs handed out
+     */
+    public synchronized int size() {
+        return addresses.size() - 1;
+    }
+
+    /**
+     * Builds the key an address is registered under: lower case, dots dropped so
+     * "N.W." reads "nw", other punctuation as spaces, street types and quadrants
+     * abbreviated.
+     */
+    static String key(String address) {
+        String cleaned = address.toLowerCase(Locale.ROOT).replace(".", "").replaceAll("[^a-z0-9]+", " ").trim();
+        if (cleaned.isEmpty()) {
+            return cleaned;
+        }
+
+        StringBuilder key = new StringBuilder(cleaned.length());
+        for (String word : cleaned.split(" ")) {
+            if (key.length() > 0) {
+                key.append(' ');
+            }
+            key.append(ABBREVIATIONS.getOrDefault(word, word));
+        }
+        return key.toString();
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= latitudes.length) {
+            return;
+        }
+        int oldLength = latitudes.length;
+        int newLength = Math.max(capacity, oldLength * 2);
+        latitudes = Arrays.copyOf(latitudes, newLength);
+        longitudes = Arrays.copyOf(longitudes, newLength);
+        Arrays.fill(latitudes, oldLength, newLength, Double.NaN);
+        Arrays.fill(longitudes, oldLength, newLength, Double.NaN);
+    }
+
+    private void checkId(int id) {
+        if (id <= UNKNOWN || id >= addresses.size()) {
+            throw new IllegalArgumentException("Unknown location ID: " + id);
+        }
+    }
+}
@@ -1,5 +1,11 @@
 package edu.ucalgary.oop;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.sql.SQLException;
 
 /**
@@ -10,27 +16,50 @@ import java.sql.SQLException;
  * management, driver scheduling, and report generation.
  *
  * @author Group 16
- * @version 1.1
+ * @version 1.7
  * @since 1.0
  */
 public class Main {
 
     /**
      * The main method that serves as the entry point for the application.
-     * Initializes the database connection, services, controller, and user interface.
-     * @param args command line arguments (not used)
+     * Initializes the database connection, brings the schema up to date, and sets up
+     * the services, controller, and user interface.
+     * With {@code --http} or {@code --http=PORT} the JSON API is served over HTTP
+     * instead of starting the command-line interface. With {@code --durations=PATH}
+     * trip durations are estimated from a zone file instead of 30 minutes per ride, and
+     * with {@code --locations=PATH} address coordinates are loaded from a file so rides
+     * get the driver and vehicle nearest to their pickup.
+     * @param args command line arguments
      */
     public static void main(String[] args) {
         try {
+            // Apply pending schema migrations before anything queries the tables
+            DataAccessManager database = new DataAccessManager();
+            int applied = new SchemaMigrator().migrate();
+            if (applied > 0) {
+                System.out.println("Applied " + applied + " database migrations.");
+            }
+            checkQueryPlans(database);
+            LocationRegistry locations = locationRegistry(args);
+            database.setLocationRegistry(locations);
+
             // Initialize application components
-            DataAccessManager dataManager = new DataAccessManager();
-            SchedulingService schedulingService = new SchedulingService(dataManager);
+            // Drivers and vehicles are cached, everything else goes to the database
+            TransportationRepository dataManager = new CachingRepository(database);
+            SchedulingService schedulingService = new SchedulingService(dataManager, durationEstimator(args), locations);
             ReportGeneratorService reportService = new ReportGeneratorService(dataManager);
 
             // Initialize controller with all required services
             TransportationController controller = new TransportationController(
                     dataManager, schedulingService, reportService);
 
+            Integer port = httpPort(args);
+            if (port != null) {
+                startHttpServer(controller, port);
+                return;
+            }
+
             // Create and start the user interface
             UserInterface ui = new CommandLineUI(controller);
 
@@ -43,6 +72,117 @@ public class Main {
         } catch (SQLException e) {
             System.err.println("Failed to initialize application: " + e.getMessage());
             e.printStackTrace();
+        } catch (IOException e) {
+            System.err.println("Failed to start HTTP server: " + e.getMessage());
+            e.printStackTrace();
         }
     }
+
+    /**
+     * Warns about scheduler queries that would read whole tables because no index
+     * covers them. The check is advisory, so a failure to run it is only reported.
+     * @param database the data access manager whose queries are checked
+     */
+    private static void checkQueryPlans(DataAccessManager database) {
+        try {
+            for (String warning : database.checkQueryPlans()) {
+                System.err.println("Warning: " + warning);
+            }
+        } catch (SQLException e) {
+            System.err.println("Could not check query plans: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the trip duration estimator named by the {@code --durations=PATH} option.
+     * Without the option, or if the file cannot be read, every ride takes 30 minutes.
+     * @param args command line arguments
+     * @return the estimator the scheduler uses
+     */
+    private static TripDurationEstimator durationEstimator(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--durations=")) {
+                continue;
+            }
+            String path = arg.substring("--durations=".length());
+            try (Reader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+                return new CachingTripDurationEstimator(
+                        ZoneTripDurationEstimator.load(reader, TripDurationEstimator.DEFAULT_MINUTES));
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Could not load trip durations from " + path + ": " + e.getMessage());
+                System.err.println("Every ride is scheduled for " + TripDurationEstimator.DEFAULT_MINUTES + " minutes.");
+            }
+        }
+        return TripDurationEstimator.fixed(TripDurationEstimator.DEFAULT_MINUTES);
+    }
+
+    /**
+     * Loads the address coordinates named by the {@code --locations=PATH} option.
+     * Without the option, or if the file cannot be read, addresses are still interned
+     * but none has coordinates, and rides are placed by vehicle capacity.
+     * @param args command line arguments
+     * @return the registry loaded addresses are interned in
+     */
+    private static LocationRegistry locationRegistry(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--locations=")) {
+                continue;
+            }
+            String path = arg.substring("--locations=".length());
+            try (Reader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+                return LocationRegistry.load(reader);
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Could not load locations from " + path + ": " + e.getMessage());
+            }
+        }
+        return new LocationRegistry();
+    }
+
+    /**
+     * Finds the port of the {@code --http} option.
+     * @param args command line arguments
+     * @return the port, or null if the option is not given
+     */
+    private static Integer httpPort(String[] args) {
+        for (String arg : args) {
+            if (arg.equals("--http")) {
+                return HttpApiServer.DEFAULT_PORT;
+            }
+            if (arg.startsWith("--http=")) {
+                return Integer.parseInt(arg.substring("--http=".length()));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Starts the HTTP API server, which keeps running until the JVM shuts down.
+     * @param controller the controller whose operations are served
+     * @param port the port to listen on
+     * @throws IOException if the port cannot be bound
+     */
+    private static void startHttpServer(TransportationController controller, int port) throws IOException {
+        // The JDK server reads this once, when the first server is created; without it small
+        // responses on a kept-alive connection wait for the client's delayed ACK
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+
+        AsyncTransportationController async = new AsyncTransportationController(controller);
+        HttpApiServer server = new HttpApiServer(async, new InetSocketAddress(port));
+
+        // Stop serving and close database connections on Ctrl+C
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            async.close();
+            try {
+                DatabaseConnector.closeConnection();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }));
+
+        server.start();
+        System.out.println("Serving the API on http://localhost:" + server.getPort() + "/api");
+    }
 }
\ No newline at end of file
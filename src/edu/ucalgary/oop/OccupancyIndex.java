@@ -0,0 +1,636 @@
+package edu.ucalgary.oop;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
+
+/**
+ * OccupancyIndex is an in-memory record of the time blocks already booked for
+ * each driver and each vehicle, grouped by date. It lets the scheduler answer
+ * "is this driver or vehicle free in this window" without a database round trip.
+ * <p>
+ * Each driver and vehicle has a timeline of bookings sorted by start minute, so an
+ * overlap check only looks at the few bookings that start near the window.
+ * A bounded number of days is kept; the day least recently loaded or looked up with
+ * {@link #isLoaded} is dropped first.
+ * <p>
+ * A booking belongs to the date it starts on and may run past midnight. Windows are
+ * date-time ranges that may span midnight too, so a check looks at every date the
+ * window touches and at the date before it, whose last bookings may still be running.
+ * <p>
+ * Bookings may also record where their ride ends. Those drop-off points are kept in
+ * SpatialGridIndexes per hour of the day, so the drivers and vehicles whose last ride
+ * before a given time ended nearest to a place can be found without visiting every one.
+ * <p>
+ * The class is thread-safe. Each date has its own lock, taken to book and release
+ * rides and to search drop-off points, so work on different dates does not wait on
+ * one monitor. Free checks and busy-until lookups take no lock at all: a driver's or
+ * vehicle's bookings of a date are replaced rather than changed when a ride is booked
+ * or released, so a check always reads a consistent copy. The predicates given to the
+ * drop-off searches run with that date locked; they may check whether drivers and
+ * vehicles are free on any date, but must not book or release rides.
+ *
+ * @author Group 16
+ * @version 1.3
+ * @since 1.1
+ */
+
+public class OccupancyIndex {
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    // Positions of the driver and the vehicle in a booking's assignment
+    private static final int DRIVER = 0;
+    private static final int VEHICLE = 1;
+
+    private final int maxDays;
+    private final Map<LocalDate, DayOccupancy> days = new ConcurrentHashMap<>();
+    // Orders the uses of days, so the least recently used one is evicted first
+    private final AtomicLong useCounter = new AtomicLong();
+
+    /**
+     * Constructs an empty index that keeps at most the given number of days.
+     *
+     * @param maxDays the maximum number of dates kept in memory
+     */
+    public OccupancyIndex(int maxDays) {
+        this.maxDays = maxDays;
+    }
+
+    /**
+     * Checks whether bookings for a date have been loaded into the index.
+     *
+     * @param date the date to check
+     * @return true if the date is loaded
+     */
+    public boolean isLoaded(LocalDate date) {
+        DayOccupancy day = days.get(date);
+        if (day == null) {
+            return false;
+        }
+        day.lastUsed = useCounter.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Marks a date as loaded and removes any bookings previously recorded for it.
+     * Bookings for the date are then added with {@link #book}.
+     *
+     * @param date the date to reset
+     */
+    public void resetDay(LocalDate date) {
+        DayOccupancy day = new DayOccupancy();
+        day.lastUsed = useCounter.incrementAndGet();
+        days.put(date, day);
+        evictDays();
+    }
+
+    /**
+     * Forgets everything recorded for a date, so it is loaded again on next use.
+     *
+     * @param date the date to forget
+     */
+    public void invalidateDay(LocalDate date) {
+        days.remove(date);
+    }
+
+    /**
+     * Drops the least recently used days until at most the maximum number is kept.
+     * Loading a day is rare, so the scan over the kept days is cheap.
+     */
+    private void evictDays() {
+        synchronized (days) {
+            while (days.size() > maxDays) {
+                Map.Entry<LocalDate, DayOccupancy> eldest = null;
+                for (Map.Entry<LocalDate, DayOccupancy> entry : days.entrySet()) {
+                    if (eldest == null || entry.getValue().lastUsed < eldest.getValue().lastUsed) {
+                        eldest = entry;
+                    }
+                }
+                days.remove(eldest.getKey(), eldest.getValue());
+            }
+        }
+    }
+
+    /**
+     * Records that a driver and vehicle are busy for a ride. Ignored if the date is not loaded.
+     *
+     * @param date the date of the ride
+     * @param requestId the ride request the booking belongs to
+     * @param driverId the assigned driver
+     * @param vehicleId the assigned vehicle
+     * @param start the start of the busy block
+     * @param end the end of the busy block; before the start if it is on the next date
+     */
+    public void book(LocalDate date, int requestId, int driverId, int vehicleId, LocalTime start, LocalTime end) {
+        book(date, requestId, driverId, vehicleId, start, end, Double.NaN, Double.NaN);
+    }
+
+    /**
+     * Records that a driver and vehicle are busy for a ride and where the ride ends.
+     * Ignored if the date is not loaded.
+     *
+     * @param date the date of the ride
+     * @param requestId the ride request the booking belongs to
+     * @param driverId the assigned driver
+     * @param vehicleId the assigned vehicle
+     * @param start the start of the busy block
+     * @param end the end of the busy block; before the start if it is on the next date
+     * @param dropOffLatitude the latitude the ride ends at, or NaN if it is unknown
+     * @param dropOffLongitude the longitude the ride ends at, or NaN if it is unknown
+     */
+    public void book(LocalDate date, int requestId, int driverId, int vehicleId, LocalTime start, LocalTime end,
+                     double dropOffLatitude, double dropOffLongitude) {
+        DayOccupancy day = days.get(date);
+        if (day == null) {
+            return;
+        }
+
+        // A block running past midnight stays on its date; checks of the next date look back at it
+        int startMinute = toMinute(start);
+        int endMinute = endMinute(start, end);
+
+        Booking booking = new Booking(requestId, startMinute, endMinute);
+        synchronized (day) {
+            Timeline driverTimeline = day.drivers.getOrDefault(driverId, Timeline.EMPTY).with(booking);
+            Timeline vehicleTimeline = day.vehicles.getOrDefault(vehicleId, Timeline.EMPTY).with(booking);
+            day.drivers.put(driverId, driverTimeline);
+            day.vehicles.put(vehicleId, vehicleTimeline);
+            day.bookingsByRequest.computeIfAbsent(requestId, id -> new ArrayList<>())
+                    .add(new int[]{driverId, vehicleId});
+            if (!Double.isNaN(dropOffLatitude) && !Double.isNaN(dropOffLongitude)) {
+                day.dropOffs.put(requestId, new double[]{dropOffLatitude, dropOffLongitude});
+            }
+
+            // The new ride ends the wait after the previous one
+            day.driverPositions.file(driverTimeline, booking, day.dropOffs);
+            day.driverPositions.refilePrevious(driverTimeline, startMinute, day.dropOffs);
+            day.vehiclePositions.file(vehicleTimeline, booking, day.dropOffs);
+            day.vehiclePositions.refilePrevious(vehicleTimeline, startMinute, day.dropOffs);
+        }
+    }
+
+    /**
+     * Removes the bookings of a ride request from every loaded date, for example
+     * after it was cancelled, completed or set back to pending.
+     *
+     * @param requestId the ride request whose bookings are released
+     */
+    public void release(int requestId) {
+        for (DayOccupancy day : days.values()) {
+            synchronized (day) {
+                release(day, requestId);
+            }
+        }
+    }
+
+    private static void release(DayOccupancy day, int requestId) {
+        List<int[]> assignments = day.bookingsByRequest.remove(requestId);
+        if (assignments == null) {
+            return;
+        }
+        day.dropOffs.remove(requestId);
+        day.driverPositions.unfile(requestId);
+        day.vehiclePositions.unfile(requestId);
+        for (int[] assignment : assignments) {
+            // The previous ride's wait now lasts until the ride after the released one
+            releaseFrom(day, DRIVER, assignment[DRIVER], requestId);
+            releaseFrom(day, VEHICLE, assignment[VEHICLE], requestId);
+        }
+    }
+
+    private static void releaseFrom(DayOccupancy day, int role, int id, int requestId) {
+        Timeline timeline = day.timelines(role).get(id);
+        if (timeline == null) {
+            return;
+        }
+        int start = timeline.startOf(requestId);
+        timeline = timeline.without(requestId);
+        day.timelines(role).put(id, timeline);
+        day.positions(role).refilePrevious(timeline, start, day.dropOffs);
+    }
+
+    /**
+     * Checks whether a driver has no booking overlapping a time window.
+     * Windows that touch a booking count as overlapping.
+     *
+     * @param date the date of the window
+     * @param driverId the driver to check
+     * @param from the start of the window
+     * @param to the end of the window; before the start if it is on the next date
+     * @return true if the driver is free for the whole window
+     */
+    public boolean isDriverFree(LocalDate date, int driverId, LocalTime from, LocalTime to) {
+        return isFree(DRIVER, driverId, date, toMinute(from), endMinute(from, to));
+    }
+
+    /**
+     * Checks whether a driver has no booking overlapping a time window.
+     * Windows that touch a booking count as overlapping.
+     *
+     * @param driverId the driver to check
+     * @param from the start of the window
+     * @param to the end of the window
+     * @return true if the driver is free for the whole window
+     */
+    public boolean isDriverFree(int driverId, LocalDateTime from, LocalDateTime to) {
+        LocalDate date = from.toLocalDate();
+        return isFree(DRIVER, driverId, date, toMinute(from.toLocalTime()), minutesFrom(date, to));
+    }
+
+    /**
+     * Checks whether a vehicle has no booking overlapping a time window.
+     * Windows that touch a booking count as overlapping.
+     *
+     * @param date the date of the window
+     * @param vehicleId the vehicle to check
+     * @param from the start of the window
+     * @param to the end of the window; before the start if it is on the next date
+     * @return true if the vehicle is free for the whole window
+     */
+    public boolean isVehicleFree(LocalDate date, int vehicleId, LocalTime from, LocalTime to) {
+        return isFree(VEHICLE, vehicleId, date, toMinute(from), endMinute(from, to));
+    }
+
+    /**
+     * Checks whether a vehicle has no booking overlapping a time window.
+     * Windows that touch a booking count as overlapping.
+     *
+     * @param vehicleId the vehicle to check
+     * @param from the start of the window
+     * @param to the end of the window
+     * @return true if the vehicle is free for the whole window
+     */
+    public boolean isVehicleFree(int vehicleId, LocalDateTime from, LocalDateTime to) {
+        LocalDate date = from.toLocalDate();
+        return isFree(VEHICLE, vehicleId, date, toMinute(from.toLocalTime()), minutesFrom(date, to));
+    }
+
+    /**
+     * Gets when a driver's last booking before a given time ends, which tells how
+     * long the driver would sit idle before a ride at that time.
+     *
+     * @param date the date to look at
+     * @param driverId the driver to check
+     * @param time the time to look back from
+     * @return the end of the last earlier booking in minutes from midnight, or -1 if there is none
+     */
+    public int getDriverBusyUntil(LocalDate date, int driverId, LocalTime time) {
+        return busyUntil(DRIVER, driverId, date, time);
+    }
+
+    /**
+     * Gets when a vehicle's last booking before a given time ends, which tells how
+     * long the vehicle would sit idle before a ride at that time.
+     *
+     * @param date the date to look at
+     * @param vehicleId the vehicle to check
+     * @param time the time to look back from
+     * @return the end of the last earlier booking in minutes from midnight, or -1 if there is none
+     */
+    public int getVehicleBusyUntil(LocalDate date, int vehicleId, LocalTime time) {
+        return busyUntil(VEHICLE, vehicleId, date, time);
+    }
+
+    private int busyUntil(int role, int id, LocalDate date, LocalTime time) {
+        DayOccupancy day = days.get(date);
+        Timeline timeline = day == null ? null : day.timelines(role).get(id);
+        return timeline == null ? -1 : timeline.latestEndBefore(toMinute(time));
+    }
+
+    /**
+     * Finds the vehicles whose last booking before a given time ended nearest to a
+     * place. Vehicles with no earlier booking, or whose last ride's drop-off is
+     * unknown, are not returned.
+     *
+     * @param date the date to look at
+     * @param time the time to look back from
+     * @param latitude the latitude of the place
+     * @param longitude the longitude of the place
+     * @param k the most vehicles to return
+     * @param accept which vehicle IDs may be returned
+     * @return up to k vehicles nearest first, positioned where their last ride ended
+     */
+    public List<SpatialGridIndex.Neighbor> nearestVehiclesAfterRides(
+            LocalDate date, LocalTime time, double latitude, double longitude, int k, IntPredicate accept) {
+        return nearestAfterRides(date, time, latitude, longitude, k, accept, VEHICLE);
+    }
+
+    /**
+     * Finds the drivers whose last booking before a given time ended nearest to a
+     * place. Drivers with no earlier booking, or whose last ride's drop-off is
+     * unknown, are not returned.
+     *
+     * @param date the date to look at
+     * @param time the time to look back from
+     * @param latitude the latitude of the place
+     * @param longitude the longitude of the place
+     * @param k the most drivers to return
+     * @param accept which driver IDs may be returned
+     * @return up to k drivers nearest first, positioned where their last ride ended
+     */
+    public List<SpatialGridIndex.Neighbor> nearestDriversAfterRides(
+            LocalDate date, LocalTime time, double latitude, double longitude, int k, IntPredicate accept) {
+        return nearestAfterRides(date, time, latitude, longitude, k, accept, DRIVER);
+    }
+
+    /**
+     * Searches a day's drop-off points for rides that are the last one before the
+     * given time of an accepted driver or vehicle, and returns those owners.
+     *
+     * @param role DRIVER or VEHICLE, the index of the owner in a request's assignments
+     */
+    private List<SpatialGridIndex.Neighbor> nearestAfterRides(LocalDate date, LocalTime time, double latitude,
+                                                              double longitude, int k, IntPredicate accept, int role) {
+        DayOccupancy day = days.get(date);
+        if (day == null) {
+            return Collections.emptyList();
+        }
+        int minute = toMinute(time);
+        synchronized (day) {
+            SpatialGridIndex positions = day.positions(role).at(minute);
+            if (positions == null) {
+                return Collections.emptyList();
+            }
+
+            List<SpatialGridIndex.Neighbor> rides = positions.nearest(latitude, longitude, k,
+                    requestId -> ownerAfterRide(day, requestId, minute, accept, role) >= 0);
+
+            List<SpatialGridIndex.Neighbor> owners = new ArrayList<>(rides.size());
+            for (SpatialGridIndex.Neighbor ride : rides) {
+                owners.add(new SpatialGridIndex.Neighbor(ownerAfterRide(day, ride.getId(), minute, accept, role),
+                        ride.getDistanceKm(), ride.getLatitude(), ride.getLongitude()));
+            }
+            return owners;
+        }
+    }
+
+    /**
+     * Finds the accepted driver or vehicle whose last booking before a minute belongs
+     * to a request.
+     *
+     * @return the owner's ID, or -1 if the request is no accepted owner's last booking
+     */
+    private static int ownerAfterRide(DayOccupancy day, int requestId, int minute, IntPredicate accept, int role) {
+        List<int[]> assignments = day.bookingsByRequest.get(requestId);
+        if (assignments == null) {
+            return -1;
+        }
+        Map<Integer, Timeline> timelines = day.timelines(role);
+        for (int[] assignment : assignments) {
+            int owner = assignment[role];
+            if (timelines.get(owner).previousRequest(minute) == requestId && accept.test(owner)) {
+                return owner;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks a driver or vehicle for bookings overlapping a window given in minutes
+     * from the start of a date, which may run into the following dates. Each date is
+     * checked in its own minutes. A booking is shorter than a day, so of the earlier
+     * dates only the one before the window can still be running into it. Dates that
+     * are not loaded have no bookings.
+     *
+     * @param role DRIVER or VEHICLE
+     */
+    private boolean isFree(int role, int id, LocalDate date, int fromMinute, int toMinute) {
+        for (int offset = -1; offset <= toMinute / MINUTES_PER_DAY; offset++) {
+            DayOccupancy day = days.get(date.plusDays(offset));
+            Timeline timeline = day == null ? null : day.timelines(role).get(id);
+            int shift = offset * MINUTES_PER_DAY;
+            if (timeline != null && timeline.overlaps(fromMinute - shift, toMinute - shift)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int toMinute(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    /**
+     * Gets the end of a block in minutes from the start of its date, past the end of
+     * the day if the end time is before the start time.
+     */
+    private static int endMinute(LocalTime start, LocalTime end) {
+        int endMinute = toMinute(end);
+        return endMinute < toMinute(start) ? endMinute + MINUTES_PER_DAY : endMinute;
+    }
+
+    private static int minutesFrom(LocalDate date, LocalDateTime time) {
+        return (int) (time.toLocalDate().toEpochDay() - date.toEpochDay()) * MINUTES_PER_DAY +
+                toMinute(time.toLocalTime());
+    }
+
+    /**
+     * Bookings of one date. Changes are made with the object's own lock held; the
+     * timelines may also be read without it.
+     */
+    private static class DayOccupancy {
+        private final Map<Integer, Timeline> drivers = new ConcurrentHashMap<>();
+        private final Map<Integer, Timeline> vehicles = new ConcurrentHashMap<>();
+        // Driver and vehicle of each booking, so a request can be released without a scan
+        private final Map<Integer, List<int[]>> bookingsByRequest = new HashMap<>();
+        // Latitude and longitude where each ride with a known drop-off ends, keyed by request ID
+        private final Map<Integer, double[]> dropOffs = new HashMap<>();
+        private final Positions driverPositions = new Positions();
+        private final Positions vehiclePositions = new Positions();
+        // When the day was last loaded or looked up, for eviction
+        private volatile long lastUsed;
+
+        Map<Integer, Timeline> timelines(int role) {
+            return role == DRIVER ? drivers : vehicles;
+        }
+
+        Positions positions(int role) {
+            return role == DRIVER ? driverPositions : vehiclePositions;
+        }
+    }
+
+    /**
+     * Where the drivers or the vehicles of a day wait between rides. Each ride with a
+     * known drop-off is filed under every hour from its start until the next ride of
+     * its driver or vehicle starts, so a query only visits the rides that may be the
+     * latest one at its time, not every ride of the day.
+     */
+    private static class Positions {
+        private static final int HOURS_PER_DAY = 24;
+
+        // Drop-off points keyed by request ID, created for the hours that have any
+        private final SpatialGridIndex[] byHour = new SpatialGridIndex[HOURS_PER_DAY];
+        // First and last hour each request is filed under
+        private final Map<Integer, int[]> hoursByRequest = new HashMap<>();
+
+        SpatialGridIndex at(int minute) {
+            return byHour[Math.min(minute / 60, HOURS_PER_DAY - 1)];
+        }
+
+        /**
+         * Files a booking under the hours until the next start on its timeline.
+         */
+        void file(Timeline timeline, Booking booking, Map<Integer, double[]> dropOffs) {
+            unfile(booking.requestId);
+            double[] dropOff = dropOffs.get(booking.requestId);
+            if (dropOff == null) {
+                return;
+            }
+
+            Integer nextStart = timeline.byStart.higherKey(booking.startMinute);
+            int first = booking.startMinute / 60;
+            int last = nextStart == null ? HOURS_PER_DAY - 1 : Math.min(nextStart / 60, HOURS_PER_DAY - 1);
+            for (int hour = first; hour <= last; hour++) {
+                if (byHour[hour] == null) {
+                    byHour[hour] = new SpatialGridIndex();
+                }
+                byHour[hour].put(booking.requestId, dropOff[0], dropOff[1]);
+            }
+            hoursByRequest.put(booking.requestId, new int[]{first, last});
+        }
+
+        /**
+         * Files the bookings starting last before a minute again, after the next start changed.
+         */
+        void refilePrevious(Timeline timeline, int minute, Map<Integer, double[]> dropOffs) {
+            if (minute < 0) {
+                return;
+            }
+            Map.Entry<Integer, List<Booking>> previous = timeline.byStart.lowerEntry(minute);
+            if (previous != null) {
+                for (Booking booking : previous.getValue()) {
+                    file(timeline, booking, dropOffs);
+                }
+            }
+        }
+
+        void unfile(int requestId) {
+            int[] hours = hoursByRequest.remove(requestId);
+            if (hours != null) {
+                for (int hour = hours[0]; hour <= hours[1]; hour++) {
+                    byHour[hour].remove(requestId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Busy block of one ride, in minutes from the start of the day.
+     */
+    private static class Booking {
+        private final int requestId;
+        private final int startMinute;
+        private final int endMinute;
+
+        Booking(int requestId, int startMinute, int endMinute) {
+            this.requestId = requestId;
+            this.startMinute = startMinute;
+            this.endMinute = endMinute;
+        }
+    }
+
+    /**
+     * Bookings of one driver or vehicle sorted by start minute. The longest booking
+     * bounds how far back an overlapping booking can start. A timeline is never
+     * changed once made; booking or releasing a ride makes a new one, which is cheap
+     * since a driver or vehicle has only a few rides a day.
+     */
+    private static class Timeline {
+        private static final Timeline EMPTY = new Timeline(new TreeMap<>(), 0);
+
+        private final TreeMap<Integer, List<Booking>> byStart;
+        private final int longestBooking;
+
+        private Timeline(TreeMap<Integer, List<Booking>> byStart, int longestBooking) {
+            this.byStart = byStart;
+            this.longestBooking = longestBooking;
+        }
+
+        /**
+         * Gets a copy of this timeline with a booking added.
+         */
+        Timeline with(Booking booking) {
+            TreeMap<Integer, List<Booking>> copy = new TreeMap<>(byStart);
+            List<Booking> sameStart = new ArrayList<>(copy.getOrDefault(booking.startMinute, List.of()));
+            sameStart.add(booking);
+            copy.put(booking.startMinute, sameStart);
+            return new Timeline(copy, Math.max(longestBooking, booking.endMinute - booking.startMinute));
+        }
+
+        /**
+         * Gets a copy of this timeline without the bookings of a request.
+         */
+        Timeline without(int requestId) {
+            TreeMap<Integer, List<Booking>> copy = new TreeMap<>();
+            for (Map.Entry<Integer, List<Booking>> entry : byStart.entrySet()) {
+                List<Booking> kept = new ArrayList<>(entry.getValue().size());
+                for (Booking booking : entry.getValue()) {
+                    if (booking.requestId != requestId) {
+                        kept.add(booking);
+                    }
+                }
+                if (!kept.isEmpty()) {
+                    copy.put(entry.getKey(), kept);
+                }
+            }
+            return new Timeline(copy, longestBooking);
+        }
+
+        /**
+         * Gets the start minute of a request's booking, or -1 if it has none here.
+         */
+        int startOf(int requestId) {
+            for (List<Booking> bookings : byStart.values()) {
+                for (Booking booking : bookings) {
+                    if (booking.requestId == requestId) {
+                        return booking.startMinute;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        int previousRequest(int minute) {
+            Map.Entry<Integer, List<Booking>> previous = byStart.lowerEntry(minute);
+            Booking latest = null;
+            if (previous != null) {
+                for (Booking booking : previous.getValue()) {
+                    if (latest == null || booking.endMinute > latest.endMinute) {
+                        latest = booking;
+                    }
+                }
+            }
+            return latest == null ? -1 : latest.requestId;
+        }
+
+        int latestEndBefore(int minute) {
+            Map.Entry<Integer, List<Booking>> previous = byStart.lowerEntry(minute);
+            int latestEnd = -1;
+            if (previous != null) {
+                for (Booking booking : previous.getValue()) {
+                    latestEnd = Math.max(latestEnd, booking.endMinute);
+                }
+            }
+            return latestEnd;
+        }
+
+        boolean overlaps(int fromMinute, int toMinute) {
+            for (List<Booking> bookings : byStart.subMap(fromMinute - longestBooking, true, toMinute, true).values()) {
+                for (Booking booking : bookings) {
+                    if (booking.startMinute <= toMinute && booking.endMinute >= fromMinute) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
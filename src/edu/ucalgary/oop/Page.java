@@ -0,0 +1,77 @@
+package edu.ucalgary.oop;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Page is one page of a listing paginated by ID. Instead of an offset, the next
+ * page is requested with the ID of the last item on this one, so each page is read
+ * straight from the primary key index no matter how deep into the listing it is,
+ * and rows added or removed in between do not shift items across pages.
+ *
+ * @param <T> the type of the items
+ * @author Group 16
+ * @version 1.0
+ * @since 1.3
+ */
+
+public class Page<T> {
+    private final List<T> items;
+    private final int nextAfterId;
+    private final boolean hasNext;
+
+    /**
+     * Constructs a page.
+     *
+     * @param items the items of the page, in ID order
+     * @param hasNext whether there are more items after this page
+     * @param nextAfterId the ID to request the next page after
+     */
+    public Page(List<T> items, boolean hasNext, int nextAfterId) {
+        this.items = Collections.unmodifiableList(items);
+        this.hasNext = hasNext;
+        this.nextAfterId = nextAfterId;
+    }
+
+    /**
+     * Builds a page from up to pageSize + 1 items read in ID order. The extra item
+     * only shows that a next page exists and is dropped.
+     *
+     * @param fetched the items read, in ID order
+     * @param pageSize the number of items per page
+     * @param afterId the ID the page was requested after
+     * @param id gets the ID of an item
+     * @return the page
+     */
+    static <T> Page<T> fromFetched(List<T> fetched, int pageSize, int afterId, ToIntFunction<T> id) {
+        boolean hasNext = fetched.size() > pageSize;
+        List<T> items = hasNext ? fetched.subList(0, pageSize) : fetched;
+        int last = items.isEmpty() ? afterId : id.applyAsInt(items.get(items.size() - 1));
+        return new Page<>(items, hasNext, last);
+    }
+
+    /**
+     * Gets the items of this page.
+     * @return the items, in ID order
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Checks whether there are more items after this page.
+     * @return true if a next page exists
+     */
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    /**
+     * Gets the ID to pass as afterId to fetch the next page.
+     * @return the ID of the last item on this page
+     */
+    public int getNextAfterId() {
+        return nextAfterId;
+    }
+}
@@ -0,0 +1,210 @@
+package edu.ucalgary.oop;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * ProximitySelector picks the driver and vehicle for a ride that have the shortest
+ * empty trip, or deadhead, to its pickup.
+ * <p>
+ * A vehicle waits where its last ride of the day before the pickup ended, or at its
+ * current location if it has not driven yet that day. A driver who has not driven
+ * yet starts at whichever vehicle they are given; one who has must first get from
+ * where their last ride ended to the vehicle. A pair's deadhead is the driver's
+ * distance to the vehicle plus the vehicle's distance to the pickup.
+ * <p>
+ * Vehicles are looked up with k-nearest queries on a VehicleLocationIndex of current
+ * locations and on the drop-off points in the OccupancyIndex, so only the nearest
+ * few vehicles are scored however large the fleet is. When every free driver has
+ * driven already, the drivers whose last ride ended nearest to the pickup are paired
+ * with those vehicles. Distances are straight lines on the projection of the
+ * SpatialGridIndexes the lookups use, for both legs of a deadhead, which ranks
+ * places well enough within a city.
+ *
+ * @author Group 16
+ * @version 1.1
+ * @since 1.3
+ */
+
+public class ProximitySelector {
+    /**
+     * The default number of nearest vehicles scored for each ride.
+     */
+    public static final int DEFAULT_CANDIDATES = 8;
+
+    private final LocationRegistry locations;
+    private final OccupancyIndex occupancy;
+    private final VehicleLocationIndex vehicleLocations;
+    private final int candidates;
+
+    /**
+     * A driver and vehicle chosen for a ride.
+     */
+    public static class Choice {
+        private final int driverId;
+        private final int vehicleId;
+        private final double deadheadKm;
+
+        Choice(int driverId, int vehicleId, double deadheadKm) {
+            this.driverId = driverId;
+            this.vehicleId = vehicleId;
+            this.deadheadKm = deadheadKm;
+        }
+
+        public int getDriverId() {
+            return driverId;
+        }
+
+        public int getVehicleId() {
+            return vehicleId;
+        }
+
+        public double getDeadheadKm() {
+            return deadheadKm;
+        }
+    }
+
+    /**
+     * Constructs a selector that scores the DEFAULT_CANDIDATES nearest vehicles.
+     *
+     * @param locations the registry that resolves addresses to coordinates
+     * @param occupancy the bookings the positions of drivers and vehicles follow from
+     */
+    public ProximitySelector(LocationRegistry locations, OccupancyIndex occupancy) {
+        this(locations, occupancy, DEFAULT_CANDIDATES);
+    }
+
+    /**
+     * Constructs a selector.
+     *
+     * @param locations the registry that resolves addresses to coordinates
+     * @param occupancy the bookings the positions of drivers and vehicles follow from
+     * @param candidates the number of nearest vehicles scored for each ride
+     * @throws IllegalArgumentException if candidates is less than 1
+     */
+    public ProximitySelector(LocationRegistry locations, OccupancyIndex occupancy, int candidates) {
+        if (candidates < 1) {
+            throw new IllegalArgumentException("Invalid number of candidates: " + candidates);
+        }
+        this.locations = locations;
+        this.occupancy = occupancy;
+        this.vehicleLocations = new VehicleLocationIndex(locations);
+        this.candidates = candidates;
+    }
+
+    /**
+     * Records the current locations of vehicles. Vehicles whose location did not
+     * change since the last call are skipped cheaply.
+     *
+     * @param vehicles the vehicles of the fleet
+     */
+    public void updateVehicles(List<Vehicle> vehicles) {
+        vehicleLocations.updateAll(vehicles);
+    }
+
+    /**
+     * Gets the coordinates of an address.
+     *
+     * @param location the address
+     * @return the latitude and longitude, or null if they are unknown
+     */
+    public double[] coordinatesOf(String location) {
+        int id = locations.intern(location);
+        if (!locations.hasCoordinates(id)) {
+            return null;
+        }
+        return new double[]{locations.getLatitude(id), locations.getLongitude(id)};
+    }
+
+    /**
+     * Picks the free driver and vehicle with the shortest deadhead to a pickup.
+     *
+     * @param date the date of the ride
+     * @param time the pickup time
+     * @param pickupLocation where the ride starts
+     * @param drivers the drivers to consider, in the order to prefer among equally near ones
+     * @param driverFree which driver IDs are free
+     * @param vehicleFree which vehicle IDs are free and meet the ride's requirements
+     * @return the chosen pair, or null if the pickup has no coordinates, no driver
+     *         is free, or no free vehicle or driver near the pickup is located
+     */
+    public Choice select(LocalDate date, LocalTime time, String pickupLocation,
+                         List<Driver> drivers, IntPredicate driverFree, IntPredicate vehicleFree) {
+        double[] pickup = coordinatesOf(pickupLocation);
+        if (pickup == null) {
+            return null;
+        }
+
+        // A driver without an earlier ride today starts at the vehicle, so any vehicle suits them
+        // (the earlier-ride lookup is cheaper than the free check, so it goes first)
+        int freshDriver = -1;
+        for (Driver driver : drivers) {
+            if (occupancy.getDriverBusyUntil(date, driver.getDriverID(), time) < 0
+                    && driverFree.test(driver.getDriverID())) {
+                freshDriver = driver.getDriverID();
+                break;
+            }
+        }
+
+        List<SpatialGridIndex.Neighbor> vehicles = nearestVehicles(date, time, pickup, vehicleFree);
+        if (vehicles.isEmpty()) {
+            return null;
+        }
+        if (freshDriver >= 0) {
+            SpatialGridIndex.Neighbor nearest = vehicles.get(0);
+            return new Choice(freshDriver, nearest.getId(), nearest.getDistanceKm());
+        }
+
+        // Drivers who have driven are scored among those whose last ride ended near the
+        // pickup, which is where the candidate vehicles are as well
+        List<SpatialGridIndex.Neighbor> nearbyDrivers = occupancy.nearestDriversAfterRides(date, time,
+                pickup[0], pickup[1], candidates, driverFree);
+        if (nearbyDrivers.isEmpty()) {
+            return null;
+        }
+
+        Choice best = null;
+        for (SpatialGridIndex.Neighbor vehicle : vehicles) {
+            if (best != null && vehicle.getDistanceKm() >= best.getDeadheadKm()) {
+                // Vehicles come nearest first and no driver makes the deadhead shorter
+                break;
+            }
+            for (SpatialGridIndex.Neighbor driver : nearbyDrivers) {
+                // Measured like the vehicle's distance to the pickup, so the two legs add up
+                double deadheadKm = vehicle.getDistanceKm() + vehicleLocations.distanceKm(
+                        driver.getLatitude(), driver.getLongitude(), vehicle.getLatitude(), vehicle.getLongitude());
+                if (best == null || deadheadKm < best.getDeadheadKm()) {
+                    best = new Choice(driver.getId(), vehicle.getId(), deadheadKm);
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Finds the free vehicles nearest to a pickup, at their current location if
+     * they have not driven yet that day or where their last earlier ride ended.
+     */
+    private List<SpatialGridIndex.Neighbor> nearestVehicles(LocalDate date, LocalTime time, double[] pickup,
+                                                            IntPredicate vehicleFree) {
+        List<SpatialGridIndex.Neighbor> moved = occupancy.nearestVehiclesAfterRides(date, time,
+                pickup[0], pickup[1], candidates, vehicleFree);
+
+        // Only vehicles nearer than the farthest of a full list of moved ones can make the cut
+        double maxKm = moved.size() < candidates
+                ? Double.POSITIVE_INFINITY : moved.get(moved.size() - 1).getDistanceKm();
+        List<SpatialGridIndex.Neighbor> waiting = vehicleLocations.nearest(pickup[0], pickup[1], candidates, maxKm,
+                id -> occupancy.getVehicleBusyUntil(date, id, time) < 0 && vehicleFree.test(id));
+
+        // The two never share a vehicle: one has no earlier ride, the other does
+        List<SpatialGridIndex.Neighbor> nearest = new ArrayList<>(waiting.size() + moved.size());
+        nearest.addAll(waiting);
+        nearest.addAll(moved);
+        nearest.sort(Comparator.comparingDouble(SpatialGridIndex.Neighbor::getDistanceKm));
+        return nearest.size() > candidates ? nearest.subList(0, candidates) : nearest;
+    }
+}
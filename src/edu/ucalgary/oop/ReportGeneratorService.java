@@ -1,5 +1,6 @@
 package edu.ucalgary.oop;
 
+import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
@@ -8,9 +9,10 @@ import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.TemporalAdjusters;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
 /**
  * The ReportGeneratorService class is responsible for generating and writing
@@ -20,102 +22,59 @@ import java.util.Map;
  * based on the requirements of the Calgary Access Network organization.
  *
  * @author Group 16
- * @version 1.2
+ * @version 1.3
  * @since 1.0
  */
 
 public class ReportGeneratorService {
+    // Formatters are immutable and thread-safe, so each pattern is built once
+    private static final DateTimeFormatter FILE_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter DAILY_HEADER_DATE_FORMAT = DateTimeFormatter.ofPattern("MMMM dd, yyyy");
+    private static final DateTimeFormatter WEEK_START_FORMAT = DateTimeFormatter.ofPattern("MMMM d");
+    private static final DateTimeFormatter LONG_DATE_FORMAT = DateTimeFormatter.ofPattern("MMMM d, yyyy");
+    private static final DateTimeFormatter RIDE_TIME_FORMAT = DateTimeFormatter.ofPattern("hh:mm a");
 
-    private DataAccessManager dataManager;
+    private static final String SEPARATOR = "--------------------------------------------------";
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
 
-    public ReportGeneratorService(DataAccessManager dataManager) {
+    private TransportationRepository dataManager;
+
+    public ReportGeneratorService(TransportationRepository dataManager) {
         this.dataManager = dataManager;
     }
 
     /**
-     * Creates a daily schedule file for the specified date
+     * Creates a daily schedule file for the specified date.
+     * Schedules are streamed from the database in driver and time order and each
+     * driver's section is written as the rows arrive, so memory use stays flat
+     * however many rides the day has.
      * @param date The date for which to generate the schedule
      * @return true if the file was created successfully, false otherwise
      */
     public boolean createDailyScheduleFile(LocalDate date) throws SQLException, IOException {
-        List<Schedule> schedules = dataManager.getSchedulesByDate(date);
+        // Drivers are listed in ID order, the same order the schedules are streamed in
+        List<Driver> allDrivers = new ArrayList<>(dataManager.getAllDrivers());
+        allDrivers.sort(Comparator.comparingInt(Driver::getDriverID));
 
         // Create the file with the required name format
-        String filename = "daily_schedule_" + date.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")) + ".txt";
+        String filename = "daily_schedule_" + date.format(FILE_DATE_FORMAT) + ".txt";
 
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(filename), WRITE_BUFFER_SIZE))) {
             // Format header exactly like the example
-            writer.println("Accessible Transportation Daily Schedule - " + date.format(DateTimeFormatter.ofPattern("MMMM dd, yyyy")));
+            writer.println("Accessible Transportation Daily Schedule - " + date.format(DAILY_HEADER_DATE_FORMAT));
             writer.println();
 
-            // Organize schedules by driver
-            Map<Integer, List<Schedule>> schedulesByDriver = new HashMap<>();
-
-            // Get all drivers
-            List<Driver> allDrivers = dataManager.getAllDrivers();
-            for (Driver driver : allDrivers) {
-                schedulesByDriver.put(driver.getDriverID(), new java.util.ArrayList<>());
-            }
-
-            // Add schedules to their respective drivers
-            for (Schedule schedule : schedules) {
-                int driverId = schedule.getDriver().getDriverID();
-                schedulesByDriver.get(driverId).add(schedule);
-            }
-
-            // Process each driver
-            for (Driver driver : allDrivers) {
-                List<Schedule> driverSchedules = schedulesByDriver.get(driver.getDriverID());
-
-                writer.println("Driver: " + driver.getName() + " (" + driver.getLicenseNumber() + ")");
-
-                if (driverSchedules.isEmpty()) {
-                    if (!driver.isAvailable()) {
-                        writer.println("Vehicle: Not Assigned");
-                        writer.println("--------------------------------------------------");
-                        writer.println("Status: Currently unavailable.");
-                        writer.println("--------------------------------------------------");
-                        writer.println();
-                        continue;
-                    } else {
-                        // Driver is available but has no rides
-                        writer.println("Vehicle: Not Assigned");
-                        writer.println("--------------------------------------------------");
-                        writer.println("No rides assigned for this driver today.");
-                        writer.println("--------------------------------------------------");
-                        writer.println();
-                        continue;
-                    }
-                }
-
-                // Driver has schedules - get vehicle from first schedule
-                Vehicle vehicle = driverSchedules.get(0).getVehicle();
-                writer.println("Vehicle: " + vehicle.getLicensePlate() +
-                        (vehicle.isWheelchairAccessible() ? " (Wheelchair Accessible)" : ""));
-                writer.println("--------------------------------------------------");
-
-                for (Schedule schedule : driverSchedules) {
-                    // Format time as in the example (09:00 AM)
-                    writer.println(schedule.getTime().format(DateTimeFormatter.ofPattern("hh:mm a")).toUpperCase());
-                    writer.println("    Client: " + schedule.getRideRequest().getClientName());
-                    writer.println("    Pickup: " + schedule.getRideRequest().getPickUpLocation());
-                    writer.println("    Dropoff: " + schedule.getRideRequest().getDropOffLocation());
-                    writer.println("    Special Requirements: " +
-                            (schedule.getRideRequest().getSpecialRequirements() != null &&
-                                    !schedule.getRideRequest().getSpecialRequirements().isEmpty() ?
-                                    schedule.getRideRequest().getSpecialRequirements() : "None"));
-                    writer.println("--------------------------------------------------");
-                }
-
-                writer.println();
-            }
+            DailyScheduleWriter sections = new DailyScheduleWriter(writer, allDrivers);
+            dataManager.forEachScheduleByDate(date, sections::write);
+            sections.finish();
         }
 
         return true;
     }
 
     /**
-     * Creates a weekly report file for the week containing the specified date
+     * Creates a weekly report file for the week containing the specified date.
+     * The ride counts are aggregated by the database in one query.
      * @param date Any date within the week for which to generate the report
      * @return true if the file was created successfully, false otherwise
      */
@@ -124,67 +83,37 @@ public class ReportGeneratorService {
         LocalDate monday = date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
         LocalDate sunday = monday.plusDays(6);
 
-        // Get all schedules for the week
-        List<Schedule> weeklySchedules = dataManager.getSchedulesByDateRange(monday, sunday);
+        // Count the week's rides
+        RideSummary summary = dataManager.getRideSummary(monday, sunday);
 
         // Create the file with the required name format
-        String filename = "weekly_report_" + monday.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")) + ".txt";
+        String filename = "weekly_report_" + monday.format(FILE_DATE_FORMAT) + ".txt";
 
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(filename), WRITE_BUFFER_SIZE))) {
             // Format header exactly like the example
             writer.println("Accessible Transportation Weekly Summary - " +
-                    monday.format(DateTimeFormatter.ofPattern("MMMM d")) + " to " +
-                    sunday.format(DateTimeFormatter.ofPattern("MMMM d, yyyy")));
+                    monday.format(WEEK_START_FORMAT) + " to " +
+                    sunday.format(LONG_DATE_FORMAT));
             writer.println();
 
             // Total ride count
-            writer.println("Total Rides Scheduled: " + weeklySchedules.size());
+            writer.println("Total Rides Scheduled: " + summary.getTotalRides());
             writer.println();
 
             // Vehicle usage stats
             writer.println("Vehicle Usage:");
-            Map<Integer, Integer> vehicleRideCounts = new HashMap<>();
-
-            // Initialize counts for all vehicles
-            List<Vehicle> allVehicles = dataManager.getAllVehicles();
-            for (Vehicle vehicle : allVehicles) {
-                vehicleRideCounts.put(vehicle.getVehicleID(), 0);
-            }
-
-            // Count rides per vehicle
-            for (Schedule schedule : weeklySchedules) {
-                int vehicleId = schedule.getVehicle().getVehicleID();
-                vehicleRideCounts.put(vehicleId, vehicleRideCounts.get(vehicleId) + 1);
-            }
-
-            // Output vehicle usage
-            for (Vehicle vehicle : allVehicles) {
-                int rideCount = vehicleRideCounts.get(vehicle.getVehicleID());
-                writer.println("    - " + vehicle.getLicensePlate() + ": " + rideCount + " rides, " +
-                        "Maintenance Due by " + vehicle.getMaintenanceDueDate().format(DateTimeFormatter.ofPattern("MMMM d, yyyy")));
+            for (Vehicle vehicle : dataManager.getAllVehicles()) {
+                writer.println("    - " + vehicle.getLicensePlate() + ": " +
+                        summary.getRidesForVehicle(vehicle.getVehicleID()) + " rides, " +
+                        "Maintenance Due by " + vehicle.getMaintenanceDueDate().format(LONG_DATE_FORMAT));
             }
             writer.println();
 
             // Driver activity stats
             writer.println("Driver Activity:");
-            Map<Integer, Integer> driverRideCounts = new HashMap<>();
-
-            // Initialize counts for all drivers
-            List<Driver> allDrivers = dataManager.getAllDrivers();
-            for (Driver driver : allDrivers) {
-                driverRideCounts.put(driver.getDriverID(), 0);
-            }
-
-            // Count rides per driver
-            for (Schedule schedule : weeklySchedules) {
-                int driverId = schedule.getDriver().getDriverID();
-                driverRideCounts.put(driverId, driverRideCounts.get(driverId) + 1);
-            }
-
-            // Output driver activity
-            for (Driver driver : allDrivers) {
+            for (Driver driver : dataManager.getAllDrivers()) {
                 if (driver.isAvailable()) {
-                    writer.println("    - " + driver.getName() + ": " + driverRideCounts.get(driver.getDriverID()) + " rides");
+                    writer.println("    - " + driver.getName() + ": " + summary.getRidesForDriver(driver.getDriverID()) + " rides");
                 } else {
                     writer.println("    - " + driver.getName() + ": Unavailable");
                 }
@@ -193,22 +122,88 @@ public class ReportGeneratorService {
 
             // Special requirements summary
             writer.println("Special Requirements Overview:");
-            int wheelchairCount = 0;
-            int standardCount = 0;
+            writer.println("    - Wheelchair Accessible Rides: " + summary.getWheelchairRides());
+            writer.println("    - Standard Rides: " + summary.getStandardRides());
+        }
 
-            for (Schedule schedule : weeklySchedules) {
-                String specialReqs = schedule.getRideRequest().getSpecialRequirements();
-                if (specialReqs != null && specialReqs.contains("Wheelchair")) {
-                    wheelchairCount++;
-                } else {
-                    standardCount++;
+        return true;
+    }
+
+    /**
+     * Writes the driver sections of a daily schedule from schedules that arrive
+     * ordered by driver ID and time. Drivers without rides get their section
+     * when the stream passes them.
+     */
+    private static class DailyScheduleWriter {
+        private final PrintWriter writer;
+        private final Iterator<Driver> drivers;
+        private Driver nextDriver;
+        private int currentDriverId = -1;
+
+        DailyScheduleWriter(PrintWriter writer, List<Driver> driversById) {
+            this.writer = writer;
+            this.drivers = driversById.iterator();
+            this.nextDriver = drivers.hasNext() ? drivers.next() : null;
+        }
+
+        void write(Schedule schedule) {
+            Driver driver = schedule.getDriver();
+            if (driver.getDriverID() != currentDriverId) {
+                endSection();
+                writeDriversWithoutRidesBefore(driver.getDriverID());
+                if (nextDriver != null && nextDriver.getDriverID() == driver.getDriverID()) {
+                    nextDriver = drivers.hasNext() ? drivers.next() : null;
                 }
+
+                // The vehicle of the driver's first ride heads the section
+                Vehicle vehicle = schedule.getVehicle();
+                writer.println("Driver: " + driver.getName() + " (" + driver.getLicenseNumber() + ")");
+                writer.println("Vehicle: " + vehicle.getLicensePlate() +
+                        (vehicle.isWheelchairAccessible() ? " (Wheelchair Accessible)" : ""));
+                writer.println(SEPARATOR);
+                currentDriverId = driver.getDriverID();
             }
 
-            writer.println("    - Wheelchair Accessible Rides: " + wheelchairCount);
-            writer.println("    - Standard Rides: " + standardCount);
+            RideRequest request = schedule.getRideRequest();
+            String specialReqs = request.getSpecialRequirements();
+
+            // Format time as in the example (09:00 AM)
+            writer.println(schedule.getTime().format(RIDE_TIME_FORMAT).toUpperCase());
+            writer.println("    Client: " + request.getClientName());
+            writer.println("    Pickup: " + request.getPickUpLocation());
+            writer.println("    Dropoff: " + request.getDropOffLocation());
+            writer.println("    Special Requirements: " +
+                    (specialReqs != null && !specialReqs.isEmpty() ? specialReqs : "None"));
+            writer.println(SEPARATOR);
         }
 
-        return true;
+        void finish() {
+            endSection();
+            writeDriversWithoutRidesBefore(Integer.MAX_VALUE);
+        }
+
+        private void endSection() {
+            if (currentDriverId != -1) {
+                writer.println();
+                currentDriverId = -1;
+            }
+        }
+
+        private void writeDriversWithoutRidesBefore(int driverId) {
+            while (nextDriver != null && nextDriver.getDriverID() < driverId) {
+                writer.println("Driver: " + nextDriver.getName() + " (" + nextDriver.getLicenseNumber() + ")");
+                writer.println("Vehicle: Not Assigned");
+                writer.println(SEPARATOR);
+                if (!nextDriver.isAvailable()) {
+                    writer.println("Status: Currently unavailable.");
+                } else {
+                    // Driver is available but has no rides
+                    writer.println("No rides assigned for this driver today.");
+                }
+                writer.println(SEPARATOR);
+                writer.println();
+                nextDriver = drivers.hasNext() ? drivers.next() : null;
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,357 @@
+package edu.ucalgary.oop;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * RideRequestImporter loads ride requests in bulk from a CSV file, such as those
+ * sent by partner agencies, and then schedules them.
+ * <p>
+ * The first line names the columns, in any order and ignoring case, spaces and
+ * underscores: ClientName, PassengerCount, RequestDate (YYYY-MM-DD) and PickupTime
+ * (HH:MM) are required, PickupLocation, DropoffLocation and SpecialRequirements are
+ * optional. Fields may be quoted, with "" standing for a quote inside a field.
+ * <p>
+ * Rows are validated as they are read and the valid ones are streamed to the
+ * repository as "Pending" requests. Invalid rows are rejected with their line number
+ * and reason instead of failing the import. Afterwards every date that received rides
+ * is scheduled with a single batch pass.
+ *
+ * @author Group 16
+ * @version 1.0
+ * @since 1.3
+ */
+
+public class RideRequestImporter {
+    public static final int MAX_REPORTED_REJECTS = 100;
+
+    private static final String[] REQUIRED_COLUMNS = {"clientname", "passengercount", "requestdate", "pickuptime"};
+
+    private final TransportationRepository dataManager;
+    private final SchedulingService schedulingService;
+
+    /**
+     * A row that was not imported.
+     */
+    public static class Reject {
+        private final int lineNumber;
+        private final String reason;
+
+        Reject(int lineNumber, String reason) {
+            this.lineNumber = lineNumber;
+            this.reason = reason;
+        }
+
+        /**
+         * Gets the line of the file the row is on, starting at 1 for the header.
+         * @return the line number
+         */
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        /**
+         * Gets why the row was rejected.
+         * @return the reason
+         */
+        public String getReason() {
+            return reason;
+        }
+    }
+
+    /**
+     * The outcome of an import.
+     */
+    public static class Result {
+        private final List<Integer> importedIds;
+        private final List<Reject> rejects;
+        private final int rejectCount;
+        private final int scheduledCount;
+
+        Result(List<Integer> importedIds, List<Reject> rejects, int rejectCount, int scheduledCount) {
+            this.importedIds = Collections.unmodifiableList(importedIds);
+            this.rejects = Collections.unmodifiableList(rejects);
+            this.rejectCount = rejectCount;
+            this.scheduledCount = scheduledCount;
+        }
+
+        /**
+         * Gets the IDs of the imported ride requests, in file order.
+         * @return the imported IDs
+         */
+        public List<Integer> getImportedIds() {
+            return importedIds;
+        }
+
+        /**
+         * Gets the first MAX_REPORTED_REJECTS rejected rows.
+         * @return the rejected rows, in file order
+         */
+        public List<Reject> getRejects() {
+            return rejects;
+        }
+
+        /**
+         * Gets the number of rejected rows, including those not reported.
+         * @return the reject count
+         */
+        public int getRejectCount() {
+            return rejectCount;
+        }
+
+        /**
+         * Gets the number of ride requests scheduled by the batch pass after the import.
+         * This includes pending requests of the same dates that were already stored.
+         * @return the scheduled count
+         */
+        public int getScheduledCount() {
+            return scheduledCount;
+        }
+    }
+
+    /**
+     * Constructs an importer.
+     *
+     * @param dataManager the repository the ride requests are added to
+     * @param schedulingService the service that schedules them afterwards
+     */
+    public RideRequestImporter(TransportationRepository dataManager, SchedulingService schedulingService) {
+        this.dataManager = dataManager;
+        this.schedulingService = schedulingService;
+    }
+
+    /**
+     * Imports the ride requests of a CSV file and schedules their dates.
+     *
+     * @param csv the CSV content
+     * @return the imported IDs, the rejected rows and the number of rides scheduled
+     * @throws IllegalArgumentException if the header is missing a required column
+     * @throws IOException if reading the CSV fails; nothing is imported
+     * @throws SQLException if a database access error occurs; nothing is imported
+     */
+    public Result importCsv(Reader csv) throws IOException, SQLException {
+        RowReader rows = new RowReader(new BufferedReader(csv));
+        rows.readHeader();
+
+        List<Integer> importedIds;
+        try {
+            importedIds = dataManager.importRideRequests(rows);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        int scheduled = 0;
+        for (LocalDate date : rows.dates) {
+            scheduled += schedulingService.scheduleBatch(date);
+        }
+        return new Result(importedIds, rows.rejects, rows.rejectCount, scheduled);
+    }
+
+    /**
+     * Reads and validates the rows of a CSV file, handing out the valid ones.
+     */
+    private static class RowReader implements Iterator<RideRequest> {
+        private final BufferedReader reader;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private int columnCount;
+        private final List<Reject> rejects = new ArrayList<>();
+        private final Set<LocalDate> dates = new TreeSet<>();
+        private int rejectCount = 0;
+        private int lineNumber = 0;
+        private RideRequest next;
+        private boolean finished = false;
+
+        RowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        void readHeader() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                lineNumber++;
+                if (line == null) {
+                    throw new IllegalArgumentException("The CSV file is empty");
+                }
+            } while (line.trim().isEmpty());
+
+            if (line.startsWith("\uFEFF")) {
+                // Byte order mark written by some spreadsheet programs
+                line = line.substring(1);
+            }
+            List<String> names = splitFields(line);
+            columnCount = names.size();
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i).toLowerCase().replaceAll("[\\s_]", ""), i);
+            }
+            for (String required : REQUIRED_COLUMNS) {
+                if (!columns.containsKey(required)) {
+                    throw new IllegalArgumentException("The CSV header is missing the column " + required);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (next == null && !finished) {
+                    String line = reader.readLine();
+                    lineNumber++;
+                    if (line == null) {
+                        finished = true;
+                    } else if (!line.trim().isEmpty()) {
+                        next = parse(line);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return next != null;
+        }
+
+        @Override
+        public RideRequest next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            RideRequest request = next;
+            next = null;
+            dates.add(request.getRequestDate());
+            return request;
+        }
+
+        /**
+         * Turns a line into a ride request, or records it as rejected and returns null.
+         */
+        private RideRequest parse(String line) {
+            List<String> fields;
+            try {
+                fields = splitFields(line);
+            } catch (IllegalArgumentException e) {
+                return reject(e.getMessage());
+            }
+            if (fields.size() != columnCount) {
+                return reject("Expected " + columnCount + " fields but found " + fields.size());
+            }
+
+            RideRequest request = new RideRequest();
+            request.setStatus("Pending");
+
+            String clientName = field(fields, "clientname");
+            if (clientName == null) {
+                return reject("Client name is missing");
+            }
+            request.setClientName(clientName);
+            request.setPickUpLocation(field(fields, "pickuplocation"));
+            request.setDropOffLocation(field(fields, "dropofflocation"));
+            request.setSpecialRequirements(field(fields, "specialrequirements"));
+
+            String count = field(fields, "passengercount");
+            if (count == null) {
+                return reject("Passenger count is missing");
+            }
+            try {
+                request.setPassengerCount(Integer.parseInt(count));
+            } catch (NumberFormatException e) {
+                return reject("Invalid passenger count: " + count);
+            }
+            if (request.getPassengerCount() < 1) {
+                return reject("Invalid passenger count: " + count);
+            }
+
+            String date = field(fields, "requestdate");
+            String time = field(fields, "pickuptime");
+            if (date == null || time == null) {
+                return reject("Request date and pickup time are required");
+            }
+            try {
+                request.setRequestDate(LocalDate.parse(date));
+            } catch (DateTimeParseException e) {
+                return reject("Invalid request date: " + date);
+            }
+            try {
+                request.setPickupTime(LocalTime.parse(time));
+            } catch (DateTimeParseException e) {
+                return reject("Invalid pickup time: " + time);
+            }
+            return request;
+        }
+
+        /**
+         * Gets a field by column name, or null if the column is absent or the field blank.
+         */
+        private String field(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            if (index == null) {
+                return null;
+            }
+            String value = fields.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        private RideRequest reject(String reason) {
+            rejectCount++;
+            if (rejects.size() < MAX_REPORTED_REJECTS) {
+                rejects.add(new Reject(lineNumber, reason));
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Splits a CSV line into its fields, removing quotes.
+     *
+     * @param line the line to split
+     * @return the fields
+     * @throws IllegalArgumentException if a quoted field is not closed
+     */
+    static List<String> splitFields(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,127 @@
+package edu.ucalgary.oop;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Holds the ride counts of a date range as used by the weekly report:
+ * the total number of rides, rides per vehicle, rides per driver, and the
+ * split between wheelchair accessible and standard rides.
+ * Counts that were never set are zero.
+ *
+ * @author Group 16
+ * @version 1.0
+ * @since 1.3
+ */
+
+public class RideSummary {
+    private int totalRides;
+    private int wheelchairRides;
+    private int standardRides;
+    private final Map<Integer, Integer> ridesByVehicle = new HashMap<>();
+    private final Map<Integer, Integer> ridesByDriver = new HashMap<>();
+
+    /**
+     * Sets the total number of rides in the range.
+     *
+     * @param totalRides The total ride count
+     */
+
+    public void setTotalRides(int totalRides) {
+        this.totalRides = totalRides;
+    }
+
+    /**
+     * Gets the total number of rides in the range.
+     *
+     * @return The total ride count
+     */
+
+    public int getTotalRides() {
+        return totalRides;
+    }
+
+    /**
+     * Sets the number of rides that needed a wheelchair accessible vehicle.
+     *
+     * @param wheelchairRides The wheelchair ride count
+     */
+
+    public void setWheelchairRides(int wheelchairRides) {
+        this.wheelchairRides = wheelchairRides;
+    }
+
+    /**
+     * Gets the number of rides that needed a wheelchair accessible vehicle.
+     *
+     * @return The wheelchair ride count
+     */
+
+    public int getWheelchairRides() {
+        return wheelchairRides;
+    }
+
+    /**
+     * Sets the number of rides without wheelchair requirements.
+     *
+     * @param standardRides The standard ride count
+     */
+
+    public void setStandardRides(int standardRides) {
+        this.standardRides = standardRides;
+    }
+
+    /**
+     * Gets the number of rides without wheelchair requirements.
+     *
+     * @return The standard ride count
+     */
+
+    public int getStandardRides() {
+        return standardRides;
+    }
+
+    /**
+     * Sets the number of rides assigned to a vehicle.
+     *
+     * @param vehicleID The vehicle ID
+     * @param rides The ride count of the vehicle
+     */
+
+    public void setRidesForVehicle(int vehicleID, int rides) {
+        ridesByVehicle.put(vehicleID, rides);
+    }
+
+    /**
+     * Gets the number of rides assigned to a vehicle.
+     *
+     * @param vehicleID The vehicle ID
+     * @return The ride count of the vehicle, or 0 if it had none
+     */
+
+    public int getRidesForVehicle(int vehicleID) {
+        return ridesByVehicle.getOrDefault(vehicleID, 0);
+    }
+
+    /**
+     * Sets the number of rides assigned to a driver.
+     *
+     * @param driverID The driver ID
+     * @param rides The ride count of the driver
+     */
+
+    public void setRidesForDriver(int driverID, int rides) {
+        ridesByDriver.put(driverID, rides);
+    }
+
+    /**
+     * Gets the number of rides assigned to a driver.
+     *
+     * @param driverID The driver ID
+     * @return The ride count of the driver, or 0 if they had none
+     */
+
+    public int getRidesForDriver(int driverID) {
+        return ridesByDriver.getOrDefault(driverID, 0);
+    }
+}
@@ -5,10 +5,11 @@ import java.time.LocalTime;
 
 /**
  * Represents a scheduled ride in the Accessible Transportation System.
- * This class links a ride request with an assigned driver, vehicle, date, and time.
+ * This class links a ride request with an assigned driver, vehicle, date, and time,
+ * and records how long the ride keeps the driver and vehicle busy.
  *
  * @author Group 16
- * @version 1.1
+ * @version 1.2
  * @since 1.0
  */
 
@@ -19,6 +20,7 @@ public class Schedule {
     RideRequest rideRequest;
     LocalDate scheduledDate;
     LocalTime scheduledTime;
+    int durationMinutes = TripDurationEstimator.DEFAULT_MINUTES;
 
     /**
      * Constructs a new Schedule with the specified details.
@@ -102,6 +104,20 @@ public class Schedule {
         this.scheduledTime = scheduledTime;
     }
 
+    /**
+     * Sets how long the ride keeps its driver and vehicle busy.
+     *
+     * @param durationMinutes The duration in minutes
+     * @throws IllegalArgumentException if the duration is less than 1 minute
+     */
+
+    public void setDurationMinutes(int durationMinutes) {
+        if (durationMinutes < 1) {
+            throw new IllegalArgumentException("Invalid ride duration: " + durationMinutes);
+        }
+        this.durationMinutes = durationMinutes;
+    }
+
     /**
      * Gets the unique identifier for this schedule.
      *
@@ -161,5 +177,25 @@ public class Schedule {
     public LocalTime getTime() {
         return this.scheduledTime;
     }
+
+    /**
+     * Gets how long the ride keeps its driver and vehicle busy.
+     *
+     * @return The duration in minutes
+     */
+
+    public int getDurationMinutes() {
+        return this.durationMinutes;
+    }
+
+    /**
+     * Gets the time the ride ends, which is on the next day for rides that run past midnight.
+     *
+     * @return The end time
+     */
+
+    public LocalTime getEndTime() {
+        return this.scheduledTime.plusMinutes(durationMinutes);
+    }
    
 }
\ No newline at end of file
@@ -2,8 +2,17 @@ package edu.ucalgary.oop;
 
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntPredicate;
+import java.util.function.LongSupplier;
 
 /**
  * The SchedulingService class is responsible for assigning ride requests
@@ -11,61 +20,221 @@ import java.util.*;
  * and accessibility requirements.
  * <p>
  * It also handles rescheduling when a driver becomes unavailable.
+ * <p>
+ * Candidate drivers and vehicles are chosen from an in-memory OccupancyIndex of the
+ * rides already booked each day; the database is only consulted to load a day into
+ * the index and to reserve the chosen rides. A reservation fails when another
+ * dispatcher booked a conflicting ride first, in which case the day is reloaded and
+ * the rides are placed again, so several services may schedule at the same time.
+ * <p>
+ * Single rides are placed from the drivers and vehicles as last read, which are read
+ * again once they are older than {@link #FLEET_TTL_MILLIS}, after {@link #fleetUpdated()},
+ * or after a failed reservation. A reservation fails for a driver made unavailable
+ * meanwhile, so such a driver is dropped at once; other changes made elsewhere, such as
+ * a vehicle's capacity, are picked up within the time to live. Each ride only checks
+ * the availability of the drivers and vehicles its choice looks at, so placing a ride
+ * does not visit the whole fleet.
+ * <p>
+ * How long each ride keeps its driver and vehicle busy comes from a
+ * TripDurationEstimator, 30 minutes for every ride unless another estimator is given.
+ * Each saved schedule records its duration, so later checks block the same time.
+ * <p>
+ * Given a LocationRegistry with coordinates, a single ride gets the driver and vehicle
+ * with the shortest empty trip to its pickup, found by a ProximitySelector from where
+ * each vehicle and driver last dropped someone off or the vehicle's current location.
+ * Rides whose pickup has no coordinates, and services without a registry, take the
+ * smallest free vehicle instead.
+ * <p>
+ * Within one service, work is partitioned by date and hour of the day with striped
+ * locks. A ride locks the hours from its buffer before pickup to its buffer after it
+ * ends, continuing into the next date for late rides, so two rides that could compete
+ * for a driver or vehicle always share a lock, while rides on other dates or far apart
+ * in time are scheduled in parallel. Batches lock their whole date and the hours their
+ * rides reach into the dates around it.
  * @author Group 16
- * @version 1.0
+ * @version 1.5
  * @since 1.0
  */
 
 public class SchedulingService {
-    private final DataAccessManager dataManager;
+    /** How long single rides are placed from the drivers and vehicles as last read. */
+    public static final long FLEET_TTL_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+    // Number of times a reservation is tried before the rides are left pending
+    private static final int MAX_COMMIT_ATTEMPTS = 3;
+    // Free minutes required before and after a ride's block for the same driver or vehicle
+    private static final int BUFFER_MINUTES = 30;
+    // Number of dates whose bookings are kept in the occupancy index
+    private static final int INDEXED_DAYS = 31;
+    // Width of the time partitions a day is locked in, and the number of locks they share
+    private static final int PARTITION_MINUTES = 60;
+    private static final int PARTITIONS_PER_DAY = 24 * 60 / PARTITION_MINUTES;
+    private static final int LOCK_STRIPES = 256;
+    private static final long FLEET_TTL_NANOS = TimeUnit.MILLISECONDS.toNanos(FLEET_TTL_MILLIS);
+
+    private final TransportationRepository dataManager;
+    private final TripDurationEstimator durationEstimator;
+    private final OccupancyIndex occupancy = new OccupancyIndex(INDEXED_DAYS);
+    // Null when rides are placed by vehicle capacity only
+    private final ProximitySelector proximity;
+    private final ReentrantLock[] stripes = new ReentrantLock[LOCK_STRIPES];
+    private final LongSupplier nanoClock;
+    // Drivers and vehicles as last read, or null until they are next needed
+    private volatile Fleet fleet;
     /**
-     * Constructs a SchedulingService using the specified DataAccessManager.
+     * Constructs a SchedulingService using the specified repository, giving every
+     * ride the default duration of 30 minutes.
      *
-     * @param dataManager the data manager used for database operations
+     * @param dataManager the repository used for data operations
      */
 
-    public SchedulingService(DataAccessManager dataManager) {
+    public SchedulingService(TransportationRepository dataManager) {
+        this(dataManager, TripDurationEstimator.fixed(TripDurationEstimator.DEFAULT_MINUTES));
+    }
 
+    /**
+     * Constructs a SchedulingService using the specified repository and trip durations.
+     *
+     * @param dataManager the repository used for data operations
+     * @param durationEstimator estimates how long each ride keeps its driver and vehicle busy
+     */
+    public SchedulingService(TransportationRepository dataManager, TripDurationEstimator durationEstimator) {
+        this(dataManager, durationEstimator, null);
+    }
+
+    /**
+     * Constructs a SchedulingService that prefers the driver and vehicle nearest to
+     * each pickup.
+     *
+     * @param dataManager the repository used for data operations
+     * @param durationEstimator estimates how long each ride keeps its driver and vehicle busy
+     * @param locations resolves pickup, drop-off and vehicle locations to coordinates,
+     *                  or null to choose vehicles by capacity only
+     */
+    public SchedulingService(TransportationRepository dataManager, TripDurationEstimator durationEstimator,
+                             LocationRegistry locations) {
+        this(dataManager, durationEstimator, locations, System::nanoTime);
+    }
+
+    /**
+     * Constructs a SchedulingService that reads the time from the given clock, for tests.
+     */
+    SchedulingService(TransportationRepository dataManager, TripDurationEstimator durationEstimator,
+                      LocationRegistry locations, LongSupplier nanoClock) {
         this.dataManager = dataManager;
+        this.nanoClock = nanoClock;
+        this.durationEstimator = durationEstimator;
+        this.proximity = locations == null ? null : new ProximitySelector(locations, occupancy);
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
     }
 
     /**
      * Attempts to schedule a given RideRequest. Assigns the request to the most suitable
-     * available driver and vehicle. Prioritizes smaller capacity vehicles when possible.
+     * available driver and vehicle: the pair nearest to the pickup when locations are
+     * known, otherwise the smallest vehicle that fits.
      *
      * @param request the ride request to be scheduled
      * @return true if the ride was successfully scheduled, false if set to "Pending"
      */
 
     public boolean scheduleRideRequest(RideRequest request) {
+        LocalDateTime start = request.getRequestDate().atTime(request.getPickupTime());
+        int duration = durationOf(request);
+
+        // A ride that competes with this one overlaps its buffered block, so they share a partition
+        List<ReentrantLock> locks = lockPartitions(start.minusMinutes(BUFFER_MINUTES),
+                start.plusMinutes(duration + BUFFER_MINUTES));
+        try {
+            return placeRideRequest(request, duration);
+        } finally {
+            unlock(locks);
+        }
+    }
+
+    /**
+     * Schedules several ride requests on a pool of worker threads, each as
+     * {@link #scheduleRideRequest(RideRequest)} would. Rides in different partitions
+     * are placed in parallel; rides competing for the same partition are placed one
+     * at a time, in no particular order.
+     *
+     * @param requests the ride requests to schedule
+     * @param threads the number of worker threads
+     * @return the number of ride requests that were scheduled
+     * @throws IllegalArgumentException if threads is less than 1
+     */
+    public int scheduleRideRequests(List<RideRequest> requests, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid number of threads: " + threads);
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (RideRequest request : requests) {
+                results.add(workers.submit(() -> scheduleRideRequest(request)));
+            }
+
+            int scheduled = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    scheduled++;
+                }
+            }
+            return scheduled;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while scheduling ride requests", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Scheduling a ride request failed", e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Places one ride request, with its partitions locked by the caller.
+     *
+     * @param request the ride request to be scheduled
+     * @param duration the estimated duration of the ride in minutes
+     * @return true if the ride was successfully scheduled, false if set to "Pending"
+     */
+    private boolean placeRideRequest(RideRequest request, int duration) {
         try {
             LocalDate date = request.getRequestDate();
             LocalTime time = request.getPickupTime();
-            LocalTime endTime = time.plusMinutes(30);
+            LocalTime endTime = time.plusMinutes(duration);
+            // The buffered block may start on the day before or end on the day after
+            LocalDateTime windowStart = date.atTime(time).minusMinutes(BUFFER_MINUTES);
+            LocalDateTime windowEnd = date.atTime(time).plusMinutes(duration + BUFFER_MINUTES);
 
-            String specialReqs = request.getSpecialRequirements();
-            boolean needsWheelchair = specialReqs != null && specialReqs.toLowerCase().contains("wheelchair");
+            // A request being scheduled again gives up the slot it held before
+            occupancy.release(request.getRequestID());
 
-            int passengerCount = request.getPassengerCount();
+            loadWindow(windowStart, windowEnd);
+            Fleet fleet = currentFleet();
 
-            List<Driver> availableDrivers = dataManager.getAvailableDrivers(date, time.minusMinutes(30), endTime.plusMinutes(30));
-            List<Vehicle> availableVehicles = dataManager.getAvailableVehicles(date, time.minusMinutes(30), endTime.plusMinutes(30), needsWheelchair, passengerCount);
+            for (int attempt = 0; attempt < MAX_COMMIT_ATTEMPTS; attempt++) {
+                Schedule newSchedule = findAssignment(request, fleet, windowStart, windowEnd);
+                if (newSchedule == null) {
+                    break;
+                }
+                newSchedule.setDurationMinutes(duration);
 
-            // Prefer vehicles with the smallest sufficient capacity
-            availableVehicles.sort(Comparator.comparingInt(Vehicle::getCapacity));
-
-            for (Vehicle vehicle : availableVehicles) {
-                for (Driver driver : availableDrivers) {
-                    if (!isConflict(driver, vehicle, request)) {
-                        Schedule newSchedule = new Schedule(0, driver, vehicle, request,
-                                request.getRequestDate(), request.getPickupTime());
-
-                        dataManager.addSchedule(newSchedule);
-                        request.setStatus("Scheduled");
-                        dataManager.updateRideRequest(request);
-                        return true;
-                    }
+                // The pair was chosen from the index; the reservation checks it against the database
+                if (dataManager.reserveSchedules(List.of(newSchedule), BUFFER_MINUTES)) {
+                    request.setStatus("Scheduled");
+                    book(date, request, newSchedule.getDriver().getDriverID(),
+                            newSchedule.getVehicle().getVehicleID(), time, endTime);
+                    return true;
                 }
+
+                // Another dispatcher got there first, or the driver is no longer available:
+                // reload and choose again
+                invalidateWindow(windowStart, windowEnd);
+                loadWindow(windowStart, windowEnd);
+                fleet = loadFleet();
             }
 
             // No match found — mark as pending
@@ -80,30 +249,234 @@ public class SchedulingService {
     }
 
     /**
-     * Reschedules all rides previously assigned to a given driver.
-     * Any ride scheduled with that driver is reverted to "Pending"
-     * and the system attempts to reassign it automatically.
+     * Schedules every pending ride request of a date in one pass. The day's current
+     * bookings, drivers and vehicles are loaded once, all pending rides are assigned
+     * in memory, and the resulting schedules are saved in a single transaction.
+     * <p>
+     * Rides are placed in pickup order, with wheelchair and larger group rides first
+     * among rides at the same time since fewer vehicles can serve them. Each ride gets
+     * the smallest vehicle that fits, keeping accessible vehicles free for rides that
+     * need them, and the driver and vehicle whose previous ride ended most recently,
+     * which leaves the resources that have been idle longest for later rides.
+     * Rides that cannot be placed stay "Pending".
+     *
+     * @param date the date whose pending rides are scheduled
+     * @return the number of ride requests that were scheduled
+     */
+    public int scheduleBatch(LocalDate date) {
+        try {
+            return placeBatch(date, dataManager.getRideRequestsByDateAndStatus(date, "Pending"));
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    /**
+     * Places a set of pending rides of one date with the rules described in
+     * {@link #scheduleBatch(LocalDate)} and reserves them in a single transaction.
+     * If another dispatcher saved a conflicting ride first, the rides still pending
+     * are planned again from the saved bookings.
+     *
+     * @param date the date of the rides
+     * @param pending the rides to place
+     * @return the number of ride requests that were scheduled
+     */
+    private int placeBatch(LocalDate date, List<RideRequest> pending) {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        // The whole date, plus the buffered blocks reaching into the dates around it
+        LocalDateTime windowStart = date.atStartOfDay().minusMinutes(BUFFER_MINUTES);
+        LocalDateTime windowEnd = date.plusDays(1).atStartOfDay();
+        for (RideRequest request : pending) {
+            LocalDateTime end = date.atTime(request.getPickupTime())
+                    .plusMinutes(durationOf(request) + BUFFER_MINUTES);
+            if (end.isAfter(windowEnd)) {
+                windowEnd = end;
+            }
+        }
+        List<ReentrantLock> locks = lockPartitions(windowStart, windowEnd);
+        try {
+            for (int attempt = 0; attempt < MAX_COMMIT_ATTEMPTS; attempt++) {
+                if (attempt > 0) {
+                    // Another dispatcher saved rides in the meantime: keep only the rides
+                    // that are still pending and plan again from the saved bookings
+                    Set<Integer> stillPending = new HashSet<>();
+                    for (RideRequest request : dataManager.getRideRequestsByDateAndStatus(date, "Pending")) {
+                        stillPending.add(request.getRequestID());
+                    }
+                    pending.removeIf(request -> !stillPending.contains(request.getRequestID()));
+                }
+
+                List<Schedule> planned = planBatch(date, pending, windowStart, windowEnd);
+                if (planned.isEmpty()) {
+                    return 0;
+                }
+
+                if (dataManager.reserveSchedules(planned, BUFFER_MINUTES)) {
+                    for (Schedule schedule : planned) {
+                        schedule.getRideRequest().setStatus("Scheduled");
+                    }
+                    return planned.size();
+                }
+
+                invalidateWindow(windowStart, windowEnd);
+            }
+            return 0;
+
+        } catch (SQLException e) {
+            // Nothing was saved, so the tentative bookings must go
+            invalidateWindow(windowStart, windowEnd);
+            e.printStackTrace();
+            return 0;
+        } finally {
+            unlock(locks);
+        }
+    }
+
+    /**
+     * Gets the partition of a point in time. Partitions are numbered from the epoch, so
+     * the first partitions of a date follow the last partitions of the date before.
+     */
+    private static long partitionOf(LocalDateTime time) {
+        return time.toLocalDate().toEpochDay() * PARTITIONS_PER_DAY +
+                (time.getHour() * 60 + time.getMinute()) / PARTITION_MINUTES;
+    }
+
+    /**
+     * Locks the stripes of the partitions a time window touches, which may span several
+     * dates. Stripes are always taken in index order, so callers locking overlapping sets
+     * cannot deadlock.
+     *
+     * @param from the start of the window
+     * @param to the end of the window
+     * @return the locks taken, to pass to {@link #unlock(List)}
+     */
+    private List<ReentrantLock> lockPartitions(LocalDateTime from, LocalDateTime to) {
+        SortedSet<Integer> indexes = new TreeSet<>();
+        long first = partitionOf(from);
+        long last = Math.min(partitionOf(to), first + LOCK_STRIPES - 1);
+        for (long partition = first; partition <= last; partition++) {
+            indexes.add(Math.floorMod(partition, LOCK_STRIPES));
+        }
+
+        List<ReentrantLock> locks = new ArrayList<>();
+        for (int index : indexes) {
+            stripes[index].lock();
+            locks.add(stripes[index]);
+        }
+        return locks;
+    }
+
+    private static void unlock(List<ReentrantLock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
+
+    /**
+     * Assigns drivers and vehicles to a set of pending rides in memory, starting from
+     * the bookings currently saved for the day, and books them in the occupancy index.
+     *
+     * @param date the date of the rides
+     * @param pending the rides to place
+     * @param batchStart the start of the earliest buffered block of the rides
+     * @param batchEnd the end of the latest buffered block of the rides
+     * @return the planned schedules, not saved yet
+     * @throws SQLException if a database error occurs
+     */
+    private List<Schedule> planBatch(LocalDate date, List<RideRequest> pending, LocalDateTime batchStart,
+                                     LocalDateTime batchEnd) throws SQLException {
+        for (LocalDate day : datesOf(batchStart, batchEnd)) {
+            loadDay(day);
+        }
+
+        Fleet fleet = loadFleet();
+        List<Driver> drivers = new ArrayList<>();
+        for (Driver driver : fleet.drivers) {
+            if (driver.isAvailable()) {
+                drivers.add(driver);
+            }
+        }
+        List<Vehicle> vehicles = fleet.vehicles;
+
+        pending.sort(Comparator.comparing(RideRequest::getPickupTime)
+                .thenComparing((RideRequest r) -> !needsWheelchair(r))
+                .thenComparing(RideRequest::getPassengerCount, Comparator.reverseOrder()));
+
+        List<Schedule> planned = new ArrayList<>();
+        for (RideRequest request : pending) {
+            LocalTime time = request.getPickupTime();
+            int duration = durationOf(request);
+            LocalTime endTime = time.plusMinutes(duration);
+            LocalDateTime windowStart = date.atTime(time).minusMinutes(BUFFER_MINUTES);
+            LocalDateTime windowEnd = date.atTime(time).plusMinutes(duration + BUFFER_MINUTES);
+
+            Vehicle vehicle = pickBatchVehicle(date, request, vehicles, windowStart, windowEnd);
+            Driver driver = pickBatchDriver(date, drivers, time, windowStart, windowEnd);
+            if (vehicle == null || driver == null) {
+                continue;
+            }
+
+            Schedule schedule = new Schedule(0, driver, vehicle, request, date, time);
+            schedule.setDurationMinutes(duration);
+            planned.add(schedule);
+            book(date, request, driver.getDriverID(), vehicle.getVehicleID(), time, endTime);
+        }
+        return planned;
+    }
+
+    /**
+     * Reschedules the upcoming rides assigned to a driver who is no longer available.
+     * Only the driver's rides from today onwards are touched: their schedules are
+     * removed and the rides reverted to "Pending" in one transaction, then those rides
+     * and the pending rides whose time windows overlap them are placed again with the
+     * same rules as {@link #scheduleBatch(LocalDate)}. Rides that cannot be placed
+     * stay "Pending".
      *
      * @param driverId the ID of the driver who is no longer available
      */
     public void rescheduleRidesForDriver(int driverId) {
         try {
-            List<Schedule> allSchedules = dataManager.getAllSchedules();
-
-            for (Schedule schedule : allSchedules) {
-                if (schedule.getDriver().getDriverID() == driverId &&
-                        schedule.getRideRequest().getStatus().equalsIgnoreCase("Scheduled")) {
-                    RideRequest req = schedule.getRideRequest();
-                    req.setStatus("Pending");
-                    dataManager.updateRideRequest(req);
+            List<Schedule> affected = new ArrayList<>();
+            for (Schedule schedule : dataManager.getSchedulesByDriverId(driverId, LocalDate.now())) {
+                if ("Scheduled".equalsIgnoreCase(schedule.getRideRequest().getStatus())) {
+                    affected.add(schedule);
                 }
             }
+            if (affected.isEmpty()) {
+                return;
+            }
+
+            // Free the driver's slots and revert the rides in one transaction
+            dataManager.releaseSchedules(affected);
+
+            Map<LocalDate, List<RideRequest>> releasedByDate = new TreeMap<>();
+            for (Schedule schedule : affected) {
+                RideRequest req = schedule.getRideRequest();
+                req.setStatus("Pending");
+                occupancy.release(req.getRequestID());
+                releasedByDate.computeIfAbsent(schedule.getDate(), d -> new ArrayList<>()).add(req);
+            }
 
-            // Attempt to reschedule all pending requests
-            for (RideRequest r : dataManager.getAllRideRequests()) {
-                if (r.getStatus().equalsIgnoreCase("Pending")) {
-                    scheduleRideRequest(r);
+            for (Map.Entry<LocalDate, List<RideRequest>> entry : releasedByDate.entrySet()) {
+                LocalDate date = entry.getKey();
+                List<RideRequest> released = entry.getValue();
+
+                // The freed vehicles may now fit pending rides that overlap the released ones
+                Map<Integer, RideRequest> rides = new LinkedHashMap<>();
+                for (RideRequest req : released) {
+                    rides.put(req.getRequestID(), req);
+                }
+                for (RideRequest pending : dataManager.getRideRequestsByDateAndStatus(date, "Pending")) {
+                    if (!rides.containsKey(pending.getRequestID()) && overlapsAny(pending, released)) {
+                        rides.put(pending.getRequestID(), pending);
+                    }
                 }
+
+                placeBatch(date, new ArrayList<>(rides.values()));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -111,27 +484,317 @@ public class SchedulingService {
     }
 
     /**
-     * Checks if assigning a given driver and vehicle to a ride request would
-     * result in a scheduling conflict.
+     * Keeps the occupancy index in step with a ride request whose status was changed
+     * outside the scheduler. Rides that are no longer "Scheduled" stop blocking their
+     * driver and vehicle.
+     *
+     * @param request the ride request that was updated
+     */
+    public void rideRequestUpdated(RideRequest request) {
+        if (!"Scheduled".equalsIgnoreCase(request.getStatus())) {
+            occupancy.release(request.getRequestID());
+        }
+    }
+
+    /**
+     * Makes the next ride read the drivers and vehicles again. Single rides are placed
+     * from the fleet as last read, so this is called after a driver or vehicle was
+     * added or changed, to use the change before the fleet expires. Batches always
+     * read the fleet afresh.
+     */
+    public void fleetUpdated() {
+        fleet = null;
+    }
+
+    /**
+     * Picks the vehicle for a ride in a batch: the smallest free vehicle that meets the
+     * ride's requirements, preferring non-accessible vehicles for rides that do not need
+     * one, then the vehicle whose previous ride ended most recently.
+     */
+    private Vehicle pickBatchVehicle(LocalDate date, RideRequest request, List<Vehicle> vehicles,
+                                     LocalDateTime windowStart, LocalDateTime windowEnd) {
+        boolean needsWheelchair = needsWheelchair(request);
+        Vehicle best = null;
+        int bestBusyUntil = -1;
+
+        for (Vehicle vehicle : vehicles) {
+            if (vehicle.getCapacity() < request.getPassengerCount() ||
+                    (needsWheelchair && !vehicle.isWheelchairAccessible()) ||
+                    !occupancy.isVehicleFree(vehicle.getVehicleID(), windowStart, windowEnd)) {
+                continue;
+            }
+
+            int busyUntil = occupancy.getVehicleBusyUntil(date, vehicle.getVehicleID(), request.getPickupTime());
+            if (best == null || compareBatchVehicles(vehicle, busyUntil, best, bestBusyUntil, needsWheelchair) < 0) {
+                best = vehicle;
+                bestBusyUntil = busyUntil;
+            }
+        }
+
+        return best;
+    }
+
+    private static int compareBatchVehicles(Vehicle a, int aBusyUntil, Vehicle b, int bBusyUntil,
+                                            boolean needsWheelchair) {
+        if (a.getCapacity() != b.getCapacity()) {
+            return Integer.compare(a.getCapacity(), b.getCapacity());
+        }
+        if (!needsWheelchair && a.isWheelchairAccessible() != b.isWheelchairAccessible()) {
+            return a.isWheelchairAccessible() ? 1 : -1;
+        }
+        return Integer.compare(bBusyUntil, aBusyUntil);
+    }
+
+    /**
+     * Picks the driver for a ride in a batch: the free driver whose previous ride ended
+     * most recently.
+     */
+    private Driver pickBatchDriver(LocalDate date, List<Driver> drivers, LocalTime time,
+                                   LocalDateTime windowStart, LocalDateTime windowEnd) {
+        Driver best = null;
+        int bestBusyUntil = -1;
+
+        for (Driver driver : drivers) {
+            if (!occupancy.isDriverFree(driver.getDriverID(), windowStart, windowEnd)) {
+                continue;
+            }
+
+            int busyUntil = occupancy.getDriverBusyUntil(date, driver.getDriverID(), time);
+            if (best == null || busyUntil > bestBusyUntil) {
+                best = driver;
+                bestBusyUntil = busyUntil;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Checks whether a ride request asks for a wheelchair accessible vehicle.
+     *
+     * @param request the ride request
+     * @return true if the special requirements mention a wheelchair
+     */
+    private static boolean needsWheelchair(RideRequest request) {
+        String specialReqs = request.getSpecialRequirements();
+        return specialReqs != null && specialReqs.toLowerCase().contains("wheelchair");
+    }
+
+    /**
+     * Checks whether a ride's block overlaps the block of any of the given rides.
+     * Blocks that touch count as overlapping.
+     *
+     * @param request the ride to check
+     * @param others rides on the same date
+     * @return true if the ride overlaps at least one of the others
+     */
+    private boolean overlapsAny(RideRequest request, List<RideRequest> others) {
+        int start = request.getPickupTime().toSecondOfDay() / 60;
+        int end = start + durationOf(request);
+        for (RideRequest other : others) {
+            int otherStart = other.getPickupTime().toSecondOfDay() / 60;
+            if (otherStart <= end && start <= otherStart + durationOf(other)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Estimates how long a ride keeps its driver and vehicle busy.
+     *
+     * @param request the ride request
+     * @return the duration in minutes, at least 1
+     */
+    private int durationOf(RideRequest request) {
+        return Math.max(1, durationEstimator.estimateMinutes(request));
+    }
+
+    /**
+     * Books a ride in the occupancy index, with where it ends when that is known so
+     * later rides can be placed near it.
+     */
+    private void book(LocalDate date, RideRequest request, int driverId, int vehicleId,
+                      LocalTime start, LocalTime end) {
+        double[] dropOff = proximity == null ? null : proximity.coordinatesOf(request.getDropOffLocation());
+        if (dropOff == null) {
+            occupancy.book(date, request.getRequestID(), driverId, vehicleId, start, end);
+        } else {
+            occupancy.book(date, request.getRequestID(), driverId, vehicleId, start, end, dropOff[0], dropOff[1]);
+        }
+    }
+
+    /**
+     * Picks a driver and vehicle pair that can serve the request and is free in the
+     * occupancy index: the pair with the shortest empty trip to the pickup if locations
+     * are known, otherwise the first free driver with the free vehicle of the smallest
+     * sufficient capacity. Availability is only checked for the drivers and vehicles
+     * the choice looks at, not for the whole fleet.
+     *
+     * @param request     the ride request being scheduled
+     * @param fleet       the drivers and vehicles to choose from
+     * @param windowStart the start of the blocked window
+     * @param windowEnd   the end of the blocked window
+     * @return an unsaved Schedule for the chosen pair, or null if no pair is free
+     */
+    private Schedule findAssignment(RideRequest request, Fleet fleet, LocalDateTime windowStart,
+                                    LocalDateTime windowEnd) {
+        boolean needsWheelchair = needsWheelchair(request);
+        IntPredicate driverFree = id -> {
+            Driver driver = fleet.driversById.get(id);
+            return driver != null && driver.isAvailable() && occupancy.isDriverFree(id, windowStart, windowEnd);
+        };
+        IntPredicate vehicleFree = id -> {
+            Vehicle vehicle = fleet.vehiclesById.get(id);
+            return vehicle != null && vehicle.getCapacity() >= request.getPassengerCount() &&
+                    (!needsWheelchair || vehicle.isWheelchairAccessible()) &&
+                    occupancy.isVehicleFree(id, windowStart, windowEnd);
+        };
+
+        if (proximity != null) {
+            ProximitySelector.Choice choice = proximity.select(request.getRequestDate(), request.getPickupTime(),
+                    request.getPickUpLocation(), fleet.drivers, driverFree, vehicleFree);
+            if (choice != null) {
+                return new Schedule(0, fleet.driversById.get(choice.getDriverId()),
+                        fleet.vehiclesById.get(choice.getVehicleId()), request,
+                        request.getRequestDate(), request.getPickupTime());
+            }
+        }
+
+        Driver driver = null;
+        for (Driver candidate : fleet.drivers) {
+            if (driverFree.test(candidate.getDriverID())) {
+                driver = candidate;
+                break;
+            }
+        }
+        if (driver == null) {
+            return null;
+        }
+        for (Vehicle vehicle : fleet.vehicles) {
+            if (vehicleFree.test(vehicle.getVehicleID())) {
+                return new Schedule(0, driver, vehicle, request,
+                        request.getRequestDate(), request.getPickupTime());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Loads the bookings of the dates around a window into the occupancy index, for
+     * the dates that are not indexed yet.
+     *
+     * @param windowStart the start of the blocked window
+     * @param windowEnd   the end of the blocked window
+     * @throws SQLException if a database error occurs
+     */
+    private void loadWindow(LocalDateTime windowStart, LocalDateTime windowEnd) throws SQLException {
+        for (LocalDate day : datesOf(windowStart, windowEnd)) {
+            if (!occupancy.isLoaded(day)) {
+                loadDay(day);
+            }
+        }
+    }
+
+    /**
+     * Gets the drivers and vehicles as last read from the repository, reading them
+     * if they are not known yet, were reported as updated or have expired.
+     *
+     * @return the fleet
+     * @throws SQLException if a database error occurs
+     */
+    private Fleet currentFleet() throws SQLException {
+        Fleet current = fleet;
+        if (current == null || nanoClock.getAsLong() - current.loadedAt >= FLEET_TTL_NANOS) {
+            return loadFleet();
+        }
+        return current;
+    }
+
+    /**
+     * Reads the drivers and vehicles from the repository and moves the vehicles to
+     * their current locations in the proximity selector.
      *
-     * @param driver  the driver to check
-     * @param vehicle the vehicle to check
-     * @param request the ride request being considered
-     * @return true if there is a conflict, false otherwise
+     * @return the fleet just read
      * @throws SQLException if a database error occurs
      */
+    private Fleet loadFleet() throws SQLException {
+        Fleet loaded = new Fleet(dataManager.getAllDrivers(), dataManager.getAllVehicles(), nanoClock.getAsLong());
+        if (proximity != null) {
+            proximity.updateVehicles(loaded.vehicles);
+        }
+        fleet = loaded;
+        return loaded;
+    }
 
-    private boolean isConflict(Driver driver, Vehicle vehicle, RideRequest request) throws SQLException {
-        LocalDate date = request.getRequestDate();
-        LocalTime time = request.getPickupTime();
-        LocalTime endTime = time.plusMinutes(30);
+    /**
+     * Gets the dates whose bookings can overlap a window: every date the window
+     * touches, and the date before it, whose late rides may run past midnight.
+     */
+    private static List<LocalDate> datesOf(LocalDateTime windowStart, LocalDateTime windowEnd) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = windowStart.toLocalDate().minusDays(1);
+             !date.isAfter(windowEnd.toLocalDate()); date = date.plusDays(1)) {
+            dates.add(date);
+        }
+        return dates;
+    }
 
-        return !dataManager.getAvailableDrivers(date, time.minusMinutes(30), endTime.plusMinutes(30))
-                .stream().anyMatch(d -> d.getDriverID() == driver.getDriverID())
-                || !dataManager.getAvailableVehicles(date, time.minusMinutes(30), endTime.plusMinutes(30),
-                        vehicle.isWheelchairAccessible(), request.getPassengerCount())
-                .stream().anyMatch(v -> v.getVehicleID() == vehicle.getVehicleID());
+    /**
+     * Forgets the indexed bookings of the dates around a window, so they are loaded
+     * again from the database on next use.
+     */
+    private void invalidateWindow(LocalDateTime windowStart, LocalDateTime windowEnd) {
+        for (LocalDate date : datesOf(windowStart, windowEnd)) {
+            occupancy.invalidateDay(date);
+        }
     }
 
+    /**
+     * Loads the scheduled rides of a date into the occupancy index.
+     *
+     * @param date the date to load
+     * @throws SQLException if a database error occurs
+     */
+    private void loadDay(LocalDate date) throws SQLException {
+        List<Schedule> schedules = dataManager.getSchedulesByDate(date);
 
-}
\ No newline at end of file
+        occupancy.resetDay(date);
+        for (Schedule schedule : schedules) {
+            RideRequest ride = schedule.getRideRequest();
+            if ("Scheduled".equalsIgnoreCase(ride.getStatus())) {
+                book(date, ride, schedule.getDriver().getDriverID(),
+                        schedule.getVehicle().getVehicleID(), schedule.getTime(), schedule.getEndTime());
+            }
+        }
+    }
+
+    /**
+     * The drivers and vehicles of the repository, with vehicles in order of capacity
+     * so the smallest sufficient one is found first.
+     */
+    private static class Fleet {
+        private final List<Driver> drivers;
+        private final List<Vehicle> vehicles;
+        private final Map<Integer, Driver> driversById = new HashMap<>();
+        private final Map<Integer, Vehicle> vehiclesById = new HashMap<>();
+        // When the fleet was read, from the service's clock
+        private final long loadedAt;
+
+        Fleet(List<Driver> drivers, List<Vehicle> vehicles, long loadedAt) {
+            this.drivers = drivers;
+            this.vehicles = vehicles;
+            this.loadedAt = loadedAt;
+
+            // Prefer vehicles with the smallest sufficient capacity
+            this.vehicles.sort(Comparator.comparingInt(Vehicle::getCapacity));
+
+            for (Driver driver : drivers) {
+                driversById.put(driver.getDriverID(), driver);
+            }
+            for (Vehicle vehicle : vehicles) {
+                vehiclesById.put(vehicle.getVehicleID(), vehicle);
+            }
+        }
+    }
+}
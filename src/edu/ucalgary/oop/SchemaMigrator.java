@@ -0,0 +1,259 @@
+package edu.ucalgary.oop;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * SchemaMigrator brings the database schema up to the version this build of the
+ * application expects. It is run once at startup.
+ * <p>
+ * Each migration has a version number and is applied at most once. The versions
+ * already applied are recorded in the SchemaHistory table, which is created on first
+ * use. Pending migrations are applied in version order within a single transaction,
+ * so a failure leaves the schema as it was. An advisory lock makes two instances
+ * starting at the same time apply them one after the other instead of both at once.
+ * <p>
+ * Released migrations must never be edited; changes go into a new migration with
+ * the next version number.
+ *
+ * @author Group 16
+ * @version 1.0
+ * @since 1.3
+ */
+
+public class SchemaMigrator {
+    // Key of the advisory lock held while migrating, shared by every instance of the application
+    private static final long MIGRATION_LOCK_KEY = 409_016L;
+
+    /**
+     * The migrations of this build, in version order.
+     */
+    static final List<Migration> MIGRATIONS = List.of(
+            // Availability checks filter schedules by driver or vehicle and date, then join
+            // the ride request to keep only scheduled rides. Date and date range lookups
+            // back the daily schedule, the reports and batch scheduling.
+            new Migration(1, "Indexes for the scheduler's availability and date queries",
+                    "CREATE INDEX IF NOT EXISTS idx_schedules_driver_date_time " +
+                            "ON Schedules (DriverID, ScheduledDate, ScheduledTime)",
+                    "CREATE INDEX IF NOT EXISTS idx_schedules_vehicle_date_time " +
+                            "ON Schedules (VehicleID, ScheduledDate, ScheduledTime)",
+                    "CREATE INDEX IF NOT EXISTS idx_schedules_date_time " +
+                            "ON Schedules (ScheduledDate, ScheduledTime)",
+                    "CREATE INDEX IF NOT EXISTS idx_schedules_request " +
+                            "ON Schedules (RequestID)",
+                    "CREATE INDEX IF NOT EXISTS idx_riderequests_scheduled " +
+                            "ON RideRequests (RequestID) WHERE Status = 'Scheduled'",
+                    "CREATE INDEX IF NOT EXISTS idx_riderequests_date_status_time " +
+                            "ON RideRequests (RequestDate, Status, PickupTime)",
+                    "ANALYZE Schedules",
+                    "ANALYZE RideRequests"),
+
+            // The time each ride occupies its driver and vehicle, as a range that range
+            // operators and exclusion constraints can work with. The bounds are inclusive
+            // to match the overlap test the availability queries use today.
+            new Migration(2, "Time range of every schedule entry",
+                    "ALTER TABLE Schedules ADD COLUMN IF NOT EXISTS ScheduledPeriod TSRANGE " +
+                            "GENERATED ALWAYS AS (TSRANGE(ScheduledDate + ScheduledTime, " +
+                            "ScheduledDate + ScheduledTime + INTERVAL '30 minutes', '[]')) STORED"),
+
+            // Availability checks look for rides of one driver or vehicle overlapping a window.
+            // btree_gist lets a GiST index combine the ID equality with the range overlap, so
+            // each check descends one index instead of reading all of a driver's rides. These
+            // replace the vehicle B-tree index; the driver one still serves listings by driver.
+            new Migration(3, "GiST indexes for time range overlap",
+                    "CREATE EXTENSION IF NOT EXISTS btree_gist",
+                    "CREATE INDEX IF NOT EXISTS idx_schedules_driver_period " +
+                            "ON Schedules USING GIST (DriverID, ScheduledPeriod)",
+                    "CREATE INDEX IF NOT EXISTS idx_schedules_vehicle_period " +
+                            "ON Schedules USING GIST (VehicleID, ScheduledPeriod)",
+                    "DROP INDEX IF EXISTS idx_schedules_vehicle_date_time",
+                    "ANALYZE Schedules"),
+
+            // Rides take as long as the scheduler estimates instead of a fixed 30 minutes.
+            // The time range is regenerated from the stored duration, which drops and
+            // recreates its GiST indexes; existing rides keep 30 minutes.
+            new Migration(4, "Per-ride durations",
+                    "ALTER TABLE Schedules ADD COLUMN IF NOT EXISTS DurationMinutes INTEGER NOT NULL DEFAULT 30 " +
+                            "CHECK (DurationMinutes > 0)",
+                    "ALTER TABLE Schedules DROP COLUMN IF EXISTS ScheduledPeriod",
+                    "ALTER TABLE Schedules ADD COLUMN ScheduledPeriod TSRANGE " +
+                            "GENERATED ALWAYS AS (TSRANGE(ScheduledDate + ScheduledTime, " +
+                            "ScheduledDate + ScheduledTime + DurationMinutes * INTERVAL '1 minute', '[]')) STORED",
+                    "CREATE INDEX IF NOT EXISTS idx_schedules_driver_period " +
+                            "ON Schedules USING GIST (DriverID, ScheduledPeriod)",
+                    "CREATE INDEX IF NOT EXISTS idx_schedules_vehicle_period " +
+                            "ON Schedules USING GIST (VehicleID, ScheduledPeriod)",
+                    "ANALYZE Schedules")
+    );
+
+    private final List<Migration> migrations;
+
+    /**
+     * A versioned change to the schema.
+     */
+    static class Migration {
+        private final int version;
+        private final String description;
+        private final List<String> statements;
+
+        /**
+         * Constructs a migration.
+         *
+         * @param version the version number, starting at 1
+         * @param description what the migration changes, recorded in SchemaHistory
+         * @param statements the SQL statements to run, in order
+         */
+        Migration(int version, String description, String... statements) {
+            this.version = version;
+            this.description = description;
+            this.statements = List.of(statements);
+        }
+
+        int getVersion() {
+            return version;
+        }
+
+        String getDescription() {
+            return description;
+        }
+
+        List<String> getStatements() {
+            return statements;
+        }
+    }
+
+    /**
+     * Constructs a migrator for the migrations of this build.
+     */
+    public SchemaMigrator() {
+        this(MIGRATIONS);
+    }
+
+    /**
+     * Constructs a migrator for the given migrations.
+     *
+     * @param migrations the migrations, in increasing version order
+     * @throws IllegalArgumentException if the versions are not positive and increasing
+     */
+    SchemaMigrator(List<Migration> migrations) {
+        int previous = 0;
+        for (Migration migration : migrations) {
+            if (migration.getVersion() <= previous) {
+                throw new IllegalArgumentException("Migration versions must increase: " +
+                        migration.getVersion() + " follows " + previous);
+            }
+            previous = migration.getVersion();
+        }
+        this.migrations = Collections.unmodifiableList(migrations);
+    }
+
+    /**
+     * Gets the schema version this migrator brings the database to.
+     *
+     * @return the highest migration version, or 0 if there are none
+     */
+    public int getLatestVersion() {
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).getVersion();
+    }
+
+    /**
+     * Applies every migration that has not been applied to the database yet.
+     *
+     * @return the number of migrations applied
+     * @throws SQLException if a database access error occurs; no migration is applied
+     */
+    public int migrate() throws SQLException {
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("SELECT pg_advisory_xact_lock(" + MIGRATION_LOCK_KEY + ")");
+                stmt.execute("CREATE TABLE IF NOT EXISTS SchemaHistory (" +
+                        "Version INTEGER PRIMARY KEY, " +
+                        "Description VARCHAR(200) NOT NULL, " +
+                        "AppliedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+
+                Set<Integer> applied = new HashSet<>();
+                try (ResultSet rs = stmt.executeQuery("SELECT Version FROM SchemaHistory")) {
+                    while (rs.next()) {
+                        applied.add(rs.getInt(1));
+                    }
+                }
+
+                int count = 0;
+                for (Migration migration : migrations) {
+                    if (applied.contains(migration.getVersion())) {
+                        continue;
+                    }
+                    apply(conn, migration);
+                    count++;
+                }
+
+                conn.commit();
+                return count;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Gets the highest schema version recorded in the database.
+     *
+     * @return the current version, or 0 if no migration has been applied
+     * @throws SQLException if a database access error occurs
+     */
+    public int getCurrentVersion() throws SQLException {
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(Version), 0) FROM SchemaHistory")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            if ("42P01".equals(e.getSQLState())) {
+                // SchemaHistory does not exist yet
+                return 0;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Runs the statements of a migration and records it as applied.
+     */
+    private void apply(Connection conn, Migration migration) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : migration.getStatements()) {
+                stmt.execute(sql);
+            }
+        } catch (SQLException e) {
+            throw new SQLException("Migration " + migration.getVersion() + " failed: " + e.getMessage(),
+                    e.getSQLState(), e);
+        }
+
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO SchemaHistory (Version, Description) VALUES (?, ?)")) {
+            pstmt.setInt(1, migration.getVersion());
+            pstmt.setString(2, migration.getDescription());
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Borrows a connection from the shared pool. Callers must close it.
+     *
+     * @return a pooled database connection
+     * @throws SQLException if a database access error occurs
+     */
+    protected Connection getConnection() throws SQLException {
+        return DatabaseConnector.getConnection();
+    }
+}
@@ -0,0 +1,358 @@
+package edu.ucalgary.oop;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+/**
+ * SpatialGridIndex finds the points nearest to a position without measuring the
+ * distance to every point.
+ * <p>
+ * Points are identified by an integer ID, such as a vehicle ID, and placed in
+ * square cells of a uniform grid. A nearest-point query reads the query's cell and
+ * then rings of cells around it, stopping once no unread cell can hold a closer
+ * point, so it reads a handful of cells however many points there are.
+ * <p>
+ * Latitudes and longitudes are projected onto a plane scaled for one reference
+ * latitude. Within a city the error is far below a block, and distances are only
+ * used to rank points.
+ * <p>
+ * The index is safe to use from several threads.
+ *
+ * @author Group 16
+ * @version 1.1
+ * @since 1.3
+ */
+
+public class SpatialGridIndex {
+    /**
+     * The latitude of Calgary, which the default projection is scaled for.
+     */
+    public static final double CALGARY_LATITUDE = 51.05;
+
+    /**
+     * The default cell width in kilometres.
+     */
+    public static final double DEFAULT_CELL_KM = 2.0;
+
+    private static final double KM_PER_DEGREE_LATITUDE = 110.574;
+    private static final double KM_PER_DEGREE_LONGITUDE_AT_EQUATOR = 111.320;
+
+    private final double cellKm;
+    private final double kmPerDegreeLongitude;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Point> points = new HashMap<>();
+    private final Map<Long, List<Point>> cells = new HashMap<>();
+
+    // Bounds of the cells that have held a point; they only grow, which keeps queries correct
+    private int minColumn = Integer.MAX_VALUE;
+    private int maxColumn = Integer.MIN_VALUE;
+    private int minRow = Integer.MAX_VALUE;
+    private int maxRow = Integer.MIN_VALUE;
+
+    /**
+     * A point found by a query, with its position and its distance from the query position.
+     */
+    public static class Neighbor {
+        private final int id;
+        private final double distanceKm;
+        private final double latitude;
+        private final double longitude;
+
+        Neighbor(int id, double distanceKm, double latitude, double longitude) {
+            this.id = id;
+            this.distanceKm = distanceKm;
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+
+        public double getLatitude() {
+            return latitude;
+        }
+
+        public double getLongitude() {
+            return longitude;
+        }
+    }
+
+    /**
+     * A point stored in the index, in projected kilometres.
+     */
+    private static class Point {
+        private final int id;
+        private final double latitude;
+        private final double longitude;
+        private final double x;
+        private final double y;
+        private final long cell;
+
+        Point(int id, double latitude, double longitude, double x, double y, long cell) {
+            this.id = id;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.x = x;
+            this.y = y;
+            this.cell = cell;
+        }
+    }
+
+    /**
+     * Constructs an index with cells of DEFAULT_CELL_KM scaled for Calgary.
+     */
+    public SpatialGridIndex() {
+        this(DEFAULT_CELL_KM, CALGARY_LATITUDE);
+    }
+
+    /**
+     * Constructs an index.
+     *
+     * @param cellKm the cell width in kilometres, about the distance to the nearest points
+     * @param referenceLatitude the latitude the projection is scaled for
+     * @throws IllegalArgumentException if cellKm is not positive or the latitude is out of range
+     */
+    public SpatialGridIndex(double cellKm, double referenceLatitude) {
+        if (!(cellKm > 0)) {
+            throw new IllegalArgumentException("Invalid cell size: " + cellKm);
+        }
+        if (!(referenceLatitude > -90 && referenceLatitude < 90)) {
+            throw new IllegalArgumentException("Invalid reference latitude: " + referenceLatitude);
+        }
+        this.cellKm = cellKm;
+        this.kmPerDegreeLongitude = KM_PER_DEGREE_LONGITUDE_AT_EQUATOR * Math.cos(Math.toRadians(referenceLatitude));
+    }
+
+    /**
+     * Places a point, moving it if the ID is already in the index.
+     *
+     * @param id the ID of the point
+     * @param latitude the latitude in degrees
+     * @param longitude the longitude in degrees
+     * @throws IllegalArgumentException if a coordinate is not a number
+     */
+    public void put(int id, double latitude, double longitude) {
+        if (Double.isNaN(latitude) || Double.isNaN(longitude)) {
+            throw new IllegalArgumentException("Invalid coordinates: " + latitude + ", " + longitude);
+        }
+        double x = longitude * kmPerDegreeLongitude;
+        double y = latitude * KM_PER_DEGREE_LATITUDE;
+        int column = cellOf(x);
+        int row = cellOf(y);
+        Point point = new Point(id, latitude, longitude, x, y, cellKey(column, row));
+
+        lock.writeLock().lock();
+        try {
+            removePoint(points.put(id, point));
+            cells.computeIfAbsent(point.cell, key -> new ArrayList<>()).add(point);
+            minColumn = Math.min(minColumn, column);
+            maxColumn = Math.max(maxColumn, column);
+            minRow = Math.min(minRow, row);
+            maxRow = Math.max(maxRow, row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a point.
+     *
+     * @param id the ID of the point
+     * @return true if the point was in the index
+     */
+    public boolean remove(int id) {
+        lock.writeLock().lock();
+        try {
+            Point point = points.remove(id);
+            removePoint(point);
+            return point != null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether a point is in the index.
+     *
+     * @param id the ID of the point
+     * @return true if the point is in the index
+     */
+    public boolean contains(int id) {
+        lock.readLock().lock();
+        try {
+            return points.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of points in the index.
+     *
+     * @return the number of points
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return points.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Measures the distance between two positions on this index's projection, which
+     * is the distance queries rank and report points by.
+     *
+     * @param latitude1 the latitude of the first position in degrees
+     * @param longitude1 the longitude of the first position in degrees
+     * @param latitude2 the latitude of the second position in degrees
+     * @param longitude2 the longitude of the second position in degrees
+     * @return the distance in kilometres
+     */
+    public double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        return Math.hypot((longitude1 - longitude2) * kmPerDegreeLongitude,
+                (latitude1 - latitude2) * KM_PER_DEGREE_LATITUDE);
+    }
+
+    /**
+     * Finds the points nearest to a position.
+     *
+     * @param latitude the latitude of the position in degrees
+     * @param longitude the longitude of the position in degrees
+     * @param k the most points to return
+     * @param accept which point IDs may be returned
+     * @return up to k accepted points, nearest first
+     */
+    public List<Neighbor> nearest(double latitude, double longitude, int k, IntPredicate accept) {
+        return nearest(latitude, longitude, k, Double.POSITIVE_INFINITY, accept);
+    }
+
+    /**
+     * Finds the points nearest to a position within a distance. Limiting the distance
+     * keeps a query from reading far cells when few points are accepted.
+     *
+     * @param latitude the latitude of the position in degrees
+     * @param longitude the longitude of the position in degrees
+     * @param k the most points to return
+     * @param maxKm the greatest distance of a returned point in kilometres
+     * @param accept which point IDs may be returned
+     * @return up to k accepted points no farther than maxKm, nearest first
+     */
+    public List<Neighbor> nearest(double latitude, double longitude, int k, double maxKm, IntPredicate accept) {
+        if (k < 1 || Double.isNaN(latitude) || Double.isNaN(longitude)) {
+            return Collections.emptyList();
+        }
+        double x = longitude * kmPerDegreeLongitude;
+        double y = latitude * KM_PER_DEGREE_LATITUDE;
+        int column = cellOf(x);
+        int row = cellOf(y);
+
+        // The farthest of the best k so far sits on top
+        PriorityQueue<Neighbor> best = new PriorityQueue<>(k + 1,
+                Comparator.comparingDouble(Neighbor::getDistanceKm).reversed());
+
+        lock.readLock().lock();
+        try {
+            for (int ring = 0; ; ring++) {
+                if (column - ring < minColumn && column + ring > maxColumn &&
+                        row - ring < minRow && row + ring > maxRow) {
+                    break;
+                }
+                // Points in this ring are at least one cell less than ring cells away
+                if ((ring - 1) * cellKm > maxKm) {
+                    break;
+                }
+                scanRing(column, row, ring, x, y, k, maxKm, accept, best);
+
+                // Points in cells beyond this ring are at least ring cells away
+                if (best.size() == k && best.peek().getDistanceKm() <= ring * cellKm) {
+                    break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Neighbor> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(Neighbor::getDistanceKm));
+        return result;
+    }
+
+    /**
+     * Offers the points in the square ring of cells at the given distance from the
+     * query cell, skipping rows and columns outside the occupied bounds.
+     */
+    private void scanRing(int column, int row, int ring, double x, double y, int k, double maxKm,
+                          IntPredicate accept, PriorityQueue<Neighbor> best) {
+        int fromColumn = Math.max(column - ring, minColumn);
+        int toColumn = Math.min(column + ring, maxColumn);
+        int fromRow = Math.max(row - ring + 1, minRow);
+        int toRow = Math.min(row + ring - 1, maxRow);
+
+        for (int c = fromColumn; c <= toColumn; c++) {
+            scanCell(c, row - ring, x, y, k, maxKm, accept, best);
+            if (ring > 0) {
+                scanCell(c, row + ring, x, y, k, maxKm, accept, best);
+            }
+        }
+        if (ring > 0) {
+            for (int r = fromRow; r <= toRow; r++) {
+                scanCell(column - ring, r, x, y, k, maxKm, accept, best);
+                scanCell(column + ring, r, x, y, k, maxKm, accept, best);
+            }
+        }
+    }
+
+    private void scanCell(int column, int row, double x, double y, int k, double maxKm,
+                          IntPredicate accept, PriorityQueue<Neighbor> best) {
+        List<Point> cell = cells.get(cellKey(column, row));
+        if (cell == null) {
+            return;
+        }
+        for (Point point : cell) {
+            double distance = Math.hypot(point.x - x, point.y - y);
+            if (distance > maxKm || (best.size() == k && distance >= best.peek().getDistanceKm())) {
+                continue;
+            }
+            if (!accept.test(point.id)) {
+                continue;
+            }
+            best.add(new Neighbor(point.id, distance, point.latitude, point.longitude));
+            if (best.size() > k) {
+                best.poll();
+            }
+        }
+    }
+
+    private void removePoint(Point point) {
+        if (point == null) {
+            return;
+        }
+        List<Point> cell = cells.get(point.cell);
+        cell.remove(point);
+        if (cell.isEmpty()) {
+            cells.remove(point.cell);
+        }
+    }
+
+    private int cellOf(double km) {
+        return (int) Math.floor(km / cellKm);
+    }
+
+    private static long cellKey(int column, int row) {
+        return ((long) column << 32) | (row & 0xffffffffL);
+    }
+}
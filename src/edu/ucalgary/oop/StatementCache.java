@@ -0,0 +1,257 @@
+package edu.ucalgary.oop;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * StatementCache keeps the prepared statements of one physical connection open
+ * between uses, keyed by their SQL text.
+ * <p>
+ * The PostgreSQL driver already keeps parsed queries and server-side prepared
+ * statements per connection (preparedStatementCacheQueries), so closing a statement
+ * does not lose its plan. This cache works one level up: a hot query gets back the
+ * same statement object instead of a new one whose SQL is looked up and whose
+ * parameter and result buffers are allocated again on every call, and its hit,
+ * miss and eviction counts show up in the pool's metrics.
+ * <p>
+ * Statements handed out by the cache look like ordinary statements to the caller.
+ * Closing them closes their open result sets, clears their parameters and batch,
+ * restores the fetch size, row limit and query timeout they were created with, and
+ * returns them to the cache. When the cache is full the least recently used
+ * statement is closed.
+ *
+ * @author Group 16
+ * @version 1.1
+ * @since 1.1
+ */
+
+public class StatementCache {
+
+    /**
+     * Hit, miss and eviction counters, shared by all caches of one connection pool.
+     */
+    public static class Counters {
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong evictions = new AtomicLong();
+
+        /**
+         * Gets the number of prepares answered from a cache.
+         * @return the hit count
+         */
+        public long getHitCount() {
+            return hits.get();
+        }
+
+        /**
+         * Gets the number of prepares that had to create a new statement.
+         * @return the miss count
+         */
+        public long getMissCount() {
+            return misses.get();
+        }
+
+        /**
+         * Gets the number of cached statements closed to make room for others.
+         * @return the eviction count
+         */
+        public long getEvictionCount() {
+            return evictions.get();
+        }
+    }
+
+    private final int maxSize;
+    private final Counters counters;
+    private final Map<String, CachedStatement> statements;
+
+    /**
+     * Constructs an empty cache.
+     *
+     * @param maxSize the maximum number of statements kept open
+     * @param counters the counters to record hits, misses and evictions in
+     */
+    public StatementCache(int maxSize, Counters counters) {
+        this.maxSize = maxSize;
+        this.counters = counters;
+        // Access-ordered so the eldest entry is always the least recently used one
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns a prepared statement for the given SQL, reusing a cached one when possible.
+     * A statement that is still in use by the caller is never handed out twice; a
+     * second, uncached statement is prepared instead.
+     *
+     * @param connection the physical connection the cache belongs to
+     * @param owner the connection reported by the statement's getConnection()
+     * @param sql the SQL text of the statement
+     * @return a statement that returns itself to the cache when closed
+     * @throws SQLException if a database access error occurs
+     */
+    public PreparedStatement prepare(Connection connection, Connection owner, String sql) throws SQLException {
+        CachedStatement cached = statements.get(sql);
+
+        if (cached != null && !cached.inUse) {
+            counters.hits.incrementAndGet();
+        } else {
+            counters.misses.incrementAndGet();
+            PreparedStatement statement = connection.prepareStatement(sql);
+            if (cached != null) {
+                // Same SQL already in use on this connection, do not cache the extra copy
+                return statement;
+            }
+            cached = new CachedStatement(statement);
+            statements.put(sql, cached);
+            evictIfFull();
+        }
+
+        cached.inUse = true;
+        return wrap(cached, owner);
+    }
+
+    /**
+     * Closes every cached statement.
+     */
+    public void closeAll() {
+        for (CachedStatement cached : statements.values()) {
+            closeQuietly(cached.statement);
+        }
+        statements.clear();
+    }
+
+    /**
+     * Gets the number of statements currently cached.
+     * @return the cache size
+     */
+    public int size() {
+        return statements.size();
+    }
+
+    private void evictIfFull() {
+        if (statements.size() <= maxSize) {
+            return;
+        }
+
+        List<String> evicted = new ArrayList<>();
+        for (Map.Entry<String, CachedStatement> entry : statements.entrySet()) {
+            if (statements.size() - evicted.size() <= maxSize) {
+                break;
+            }
+            // Skip statements that are still being used, they will be evicted later
+            if (!entry.getValue().inUse) {
+                evicted.add(entry.getKey());
+            }
+        }
+
+        for (String sql : evicted) {
+            closeQuietly(statements.remove(sql).statement);
+            counters.evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Creates a handle for one use of a cached statement.
+     */
+    private PreparedStatement wrap(CachedStatement cached, Connection owner) {
+        boolean[] returned = {false};
+        // Result sets of the latest execution; executing again closes the earlier ones
+        List<ResultSet> results = new ArrayList<>(1);
+
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            if (!returned[0]) {
+                                returned[0] = true;
+                                cached.inUse = false;
+                                try {
+                                    for (ResultSet result : results) {
+                                        result.close();
+                                    }
+                                    cached.reset();
+                                } catch (SQLException e) {
+                                    // A statement that cannot be reset is useless, drop it
+                                    statements.values().remove(cached);
+                                    closeQuietly(cached.statement);
+                                }
+                            }
+                            return null;
+                        case "isClosed":
+                            return returned[0] || cached.statement.isClosed();
+                        case "getConnection":
+                            return owner;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+
+                    if (returned[0]) {
+                        throw new SQLException("Statement has already been closed");
+                    }
+
+                    if (method.getName().startsWith("execute")) {
+                        results.clear();
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(cached.statement, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (result instanceof ResultSet) {
+                        results.add((ResultSet) result);
+                    }
+                    return result;
+                });
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            // The statement is being thrown away, nothing more to do
+        }
+    }
+
+    /**
+     * A physical prepared statement, whether a caller currently holds it, and the
+     * settings it was created with.
+     */
+    private static class CachedStatement {
+        private final PreparedStatement statement;
+        private final int fetchSize;
+        private final int maxRows;
+        private final int queryTimeout;
+        private boolean inUse = false;
+
+        CachedStatement(PreparedStatement statement) throws SQLException {
+            this.statement = statement;
+            this.fetchSize = statement.getFetchSize();
+            this.maxRows = statement.getMaxRows();
+            this.queryTimeout = statement.getQueryTimeout();
+        }
+
+        /**
+         * Undoes what a caller may have changed, so the next caller starts from a fresh statement.
+         */
+        void reset() throws SQLException {
+            statement.clearParameters();
+            statement.clearBatch();
+            statement.setFetchSize(fetchSize);
+            statement.setMaxRows(maxRows);
+            statement.setQueryTimeout(queryTimeout);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package edu.ucalgary.oop;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -15,23 +17,26 @@ import java.util.List;
  * the user interface layer.
  *
  * @author Group 16
- * @version 1.7
+ * @version 1.9
  * @since 1.0
  */
 
 public class TransportationController {
-    private DataAccessManager dataManager;
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private TransportationRepository dataManager;
     private SchedulingService schedulingService;
     private ReportGeneratorService reportService;
 
     /**
      * Constructs a new TransportationController with the specified services.
-     * @param dataManager the DataAccessManager for database operations
+     * @param dataManager the repository for data operations
      * @param schedulingService the SchedulingService for ride scheduling operations
      * @param reportService the ReportGeneratorService for report generation
      */
 
-    public TransportationController(DataAccessManager dataManager,
+    public TransportationController(TransportationRepository dataManager,
                                     SchedulingService schedulingService,
                                     ReportGeneratorService reportService) {
         this.dataManager = dataManager;
@@ -53,6 +58,21 @@ public class TransportationController {
         return dataManager.getAllRideRequests();
     }
 
+    /**
+     * Retrieves one page of the ride requests matching a filter, in request ID order.
+     * @param filter the criteria to match, or null to list every ride request
+     * @param afterId the next page's afterId from the previous page, or 0 for the first page
+     * @param pageSize the number of ride requests per page, at most MAX_PAGE_SIZE
+     * @return the page of RideRequest objects
+     * @throws IllegalArgumentException if the page size is out of range
+     * @throws SQLException if a database access error occurs
+     */
+
+    public Page<RideRequest> viewRideRequests(ListingFilter filter, int afterId, int pageSize) throws SQLException {
+        checkPageSize(pageSize);
+        return dataManager.getRideRequestPage(filter, afterId, pageSize);
+    }
+
     /**
      * Retrieves a specific ride request by its ID.
      * @param id the ID of the ride request to retrieve
@@ -90,6 +110,21 @@ public class TransportationController {
         return false;
     }
 
+    /**
+     * Imports ride requests in bulk from CSV content and then schedules every date
+     * that received rides in one batch pass. Invalid rows are reported rather than
+     * stopping the import; see RideRequestImporter for the expected columns.
+     * @param csv the CSV content
+     * @return the imported IDs, the rejected rows and the number of rides scheduled
+     * @throws IllegalArgumentException if the CSV header is missing a required column
+     * @throws IOException if reading the CSV fails
+     * @throws SQLException if a database access error occurs
+     */
+
+    public RideRequestImporter.Result importRideRequests(Reader csv) throws IOException, SQLException {
+        return new RideRequestImporter(dataManager, schedulingService).importCsv(csv);
+    }
+
     /**
      * Modifies an existing ride request and updates its scheduling if necessary.
      * If the request status is "Scheduled", the system will attempt to reschedule it
@@ -141,7 +176,9 @@ public class TransportationController {
         }
 
         request.setStatus("Cancelled");
-        return dataManager.updateRideRequest(request);
+        boolean updated = dataManager.updateRideRequest(request);
+        schedulingService.rideRequestUpdated(request);
+        return updated;
     }
 
     /**
@@ -165,7 +202,9 @@ public class TransportationController {
         }
 
         request.setStatus("Completed");
-        return dataManager.updateRideRequest(request);
+        boolean updated = dataManager.updateRideRequest(request);
+        schedulingService.rideRequestUpdated(request);
+        return updated;
     }
 
     //------------------------------------------------------------
@@ -208,6 +247,7 @@ public class TransportationController {
         boolean updated = dataManager.updateDriverAvailability(id, isAvailable);
 
         if (updated) {
+            schedulingService.fleetUpdated();
             // If driver was set to unavailable, we need to reschedule their rides
             if (!isAvailable) {
                 schedulingService.rescheduleRidesForDriver(id);
@@ -246,6 +286,31 @@ public class TransportationController {
         return dataManager.getAllSchedules();
     }
 
+    /**
+     * Retrieves one page of the schedule entries matching a filter, in schedule ID order.
+     * @param filter the criteria to match, or null to list every schedule entry
+     * @param afterId the next page's afterId from the previous page, or 0 for the first page
+     * @param pageSize the number of schedule entries per page, at most MAX_PAGE_SIZE
+     * @return the page of Schedule objects
+     * @throws IllegalArgumentException if the page size is out of range
+     * @throws SQLException if a database access error occurs
+     */
+
+    public Page<Schedule> viewSchedules(ListingFilter filter, int afterId, int pageSize) throws SQLException {
+        checkPageSize(pageSize);
+        return dataManager.getSchedulePage(filter, afterId, pageSize);
+    }
+
+    /**
+     * Schedules all pending ride requests of a date in a single batch pass.
+     * @param date the date whose pending ride requests should be scheduled
+     * @return the number of ride requests that were scheduled
+     */
+
+    public int schedulePendingRides(LocalDate date) {
+        return schedulingService.scheduleBatch(date);
+    }
+
     /**
      * Generates a daily schedule file for the specified date.
      * The file includes details of all scheduled rides for that date,
@@ -282,4 +347,16 @@ public class TransportationController {
             return false;
         }
     }
+
+    /**
+     * Checks that a page size is between 1 and MAX_PAGE_SIZE.
+     * @param pageSize the page size to check
+     * @throws IllegalArgumentException if the page size is out of range
+     */
+
+    private static void checkPageSize(int pageSize) {
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,352 @@
+package edu.ucalgary.oop;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * TransportationRepository is the storage used by the services of the Accessible
+ * Transportation system for RideRequests, Vehicles, Drivers, and Schedules.
+ * DataAccessManager stores them in PostgreSQL and InMemoryRepository keeps them
+ * in memory for tests, simulations and load tests.
+ * <p>
+ * A scheduled ride occupies its driver and vehicle for its duration from its time,
+ * and only rides whose request is "Scheduled" count towards availability.
+ * All methods declare SQLException so callers handle every implementation the same way.
+ *
+ * @author Group 16
+ * @version 1.2
+ * @since 1.3
+ */
+
+public interface TransportationRepository {
+
+    //------------------------------------------------------------
+    // RideRequest methods
+    //------------------------------------------------------------
+
+    /**
+     * Retrieves all ride requests.
+     *
+     * @return a list of RideRequest objects
+     * @throws SQLException if a storage error occurs
+     */
+    List<RideRequest> getAllRideRequests() throws SQLException;
+
+    /**
+     * Retrieves one page of the ride requests matching a filter, in request ID order.
+     *
+     * @param filter the criteria to match, or null to match every request
+     * @param afterId only requests with a greater ID are returned; 0 for the first page
+     * @param pageSize the maximum number of requests on the page
+     * @return the page of RideRequest objects
+     * @throws IllegalArgumentException if pageSize is less than 1
+     * @throws SQLException if a storage error occurs
+     */
+    Page<RideRequest> getRideRequestPage(ListingFilter filter, int afterId, int pageSize) throws SQLException;
+
+    /**
+     * Retrieves a ride request by its ID.
+     *
+     * @param id the request ID
+     * @return the RideRequest object, or null if not found
+     * @throws SQLException if a storage error occurs
+     */
+    RideRequest getRideRequestById(int id) throws SQLException;
+
+    /**
+     * Retrieves the ride requests for a date that have a given status, ordered by pickup time.
+     *
+     * @param date the request date
+     * @param status the status to match, such as "Pending"
+     * @return a list of RideRequest objects
+     * @throws SQLException if a storage error occurs
+     */
+    List<RideRequest> getRideRequestsByDateAndStatus(LocalDate date, String status) throws SQLException;
+
+    /**
+     * Adds a new ride request and sets its generated ID.
+     *
+     * @param request the RideRequest object to add
+     * @return true if the request was added successfully
+     * @throws SQLException if a storage error occurs
+     */
+    boolean addRideRequest(RideRequest request) throws SQLException;
+
+    /**
+     * Adds ride requests in bulk, all or none, and sets their generated IDs. The
+     * requests are taken from the iterator while they are loaded, so a large import
+     * never has to be held in memory at once.
+     *
+     * @param requests the ride requests to add
+     * @return the generated IDs, in the order of the requests
+     * @throws SQLException if a storage error occurs; nothing is added
+     */
+    List<Integer> importRideRequests(Iterator<RideRequest> requests) throws SQLException;
+
+    /**
+     * Updates an existing ride request.
+     *
+     * @param request the RideRequest object to update
+     * @return true if the request exists and was updated
+     * @throws SQLException if a storage error occurs
+     */
+    boolean updateRideRequest(RideRequest request) throws SQLException;
+
+    /**
+     * Updates the status of a ride request.
+     *
+     * @param id the ID of the ride request
+     * @param status the new status
+     * @return true if the request exists and was updated
+     * @throws SQLException if a storage error occurs
+     */
+    boolean updateRideStatus(int id, String status) throws SQLException;
+
+    /**
+     * Updates the status of several ride requests at once.
+     *
+     * @param statuses the new status of each ride request, keyed by request ID
+     * @return the number of ride requests updated
+     * @throws SQLException if a storage error occurs
+     */
+    int updateRideStatuses(Map<Integer, String> statuses) throws SQLException;
+
+    //------------------------------------------------------------
+    // Vehicle methods
+    //------------------------------------------------------------
+
+    /**
+     * Retrieves all vehicles.
+     *
+     * @return a list of Vehicle objects
+     * @throws SQLException if a storage error occurs
+     */
+    List<Vehicle> getAllVehicles() throws SQLException;
+
+    /**
+     * Retrieves a vehicle by its ID.
+     *
+     * @param id the vehicle ID
+     * @return the Vehicle object, or null if not found
+     * @throws SQLException if a storage error occurs
+     */
+    Vehicle getVehicleById(int id) throws SQLException;
+
+    /**
+     * Gets the vehicles that meet the requirements of a ride and have no scheduled
+     * ride overlapping a time window.
+     *
+     * @param date the date of the ride
+     * @param startTime the start of the time window
+     * @param endTime the end of the time window
+     * @param needsWheelchair whether a wheelchair accessible vehicle is needed
+     * @param passengerCount number of passengers
+     * @return a list of available Vehicle objects
+     * @throws SQLException if a storage error occurs
+     */
+    List<Vehicle> getAvailableVehicles(LocalDate date, LocalTime startTime, LocalTime endTime,
+                                       boolean needsWheelchair, int passengerCount) throws SQLException;
+
+    //------------------------------------------------------------
+    // Driver methods
+    //------------------------------------------------------------
+
+    /**
+     * Retrieves all drivers.
+     *
+     * @return a list of Driver objects
+     * @throws SQLException if a storage error occurs
+     */
+    List<Driver> getAllDrivers() throws SQLException;
+
+    /**
+     * Retrieves a driver by ID.
+     *
+     * @param id the driver ID
+     * @return the Driver object, or null if not found
+     * @throws SQLException if a storage error occurs
+     */
+    Driver getDriverById(int id) throws SQLException;
+
+    /**
+     * Gets the drivers marked as available that have no scheduled ride overlapping a time window.
+     *
+     * @param date the date of the ride
+     * @param startTime the start of the time window
+     * @param endTime the end of the time window
+     * @return a list of available Driver objects
+     * @throws SQLException if a storage error occurs
+     */
+    List<Driver> getAvailableDrivers(LocalDate date, LocalTime startTime, LocalTime endTime) throws SQLException;
+
+    /**
+     * Updates a driver's availability.
+     *
+     * @param id the driver's ID
+     * @param isAvailable true if available, false if not
+     * @return true if the driver exists and was updated
+     * @throws SQLException if a storage error occurs
+     */
+    boolean updateDriverAvailability(int id, boolean isAvailable) throws SQLException;
+
+    //------------------------------------------------------------
+    // Schedule methods
+    //------------------------------------------------------------
+
+    /**
+     * Retrieves all schedules.
+     *
+     * @return a list of Schedule objects
+     * @throws SQLException if a storage error occurs
+     */
+    List<Schedule> getAllSchedules() throws SQLException;
+
+    /**
+     * Retrieves one page of the schedules matching a filter, in schedule ID order.
+     *
+     * @param filter the criteria to match, or null to match every schedule
+     * @param afterId only schedules with a greater ID are returned; 0 for the first page
+     * @param pageSize the maximum number of schedules on the page
+     * @return the page of Schedule objects
+     * @throws IllegalArgumentException if pageSize is less than 1
+     * @throws SQLException if a storage error occurs
+     */
+    Page<Schedule> getSchedulePage(ListingFilter filter, int afterId, int pageSize) throws SQLException;
+
+    /**
+     * Adds a new schedule and sets its generated ID.
+     *
+     * @param schedule the Schedule to add
+     * @return true if the schedule was added successfully
+     * @throws SQLException if a storage error occurs
+     */
+    boolean addSchedule(Schedule schedule) throws SQLException;
+
+    /**
+     * Adds several schedules at once, all or none.
+     *
+     * @param schedules the schedules to add; their IDs are set once saved
+     * @return the generated schedule IDs, in the order of the given schedules
+     * @throws SQLException if a storage error occurs
+     */
+    List<Integer> addSchedules(List<Schedule> schedules) throws SQLException;
+
+    /**
+     * Saves a set of new schedules and marks their ride requests as "Scheduled",
+     * so either every schedule is saved or none is.
+     *
+     * @param schedules the schedules to add; their IDs are set once saved
+     * @return true if all schedules were saved
+     * @throws SQLException if a storage error occurs
+     */
+    boolean commitSchedules(List<Schedule> schedules) throws SQLException;
+
+    /**
+     * Saves a set of new schedules and marks their ride requests as "Scheduled", but only
+     * if none of them conflicts with rides saved in the meantime. This is safe to call from
+     * several threads or processes at once: a driver or vehicle is never double-booked.
+     * A ride conflicts when it comes within the buffer of another scheduled ride of its
+     * driver or vehicle, when its driver is no longer available, or when the saved status
+     * of its request differs from the status on the given request object. Saved rides of
+     * the requests being reserved are ignored and then replaced, since those requests are
+     * being placed again.
+     *
+     * @param schedules the schedules to add; their IDs are set once saved
+     * @param bufferMinutes the free time required between a new ride's block
+     *                      and any other ride of the same driver or vehicle
+     * @return true if every schedule was saved, false if one conflicted and nothing was saved
+     * @throws SQLException if a storage error occurs
+     */
+    boolean reserveSchedules(List<Schedule> schedules, int bufferMinutes) throws SQLException;
+
+    /**
+     * Removes a set of schedules and sets their ride requests back to "Pending", all or none.
+     *
+     * @param schedules the schedules to remove
+     * @return the number of schedules removed
+     * @throws SQLException if a storage error occurs
+     */
+    int releaseSchedules(List<Schedule> schedules) throws SQLException;
+
+    /**
+     * Updates an existing schedule.
+     *
+     * @param schedule the Schedule to update
+     * @return true if the schedule exists and was updated
+     * @throws SQLException if a storage error occurs
+     */
+    boolean updateSchedule(Schedule schedule) throws SQLException;
+
+    /**
+     * Deletes all schedules associated with a specific driver.
+     *
+     * @param driverId the driver ID
+     * @return true if any schedules were deleted
+     * @throws SQLException if a storage error occurs
+     */
+    boolean deleteSchedulesByDriverId(int driverId) throws SQLException;
+
+    /**
+     * Retrieves all schedules for a specific date.
+     *
+     * @param date the date to query
+     * @return a list of Schedule objects
+     * @throws SQLException if a storage error occurs
+     */
+    List<Schedule> getSchedulesByDate(LocalDate date) throws SQLException;
+
+    /**
+     * Passes the schedules of a date to an action one at a time, ordered by driver ID
+     * and then by time, without holding them all in memory.
+     *
+     * @param date the date to retrieve schedules for
+     * @param action called once for each schedule, in order
+     * @throws SQLException if a storage error occurs
+     */
+    void forEachScheduleByDate(LocalDate date, Consumer<Schedule> action) throws SQLException;
+
+    /**
+     * Counts the schedules of a date range: the total, the rides per vehicle, the rides
+     * per driver, and wheelchair versus standard rides.
+     *
+     * @param startDate the beginning date (inclusive)
+     * @param endDate the end date (inclusive)
+     * @return the ride counts of the range
+     * @throws SQLException if a storage error occurs
+     */
+    RideSummary getRideSummary(LocalDate startDate, LocalDate endDate) throws SQLException;
+
+    /**
+     * Retrieves all schedules assigned to a specific driver.
+     *
+     * @param driverId the driver ID
+     * @return a list of Schedule objects
+     * @throws SQLException if a storage error occurs
+     */
+    List<Schedule> getSchedulesByDriverId(int driverId) throws SQLException;
+
+    /**
+     * Retrieves the schedules of a driver from a given date onwards, in date and time order.
+     *
+     * @param driverId the ID of the driver
+     * @param fromDate the first date to include
+     * @return a list of Schedule objects
+     * @throws SQLException if a storage error occurs
+     */
+    List<Schedule> getSchedulesByDriverId(int driverId, LocalDate fromDate) throws SQLException;
+
+    /**
+     * Retrieves all schedules within a date range.
+     *
+     * @param startDate the beginning date (inclusive)
+     * @param endDate the end date (inclusive)
+     * @return a list of Schedule objects
+     * @throws SQLException if a storage error occurs
+     */
+    List<Schedule> getSchedulesByDateRange(LocalDate startDate, LocalDate endDate) throws SQLException;
+}
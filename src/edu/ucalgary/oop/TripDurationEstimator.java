@@ -0,0 +1,55 @@
+package edu.ucalgary.oop;
+
+/**
+ * TripDurationEstimator tells the scheduler how long a ride keeps its driver and
+ * vehicle busy, from pickup until the vehicle is free at the drop-off location.
+ * <p>
+ * The same estimate is used to find free drivers and vehicles, to check reservations
+ * and to record the time range of the saved schedule, so a ride blocks exactly as
+ * long everywhere. Implementations must be thread-safe and should be fast, since the
+ * scheduler asks for an estimate each time it places a ride.
+ *
+ * @author Group 16
+ * @version 1.0
+ * @since 1.3
+ */
+
+public interface TripDurationEstimator {
+    /**
+     * The duration assumed for a ride when nothing better is known.
+     */
+    int DEFAULT_MINUTES = 30;
+
+    /**
+     * Estimates how long a ride between two locations takes.
+     *
+     * @param pickupLocation where the ride starts, or null if not given
+     * @param dropOffLocation where the ride ends, or null if not given
+     * @return the duration in minutes, at least 1
+     */
+    int estimateMinutes(String pickupLocation, String dropOffLocation);
+
+    /**
+     * Estimates how long a requested ride takes.
+     *
+     * @param request the ride request
+     * @return the duration in minutes, at least 1
+     */
+    default int estimateMinutes(RideRequest request) {
+        return estimateMinutes(request.getPickUpLocation(), request.getDropOffLocation());
+    }
+
+    /**
+     * Gets an estimator that gives every ride the same duration.
+     *
+     * @param minutes the duration of every ride
+     * @return the estimator
+     * @throws IllegalArgumentException if minutes is less than 1
+     */
+    static TripDurationEstimator fixed(int minutes) {
+        if (minutes < 1) {
+            throw new IllegalArgumentException("Invalid trip duration: " + minutes);
+        }
+        return (pickupLocation, dropOffLocation) -> minutes;
+    }
+}
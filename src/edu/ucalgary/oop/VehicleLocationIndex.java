@@ -0,0 +1,178 @@
+package edu.ucalgary.oop;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * VehicleLocationIndex keeps the vehicles whose current location has known
+ * coordinates in a SpatialGridIndex, so the vehicles nearest to a pickup can be
+ * found without looking at every vehicle.
+ * <p>
+ * Locations are resolved through a LocationRegistry. A vehicle whose location is
+ * missing or has no coordinates is left out of the index and is never returned
+ * as nearby.
+ *
+ * @author Group 16
+ * @version 1.2
+ * @since 1.3
+ */
+
+public class VehicleLocationIndex {
+    private final LocationRegistry locations;
+    private final SpatialGridIndex grid;
+    // Location ID each indexed vehicle was placed at, so unchanged vehicles skip the grid
+    private final Map<Integer, Integer> locationIds = new HashMap<>();
+
+    /**
+     * Constructs an empty index with the default grid.
+     *
+     * @param locations the registry that resolves vehicle locations to coordinates
+     */
+    public VehicleLocationIndex(LocationRegistry locations) {
+        this(locations, new SpatialGridIndex());
+    }
+
+    /**
+     * Constructs an empty index.
+     *
+     * @param locations the registry that resolves vehicle locations to coordinates
+     * @param grid an empty grid to hold the vehicle positions
+     */
+    public VehicleLocationIndex(LocationRegistry locations, SpatialGridIndex grid) {
+        this.locations = locations;
+        this.grid = grid;
+    }
+
+    /**
+     * Indexes vehicles at their current locations.
+     *
+     * @param vehicles the vehicles to index
+     * @return the number of vehicles placed in the index
+     */
+    public int updateAll(List<Vehicle> vehicles) {
+        int placed = 0;
+        for (Vehicle vehicle : vehicles) {
+            if (update(vehicle)) {
+                placed++;
+            }
+        }
+        return placed;
+    }
+
+    /**
+     * Moves a vehicle to its current location.
+     *
+     * @param vehicle the vehicle
+     * @return true if the location has coordinates and the vehicle is indexed
+     */
+    public boolean update(Vehicle vehicle) {
+        return update(vehicle.getVehicleID(), vehicle.getCurrentLocation());
+    }
+
+    /**
+     * Moves a vehicle to a location, or removes it if the location has no coordinates.
+     *
+     * @param vehicleId the vehicle ID
+     * @param location the address the vehicle is at
+     * @return true if the location has coordinates and the vehicle is indexed
+     */
+    public synchronized boolean update(int vehicleId, String location) {
+        int locationId = locations.intern(location);
+        if (!locations.hasCoordinates(locationId)) {
+            remove(vehicleId);
+            return false;
+        }
+        Integer previous = locationIds.put(vehicleId, locationId);
+        if (previous == null || previous != locationId) {
+            grid.put(vehicleId, locations.getLatitude(locationId), locations.getLongitude(locationId));
+        }
+        return true;
+    }
+
+    /**
+     * Removes a vehicle from the index.
+     *
+     * @param vehicleId the vehicle ID
+     * @return true if the vehicle was indexed
+     */
+    public synchronized boolean remove(int vehicleId) {
+        locationIds.remove(vehicleId);
+        return grid.remove(vehicleId);
+    }
+
+    /**
+     * Finds the vehicles nearest to a location.
+     *
+     * @param location the address to search from, usually a pickup location
+     * @param k the most vehicles to return
+     * @param accept which vehicle IDs may be returned
+     * @return up to k vehicles nearest first, with their distances; empty if the
+     *         location has no coordinates
+     */
+    public List<SpatialGridIndex.Neighbor> nearest(String location, int k, IntPredicate accept) {
+        int locationId = locations.intern(location);
+        if (!locations.hasCoordinates(locationId)) {
+            return Collections.emptyList();
+        }
+        return grid.nearest(locations.getLatitude(locationId), locations.getLongitude(locationId), k, accept);
+    }
+
+    /**
+     * Finds the vehicles nearest to a position within a distance.
+     *
+     * @param latitude the latitude of the position in degrees
+     * @param longitude the longitude of the position in degrees
+     * @param k the most vehicles to return
+     * @param maxKm the greatest distance of a returned vehicle in kilometres
+     * @param accept which vehicle IDs may be returned
+     * @return up to k vehicles nearest first, with their distances
+     */
+    public List<SpatialGridIndex.Neighbor> nearest(double latitude, double longitude, int k, double maxKm,
+                                                   IntPredicate accept) {
+        return grid.nearest(latitude, longitude, k, maxKm, accept);
+    }
+
+    /**
+     * Measures the distance between two positions the way this index ranks vehicles.
+     *
+     * @param latitude1 the latitude of the first position in degrees
+     * @param longitude1 the longitude of the first position in degrees
+     * @param latitude2 the latitude of the second position in degrees
+     * @param longitude2 the longitude of the second position in degrees
+     * @return the distance in kilometres
+     */
+    public double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        return grid.distanceKm(latitude1, longitude1, latitude2, longitude2);
+    }
+
+    /**
+     * Checks whether a vehicle is indexed.
+     *
+     * @param vehicleId the vehicle ID
+     * @return true if the vehicle's location has coordinates
+     */
+    public boolean contains(int vehicleId) {
+        return grid.contains(vehicleId);
+    }
+
+    /**
+     * Gets the number of indexed vehicles.
+     *
+     * @return the number of vehicles with known coordinates
+     */
+    public int size() {
+        return grid.size();
+    }
+
+    /**
+     * Gets the registry vehicle locations are resolved through.
+     *
+     * @return the location registry
+     */
+    public LocationRegistry getLocationRegistry() {
+        return locations;
+    }
+}
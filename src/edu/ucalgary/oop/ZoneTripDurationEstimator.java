@@ -0,0 +1,170 @@
+package edu.ucalgary.oop;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ZoneTripDurationEstimator estimates trip durations offline from a zone-to-zone
+ * matrix of travel times.
+ * <p>
+ * A location belongs to the zone it is mapped to explicitly, such as a hospital or
+ * day program the service visits often. Other addresses fall into the city quadrant
+ * they end with (NW, NE, SW or SE), as Calgary addresses do. A ride takes the
+ * minutes listed for its pair of zones, or for the reverse pair if only that one is
+ * listed. Rides with an unknown zone or pair take the default duration.
+ * <p>
+ * Estimators are usually loaded from a file, one entry per line:
+ * <pre>
+ * # Comments and blank lines are ignored
+ * zone,"Foothills Medical Centre",NW
+ * minutes,NW,NW,20
+ * minutes,NW,SE,45
+ * </pre>
+ * Configure the estimator before the scheduler uses it; afterwards it is only read,
+ * which is safe from several threads.
+ *
+ * @author Group 16
+ * @version 1.0
+ * @since 1.3
+ */
+
+public class ZoneTripDurationEstimator implements TripDurationEstimator {
+    private static final String[] QUADRANTS = {"NW", "NE", "SW", "SE"};
+
+    private final int defaultMinutes;
+    private final Map<String, String> zonesByLocation = new HashMap<>();
+    private final Map<String, Integer> minutesByZones = new HashMap<>();
+
+    /**
+     * Constructs an estimator with no zones or travel times yet.
+     *
+     * @param defaultMinutes the duration of rides whose zones or zone pair are unknown
+     * @throws IllegalArgumentException if defaultMinutes is less than 1
+     */
+    public ZoneTripDurationEstimator(int defaultMinutes) {
+        if (defaultMinutes < 1) {
+            throw new IllegalArgumentException("Invalid trip duration: " + defaultMinutes);
+        }
+        this.defaultMinutes = defaultMinutes;
+    }
+
+    /**
+     * Loads an estimator from the file format described above.
+     *
+     * @param source the file content
+     * @param defaultMinutes the duration of rides whose zones or zone pair are unknown
+     * @return the loaded estimator
+     * @throws IOException if reading fails
+     * @throws IllegalArgumentException if a line is malformed, naming its line number
+     */
+    public static ZoneTripDurationEstimator load(Reader source, int defaultMinutes) throws IOException {
+        ZoneTripDurationEstimator estimator = new ZoneTripDurationEstimator(defaultMinutes);
+        BufferedReader reader = new BufferedReader(source);
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+
+            try {
+                List<String> fields = RideRequestImporter.splitFields(trimmed);
+                String kind = fields.get(0).trim().toLowerCase(Locale.ROOT);
+                if (kind.equals("zone") && fields.size() == 3) {
+                    estimator.setZone(fields.get(1), fields.get(2));
+                } else if (kind.equals("minutes") && fields.size() == 4) {
+                    estimator.setMinutes(fields.get(1), fields.get(2), Integer.parseInt(fields.get(3).trim()));
+                } else {
+                    throw new IllegalArgumentException("Expected zone,LOCATION,ZONE or minutes,FROM,TO,MINUTES");
+                }
+            } catch (IllegalArgumentException e) {
+                // NumberFormatException is an IllegalArgumentException too
+                throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        return estimator;
+    }
+
+    /**
+     * Maps a location to a zone, overriding the quadrant in its address.
+     *
+     * @param location the location as written on ride requests
+     * @param zone the zone name
+     */
+    public void setZone(String location, String zone) {
+        zonesByLocation.put(normalize(location), normalize(zone));
+    }
+
+    /**
+     * Sets the travel time from one zone to another.
+     *
+     * @param fromZone the zone of the pickup location
+     * @param toZone the zone of the drop-off location
+     * @param minutes the travel time
+     * @throws IllegalArgumentException if minutes is less than 1
+     */
+    public void setMinutes(String fromZone, String toZone, int minutes) {
+        if (minutes < 1) {
+            throw new IllegalArgumentException("Invalid trip duration: " + minutes);
+        }
+        minutesByZones.put(key(normalize(fromZone), normalize(toZone)), minutes);
+    }
+
+    /**
+     * Finds the zone of a location.
+     *
+     * @param location the location as written on ride requests
+     * @return the zone name in lower case, or null if the zone is unknown
+     */
+    public String zoneOf(String location) {
+        if (location == null) {
+            return null;
+        }
+        String normalized = normalize(location);
+        String zone = zonesByLocation.get(normalized);
+        if (zone != null) {
+            return zone;
+        }
+
+        // Calgary addresses end with their quadrant, e.g. "1403 29 St NW"
+        String[] words = normalized.replaceAll("[^a-z0-9 ]", " ").trim().split(" +");
+        String last = words[words.length - 1];
+        for (String quadrant : QUADRANTS) {
+            if (last.equalsIgnoreCase(quadrant)) {
+                return normalize(quadrant);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int estimateMinutes(String pickupLocation, String dropOffLocation) {
+        String from = zoneOf(pickupLocation);
+        String to = zoneOf(dropOffLocation);
+        if (from == null || to == null) {
+            return defaultMinutes;
+        }
+
+        Integer minutes = minutesByZones.get(key(from, to));
+        if (minutes == null) {
+            minutes = minutesByZones.get(key(to, from));
+        }
+        return minutes == null ? defaultMinutes : minutes;
+    }
+
+    private static String normalize(String name) {
+        return name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static String key(String fromZone, String toZone) {
+        return fromZone + '\n' + toZone;
+    }
+}
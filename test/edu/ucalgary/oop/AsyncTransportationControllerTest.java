@@ -0,0 +1,135 @@
+package edu.ucalgary.oop;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AsyncTransportationControllerTest {
+
+    private InMemoryRepository repository;
+    private AsyncTransportationController async;
+
+    @Before
+    public void setUp() {
+        repository = new InMemoryRepository();
+
+        Driver driver = new Driver();
+        driver.setName("John Smith");
+        driver.setAvailable(true);
+        repository.addDriver(driver);
+
+        Vehicle vehicle = new Vehicle();
+        vehicle.setLicensePlate("ABC123");
+        vehicle.setCapacity(4);
+        vehicle.setWheelchairAccessible(true);
+        repository.addVehicle(vehicle);
+    }
+
+    @After
+    public void tearDown() {
+        if (async != null) {
+            async.close();
+        }
+    }
+
+    private TransportationController newController() {
+        return new TransportationController(repository, new SchedulingService(repository),
+                new ReportGeneratorService(repository));
+    }
+
+    @Test
+    public void testAddRideRequestCompletes() throws Exception {
+        async = new AsyncTransportationController(newController(), 2);
+
+        RideRequest request = new RideRequest();
+        request.setClientName("Jane Doe");
+        request.setPassengerCount(1);
+        request.setRequestDate(LocalDate.of(2025, 3, 3));
+        request.setPickupTime(LocalTime.of(9, 0));
+        request.setStatus("Pending");
+
+        assertTrue(async.addRideRequest(request).get(5, TimeUnit.SECONDS));
+        assertThat(async.getRideRequestById(request.getRequestID()).get(5, TimeUnit.SECONDS).getStatus(),
+                is("Scheduled"));
+    }
+
+    @Test
+    public void testConcurrencyIsBounded() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        TransportationController slowController = new TransportationController(repository,
+                new SchedulingService(repository), new ReportGeneratorService(repository)) {
+            @Override
+            public List<Driver> viewAllDrivers() throws SQLException {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                return super.viewAllDrivers();
+            }
+        };
+        async = new AsyncTransportationController(slowController, 3);
+
+        List<CompletableFuture<List<Driver>>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(async.viewAllDrivers());
+        }
+
+        // Wait until the first operations hold every permit
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (async.getActiveCount() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(async.getActiveCount(), is(3));
+        release.countDown();
+
+        for (CompletableFuture<List<Driver>> future : futures) {
+            assertThat(future.get(5, TimeUnit.SECONDS).size(), is(1));
+        }
+        assertThat(maxRunning.get(), is(3));
+        assertThat(async.getActiveCount(), is(0));
+    }
+
+    @Test
+    public void testFailureCompletesExceptionally() throws Exception {
+        TransportationController failingController = new TransportationController(repository,
+                new SchedulingService(repository), new ReportGeneratorService(repository)) {
+            @Override
+            public Driver getDriverById(int id) throws SQLException {
+                throw new SQLException("Connection lost");
+            }
+        };
+        async = new AsyncTransportationController(failingController, 1);
+
+        try {
+            async.getDriverById(1).get(5, TimeUnit.SECONDS);
+            fail("Expected the SQLException to be passed on");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(SQLException.class));
+        }
+        assertThat(async.getActiveCount(), is(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidLimitIsRejected() {
+        new AsyncTransportationController(newController(), 0);
+    }
+}
@@ -0,0 +1,157 @@
+package edu.ucalgary.oop;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class CachingRepositoryTest {
+
+    private CountingRepository backend;
+    private long now;
+    private CachingRepository cache;
+
+    /**
+     * In-memory repository that counts the driver and vehicle reads reaching it.
+     */
+    private static class CountingRepository extends InMemoryRepository {
+        private int driverReads = 0;
+        private int vehicleReads = 0;
+
+        @Override
+        public List<Driver> getAllDrivers() {
+            driverReads++;
+            return super.getAllDrivers();
+        }
+
+        @Override
+        public Driver getDriverById(int id) {
+            driverReads++;
+            return super.getDriverById(id);
+        }
+
+        @Override
+        public List<Vehicle> getAllVehicles() {
+            vehicleReads++;
+            return super.getAllVehicles();
+        }
+
+        @Override
+        public Vehicle getVehicleById(int id) {
+            vehicleReads++;
+            return super.getVehicleById(id);
+        }
+    }
+
+    @Before
+    public void setUp() {
+        backend = new CountingRepository();
+        for (int i = 1; i <= 3; i++) {
+            Driver driver = new Driver();
+            driver.setName("Driver " + i);
+            driver.setAvailable(true);
+            backend.addDriver(driver);
+
+            Vehicle vehicle = new Vehicle();
+            vehicle.setLicensePlate("CAR" + i);
+            vehicle.setCapacity(4);
+            backend.addVehicle(vehicle);
+        }
+
+        now = 0;
+        cache = new CachingRepository(backend, 2, 1000, () -> now);
+    }
+
+    @Test
+    public void testGetDriverByIdReadsThrough() throws SQLException {
+        assertThat(cache.getDriverById(1).getName(), is("Driver 1"));
+        assertThat(cache.getDriverById(1).getName(), is("Driver 1"));
+
+        assertThat(backend.driverReads, is(1));
+        assertThat(cache.getCounters().getMissCount(), is(1L));
+        assertThat(cache.getCounters().getHitCount(), is(1L));
+    }
+
+    @Test
+    public void testMissingDriverIsNotCached() throws SQLException {
+        assertThat(cache.getDriverById(99), is(nullValue()));
+        assertThat(cache.getDriverById(99), is(nullValue()));
+
+        assertThat(backend.driverReads, is(2));
+    }
+
+    @Test
+    public void testGetAllVehiclesIsCachedAndCopied() throws SQLException {
+        cache.getAllVehicles().get(0).setLicensePlate("CHANGED");
+
+        List<Vehicle> vehicles = cache.getAllVehicles();
+
+        assertThat(vehicles.size(), is(3));
+        assertThat(vehicles.get(0).getLicensePlate(), is("CAR1"));
+        assertThat(backend.vehicleReads, is(1));
+    }
+
+    @Test
+    public void testUpdateDriverAvailabilityInvalidates() throws SQLException {
+        cache.getAllDrivers();
+        cache.getDriverById(2);
+
+        assertTrue(cache.updateDriverAvailability(2, false));
+
+        assertFalse(cache.getDriverById(2).isAvailable());
+        assertFalse(cache.getAllDrivers().get(1).isAvailable());
+        assertThat(cache.getCounters().getInvalidationCount(), is(1L));
+        assertThat(backend.driverReads, is(3));
+    }
+
+    @Test
+    public void testEntriesExpireAfterTimeToLive() throws SQLException {
+        cache.getVehicleById(1);
+
+        now += TimeUnit.MILLISECONDS.toNanos(999);
+        cache.getVehicleById(1);
+        assertThat(backend.vehicleReads, is(1));
+
+        now += TimeUnit.MILLISECONDS.toNanos(1);
+        cache.getVehicleById(1);
+        assertThat(backend.vehicleReads, is(2));
+        assertThat(cache.getCounters().getEvictionCount(), is(1L));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() throws SQLException {
+        cache.getDriverById(1);
+        cache.getDriverById(2);
+        cache.getDriverById(1);
+        cache.getDriverById(3);
+
+        assertThat(cache.getCounters().getEvictionCount(), is(1L));
+
+        cache.getDriverById(1);
+        assertThat(backend.driverReads, is(3));
+        cache.getDriverById(2);
+        assertThat(backend.driverReads, is(4));
+    }
+
+    @Test
+    public void testInvalidateAllDropsEverything() throws SQLException {
+        cache.getAllDrivers();
+        cache.getAllVehicles();
+
+        cache.invalidateAll();
+        cache.getAllDrivers();
+        cache.getAllVehicles();
+
+        assertThat(backend.driverReads, is(2));
+        assertThat(backend.vehicleReads, is(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSettingsAreRejected() {
+        new CachingRepository(backend, 0, 1000);
+    }
+}
@@ -0,0 +1,59 @@
+package edu.ucalgary.oop;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CachingTripDurationEstimatorTest {
+
+    @Test
+    public void testRepeatedPairIsEstimatedOnce() {
+        AtomicInteger calls = new AtomicInteger();
+        CachingTripDurationEstimator estimator = new CachingTripDurationEstimator((pickup, dropOff) -> {
+            calls.incrementAndGet();
+            return 40;
+        });
+
+        assertThat(estimator.estimateMinutes("Home", "Clinic"), is(40));
+        assertThat(estimator.estimateMinutes("Home", "Clinic"), is(40));
+        assertThat(estimator.estimateMinutes("Clinic", "Home"), is(40));
+
+        assertThat(calls.get(), is(2));
+        assertThat(estimator.getHitCount(), is(1L));
+        assertThat(estimator.getMissCount(), is(2L));
+    }
+
+    @Test
+    public void testNullLocationsAreCached() {
+        CachingTripDurationEstimator estimator = new CachingTripDurationEstimator(TripDurationEstimator.fixed(30));
+        estimator.estimateMinutes(null, null);
+        estimator.estimateMinutes(null, null);
+        assertThat(estimator.getHitCount(), is(1L));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedPairIsEvicted() {
+        AtomicInteger calls = new AtomicInteger();
+        CachingTripDurationEstimator estimator = new CachingTripDurationEstimator((pickup, dropOff) -> {
+            calls.incrementAndGet();
+            return 30;
+        }, 2);
+
+        estimator.estimateMinutes("A", "B");
+        estimator.estimateMinutes("C", "D");
+        estimator.estimateMinutes("A", "B");
+        estimator.estimateMinutes("E", "F");
+        estimator.estimateMinutes("A", "B");
+        estimator.estimateMinutes("C", "D");
+
+        // C-D was the least recently used pair when E-F arrived
+        assertThat(calls.get(), is(4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroSizeIsRejected() {
+        new CachingTripDurationEstimator(TripDurationEstimator.fixed(30), 0);
+    }
+}
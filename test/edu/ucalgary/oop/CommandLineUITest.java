@@ -88,7 +88,7 @@ public class CommandLineUITest {
         mockController.setMockRideRequests(mockRequests);
 
         // Set up input to select option to view all ride requests then return to main menu
-        String input = "1\n1\n6\n5\n";
+        String input = "1\n1\n8\n5\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
 
         // Create new UI with this input
@@ -160,7 +160,7 @@ public class CommandLineUITest {
         mockController.setMockSchedules(mockSchedules);
 
         // Set up input to select option to view all schedules then return to main menu
-        String input = "4\n1\n3\n5\n";
+        String input = "4\n1\n4\n5\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
 
         // Create new UI with this input
@@ -176,6 +176,90 @@ public class CommandLineUITest {
         assertTrue(output.contains("Client: Test Client 1"));
     }
 
+    @Test
+    public void testViewAllRideRequestsPages() throws SQLException {
+        mockController.setMockRideRequests(createMockRideRequests());
+
+        // One request per page: Enter shows the second page
+        String input = "1\n1\n\n8\n5\n";
+        System.setIn(new ByteArrayInputStream(input.getBytes()));
+        ui = new CommandLineUI(mockController, 1);
+        ui.displayMenu();
+
+        String output = outputStream.toString();
+        assertTrue(output.contains("Client: Test Client 1"));
+        assertTrue(output.contains("Showing 1 so far"));
+        assertTrue(output.contains("Client: Test Client 2"));
+    }
+
+    @Test
+    public void testViewAllRideRequestsStopsPaging() throws SQLException {
+        mockController.setMockRideRequests(createMockRideRequests());
+
+        String input = "1\n1\nq\n8\n5\n";
+        System.setIn(new ByteArrayInputStream(input.getBytes()));
+        ui = new CommandLineUI(mockController, 1);
+        ui.displayMenu();
+
+        String output = outputStream.toString();
+        assertTrue(output.contains("Client: Test Client 1"));
+        assertFalse(output.contains("Client: Test Client 2"));
+    }
+
+    @Test
+    public void testSearchRideRequests() throws SQLException {
+        mockController.setMockRideRequests(createMockRideRequests());
+
+        // Status "pending", every other criterion left blank
+        String input = "1\n6\npending\n\n\n\n\n8\n5\n";
+        System.setIn(new ByteArrayInputStream(input.getBytes()));
+        ui = new CommandLineUI(mockController);
+        ui.displayMenu();
+
+        String output = outputStream.toString();
+        assertFalse(output.contains("Client: Test Client 1"));
+        assertTrue(output.contains("Client: Test Client 2"));
+        assertEquals("Pending", mockController.lastFilter.getStatus());
+    }
+
+    @Test
+    public void testSearchSchedulesWithNoMatches() throws SQLException {
+        mockController.setMockSchedules(createMockSchedules());
+
+        // Client name that matches nothing
+        String input = "4\n3\n\n\n\nNobody\n\n4\n5\n";
+        System.setIn(new ByteArrayInputStream(input.getBytes()));
+        ui = new CommandLineUI(mockController);
+        ui.displayMenu();
+
+        String output = outputStream.toString();
+        assertTrue(output.contains("No matching schedules found."));
+        assertEquals("Nobody", mockController.lastFilter.getClientName());
+    }
+
+    @Test
+    public void testImportRideRequests() throws Exception {
+        java.io.File csv = java.io.File.createTempFile("rides", ".csv");
+        csv.deleteOnExit();
+        java.nio.file.Files.writeString(csv.toPath(),
+                "ClientName,PassengerCount,RequestDate,PickupTime\nNew Client,1,2025-03-03,09:00\nBad,x,2025-03-03,09:00\n");
+
+        PrintStream originalErr = System.err;
+        ByteArrayOutputStream errOutputStream = new ByteArrayOutputStream();
+        System.setErr(new PrintStream(errOutputStream));
+        try {
+            String input = "1\n7\n" + csv.getAbsolutePath() + "\n8\n5\n";
+            System.setIn(new ByteArrayInputStream(input.getBytes()));
+            ui = new CommandLineUI(mockController);
+            ui.displayMenu();
+        } finally {
+            System.setErr(originalErr);
+        }
+
+        assertTrue(outputStream.toString().contains("Imported 1 ride requests, 1 rows rejected."));
+        assertTrue(errOutputStream.toString().contains("Line 3: Invalid passenger count: x"));
+    }
+
     // Helper methods to create mock data
     private List<RideRequest> createMockRideRequests() {
         List<RideRequest> requests = new ArrayList<>();
@@ -285,6 +369,7 @@ public class CommandLineUITest {
         private List<Driver> mockDrivers = new ArrayList<>();
         private List<Vehicle> mockVehicles = new ArrayList<>();
         private List<Schedule> mockSchedules = new ArrayList<>();
+        private ListingFilter lastFilter;
 
         public MockTransportationController() {
             super(null, null, null);
@@ -361,6 +446,16 @@ public class CommandLineUITest {
             return false;
         }
 
+        @Override
+        public RideRequestImporter.Result importRideRequests(java.io.Reader csv) throws java.io.IOException {
+            InMemoryRepository repository = new InMemoryRepository();
+            try {
+                return new RideRequestImporter(repository, new SchedulingService(repository)).importCsv(csv);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
         @Override
         public List<Driver> viewAllDrivers() {
             return mockDrivers;
@@ -397,6 +492,31 @@ public class CommandLineUITest {
             return mockSchedules;
         }
 
+        @Override
+        public Page<RideRequest> viewRideRequests(ListingFilter filter, int afterId, int pageSize) {
+            lastFilter = filter;
+            List<RideRequest> fetched = new ArrayList<>();
+            for (RideRequest request : mockRideRequests) {
+                if (request.getRequestID() > afterId && (filter == null || filter.matchesRequest(request))) {
+                    fetched.add(request);
+                }
+            }
+            return Page.fromFetched(fetched, pageSize, afterId, RideRequest::getRequestID);
+        }
+
+        @Override
+        public Page<Schedule> viewSchedules(ListingFilter filter, int afterId, int pageSize) {
+            lastFilter = filter;
+            List<Schedule> fetched = new ArrayList<>();
+            for (Schedule schedule : mockSchedules) {
+                if (schedule.getScheduleID() > afterId &&
+                        (filter == null || filter.matchesRequest(schedule.getRideRequest()))) {
+                    fetched.add(schedule);
+                }
+            }
+            return Page.fromFetched(fetched, pageSize, afterId, Schedule::getScheduleID);
+        }
+
         @Override
         public boolean generateDailySchedule(LocalDate date) {
             return true;
@@ -0,0 +1,246 @@
+package edu.ucalgary.oop;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConnectionPoolTest {
+
+    private AtomicInteger openedCount;
+    private List<FakeConnectionState> opened;
+    private ConnectionPool pool;
+
+    @Before
+    public void setUp() {
+        openedCount = new AtomicInteger();
+        opened = new ArrayList<>();
+    }
+
+    @After
+    public void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testReturnedConnectionIsReused() throws SQLException {
+        pool = newPool(0, 2);
+
+        Connection first = pool.getConnection();
+        first.close();
+        Connection second = pool.getConnection();
+        second.close();
+
+        assertThat(openedCount.get(), is(1));
+        assertThat(pool.getBorrowCount(), is(2L));
+        assertThat(pool.getIdleCount(), is(1));
+        assertThat(pool.getActiveCount(), is(0));
+    }
+
+    @Test
+    public void testPoolNeverExceedsMaxSize() throws SQLException {
+        pool = newPool(0, 2);
+        pool.setMaxWaitMillis(50);
+
+        Connection first = pool.getConnection();
+        Connection second = pool.getConnection();
+
+        try {
+            pool.getConnection();
+            fail("Borrowing beyond the maximum size should time out");
+        } catch (SQLException e) {
+            assertThat(e.getMessage(), containsString("Timed out"));
+        }
+
+        assertThat(pool.getTotalCount(), is(2));
+        assertThat(pool.getTimeoutCount(), is(1L));
+
+        first.close();
+        second.close();
+    }
+
+    @Test
+    public void testReturnedConnectionCannotBeUsed() throws SQLException {
+        pool = newPool(0, 1);
+
+        Connection connection = pool.getConnection();
+        connection.close();
+
+        assertTrue("A returned connection should report itself as closed", connection.isClosed());
+        try {
+            connection.createStatement();
+            fail("Using a returned connection should fail");
+        } catch (SQLException e) {
+            assertThat(e.getMessage(), containsString("returned to the pool"));
+        }
+    }
+
+    @Test
+    public void testInvalidConnectionIsReplacedOnBorrow() throws Exception {
+        pool = newPool(0, 1);
+
+        pool.getConnection().close();
+        opened.get(0).valid = false;
+
+        // Recently returned connections skip validation, so wait past that window
+        Thread.sleep(1100);
+
+        pool.getConnection().close();
+
+        assertThat(openedCount.get(), is(2));
+        assertTrue("The invalid connection should have been closed", opened.get(0).closed);
+        assertThat(pool.getTotalCount(), is(1));
+    }
+
+    @Test
+    public void testOpenTransactionIsRolledBackOnReturn() throws SQLException {
+        pool = newPool(0, 1);
+
+        Connection connection = pool.getConnection();
+        connection.setAutoCommit(false);
+        connection.close();
+
+        assertThat(opened.get(0).rollbacks, is(1));
+        assertTrue("Returned connection should be back in autocommit mode", opened.get(0).autoCommit);
+    }
+
+    @Test
+    public void testHousekeepingEvictsIdleConnectionsDownToMinimum() throws SQLException {
+        pool = newPool(1, 3);
+        pool.setIdleTimeoutMillis(0);
+
+        Connection first = pool.getConnection();
+        Connection second = pool.getConnection();
+        Connection third = pool.getConnection();
+        first.close();
+        second.close();
+        third.close();
+
+        pool.runHousekeeping();
+
+        assertThat(pool.getTotalCount(), is(1));
+        assertThat(pool.getEvictedCount(), is(2L));
+    }
+
+    @Test
+    public void testHousekeepingFillsToMinimum() {
+        pool = newPool(2, 4);
+
+        pool.runHousekeeping();
+
+        assertThat(pool.getIdleCount(), is(2));
+        assertThat(openedCount.get(), is(2));
+    }
+
+    @Test
+    public void testLeakedConnectionIsReported() throws Exception {
+        pool = newPool(0, 1);
+        pool.setLeakThresholdMillis(1);
+
+        Connection connection = pool.getConnection();
+        Thread.sleep(10);
+        pool.runHousekeeping();
+        pool.runHousekeeping();
+
+        assertThat(pool.getLeakCount(), is(1L));
+        connection.close();
+    }
+
+    @Test
+    public void testConcurrentBorrowersShareBoundedPool() throws Exception {
+        pool = newPool(0, 2);
+        int threads = 8;
+        int borrowsPerThread = 50;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> {
+                for (int j = 0; j < borrowsPerThread; j++) {
+                    try (Connection connection = pool.getConnection()) {
+                        connection.getAutoCommit();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(pool.getBorrowCount(), is((long) threads * borrowsPerThread));
+        assertTrue("Pool should never open more than its maximum", openedCount.get() <= 2);
+        assertThat(pool.getActiveCount(), is(0));
+    }
+
+    @Test
+    public void testClosedPoolRejectsBorrowers() {
+        pool = newPool(0, 1);
+        pool.close();
+
+        try {
+            pool.getConnection();
+            fail("A closed pool should not lend connections");
+        } catch (SQLException e) {
+            assertThat(e.getMessage(), containsString("closed"));
+        }
+    }
+
+    private ConnectionPool newPool(int min, int max) {
+        return new ConnectionPool(this::openFakeConnection, min, max);
+    }
+
+    private synchronized Connection openFakeConnection() {
+        openedCount.incrementAndGet();
+        FakeConnectionState state = new FakeConnectionState();
+        opened.add(state);
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            state.closed = true;
+                            return null;
+                        case "isClosed":
+                            return state.closed;
+                        case "isValid":
+                            return state.valid;
+                        case "getAutoCommit":
+                            return state.autoCommit;
+                        case "setAutoCommit":
+                            state.autoCommit = (Boolean) args[0];
+                            return null;
+                        case "rollback":
+                            state.rollbacks++;
+                            return null;
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    /**
+     * Observable state of a fake physical connection.
+     */
+    private static class FakeConnectionState {
+        private volatile boolean closed = false;
+        private volatile boolean valid = true;
+        private volatile boolean autoCommit = true;
+        private volatile int rollbacks = 0;
+    }
+}
@@ -8,7 +8,10 @@ import static org.hamcrest.CoreMatchers.*;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class DataAccessManagerTest {
     private DataAccessManager dataManager;
@@ -16,6 +19,7 @@ public class DataAccessManagerTest {
     @Before
     public void setUp() throws SQLException {
         dataManager = new DataAccessManager();
+        new SchemaMigrator().migrate();
     }
 
     @Test
@@ -91,4 +95,267 @@ public class DataAccessManagerTest {
         Driver updatedDriver = dataManager.getDriverById(driver.getDriverID());
         assertThat(updatedDriver.isAvailable(), is(!originalAvailability));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetSchedulesByDateRangeSharesDrivers() throws SQLException {
+        List<Schedule> schedules = dataManager.getSchedulesByDateRange(
+                LocalDate.of(2000, 1, 1), LocalDate.of(2100, 12, 31));
+        assertNotNull("Schedules list should not be null", schedules);
+
+        Map<Integer, Driver> seen = new HashMap<>();
+        for (Schedule schedule : schedules) {
+            assertNotNull("Schedule driver should be loaded", schedule.getDriver());
+            assertNotNull("Schedule vehicle should be loaded", schedule.getVehicle());
+            assertNotNull("Schedule ride request should be loaded", schedule.getRideRequest());
+
+            Driver previous = seen.putIfAbsent(schedule.getDriver().getDriverID(), schedule.getDriver());
+            if (previous != null) {
+                assertSame("Schedules with the same driver should share one Driver object",
+                        previous, schedule.getDriver());
+            }
+        }
+    }
+
+    @Test
+    public void testGetRideSummaryMatchesSchedules() throws SQLException {
+        LocalDate start = LocalDate.of(2000, 1, 1);
+        LocalDate end = LocalDate.of(2100, 12, 31);
+        List<Schedule> schedules = dataManager.getSchedulesByDateRange(start, end);
+        RideSummary summary = dataManager.getRideSummary(start, end);
+
+        int wheelchair = 0;
+        Map<Integer, Integer> perDriver = new HashMap<>();
+        for (Schedule schedule : schedules) {
+            String specialReqs = schedule.getRideRequest().getSpecialRequirements();
+            if (specialReqs != null && specialReqs.contains("Wheelchair")) {
+                wheelchair++;
+            }
+            perDriver.merge(schedule.getDriver().getDriverID(), 1, Integer::sum);
+        }
+
+        assertThat(summary.getTotalRides(), is(schedules.size()));
+        assertThat(summary.getWheelchairRides(), is(wheelchair));
+        assertThat(summary.getStandardRides(), is(schedules.size() - wheelchair));
+        for (Map.Entry<Integer, Integer> entry : perDriver.entrySet()) {
+            assertThat(summary.getRidesForDriver(entry.getKey()), is(entry.getValue()));
+        }
+    }
+
+    @Test
+    public void testReserveSchedulesRejectsDoubleBooking() throws SQLException {
+        Driver driver = dataManager.getAllDrivers().get(0);
+        Vehicle vehicle = dataManager.getAllVehicles().get(0);
+        LocalDate date = LocalDate.of(2099, 1, 15);
+
+        RideRequest first = new RideRequest();
+        first.setClientName("Reserve Client 1");
+        first.setPassengerCount(1);
+        first.setRequestDate(date);
+        first.setPickupTime(LocalTime.of(9, 0));
+        first.setStatus("Pending");
+        dataManager.addRideRequest(first);
+
+        RideRequest second = new RideRequest();
+        second.setClientName("Reserve Client 2");
+        second.setPassengerCount(1);
+        second.setRequestDate(date);
+        second.setPickupTime(LocalTime.of(9, 20));
+        second.setStatus("Pending");
+        dataManager.addRideRequest(second);
+
+        Schedule firstSchedule = new Schedule(0, driver, vehicle, first, date, first.getPickupTime());
+        Schedule secondSchedule = new Schedule(0, driver, vehicle, second, date, second.getPickupTime());
+        try {
+            assertTrue(dataManager.reserveSchedules(List.of(firstSchedule), 30));
+            assertFalse("The driver is already booked", dataManager.reserveSchedules(List.of(secondSchedule), 30));
+            assertThat(dataManager.getRideRequestById(second.getRequestID()).getStatus(), is("Pending"));
+        } finally {
+            dataManager.releaseSchedules(List.of(firstSchedule));
+            dataManager.updateRideStatus(first.getRequestID(), "Cancelled");
+            dataManager.updateRideStatus(second.getRequestID(), "Cancelled");
+        }
+    }
+
+    @Test
+    public void testReserveSchedulesRejectsUnavailableDriver() throws SQLException {
+        Driver driver = dataManager.getAllDrivers().get(0);
+        Vehicle vehicle = dataManager.getAllVehicles().get(0);
+        LocalDate date = LocalDate.of(2099, 1, 17);
+
+        RideRequest request = new RideRequest();
+        request.setClientName("Unavailable Driver Client");
+        request.setPassengerCount(1);
+        request.setRequestDate(date);
+        request.setPickupTime(LocalTime.of(9, 0));
+        request.setStatus("Pending");
+        dataManager.addRideRequest(request);
+
+        Schedule planned = new Schedule(0, driver, vehicle, request, date, request.getPickupTime());
+        boolean wasAvailable = driver.isAvailable();
+        try {
+            // Another dispatcher takes the driver off duty after the ride was planned
+            dataManager.updateDriverAvailability(driver.getDriverID(), false);
+
+            assertFalse(dataManager.reserveSchedules(List.of(planned), 30));
+            assertThat(dataManager.getRideRequestById(request.getRequestID()).getStatus(), is("Pending"));
+        } finally {
+            dataManager.updateDriverAvailability(driver.getDriverID(), wasAvailable);
+            dataManager.updateRideStatus(request.getRequestID(), "Cancelled");
+        }
+    }
+
+    @Test
+    public void testReserveSchedulesReplacesPreviousRide() throws SQLException {
+        Driver driver = dataManager.getAllDrivers().get(0);
+        Vehicle vehicle = dataManager.getAllVehicles().get(0);
+        LocalDate date = LocalDate.of(2099, 1, 18);
+
+        RideRequest request = new RideRequest();
+        request.setClientName("Moved Client");
+        request.setPassengerCount(1);
+        request.setRequestDate(date);
+        request.setPickupTime(LocalTime.of(9, 0));
+        request.setStatus("Pending");
+        dataManager.addRideRequest(request);
+
+        Schedule first = new Schedule(0, driver, vehicle, request, date, request.getPickupTime());
+        Schedule moved = null;
+        try {
+            assertTrue(dataManager.reserveSchedules(List.of(first), 30));
+
+            request.setStatus("Scheduled");
+            request.setPickupTime(LocalTime.of(13, 0));
+            dataManager.updateRideRequest(request);
+            moved = new Schedule(0, driver, vehicle, request, date, request.getPickupTime());
+            assertTrue(dataManager.reserveSchedules(List.of(moved), 30));
+
+            List<Schedule> saved = new ArrayList<>();
+            for (Schedule schedule : dataManager.getSchedulesByDate(date)) {
+                if (schedule.getRideRequest().getRequestID() == request.getRequestID()) {
+                    saved.add(schedule);
+                }
+            }
+            assertThat(saved.size(), is(1));
+            assertThat(saved.get(0).getTime(), is(LocalTime.of(13, 0)));
+        } finally {
+            dataManager.releaseSchedules(moved == null ? List.of(first) : List.of(first, moved));
+            dataManager.updateRideStatus(request.getRequestID(), "Cancelled");
+        }
+    }
+
+    @Test
+    public void testRideBeforeMidnightBlocksNextDay() throws SQLException {
+        Driver driver = dataManager.getAllDrivers().get(0);
+        Vehicle vehicle = dataManager.getAllVehicles().get(0);
+        LocalDate date = LocalDate.of(2099, 1, 16);
+
+        RideRequest late = new RideRequest();
+        late.setClientName("Late Client");
+        late.setPassengerCount(1);
+        late.setRequestDate(date);
+        late.setPickupTime(LocalTime.of(23, 50));
+        late.setStatus("Pending");
+        dataManager.addRideRequest(late);
+
+        Schedule schedule = new Schedule(0, driver, vehicle, late, date, late.getPickupTime());
+        try {
+            assertTrue(dataManager.reserveSchedules(List.of(schedule), 0));
+
+            // The ride runs until 00:20 the next day
+            List<Driver> drivers = dataManager.getAvailableDrivers(date.plusDays(1),
+                    LocalTime.of(0, 0), LocalTime.of(0, 30));
+            for (Driver available : drivers) {
+                assertNotEquals(driver.getDriverID(), available.getDriverID());
+            }
+        } finally {
+            dataManager.releaseSchedules(List.of(schedule));
+            dataManager.updateRideStatus(late.getRequestID(), "Cancelled");
+        }
+    }
+
+    @Test
+    public void testHotQueriesUseIndexes() throws SQLException {
+        List<String> warnings = dataManager.checkQueryPlans();
+        assertTrue("Hot queries should not scan whole tables: " + warnings, warnings.isEmpty());
+    }
+
+    @Test
+    public void testImportRideRequests() throws SQLException {
+        List<RideRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            RideRequest request = new RideRequest();
+            request.setClientName(i == 0 ? "Import \"Quoted\", Client" : "Import Client " + i);
+            request.setPassengerCount(1);
+            request.setSpecialRequirements(i == 1 ? "" : null);
+            request.setRequestDate(LocalDate.of(2099, 2, 1));
+            request.setPickupTime(LocalTime.of(9 + i, 0));
+            request.setStatus("Pending");
+            requests.add(request);
+        }
+
+        List<Integer> ids = dataManager.importRideRequests(requests.iterator());
+        try {
+            assertThat(ids.size(), is(3));
+            RideRequest first = dataManager.getRideRequestById(ids.get(0));
+            assertThat(first.getClientName(), is("Import \"Quoted\", Client"));
+            assertThat(first.getSpecialRequirements(), is(nullValue()));
+            assertThat(dataManager.getRideRequestById(ids.get(1)).getSpecialRequirements(), is(""));
+            assertThat(requests.get(2).getRequestID(), is(ids.get(2)));
+        } finally {
+            for (int id : ids) {
+                dataManager.updateRideStatus(id, "Cancelled");
+            }
+        }
+    }
+
+    @Test
+    public void testGetRideRequestPageFollowsIds() throws SQLException {
+        Page<RideRequest> first = dataManager.getRideRequestPage(null, 0, 1);
+        assertTrue(first.getItems().size() <= 1);
+
+        if (first.hasNext()) {
+            Page<RideRequest> second = dataManager.getRideRequestPage(null, first.getNextAfterId(), 1);
+            assertThat(second.getItems().size(), is(1));
+            assertTrue(second.getItems().get(0).getRequestID() > first.getNextAfterId());
+        }
+
+        // LIKE wildcards in the client name are matched literally
+        ListingFilter filter = new ListingFilter();
+        filter.setClientName("%_%");
+        assertTrue(dataManager.getRideRequestPage(filter, 0, 10).getItems().isEmpty());
+    }
+
+    @Test
+    public void testGetSchedulePageFiltersByDriver() throws SQLException {
+        Driver driver = dataManager.getAllDrivers().get(0);
+        ListingFilter filter = new ListingFilter();
+        filter.setDriverId(driver.getDriverID());
+
+        for (Schedule schedule : dataManager.getSchedulePage(filter, 0, 50).getItems()) {
+            assertThat(schedule.getDriver().getDriverID(), is(driver.getDriverID()));
+        }
+    }
+
+    @Test
+    public void testGetAvailableDriversOnlyReturnsAvailable() throws SQLException {
+        List<Driver> drivers = dataManager.getAvailableDrivers(LocalDate.of(2025, 2, 26),
+                LocalTime.of(9, 30), LocalTime.of(11, 0));
+        assertNotNull("Available drivers list should not be null", drivers);
+
+        for (Driver driver : drivers) {
+            assertTrue("Only available drivers should be returned", driver.isAvailable());
+        }
+    }
+
+    @Test
+    public void testGetAvailableVehiclesMeetRequirements() throws SQLException {
+        List<Vehicle> vehicles = dataManager.getAvailableVehicles(LocalDate.of(2025, 2, 26),
+                LocalTime.of(9, 30), LocalTime.of(11, 0), true, 2);
+        assertNotNull("Available vehicles list should not be null", vehicles);
+
+        for (Vehicle vehicle : vehicles) {
+            assertTrue("Vehicle should be wheelchair accessible", vehicle.isWheelchairAccessible());
+            assertTrue("Vehicle should fit the passengers", vehicle.getCapacity() >= 2);
+        }
+    }
+}
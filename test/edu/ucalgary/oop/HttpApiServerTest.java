@@ -0,0 +1,233 @@
+package edu.ucalgary.oop;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class HttpApiServerTest {
+
+    private InMemoryRepository repository;
+    private AsyncTransportationController controller;
+    private HttpApiServer server;
+    private HttpClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        repository = new InMemoryRepository();
+        for (int i = 1; i <= 2; i++) {
+            Driver driver = new Driver();
+            driver.setName("Driver " + i);
+            driver.setAvailable(true);
+            repository.addDriver(driver);
+
+            Vehicle vehicle = new Vehicle();
+            vehicle.setLicensePlate("CAR" + i);
+            vehicle.setCapacity(4);
+            vehicle.setWheelchairAccessible(true);
+            repository.addVehicle(vehicle);
+        }
+
+        controller = new AsyncTransportationController(new TransportationController(repository,
+                new SchedulingService(repository), new ReportGeneratorService(repository)), 4);
+        server = new HttpApiServer(controller, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+        controller.close();
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        HttpRequest.BodyPublisher publisher = body == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(body);
+        HttpRequest request = HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + server.getPort() + path))
+                .method(method, publisher)
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static List<Integer> requestIds(String listing) {
+        List<Integer> ids = new ArrayList<>();
+        Matcher matcher = Pattern.compile("\"requestId\":(\\d+)").matcher(listing);
+        while (matcher.find()) {
+            ids.add(Integer.parseInt(matcher.group(1)));
+        }
+        return ids;
+    }
+
+    private String addRide(String time) throws Exception {
+        HttpResponse<String> response = send("POST", "/api/rides",
+                "{\"clientName\": \"Jane Doe\", \"passengerCount\": 1,"
+                        + " \"requestDate\": \"2025-03-03\", \"pickupTime\": \"" + time + "\"}");
+        assertThat(response.statusCode(), is(201));
+        return response.body();
+    }
+
+    @Test
+    public void testListDrivers() throws Exception {
+        HttpResponse<String> response = send("GET", "/api/drivers", null);
+
+        assertThat(response.statusCode(), is(200));
+        assertThat(response.headers().firstValue("Content-Type").orElse(""), containsString("application/json"));
+        assertThat(response.body(), is("[{\"driverId\":1,\"name\":\"Driver 1\",\"phoneNumber\":null,"
+                + "\"licenseNumber\":null,\"available\":true},{\"driverId\":2,\"name\":\"Driver 2\","
+                + "\"phoneNumber\":null,\"licenseNumber\":null,\"available\":true}]"));
+    }
+
+    @Test
+    public void testAddRideRequestSchedulesIt() throws Exception {
+        Map<String, Object> created = Json.parseObject(addRide("09:00"));
+
+        assertThat(created.get("status"), is((Object) "Scheduled"));
+        long id = (Long) created.get("requestId");
+
+        HttpResponse<String> response = send("GET", "/api/rides/" + id, null);
+        assertThat(response.statusCode(), is(200));
+        assertThat(Json.parseObject(response.body()).get("clientName"), is((Object) "Jane Doe"));
+
+        HttpResponse<String> schedules = send("GET", "/api/schedules", null);
+        assertThat(schedules.body(), containsString("\"requestId\":" + id));
+    }
+
+    @Test
+    public void testModifyRideRequest() throws Exception {
+        long id = (Long) Json.parseObject(addRide("09:00")).get("requestId");
+
+        HttpResponse<String> response = send("PUT", "/api/rides/" + id, "{\"passengerCount\": 3}");
+
+        assertThat(response.statusCode(), is(200));
+        assertThat(Json.parseObject(response.body()).get("passengerCount"), is((Object) 3L));
+        assertThat(repository.getRideRequestById((int) id).getPassengerCount(), is(3));
+    }
+
+    @Test
+    public void testCancelTwiceConflicts() throws Exception {
+        long id = (Long) Json.parseObject(addRide("10:00")).get("requestId");
+
+        HttpResponse<String> first = send("POST", "/api/rides/" + id + "/cancel", null);
+        HttpResponse<String> second = send("POST", "/api/rides/" + id + "/cancel", null);
+
+        assertThat(first.statusCode(), is(200));
+        assertThat(Json.parseObject(first.body()).get("status"), is((Object) "Cancelled"));
+        assertThat(second.statusCode(), is(409));
+    }
+
+    @Test
+    public void testDriverAvailability() throws Exception {
+        HttpResponse<String> response = send("PUT", "/api/drivers/2/availability", "{\"available\": false}");
+
+        assertThat(response.statusCode(), is(200));
+        assertThat(Json.parseObject(response.body()).get("available"), is((Object) Boolean.FALSE));
+        assertFalse(repository.getDriverById(2).isAvailable());
+    }
+
+    @Test
+    public void testScheduleBatch() throws Exception {
+        RideRequest request = new RideRequest();
+        request.setClientName("Pending Client");
+        request.setPassengerCount(1);
+        request.setRequestDate(java.time.LocalDate.of(2025, 3, 4));
+        request.setPickupTime(java.time.LocalTime.of(8, 0));
+        request.setStatus("Pending");
+        repository.addRideRequest(request);
+
+        HttpResponse<String> response = send("POST", "/api/schedules/batch?date=2025-03-04", null);
+
+        assertThat(response.statusCode(), is(200));
+        assertThat(response.body(), is("{\"scheduled\":1}"));
+    }
+
+    @Test
+    public void testListRideRequestsFilteredAndPaged() throws Exception {
+        for (int i = 0; i < TransportationController.MAX_PAGE_SIZE + 5; i++) {
+            RideRequest request = new RideRequest();
+            request.setClientName(i % 2 == 0 ? "Jane Doe" : "John Roe");
+            request.setPassengerCount(1);
+            request.setRequestDate(java.time.LocalDate.of(2025, 3, 3).plusDays(i % 10));
+            request.setPickupTime(java.time.LocalTime.of(9, 0));
+            request.setStatus("Pending");
+            repository.addRideRequest(request);
+        }
+
+        // More than one page is streamed
+        assertThat(requestIds(send("GET", "/api/rides", null).body()).size(),
+                is(TransportationController.MAX_PAGE_SIZE + 5));
+
+        assertThat(requestIds(send("GET", "/api/rides?after=3&limit=2", null).body()),
+                is(List.of(4, 5)));
+
+        List<Integer> filtered = requestIds(send("GET",
+                "/api/rides?status=Pending&client=jane%20doe&from=2025-03-03&to=2025-03-03&limit=3", null).body());
+        assertThat(filtered, is(List.of(1, 11, 21)));
+
+        assertThat(send("GET", "/api/rides?limit=0", null).statusCode(), is(400));
+        assertThat(send("GET", "/api/rides?from=March", null).statusCode(), is(400));
+    }
+
+    @Test
+    public void testListSchedulesByDriver() throws Exception {
+        long id = (Long) Json.parseObject(addRide("09:00")).get("requestId");
+        int driverId = repository.getSchedulesByDate(java.time.LocalDate.of(2025, 3, 3)).get(0)
+                .getDriver().getDriverID();
+
+        assertThat(send("GET", "/api/schedules?driver=" + driverId, null).body(),
+                containsString("\"requestId\":" + id));
+        assertThat(send("GET", "/api/schedules?driver=" + (3 - driverId), null).body(), is("[]"));
+        assertThat(send("GET", "/api/schedules?driver=x", null).statusCode(), is(400));
+    }
+
+    @Test
+    public void testErrors() throws Exception {
+        assertThat(send("GET", "/api/rides/99", null).statusCode(), is(404));
+        assertThat(send("GET", "/api/rides/abc", null).statusCode(), is(404));
+        assertThat(send("GET", "/api/ridesx", null).statusCode(), is(404));
+        assertThat(send("DELETE", "/api/vehicles", null).statusCode(), is(405));
+        assertThat(send("POST", "/api/rides", "{\"clientName\": ").statusCode(), is(400));
+        assertThat(send("POST", "/api/rides", "{\"requestDate\": \"2025-13-01\", \"pickupTime\": \"09:00\"}")
+                .statusCode(), is(400));
+        assertThat(send("POST", "/api/rides", "{\"clientName\": \"No Date\"}").statusCode(), is(400));
+    }
+
+    @Test
+    public void testDatabaseErrorIsServerError() throws Exception {
+        server.close();
+        controller.close();
+
+        TransportationController failing = new TransportationController(repository,
+                new SchedulingService(repository), new ReportGeneratorService(repository)) {
+            @Override
+            public List<Vehicle> viewAllVehicles() throws SQLException {
+                throw new SQLException("Connection lost");
+            }
+        };
+        controller = new AsyncTransportationController(failing, 1);
+        server = new HttpApiServer(controller, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+
+        HttpResponse<String> response = send("GET", "/api/vehicles", null);
+
+        assertThat(response.statusCode(), is(500));
+        assertThat(response.body(), is("{\"error\":\"Connection lost\"}"));
+    }
+}
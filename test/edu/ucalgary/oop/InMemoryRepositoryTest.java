@@ -0,0 +1,441 @@
+package edu.ucalgary.oop;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class InMemoryRepositoryTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 3, 3);
+
+    private InMemoryRepository repository;
+    private Driver driver;
+    private Vehicle vehicle;
+
+    @Before
+    public void setUp() {
+        repository = new InMemoryRepository();
+
+        driver = new Driver();
+        driver.setName("John Smith");
+        driver.setAvailable(true);
+        repository.addDriver(driver);
+
+        vehicle = new Vehicle();
+        vehicle.setLicensePlate("ABC123");
+        vehicle.setCapacity(4);
+        vehicle.setWheelchairAccessible(true);
+        repository.addVehicle(vehicle);
+    }
+
+    private RideRequest addRide(String clientName, LocalDate date, LocalTime time) throws SQLException {
+        RideRequest request = new RideRequest();
+        request.setClientName(clientName);
+        request.setPassengerCount(1);
+        request.setRequestDate(date);
+        request.setPickupTime(time);
+        request.setStatus("Pending");
+        repository.addRideRequest(request);
+        return request;
+    }
+
+    private Schedule newSchedule(RideRequest request) {
+        return new Schedule(0, driver, vehicle, request, request.getRequestDate(), request.getPickupTime());
+    }
+
+    @Test
+    public void testAddRideRequestAssignsIds() throws SQLException {
+        RideRequest first = addRide("Jane Doe", DATE, LocalTime.of(9, 0));
+        RideRequest second = addRide("Bob Brown", DATE, LocalTime.of(10, 0));
+
+        assertThat(first.getRequestID(), is(1));
+        assertThat(second.getRequestID(), is(2));
+        assertThat(repository.getRideRequestById(2).getClientName(), is("Bob Brown"));
+        assertThat(repository.getRideRequestById(99), is(nullValue()));
+    }
+
+    @Test
+    public void testReturnedObjectsAreCopies() throws SQLException {
+        RideRequest request = addRide("Jane Doe", DATE, LocalTime.of(9, 0));
+
+        request.setClientName("Changed");
+        repository.getRideRequestById(request.getRequestID()).setStatus("Cancelled");
+
+        RideRequest stored = repository.getRideRequestById(request.getRequestID());
+        assertThat(stored.getClientName(), is("Jane Doe"));
+        assertThat(stored.getStatus(), is("Pending"));
+    }
+
+    @Test
+    public void testGetRideRequestsByDateAndStatusOrderedByTime() throws SQLException {
+        addRide("Late", DATE, LocalTime.of(14, 0));
+        addRide("Early", DATE, LocalTime.of(8, 0));
+        addRide("Other day", DATE.plusDays(1), LocalTime.of(9, 0));
+        RideRequest cancelled = addRide("Cancelled", DATE, LocalTime.of(10, 0));
+        repository.updateRideStatus(cancelled.getRequestID(), "Cancelled");
+
+        List<RideRequest> pending = repository.getRideRequestsByDateAndStatus(DATE, "Pending");
+
+        assertThat(pending.size(), is(2));
+        assertThat(pending.get(0).getClientName(), is("Early"));
+        assertThat(pending.get(1).getClientName(), is("Late"));
+    }
+
+    @Test
+    public void testRideRequestPagesFollowIds() throws SQLException {
+        for (int i = 1; i <= 5; i++) {
+            addRide("Client " + i, DATE, LocalTime.of(8 + i, 0));
+        }
+
+        Page<RideRequest> first = repository.getRideRequestPage(null, 0, 2);
+        assertThat(first.getItems().size(), is(2));
+        assertTrue(first.hasNext());
+        assertThat(first.getNextAfterId(), is(2));
+
+        // A request removed from the first page does not shift the next one
+        Page<RideRequest> second = repository.getRideRequestPage(null, first.getNextAfterId(), 2);
+        assertThat(second.getItems().get(0).getClientName(), is("Client 3"));
+
+        Page<RideRequest> last = repository.getRideRequestPage(null, 4, 2);
+        assertThat(last.getItems().size(), is(1));
+        assertFalse(last.hasNext());
+    }
+
+    @Test
+    public void testRideRequestPageFilters() throws SQLException {
+        addRide("Jane Doe", DATE, LocalTime.of(9, 0));
+        RideRequest scheduled = addRide("Bob Brown", DATE, LocalTime.of(10, 0));
+        addRide("Janet Smith", DATE.plusDays(1), LocalTime.of(9, 0));
+        repository.commitSchedules(List.of(newSchedule(scheduled)));
+
+        ListingFilter byClient = new ListingFilter();
+        byClient.setClientName("JANE");
+        assertThat(repository.getRideRequestPage(byClient, 0, 10).getItems().size(), is(2));
+
+        byClient.setToDate(DATE);
+        assertThat(repository.getRideRequestPage(byClient, 0, 10).getItems().size(), is(1));
+
+        ListingFilter byDriver = new ListingFilter();
+        byDriver.setDriverId(driver.getDriverID());
+        List<RideRequest> driven = repository.getRideRequestPage(byDriver, 0, 10).getItems();
+        assertThat(driven.size(), is(1));
+        assertThat(driven.get(0).getStatus(), is("Scheduled"));
+
+        ListingFilter pending = new ListingFilter();
+        pending.setStatus("Pending");
+        pending.setFromDate(DATE.plusDays(1));
+        assertThat(repository.getRideRequestPage(pending, 0, 10).getItems().get(0).getClientName(),
+                is("Janet Smith"));
+    }
+
+    @Test
+    public void testSchedulePageFilters() throws SQLException {
+        List<Schedule> schedules = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            schedules.add(newSchedule(addRide("Client " + i, DATE.plusDays(i), LocalTime.of(9, 0))));
+        }
+        repository.commitSchedules(schedules);
+
+        Page<Schedule> first = repository.getSchedulePage(null, 0, 2);
+        assertThat(first.getItems().size(), is(2));
+        assertTrue(first.hasNext());
+        assertThat(first.getItems().get(0).getDriver().getName(), is("John Smith"));
+
+        ListingFilter range = new ListingFilter();
+        range.setFromDate(DATE.plusDays(1));
+        range.setDriverId(driver.getDriverID());
+        Page<Schedule> page = repository.getSchedulePage(range, 0, 10);
+        assertThat(page.getItems().size(), is(2));
+        assertFalse(page.hasNext());
+
+        range.setDriverId(driver.getDriverID() + 1);
+        assertTrue(repository.getSchedulePage(range, 0, 10).getItems().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPageSizeIsRejected() throws SQLException {
+        repository.getRideRequestPage(null, 0, 0);
+    }
+
+    @Test
+    public void testCommitSchedulesMarksRidesScheduledAndBooksResources() throws SQLException {
+        RideRequest request = addRide("Jane Doe", DATE, LocalTime.of(9, 0));
+        Schedule schedule = newSchedule(request);
+
+        assertTrue(repository.commitSchedules(List.of(schedule)));
+
+        assertThat(schedule.getScheduleID(), is(1));
+        assertThat(repository.getRideRequestById(request.getRequestID()).getStatus(), is("Scheduled"));
+        assertTrue(repository.getAvailableDrivers(DATE, LocalTime.of(9, 15), LocalTime.of(10, 0)).isEmpty());
+        assertTrue(repository.getAvailableVehicles(DATE, LocalTime.of(8, 45), LocalTime.of(9, 10), false, 1).isEmpty());
+        assertThat(repository.getAvailableDrivers(DATE, LocalTime.of(9, 45), LocalTime.of(10, 15)).size(), is(1));
+    }
+
+    @Test
+    public void testCancelledRideFreesResources() throws SQLException {
+        RideRequest request = addRide("Jane Doe", DATE, LocalTime.of(9, 0));
+        repository.commitSchedules(List.of(newSchedule(request)));
+
+        repository.updateRideStatus(request.getRequestID(), "Cancelled");
+
+        assertThat(repository.getAvailableDrivers(DATE, LocalTime.of(9, 0), LocalTime.of(9, 30)).size(), is(1));
+        assertThat(repository.getSchedulesByDate(DATE).size(), is(1));
+    }
+
+    @Test
+    public void testUnknownReferenceLeavesStoreUnchanged() throws SQLException {
+        RideRequest request = addRide("Jane Doe", DATE, LocalTime.of(9, 0));
+        Driver unknown = new Driver();
+        unknown.setDriverID(42);
+        Schedule bad = new Schedule(0, unknown, vehicle, request, DATE, LocalTime.of(11, 0));
+
+        try {
+            repository.commitSchedules(List.of(newSchedule(request), bad));
+            fail("Expected an SQLException for the unknown driver");
+        } catch (SQLException expected) {
+            // Expected
+        }
+
+        assertTrue(repository.getAllSchedules().isEmpty());
+        assertThat(repository.getRideRequestById(request.getRequestID()).getStatus(), is("Pending"));
+    }
+
+    @Test
+    public void testReleaseSchedulesRemovesRowsAndResetsStatus() throws SQLException {
+        RideRequest request = addRide("Jane Doe", DATE, LocalTime.of(9, 0));
+        Schedule schedule = newSchedule(request);
+        repository.commitSchedules(List.of(schedule));
+
+        assertThat(repository.releaseSchedules(List.of(schedule)), is(1));
+
+        assertTrue(repository.getSchedulesByDriverId(driver.getDriverID()).isEmpty());
+        assertThat(repository.getRideRequestById(request.getRequestID()).getStatus(), is("Pending"));
+        assertThat(repository.getAvailableDrivers(DATE, LocalTime.of(9, 0), LocalTime.of(9, 30)).size(), is(1));
+    }
+
+    @Test
+    public void testForEachScheduleByDateOrdersByDriverThenTime() throws SQLException {
+        Driver second = new Driver();
+        second.setName("Sarah Jones");
+        second.setAvailable(true);
+        repository.addDriver(second);
+
+        RideRequest late = addRide("Late", DATE, LocalTime.of(15, 0));
+        RideRequest early = addRide("Early", DATE, LocalTime.of(8, 0));
+        RideRequest other = addRide("Other", DATE, LocalTime.of(7, 0));
+        repository.commitSchedules(List.of(newSchedule(late), newSchedule(early),
+                new Schedule(0, second, vehicle, other, DATE, other.getPickupTime())));
+
+        List<String> order = new ArrayList<>();
+        repository.forEachScheduleByDate(DATE, schedule -> order.add(schedule.getRideRequest().getClientName()));
+
+        assertThat(order, is(List.of("Early", "Late", "Other")));
+    }
+
+    @Test
+    public void testGetRideSummaryCountsRange() throws SQLException {
+        RideRequest wheelchair = addRide("Jane Doe", DATE, LocalTime.of(9, 0));
+        wheelchair.setSpecialRequirements("Wheelchair");
+        repository.updateRideRequest(wheelchair);
+        RideRequest standard = addRide("Bob Brown", DATE.plusDays(1), LocalTime.of(9, 0));
+        RideRequest outside = addRide("Next Week", DATE.plusDays(7), LocalTime.of(9, 0));
+        repository.commitSchedules(List.of(newSchedule(wheelchair), newSchedule(standard), newSchedule(outside)));
+
+        RideSummary summary = repository.getRideSummary(DATE, DATE.plusDays(6));
+
+        assertThat(summary.getTotalRides(), is(2));
+        assertThat(summary.getWheelchairRides(), is(1));
+        assertThat(summary.getStandardRides(), is(1));
+        assertThat(summary.getRidesForDriver(driver.getDriverID()), is(2));
+        assertThat(summary.getRidesForVehicle(vehicle.getVehicleID()), is(2));
+    }
+
+    @Test
+    public void testConcurrentAddsGetUniqueIds() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> ids = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            ids.add(pool.submit(() -> addRide("Client", DATE, LocalTime.of(9, 0)).getRequestID()));
+        }
+
+        Set<Integer> unique = new HashSet<>();
+        for (Future<Integer> id : ids) {
+            unique.add(id.get());
+        }
+        pool.shutdown();
+
+        assertThat(unique.size(), is(200));
+        assertThat(repository.getAllRideRequests().size(), is(200));
+    }
+
+    @Test
+    public void testReserveSchedulesRejectsConflicts() throws SQLException {
+        RideRequest first = addRide("Jane Doe", DATE, LocalTime.of(9, 0));
+        RideRequest tooClose = addRide("Bob Brown", DATE, LocalTime.of(9, 45));
+        RideRequest later = addRide("Sam Lee", DATE, LocalTime.of(10, 15));
+
+        assertTrue(repository.reserveSchedules(List.of(newSchedule(first)), 30));
+        assertFalse("Within the buffer of the first ride", repository.reserveSchedules(List.of(newSchedule(tooClose)), 30));
+        assertTrue(repository.reserveSchedules(List.of(newSchedule(later)), 30));
+
+        assertThat(repository.getRideRequestById(tooClose.getRequestID()).getStatus(), is("Pending"));
+        assertThat(repository.getSchedulesByDate(DATE).size(), is(2));
+    }
+
+    @Test
+    public void testReserveSchedulesUsesRideDurations() throws SQLException {
+        RideRequest longTrip = addRide("Jane Doe", DATE, LocalTime.of(9, 0));
+        RideRequest blocked = addRide("Bob Brown", DATE, LocalTime.of(10, 45));
+        RideRequest shortHop = addRide("Sam Lee", DATE, LocalTime.of(11, 40));
+
+        Schedule longSchedule = newSchedule(longTrip);
+        longSchedule.setDurationMinutes(90);
+        assertTrue(repository.reserveSchedules(List.of(longSchedule), 30));
+        assertFalse("Within the buffer of the 90 minute ride",
+                repository.reserveSchedules(List.of(newSchedule(blocked)), 30));
+
+        Schedule shortSchedule = newSchedule(shortHop);
+        shortSchedule.setDurationMinutes(10);
+        assertTrue(repository.reserveSchedules(List.of(shortSchedule), 30));
+
+        List<Schedule> saved = repository.getSchedulesByDate(DATE);
+        assertThat(saved.size(), is(2));
+        assertThat(saved.get(0).getDurationMinutes(), is(90));
+        assertThat(saved.get(1).getEndTime(), is(LocalTime.of(11, 50)));
+    }
+
+    @Test
+    public void testReserveSchedulesRejectsStaleStatus() throws SQLException {
+        RideRequest request = addRide("Jane Doe", DATE, LocalTime.of(9, 0));
+        repository.updateRideStatus(request.getRequestID(), "Cancelled");
+
+        // The request object still says "Pending"
+        assertFalse(repository.reserveSchedules(List.of(newSchedule(request)), 30));
+        assertTrue(repository.getAllSchedules().isEmpty());
+    }
+
+    @Test
+    public void testReserveSchedulesRejectsDriverMadeUnavailable() throws SQLException {
+        RideRequest request = addRide("Jane Doe", DATE, LocalTime.of(9, 0));
+        Schedule planned = newSchedule(request);
+
+        // Another dispatcher takes the driver off duty after the ride was planned
+        repository.updateDriverAvailability(driver.getDriverID(), false);
+
+        assertFalse(repository.reserveSchedules(List.of(planned), 30));
+        assertTrue(repository.getAllSchedules().isEmpty());
+        assertThat(repository.getRideRequestById(request.getRequestID()).getStatus(), is("Pending"));
+    }
+
+    @Test
+    public void testReserveSchedulesReplacesPreviousRide() throws SQLException {
+        RideRequest request = addRide("Jane Doe", DATE, LocalTime.of(9, 0));
+        assertTrue(repository.reserveSchedules(List.of(newSchedule(request)), 30));
+
+        // The scheduled ride is moved and placed again
+        request.setStatus("Scheduled");
+        request.setPickupTime(LocalTime.of(13, 0));
+        repository.updateRideRequest(request);
+        assertTrue(repository.reserveSchedules(List.of(newSchedule(request)), 30));
+
+        List<Schedule> saved = repository.getAllSchedules();
+        assertThat(saved.size(), is(1));
+        assertThat(saved.get(0).getTime(), is(LocalTime.of(13, 0)));
+
+        RideRequest other = addRide("Bob Brown", DATE, LocalTime.of(9, 0));
+        assertTrue("The old slot is free again", repository.reserveSchedules(List.of(newSchedule(other)), 30));
+    }
+
+    @Test
+    public void testReserveSchedulesIsAllOrNothing() throws SQLException {
+        RideRequest first = addRide("Jane Doe", DATE, LocalTime.of(9, 0));
+        RideRequest second = addRide("Bob Brown", DATE, LocalTime.of(9, 30));
+
+        assertFalse(repository.reserveSchedules(List.of(newSchedule(first), newSchedule(second)), 30));
+
+        assertTrue(repository.getAllSchedules().isEmpty());
+        assertThat(repository.getRideRequestsByDateAndStatus(DATE, "Pending").size(), is(2));
+        assertThat(repository.getAvailableDrivers(DATE, LocalTime.of(9, 0), LocalTime.of(9, 30)).size(), is(1));
+    }
+
+    @Test
+    public void testConcurrentDispatchersNeverDoubleBook() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Driver extraDriver = new Driver();
+            extraDriver.setName("Driver " + i);
+            extraDriver.setAvailable(true);
+            repository.addDriver(extraDriver);
+
+            Vehicle extraVehicle = new Vehicle();
+            extraVehicle.setLicensePlate("EXTRA" + i);
+            extraVehicle.setCapacity(4);
+            repository.addVehicle(extraVehicle);
+        }
+        for (int i = 0; i < 80; i++) {
+            addRide("Client " + i, DATE, LocalTime.of(7, 0).plusMinutes((i * 35) % 600));
+        }
+
+        // Four dispatchers, each with its own scheduler, share the rides between them
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> dispatchers = new ArrayList<>();
+        for (int d = 0; d < 4; d++) {
+            int dispatcher = d;
+            dispatchers.add(pool.submit(() -> {
+                SchedulingService service = new SchedulingService(repository);
+                for (RideRequest ride : repository.getRideRequestsByDateAndStatus(DATE, "Pending")) {
+                    if (ride.getRequestID() % 4 == dispatcher) {
+                        service.scheduleRideRequest(ride);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> dispatcher : dispatchers) {
+            dispatcher.get();
+        }
+        pool.shutdown();
+
+        List<Schedule> schedules = repository.getSchedulesByDate(DATE);
+        assertFalse(schedules.isEmpty());
+        for (Schedule a : schedules) {
+            for (Schedule b : schedules) {
+                if (a == b) {
+                    continue;
+                }
+                assertThat("Each ride is scheduled once",
+                        a.getRideRequest().getRequestID() == b.getRideRequest().getRequestID(), is(false));
+                if (a.getDriver().getDriverID() == b.getDriver().getDriverID() ||
+                        a.getVehicle().getVehicleID() == b.getVehicle().getVehicleID()) {
+                    long gap = Math.abs(a.getTime().toSecondOfDay() - b.getTime().toSecondOfDay()) / 60;
+                    assertTrue("Rides of one driver or vehicle keep their buffer", gap > 60);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSchedulingServiceRunsOnRepository() throws SQLException {
+        addRide("Jane Doe", DATE, LocalTime.of(9, 0));
+        addRide("Bob Brown", DATE, LocalTime.of(9, 10));
+
+        SchedulingService service = new SchedulingService(repository);
+        int scheduled = service.scheduleBatch(DATE);
+
+        // One driver and vehicle: the second ride overlaps the first
+        assertThat(scheduled, is(1));
+        assertThat(repository.getSchedulesByDate(DATE).size(), is(1));
+        assertThat(repository.getRideRequestsByDateAndStatus(DATE, "Pending").size(), is(1));
+    }
+}
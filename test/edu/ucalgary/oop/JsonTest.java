@@ -0,0 +1,70 @@
+package edu.ucalgary.oop;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Map;
+
+public class JsonTest {
+
+    @Test
+    public void testParseObject() {
+        Map<String, Object> members = Json.parseObject(
+                " {\"name\": \"Jane \\\"J\\\" Doe\\u0021\", \"count\": 3, \"ratio\": -1.5e2,"
+                        + " \"ok\": true, \"no\": false, \"missing\": null} ");
+
+        assertThat(members.get("name"), is((Object) "Jane \"J\" Doe!"));
+        assertThat(members.get("count"), is((Object) 3L));
+        assertThat(members.get("ratio"), is((Object) (-150.0)));
+        assertThat(members.get("ok"), is((Object) Boolean.TRUE));
+        assertThat(members.get("no"), is((Object) Boolean.FALSE));
+        assertTrue(members.containsKey("missing"));
+        assertThat(members.get("missing"), is(nullValue()));
+    }
+
+    @Test
+    public void testParseEmptyObject() {
+        assertTrue(Json.parseObject("{}").isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNestedObjectIsRejected() {
+        Json.parseObject("{\"a\": {\"b\": 1}}");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTrailingContentIsRejected() {
+        Json.parseObject("{\"a\": 1} x");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnterminatedStringIsRejected() {
+        Json.parseObject("{\"a\": \"b}");
+    }
+
+    @Test
+    public void testWriterSeparatesMembersAndElements() throws IOException {
+        StringBuilder out = new StringBuilder();
+        new Json.Writer(out)
+                .beginArray()
+                .beginObject().name("id").value(1).name("name").value("A\"B\n").endObject()
+                .beginObject().name("id").value(2).name("date").value((Object) LocalDate.of(2025, 3, 3))
+                .name("none").value((String) null).name("ok").value(true).endObject()
+                .beginArray().endArray()
+                .endArray();
+
+        assertThat(out.toString(), is("[{\"id\":1,\"name\":\"A\\\"B\\n\"},"
+                + "{\"id\":2,\"date\":\"2025-03-03\",\"none\":null,\"ok\":true},[]]"));
+    }
+
+    @Test
+    public void testWrittenObjectParsesBack() throws IOException {
+        StringBuilder out = new StringBuilder();
+        new Json.Writer(out).beginObject().name("text").value("tab\there \u0001").endObject();
+
+        assertThat(Json.parseObject(out.toString()).get("text"), is((Object) "tab\there \u0001"));
+    }
+}
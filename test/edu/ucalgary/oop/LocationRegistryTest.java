@@ -0,0 +1,131 @@
+package edu.ucalgary.oop;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+public class LocationRegistryTest {
+
+    private LocationRegistry registry;
+
+    @Before
+    public void setUp() {
+        registry = new LocationRegistry();
+    }
+
+    @Test
+    public void testInternGivesCompactIds() {
+        int first = registry.intern("1403 29 St NW");
+        int second = registry.intern("200 Ogden Rd SE");
+
+        assertThat(first, is(1));
+        assertThat(second, is(2));
+        assertThat(registry.intern("1403 29 St NW"), is(first));
+        assertThat(registry.size(), is(2));
+    }
+
+    @Test
+    public void testSpellingsOfOneAddressShareAnId() {
+        int id = registry.intern("1403 29 St NW");
+
+        assertThat(registry.intern("1403 29 Street N.W."), is(id));
+        assertThat(registry.intern("  1403  29 st northwest "), is(id));
+        assertThat(registry.getAddress(id), is("1403 29 St NW"));
+        assertThat(registry.size(), is(1));
+    }
+
+    @Test
+    public void testMissingAddressIsUnknown() {
+        assertThat(registry.intern(null), is(LocationRegistry.UNKNOWN));
+        assertThat(registry.intern("  "), is(LocationRegistry.UNKNOWN));
+        assertThat(registry.size(), is(0));
+    }
+
+    @Test
+    public void testFindDoesNotRegister() {
+        assertThat(registry.find("1403 29 St NW"), is(LocationRegistry.UNKNOWN));
+        int id = registry.intern("1403 29 St NW");
+        assertThat(registry.find("1403 29 Street NW"), is(id));
+        assertThat(registry.size(), is(1));
+    }
+
+    @Test
+    public void testShareReturnsOneInstancePerSpelling() {
+        String first = registry.share(new String("1403 29 St NW"));
+        String second = registry.share(new String("1403 29 St NW"));
+        String other = registry.share("1403 29 Street NW");
+
+        assertSame(first, second);
+        assertThat(other, is("1403 29 Street NW"));
+        assertNull(registry.share(null));
+    }
+
+    @Test
+    public void testCoordinates() {
+        int id = registry.setCoordinates("Foothills Medical Centre", 51.0650, -114.1337);
+        int unplaced = registry.intern("Downtown Garage");
+
+        assertTrue(registry.hasCoordinates(id));
+        assertThat(registry.getLatitude(id), is(51.0650));
+        assertThat(registry.getLongitude(id), is(-114.1337));
+        assertFalse(registry.hasCoordinates(unplaced));
+        assertTrue(Double.isNaN(registry.getLatitude(unplaced)));
+        assertFalse(registry.hasCoordinates(LocationRegistry.UNKNOWN));
+    }
+
+    @Test
+    public void testDistance() {
+        int foothills = registry.setCoordinates("Foothills Medical Centre", 51.0650, -114.1337);
+        int cityHall = registry.setCoordinates("800 Macleod Tr SE", 51.0453, -114.0581);
+
+        assertEquals(5.72, registry.distanceKm(foothills, cityHall), 0.05);
+        assertEquals(0.0, registry.distanceKm(foothills, foothills), 1e-9);
+        assertTrue(Double.isNaN(registry.distanceKm(foothills, registry.intern("Downtown Garage"))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCoordinatesRejected() {
+        registry.setCoordinates("Foothills Medical Centre", 91, -114.1337);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownIdRejected() {
+        registry.getAddress(1);
+    }
+
+    @Test
+    public void testGrowsPastInitialCapacity() {
+        for (int i = 1; i <= 100; i++) {
+            registry.setCoordinates(i + " Main St NE", 51 + i / 1000.0, -114);
+        }
+        assertThat(registry.size(), is(100));
+        assertThat(registry.getLatitude(registry.find("100 Main St NE")), is(51.1));
+    }
+
+    @Test
+    public void testLoad() throws IOException {
+        String file = "# Hospitals\n" +
+                "\"Foothills Medical Centre\",51.0650,-114.1337\n" +
+                "\n" +
+                "\"1403 29 St NW\", 51.0652 , -114.1330\n";
+
+        LocationRegistry loaded = LocationRegistry.load(new StringReader(file));
+
+        assertThat(loaded.size(), is(2));
+        assertTrue(loaded.hasCoordinates(loaded.find("1403 29 Street N.W.")));
+    }
+
+    @Test
+    public void testLoadRejectsMalformedLine() throws IOException {
+        try {
+            LocationRegistry.load(new StringReader("\"Foothills Medical Centre\",51.0650,-114.1337\nBad,line\n"));
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("Line 2"));
+        }
+    }
+}
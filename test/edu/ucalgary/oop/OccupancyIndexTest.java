@@ -0,0 +1,242 @@
+package edu.ucalgary.oop;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class OccupancyIndexTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 2, 26);
+
+    private OccupancyIndex index;
+
+    @Before
+    public void setUp() {
+        index = new OccupancyIndex(7);
+        index.resetDay(DATE);
+    }
+
+    @Test
+    public void testNewDayIsLoadedAndFree() {
+        assertTrue("Reset day should be marked as loaded", index.isLoaded(DATE));
+        assertFalse("Other days should not be loaded", index.isLoaded(DATE.plusDays(1)));
+        assertTrue("Driver should be free on an empty day",
+                index.isDriverFree(DATE, 1, LocalTime.of(9, 0), LocalTime.of(10, 0)));
+    }
+
+    @Test
+    public void testOverlappingWindowIsBusy() {
+        index.book(DATE, 100, 1, 5, LocalTime.of(10, 0), LocalTime.of(10, 30));
+
+        assertFalse("Driver should be busy during the ride",
+                index.isDriverFree(DATE, 1, LocalTime.of(10, 15), LocalTime.of(11, 0)));
+        assertFalse("Vehicle should be busy during the ride",
+                index.isVehicleFree(DATE, 5, LocalTime.of(9, 30), LocalTime.of(10, 5)));
+        assertTrue("Other drivers should stay free",
+                index.isDriverFree(DATE, 2, LocalTime.of(10, 15), LocalTime.of(11, 0)));
+    }
+
+    @Test
+    public void testTouchingWindowIsBusy() {
+        index.book(DATE, 100, 1, 5, LocalTime.of(10, 0), LocalTime.of(10, 30));
+
+        assertFalse("A window starting when the ride ends should count as overlapping",
+                index.isDriverFree(DATE, 1, LocalTime.of(10, 30), LocalTime.of(11, 0)));
+    }
+
+    @Test
+    public void testSeparateWindowIsFree() {
+        index.book(DATE, 100, 1, 5, LocalTime.of(10, 0), LocalTime.of(10, 30));
+
+        assertTrue("Driver should be free later in the day",
+                index.isDriverFree(DATE, 1, LocalTime.of(11, 0), LocalTime.of(12, 0)));
+        assertTrue("Driver should be free earlier in the day",
+                index.isDriverFree(DATE, 1, LocalTime.of(8, 0), LocalTime.of(9, 59)));
+    }
+
+    @Test
+    public void testLongBookingIsFoundFromLaterWindow() {
+        index.book(DATE, 100, 1, 5, LocalTime.of(8, 0), LocalTime.of(12, 0));
+
+        assertFalse("A long ride should block windows that start well after its start",
+                index.isVehicleFree(DATE, 5, LocalTime.of(11, 0), LocalTime.of(11, 30)));
+    }
+
+    @Test
+    public void testReleaseFreesDriverAndVehicle() {
+        index.book(DATE, 100, 1, 5, LocalTime.of(10, 0), LocalTime.of(10, 30));
+
+        index.release(100);
+
+        assertTrue("Released ride should not block the driver",
+                index.isDriverFree(DATE, 1, LocalTime.of(10, 0), LocalTime.of(10, 30)));
+        assertTrue("Released ride should not block the vehicle",
+                index.isVehicleFree(DATE, 5, LocalTime.of(10, 0), LocalTime.of(10, 30)));
+    }
+
+    @Test
+    public void testWindowWrappingMidnight() {
+        index.resetDay(DATE.plusDays(1));
+        index.book(DATE.plusDays(1), 100, 1, 5, LocalTime.of(0, 10), LocalTime.of(0, 40));
+
+        assertFalse("Window from 23:30 to 00:30 should see the ride after midnight on the next date",
+                index.isDriverFree(DATE, 1, LocalTime.of(23, 30), LocalTime.of(0, 30)));
+    }
+
+    @Test
+    public void testLateRideNextToEarlyRideOfSameDay() {
+        index.book(DATE, 100, 1, 5, LocalTime.of(0, 15), LocalTime.of(0, 45));
+
+        assertTrue("A late window running past midnight ends on the next date, not this morning",
+                index.isDriverFree(DATE, 1, LocalTime.of(23, 20), LocalTime.of(0, 50)));
+        assertTrue(index.isVehicleFree(DATE, 5, LocalTime.of(23, 20), LocalTime.of(0, 50)));
+    }
+
+    @Test
+    public void testBookingPastMidnightBlocksNextDay() {
+        LocalDate nextDay = DATE.plusDays(1);
+        index.resetDay(nextDay);
+        index.book(DATE, 100, 1, 5, LocalTime.of(23, 50), LocalTime.of(0, 20));
+
+        assertFalse("The ride is still running at 00:10",
+                index.isDriverFree(nextDay, 1, LocalTime.of(0, 10), LocalTime.of(0, 30)));
+        assertFalse(index.isVehicleFree(5, nextDay.atTime(0, 20), nextDay.atTime(1, 0)));
+        assertTrue("The ride is over by 00:21",
+                index.isVehicleFree(5, nextDay.atTime(0, 21), nextDay.atTime(1, 0)));
+    }
+
+    @Test
+    public void testDateTimeWindowStartingTheDayBefore() {
+        index.book(DATE, 100, 1, 5, LocalTime.of(0, 15), LocalTime.of(0, 45));
+
+        assertFalse("A window from 23:45 the day before reaches the ride at 00:15",
+                index.isDriverFree(1, DATE.minusDays(1).atTime(23, 45), DATE.atTime(1, 15)));
+        assertTrue(index.isDriverFree(1, DATE.minusDays(1).atTime(23, 0), DATE.atTime(0, 10)));
+    }
+
+    @Test
+    public void testBookingOnUnloadedDayIsIgnored() {
+        LocalDate otherDay = DATE.plusDays(1);
+        index.book(otherDay, 100, 1, 5, LocalTime.of(10, 0), LocalTime.of(10, 30));
+
+        assertFalse("Booking should not load the day", index.isLoaded(otherDay));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedDayIsDropped() {
+        OccupancyIndex small = new OccupancyIndex(2);
+        small.resetDay(DATE);
+        small.resetDay(DATE.plusDays(1));
+        small.isLoaded(DATE);
+        small.resetDay(DATE.plusDays(2));
+
+        assertTrue("Recently used day should be kept", small.isLoaded(DATE));
+        assertFalse("Least recently used day should be dropped", small.isLoaded(DATE.plusDays(1)));
+    }
+
+    @Test
+    public void testBusyUntilReportsEndOfPreviousBooking() {
+        index.book(DATE, 100, 1, 5, LocalTime.of(8, 0), LocalTime.of(8, 30));
+        index.book(DATE, 101, 1, 5, LocalTime.of(10, 0), LocalTime.of(10, 30));
+
+        assertEquals(10 * 60 + 30, index.getDriverBusyUntil(DATE, 1, LocalTime.of(12, 0)));
+        assertEquals(8 * 60 + 30, index.getVehicleBusyUntil(DATE, 5, LocalTime.of(9, 0)));
+        assertEquals(-1, index.getDriverBusyUntil(DATE, 1, LocalTime.of(7, 0)));
+        assertEquals(-1, index.getDriverBusyUntil(DATE, 2, LocalTime.of(12, 0)));
+    }
+
+    @Test
+    public void testNearestVehiclesAfterRidesFollowsLastRide() {
+        index.book(DATE, 100, 1, 5, LocalTime.of(8, 0), LocalTime.of(8, 30), 51.10, -114.10);
+        index.book(DATE, 101, 1, 5, LocalTime.of(10, 0), LocalTime.of(10, 30), 51.00, -114.00);
+        index.book(DATE, 102, 2, 6, LocalTime.of(8, 0), LocalTime.of(8, 30), 51.05, -114.05);
+
+        // At 9:00 vehicle 5 is where its 8:00 ride ended, not where the 10:00 one will
+        List<SpatialGridIndex.Neighbor> at9 = index.nearestVehiclesAfterRides(DATE, LocalTime.of(9, 0),
+                51.10, -114.10, 2, id -> true);
+        assertEquals(2, at9.size());
+        assertEquals(5, at9.get(0).getId());
+        assertEquals(0.0, at9.get(0).getDistanceKm(), 1e-9);
+
+        List<SpatialGridIndex.Neighbor> at11 = index.nearestVehiclesAfterRides(DATE, LocalTime.of(11, 0),
+                51.10, -114.10, 1, id -> true);
+        assertEquals(6, at11.get(0).getId());
+
+        List<SpatialGridIndex.Neighbor> drivers = index.nearestDriversAfterRides(DATE, LocalTime.of(11, 0),
+                51.00, -114.00, 1, id -> id != 2);
+        assertEquals(1, drivers.get(0).getId());
+    }
+
+    @Test
+    public void testReleasedRideIsNoLongerAPosition() {
+        index.book(DATE, 100, 1, 5, LocalTime.of(8, 0), LocalTime.of(8, 30), 51.10, -114.10);
+        index.book(DATE, 101, 1, 5, LocalTime.of(6, 0), LocalTime.of(6, 30));
+        index.release(100);
+
+        assertTrue("A ride without a drop-off leaves the vehicle unplaced",
+                index.nearestVehiclesAfterRides(DATE, LocalTime.of(9, 0), 51.10, -114.10, 1, id -> true).isEmpty());
+        assertTrue("Unloaded days have no positions",
+                index.nearestVehiclesAfterRides(DATE.plusDays(1), LocalTime.of(9, 0), 51.10, -114.10, 1, id -> true)
+                        .isEmpty());
+    }
+
+    @Test
+    public void testReleasingNextRideExtendsEarlierPosition() {
+        index.book(DATE, 100, 1, 5, LocalTime.of(8, 0), LocalTime.of(8, 30), 51.10, -114.10);
+        index.book(DATE, 101, 1, 5, LocalTime.of(12, 0), LocalTime.of(12, 30), 50.95, -114.00);
+        assertEquals("The vehicle waits where its 12:00 ride ends", 5,
+                index.nearestVehiclesAfterRides(DATE, LocalTime.of(15, 0), 50.95, -114.00, 1, id -> true)
+                        .get(0).getId());
+
+        index.release(101);
+        List<SpatialGridIndex.Neighbor> nearest =
+                index.nearestVehiclesAfterRides(DATE, LocalTime.of(15, 0), 51.10, -114.10, 1, id -> true);
+        assertEquals("The 8:00 ride's drop-off holds after the later ride is released", 1, nearest.size());
+        assertEquals(0.0, nearest.get(0).getDistanceKm(), 1e-9);
+        assertEquals(1, index.nearestDriversAfterRides(DATE, LocalTime.of(20, 0), 51.10, -114.10, 1, id -> true)
+                .get(0).getId());
+    }
+
+    @Test
+    public void testNearestSearchWidensPastRejectedOwners() {
+        for (int i = 0; i < 10; i++) {
+            index.book(DATE, 100 + i, i, 20 + i, LocalTime.of(8, 0), LocalTime.of(8, 30), 51.0 + i * 0.01, -114.0);
+        }
+
+        // The nine nearest vehicles are rejected, so the one that is accepted is the farthest
+        List<SpatialGridIndex.Neighbor> nearest = index.nearestVehiclesAfterRides(DATE, LocalTime.of(9, 0),
+                51.0, -114.0, 1, id -> id == 29);
+        assertEquals(1, nearest.size());
+        assertEquals(29, nearest.get(0).getId());
+    }
+
+    @Test
+    public void testFreeChecksDoNotWaitForASearch() throws Exception {
+        index.book(DATE, 100, 1, 5, LocalTime.of(8, 0), LocalTime.of(8, 30), 51.10, -114.10);
+        index.resetDay(DATE.plusDays(1));
+        index.book(DATE.plusDays(1), 101, 2, 6, LocalTime.of(0, 0), LocalTime.of(0, 30));
+
+        // The predicate runs with the date locked; another thread checks both dates meanwhile
+        List<SpatialGridIndex.Neighbor> nearest = index.nearestVehiclesAfterRides(DATE, LocalTime.of(9, 0),
+                51.10, -114.10, 1, id -> {
+                    try {
+                        return CompletableFuture.supplyAsync(() ->
+                                !index.isVehicleFree(id, DATE.atTime(8, 0), DATE.plusDays(1).atTime(0, 15)) &&
+                                        index.getVehicleBusyUntil(DATE, id, LocalTime.of(9, 0)) == 8 * 60 + 30)
+                                .get(5, TimeUnit.SECONDS);
+                    } catch (Exception e) {
+                        return false;
+                    }
+                });
+
+        assertEquals(1, nearest.size());
+        assertEquals(5, nearest.get(0).getId());
+    }
+}
@@ -0,0 +1,110 @@
+package edu.ucalgary.oop;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+public class ProximitySelectorTest {
+
+    private static final LocalDate DATE = LocalDate.of(2025, 3, 3);
+
+    private LocationRegistry registry;
+    private OccupancyIndex occupancy;
+    private ProximitySelector selector;
+    private List<Driver> drivers;
+
+    @Before
+    public void setUp() {
+        registry = new LocationRegistry();
+        registry.setCoordinates("North Garage", 51.15, -114.10);
+        registry.setCoordinates("South Garage", 50.95, -114.05);
+        registry.setCoordinates("Foothills Medical Centre", 51.0650, -114.1337);
+        registry.setCoordinates("800 Macleod Tr SE", 51.0453, -114.0581);
+        registry.setCoordinates("200 Ogden Rd SE", 50.9800, -114.0300);
+
+        occupancy = new OccupancyIndex(7);
+        occupancy.resetDay(DATE);
+        selector = new ProximitySelector(registry, occupancy);
+        selector.updateVehicles(List.of(vehicle(1, "North Garage"), vehicle(2, "South Garage")));
+        drivers = List.of(driver(10), driver(11));
+    }
+
+    private static Vehicle vehicle(int id, String location) {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setVehicleID(id);
+        vehicle.setCurrentLocation(location);
+        return vehicle;
+    }
+
+    private static Driver driver(int id) {
+        Driver driver = new Driver();
+        driver.setDriverID(id);
+        driver.setAvailable(true);
+        return driver;
+    }
+
+    private ProximitySelector.Choice select(LocalTime time, String pickup) {
+        return selector.select(DATE, time, pickup, drivers, id -> id == 10 || id == 11, id -> true);
+    }
+
+    @Test
+    public void testPicksVehicleNearestToPickup() {
+        ProximitySelector.Choice choice = select(LocalTime.of(9, 0), "200 Ogden Rd SE");
+
+        assertThat(choice.getVehicleId(), is(2));
+        assertThat(choice.getDriverId(), is(10));
+        assertTrue(choice.getDeadheadKm() < 5);
+    }
+
+    @Test
+    public void testVehicleWaitsWhereItsLastRideEnded() {
+        // The north vehicle dropped someone off next to the pickup
+        occupancy.book(DATE, 100, 11, 1, LocalTime.of(8, 0), LocalTime.of(8, 30), 50.9800, -114.0300);
+
+        ProximitySelector.Choice choice = select(LocalTime.of(10, 0), "200 Ogden Rd SE");
+
+        assertThat(choice.getVehicleId(), is(1));
+        assertEquals(0.0, choice.getDeadheadKm(), 1e-9);
+    }
+
+    @Test
+    public void testDriverTravelsToVehicleWhenNoneIsFresh() {
+        occupancy.book(DATE, 100, 10, 1, LocalTime.of(8, 0), LocalTime.of(8, 30), 51.15, -114.10);
+        occupancy.book(DATE, 101, 11, 2, LocalTime.of(8, 0), LocalTime.of(8, 30), 50.95, -114.05);
+
+        ProximitySelector.Choice choice = select(LocalTime.of(10, 0), "800 Macleod Tr SE");
+
+        // Each vehicle keeps the driver who brought it back, so the pair is the nearer vehicle and its driver
+        assertThat(choice.getVehicleId(), is(2));
+        assertThat(choice.getDriverId(), is(11));
+    }
+
+    @Test
+    public void testSkipsVehiclesThatAreNotFree() {
+        ProximitySelector.Choice choice = selector.select(DATE, LocalTime.of(9, 0), "200 Ogden Rd SE",
+                drivers, id -> true, id -> id != 2);
+
+        assertThat(choice.getVehicleId(), is(1));
+    }
+
+    @Test
+    public void testUnknownPickupSelectsNothing() {
+        assertNull(select(LocalTime.of(9, 0), "Somewhere Unknown"));
+        assertNull(select(LocalTime.of(9, 0), null));
+    }
+
+    @Test
+    public void testNoLocatedVehicleSelectsNothing() {
+        assertNull(selector.select(DATE, LocalTime.of(9, 0), "200 Ogden Rd SE", drivers, id -> true, id -> false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsZeroCandidates() {
+        new ProximitySelector(registry, occupancy, 0);
+    }
+}
@@ -13,8 +13,11 @@ import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.TemporalAdjusters;
 import java.time.DayOfWeek;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class ReportGeneratorServiceTest {
     // Stub implementation of DataAccessManager for testing
@@ -32,6 +35,36 @@ public class ReportGeneratorServiceTest {
             return new ArrayList<>(schedules);
         }
 
+        @Override
+        public void forEachScheduleByDate(LocalDate date, Consumer<Schedule> action) throws SQLException {
+            schedules.stream()
+                    .filter(schedule -> date.equals(schedule.getDate()))
+                    .sorted(Comparator.comparingInt((Schedule schedule) -> schedule.getDriver().getDriverID())
+                            .thenComparing(Schedule::getTime))
+                    .forEach(action);
+        }
+
+        @Override
+        public RideSummary getRideSummary(LocalDate startDate, LocalDate endDate) throws SQLException {
+            // Mirrors the database aggregation over the stored schedules
+            RideSummary summary = new RideSummary();
+            summary.setTotalRides(schedules.size());
+            int wheelchair = 0;
+            for (Schedule schedule : schedules) {
+                int vehicleId = schedule.getVehicle().getVehicleID();
+                int driverId = schedule.getDriver().getDriverID();
+                summary.setRidesForVehicle(vehicleId, summary.getRidesForVehicle(vehicleId) + 1);
+                summary.setRidesForDriver(driverId, summary.getRidesForDriver(driverId) + 1);
+                String specialReqs = schedule.getRideRequest().getSpecialRequirements();
+                if (specialReqs != null && specialReqs.contains("Wheelchair")) {
+                    wheelchair++;
+                }
+            }
+            summary.setWheelchairRides(wheelchair);
+            summary.setStandardRides(schedules.size() - wheelchair);
+            return summary;
+        }
+
         @Override
         public List<Vehicle> getAllVehicles() throws SQLException {
             return new ArrayList<>(vehicles);
@@ -123,6 +156,60 @@ public class ReportGeneratorServiceTest {
         // Optional: You might want to add more detailed file content verification
     }
 
+    @Test
+    public void testCreateDailyScheduleFileListsDriversInOrder() throws Exception {
+        LocalDate testDate = LocalDate.of(2025, 2, 26);
+
+        Driver busy = new Driver();
+        busy.setDriverID(2);
+        busy.setName("Aisha Khan");
+        busy.setLicenseNumber("D1234567");
+        busy.setAvailable(true);
+
+        Driver idle = new Driver();
+        idle.setDriverID(1);
+        idle.setName("Thomas Three Suns");
+        idle.setLicenseNumber("D7654321");
+        idle.setAvailable(false);
+
+        // Drivers are added out of ID order on purpose
+        stubDataManager.addDriver(busy);
+        stubDataManager.addDriver(idle);
+
+        Vehicle vehicle = new Vehicle();
+        vehicle.setVehicleID(1);
+        vehicle.setLicensePlate("ABC123");
+        vehicle.setWheelchairAccessible(true);
+
+        for (LocalTime time : new LocalTime[]{LocalTime.of(13, 30), LocalTime.of(9, 0)}) {
+            RideRequest request = new RideRequest();
+            request.setClientName("Client at " + time);
+            request.setPickUpLocation("123 Main St");
+            request.setDropOffLocation("456 Elm St");
+
+            Schedule schedule = new Schedule();
+            schedule.setDriver(busy);
+            schedule.setVehicle(vehicle);
+            schedule.setRideRequest(request);
+            schedule.setDate(testDate);
+            schedule.setTime(time);
+            stubDataManager.addSchedule(schedule);
+        }
+
+        assertTrue(reportService.createDailyScheduleFile(testDate));
+
+        String expectedFileName = "daily_schedule_" + testDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")) + ".txt";
+        String content = new String(Files.readAllBytes(new File(expectedFileName).toPath()));
+
+        assertThat(content, containsString("Status: Currently unavailable."));
+        assertThat(content, containsString("Vehicle: ABC123 (Wheelchair Accessible)"));
+        assertThat(content, containsString("Special Requirements: None"));
+        assertTrue("Drivers should be listed in ID order",
+                content.indexOf("Thomas Three Suns") < content.indexOf("Aisha Khan"));
+        assertTrue("Rides should be listed in time order",
+                content.indexOf("09:00") < content.indexOf("01:30"));
+    }
+
     @Test
     public void testCreateWeeklyReportFile() throws Exception {
         // Prepare test data
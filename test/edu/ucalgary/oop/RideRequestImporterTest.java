@@ -0,0 +1,144 @@
+package edu.ucalgary.oop;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+public class RideRequestImporterTest {
+
+    private InMemoryRepository repository;
+    private RideRequestImporter importer;
+
+    @Before
+    public void setUp() {
+        repository = new InMemoryRepository();
+
+        Driver driver = new Driver();
+        driver.setName("John Smith");
+        driver.setAvailable(true);
+        repository.addDriver(driver);
+
+        Vehicle vehicle = new Vehicle();
+        vehicle.setLicensePlate("ABC123");
+        vehicle.setCapacity(4);
+        vehicle.setWheelchairAccessible(true);
+        repository.addVehicle(vehicle);
+
+        importer = new RideRequestImporter(repository, new SchedulingService(repository));
+    }
+
+    @Test
+    public void testValidRowsAreImportedAndScheduled() throws Exception {
+        String csv = "ClientName,PickupLocation,DropoffLocation,PassengerCount,SpecialRequirements,RequestDate,PickupTime\n"
+                + "Jane Doe,\"1 Main St, Calgary\",Hospital,1,Wheelchair,2025-03-03,09:00\n"
+                + "\n"
+                + "\"Bob \"\"Bobby\"\" Brown\",Home,Clinic,2,,2025-03-04,10:30\n";
+
+        RideRequestImporter.Result result = importer.importCsv(new StringReader(csv));
+
+        assertThat(result.getImportedIds(), is(List.of(1, 2)));
+        assertThat(result.getRejectCount(), is(0));
+        assertThat(result.getScheduledCount(), is(2));
+
+        RideRequest first = repository.getRideRequestById(1);
+        assertThat(first.getPickUpLocation(), is("1 Main St, Calgary"));
+        assertThat(first.getStatus(), is("Scheduled"));
+
+        RideRequest second = repository.getRideRequestById(2);
+        assertThat(second.getClientName(), is("Bob \"Bobby\" Brown"));
+        assertThat(second.getSpecialRequirements(), is(nullValue()));
+        assertThat(second.getRequestDate(), is(LocalDate.of(2025, 3, 4)));
+        assertThat(second.getPickupTime(), is(LocalTime.of(10, 30)));
+    }
+
+    @Test
+    public void testInvalidRowsAreRejectedWithLineNumbers() throws Exception {
+        // Columns in another order and spelling; only the required ones
+        String csv = "pickup_time,Request Date,passengercount,CLIENTNAME\n"
+                + "09:00,2025-03-03,1,Valid Client\n"
+                + "09:00,2025-03-03,zero,Bad Count\n"
+                + "09:00,2025-02-30,1,Bad Date\n"
+                + "25:00,2025-03-03,1,Bad Time\n"
+                + "09:00,2025-03-03,1,\n"
+                + "09:00,2025-03-03,1\n"
+                + "09:00,2025-03-03,1,\"Unterminated\n"
+                + "09:00,2025-03-03,0,No Passengers\n";
+
+        RideRequestImporter.Result result = importer.importCsv(new StringReader(csv));
+
+        assertThat(result.getImportedIds().size(), is(1));
+        assertThat(result.getRejectCount(), is(7));
+
+        List<RideRequestImporter.Reject> rejects = result.getRejects();
+        assertThat(rejects.get(0).getLineNumber(), is(3));
+        assertThat(rejects.get(0).getReason(), containsString("passenger count"));
+        assertThat(rejects.get(1).getReason(), containsString("request date"));
+        assertThat(rejects.get(2).getReason(), containsString("pickup time"));
+        assertThat(rejects.get(3).getReason(), containsString("Client name"));
+        assertThat(rejects.get(4).getReason(), containsString("fields"));
+        assertThat(rejects.get(5).getReason(), containsString("Unterminated"));
+        assertThat(rejects.get(6).getLineNumber(), is(9));
+    }
+
+    @Test
+    public void testRejectsAreReportedUpToLimit() throws Exception {
+        StringBuilder csv = new StringBuilder("ClientName,PassengerCount,RequestDate,PickupTime\n");
+        for (int i = 0; i < RideRequestImporter.MAX_REPORTED_REJECTS + 5; i++) {
+            csv.append("Client,-1,2025-03-03,09:00\n");
+        }
+
+        RideRequestImporter.Result result = importer.importCsv(new StringReader(csv.toString()));
+
+        assertThat(result.getRejectCount(), is(RideRequestImporter.MAX_REPORTED_REJECTS + 5));
+        assertThat(result.getRejects().size(), is(RideRequestImporter.MAX_REPORTED_REJECTS));
+        assertTrue(result.getImportedIds().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingRequiredColumnIsRejected() throws Exception {
+        importer.importCsv(new StringReader("ClientName,PassengerCount,RequestDate\nJane,1,2025-03-03\n"));
+    }
+
+    @Test
+    public void testReadFailureImportsNothing() throws SQLException {
+        Reader failing = new Reader() {
+            private final Reader header = new StringReader(
+                    "ClientName,PassengerCount,RequestDate,PickupTime\nJane,1,2025-03-03,09:00\n");
+
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                int read = header.read(buffer, offset, length);
+                if (read < 0) {
+                    throw new IOException("Connection reset");
+                }
+                return read;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        try {
+            importer.importCsv(failing);
+            fail("Expected the read failure to be passed on");
+        } catch (IOException e) {
+            assertThat(e.getMessage(), is("Connection reset"));
+        }
+        assertTrue(repository.getAllRideRequests().isEmpty());
+    }
+
+    @Test
+    public void testSplitFields() {
+        assertThat(RideRequestImporter.splitFields("a,\"b,c\",,\"d\"\"e\""), is(List.of("a", "b,c", "", "d\"e")));
+    }
+}
@@ -0,0 +1,47 @@
+package edu.ucalgary.oop;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RideSummaryTest {
+
+    private RideSummary summary;
+
+    @Before
+    public void setUp() {
+        summary = new RideSummary();
+    }
+
+    @Test
+    public void testNewSummaryIsEmpty() {
+        assertThat(summary.getTotalRides(), is(0));
+        assertThat(summary.getWheelchairRides(), is(0));
+        assertThat(summary.getStandardRides(), is(0));
+        assertThat(summary.getRidesForVehicle(1), is(0));
+        assertThat(summary.getRidesForDriver(1), is(0));
+    }
+
+    @Test
+    public void testSetTotalsAndSplit() {
+        summary.setTotalRides(5);
+        summary.setWheelchairRides(2);
+        summary.setStandardRides(3);
+
+        assertThat(summary.getTotalRides(), is(5));
+        assertThat(summary.getWheelchairRides(), is(2));
+        assertThat(summary.getStandardRides(), is(3));
+    }
+
+    @Test
+    public void testRidesPerVehicleAndDriver() {
+        summary.setRidesForVehicle(1, 4);
+        summary.setRidesForDriver(2, 3);
+
+        assertThat(summary.getRidesForVehicle(1), is(4));
+        assertThat(summary.getRidesForVehicle(2), is(0));
+        assertThat(summary.getRidesForDriver(2), is(3));
+        assertThat(summary.getRidesForDriver(1), is(0));
+    }
+}
@@ -160,4 +160,22 @@ public class ScheduleTest {
         assertThat(newSchedule.getDate(), is(LocalDate.of(2025, 3, 1)));
         assertThat(newSchedule.getTime(), is(LocalTime.of(14, 30)));
     }
+
+    @Test
+    public void testDefaultDuration() {
+        assertThat(schedule.getDurationMinutes(), is(TripDurationEstimator.DEFAULT_MINUTES));
+        assertThat(schedule.getEndTime(), is(LocalTime.of(9, 30)));
+    }
+
+    @Test
+    public void testSetDurationMinutes() {
+        schedule.setDurationMinutes(75);
+        assertThat(schedule.getDurationMinutes(), is(75));
+        assertThat(schedule.getEndTime(), is(LocalTime.of(10, 15)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetDurationMinutesRejectsZero() {
+        schedule.setDurationMinutes(0);
+    }
 }
\ No newline at end of file
@@ -11,6 +11,8 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 public class SchedulingServiceTest {
 
@@ -105,6 +107,538 @@ public class SchedulingServiceTest {
         assertThat(testRequest.getStatus(), is("Pending"));
     }
 
+    @Test
+    public void testScheduleRideRequest_ConstantAvailabilityQueries() throws SQLException {
+        // A larger fleet should not change how often the database is asked about availability
+        for (int i = 0; i < 20; i++) {
+            testDataManager.addTestDriver(true);
+            testDataManager.addTestVehicle(i % 2 == 0);
+        }
+
+        boolean result = schedulingService.scheduleRideRequest(testRequest);
+
+        assertTrue("Scheduling should succeed when resources are available", result);
+        assertThat(testDataManager.getAvailabilityQueryCount(), is(0));
+        assertThat(testDataManager.getCommitCount(), is(1));
+    }
+
+    @Test
+    public void testScheduleRideRequest_ReadsFleetOnce() throws SQLException {
+        testDataManager.addTestDriver(true);
+        testDataManager.addTestVehicle(true);
+
+        assertTrue(schedulingService.scheduleRideRequest(testRequest));
+        assertTrue(schedulingService.scheduleRideRequest(createPendingRequest(20, null, LocalTime.of(12, 0))));
+        assertTrue(schedulingService.scheduleRideRequest(createPendingRequest(21, null, LocalTime.of(15, 0))));
+        assertThat("Single rides reuse the fleet as last read", testDataManager.getFleetReadCount(), is(1));
+
+        testDataManager.addTestVehicle(false);
+        schedulingService.fleetUpdated();
+        assertTrue(schedulingService.scheduleRideRequest(createPendingRequest(22, null, LocalTime.of(18, 0))));
+        assertThat(testDataManager.getFleetReadCount(), is(2));
+    }
+
+    @Test
+    public void testScheduleRideRequest_ReadsFleetAgainOnceExpired() throws SQLException {
+        long[] now = {0};
+        SchedulingService service = new SchedulingService(testDataManager,
+                TripDurationEstimator.fixed(TripDurationEstimator.DEFAULT_MINUTES), null, () -> now[0]);
+        testDataManager.addTestDriver(true);
+        testDataManager.addTestVehicle(true);
+
+        assertTrue(service.scheduleRideRequest(testRequest));
+        now[0] += TimeUnit.MILLISECONDS.toNanos(SchedulingService.FLEET_TTL_MILLIS) - 1;
+        assertTrue(service.scheduleRideRequest(createPendingRequest(20, null, LocalTime.of(12, 0))));
+        assertThat(testDataManager.getFleetReadCount(), is(1));
+
+        now[0]++;
+        assertTrue(service.scheduleRideRequest(createPendingRequest(21, null, LocalTime.of(15, 0))));
+        assertThat("The fleet has expired", testDataManager.getFleetReadCount(), is(2));
+    }
+
+    @Test
+    public void testScheduleRideRequest_SkipsDriverMadeUnavailableElsewhere() throws SQLException {
+        InMemoryRepository repository = singleDriverRepository();
+        Driver other = new Driver();
+        other.setName("Other Driver");
+        other.setAvailable(true);
+        repository.addDriver(other);
+        RideRequest first = addPendingRide(repository, LocalTime.of(9, 0));
+        RideRequest second = addPendingRide(repository, LocalTime.of(13, 0));
+
+        SchedulingService service = new SchedulingService(repository);
+        assertTrue(service.scheduleRideRequest(first));
+        int firstDriver = repository.getSchedulesByDate(first.getRequestDate()).get(0).getDriver().getDriverID();
+
+        // Another dispatcher takes the driver off duty without telling this service
+        repository.updateDriverAvailability(firstDriver, false);
+
+        assertTrue(service.scheduleRideRequest(second));
+        for (Schedule schedule : repository.getSchedulesByDate(second.getRequestDate())) {
+            if (schedule.getRideRequest().getRequestID() == second.getRequestID()) {
+                assertNotEquals(firstDriver, schedule.getDriver().getDriverID());
+            }
+        }
+    }
+
+    @Test
+    public void testScheduleRideRequest_RetriesAfterConflict() throws SQLException {
+        testDataManager.addTestDriver(true);
+        testDataManager.addTestVehicle(true);
+        testDataManager.reportConflicts(1);
+
+        boolean result = schedulingService.scheduleRideRequest(testRequest);
+
+        assertTrue("A lost reservation should be retried", result);
+        assertThat(testRequest.getStatus(), is("Scheduled"));
+        assertThat(testDataManager.getCommitCount(), is(2));
+        assertThat(testDataManager.getScheduleCount(), is(1));
+    }
+
+    @Test
+    public void testScheduleRideRequest_GivesUpAfterRepeatedConflicts() throws SQLException {
+        testDataManager.addTestDriver(true);
+        testDataManager.addTestVehicle(true);
+        testDataManager.reportConflicts(Integer.MAX_VALUE);
+
+        boolean result = schedulingService.scheduleRideRequest(testRequest);
+
+        assertFalse(result);
+        assertThat(testRequest.getStatus(), is("Pending"));
+        assertThat(testDataManager.getCommitCount(), is(3));
+        assertThat(testDataManager.getScheduleCount(), is(0));
+    }
+
+    @Test
+    public void testScheduleBatch_ReplansAfterConflict() throws SQLException {
+        testDataManager.addTestDriver(true);
+        testDataManager.addTestVehicle(true);
+        testDataManager.addTestRequest(testRequest);
+        testDataManager.reportConflicts(1);
+
+        assertThat(schedulingService.scheduleBatch(testRequest.getRequestDate()), is(1));
+        assertThat(testRequest.getStatus(), is("Scheduled"));
+        assertThat(testDataManager.getCommitCount(), is(2));
+        assertThat(testDataManager.getScheduleCount(), is(1));
+    }
+
+    @Test
+    public void testScheduleRideRequest_DriverAlreadyBookedInIndex() throws SQLException {
+        // One driver and two vehicles: the driver can only take one of two overlapping rides
+        testDataManager.addTestDriver(true);
+        testDataManager.addTestVehicle(true);
+        testDataManager.addTestVehicle(true);
+
+        RideRequest overlapping = new RideRequest();
+        overlapping.setRequestID(2);
+        overlapping.setPassengerCount(1);
+        overlapping.setSpecialRequirements("Wheelchair");
+        overlapping.setRequestDate(testRequest.getRequestDate());
+        overlapping.setPickupTime(LocalTime.of(10, 15));
+        overlapping.setStatus("Pending");
+
+        assertTrue("First ride should be scheduled", schedulingService.scheduleRideRequest(testRequest));
+        assertFalse("Overlapping ride should not reuse the busy driver",
+                schedulingService.scheduleRideRequest(overlapping));
+        assertThat(overlapping.getStatus(), is("Pending"));
+        assertThat(testDataManager.getScheduleCount(), is(1));
+    }
+
+    @Test
+    public void testRideRequestUpdated_ReleasesCancelledRide() throws SQLException {
+        testDataManager.addTestDriver(true);
+        testDataManager.addTestVehicle(true);
+
+        RideRequest later = new RideRequest();
+        later.setRequestID(2);
+        later.setPassengerCount(1);
+        later.setRequestDate(testRequest.getRequestDate());
+        later.setPickupTime(LocalTime.of(10, 15));
+        later.setStatus("Pending");
+
+        schedulingService.scheduleRideRequest(testRequest);
+        testRequest.setStatus("Cancelled");
+        schedulingService.rideRequestUpdated(testRequest);
+
+        assertTrue("Cancelled ride should no longer block the driver",
+                schedulingService.scheduleRideRequest(later));
+    }
+
+    @Test
+    public void testScheduleBatch_KeepsAccessibleVehicleForWheelchairRide() throws SQLException {
+        // Two drivers, one standard and one accessible vehicle, three rides at the same time
+        testDataManager.addTestDriver(true);
+        testDataManager.addTestDriver(true);
+        testDataManager.addTestVehicle(true);
+        testDataManager.addTestVehicle(false);
+
+        RideRequest standard = createPendingRequest(10, null, LocalTime.of(10, 0));
+        RideRequest wheelchair = createPendingRequest(11, "Wheelchair", LocalTime.of(10, 0));
+        RideRequest another = createPendingRequest(12, null, LocalTime.of(10, 0));
+
+        int scheduled = schedulingService.scheduleBatch(testRequest.getRequestDate());
+
+        assertThat(scheduled, is(2));
+        assertThat(wheelchair.getStatus(), is("Scheduled"));
+        assertThat(standard.getStatus(), is("Scheduled"));
+        assertThat(another.getStatus(), is("Pending"));
+        assertThat(testDataManager.getScheduleCount(), is(2));
+        assertThat(testDataManager.getCommitCount(), is(1));
+    }
+
+    @Test
+    public void testScheduleBatch_ReusesDriverForLaterRide() throws SQLException {
+        testDataManager.addTestDriver(true);
+        testDataManager.addTestVehicle(false);
+
+        createPendingRequest(10, null, LocalTime.of(9, 0));
+        createPendingRequest(11, null, LocalTime.of(11, 0));
+        RideRequest clash = createPendingRequest(12, null, LocalTime.of(11, 15));
+
+        int scheduled = schedulingService.scheduleBatch(testRequest.getRequestDate());
+
+        assertThat(scheduled, is(2));
+        assertThat(clash.getStatus(), is("Pending"));
+    }
+
+    @Test
+    public void testScheduleBatch_NothingPending() throws SQLException {
+        testDataManager.addTestDriver(true);
+        testDataManager.addTestVehicle(true);
+
+        assertThat(schedulingService.scheduleBatch(LocalDate.now().plusDays(30)), is(0));
+        assertThat(testDataManager.getCommitCount(), is(0));
+    }
+
+    @Test
+    public void testRescheduleRidesForDriver_MovesRideToOtherDriver() throws SQLException {
+        Driver leaving = testDataManager.addTestDriver(true);
+        testDataManager.addTestVehicle(true);
+        testDataManager.addTestRequest(testRequest);
+
+        schedulingService.scheduleRideRequest(testRequest);
+        Driver replacement = testDataManager.addTestDriver(true);
+
+        leaving.setAvailable(false);
+        schedulingService.rescheduleRidesForDriver(leaving.getDriverID());
+
+        assertThat(testRequest.getStatus(), is("Scheduled"));
+        assertThat(testDataManager.getScheduleCount(), is(1));
+        assertThat(testDataManager.getScheduleFor(testRequest).getDriver(), is(replacement));
+    }
+
+    @Test
+    public void testRescheduleRidesForDriver_OnlyTouchesOverlappingPendingRides() throws SQLException {
+        Driver leaving = testDataManager.addTestDriver(true);
+        Driver returning = testDataManager.addTestDriver(false);
+        Driver another = testDataManager.addTestDriver(false);
+        testDataManager.addTestVehicle(false);
+
+        RideRequest first = createPendingRequest(10, null, LocalTime.of(10, 0));
+        RideRequest overlapping = createPendingRequest(11, null, LocalTime.of(10, 20));
+        RideRequest later = createPendingRequest(12, null, LocalTime.of(15, 0));
+        schedulingService.scheduleRideRequest(first);
+
+        // More resources arrive, then the first driver leaves
+        returning.setAvailable(true);
+        another.setAvailable(true);
+        testDataManager.addTestVehicle(false);
+        leaving.setAvailable(false);
+        schedulingService.rescheduleRidesForDriver(leaving.getDriverID());
+
+        assertThat(first.getStatus(), is("Scheduled"));
+        assertThat(overlapping.getStatus(), is("Scheduled"));
+        assertThat("Pending rides outside the affected window are left alone",
+                later.getStatus(), is("Pending"));
+        // One reservation for the first ride and one for the rescheduling pass
+        assertThat(testDataManager.getCommitCount(), is(2));
+    }
+
+    @Test
+    public void testScheduleRideRequests_ParallelPartitions() throws SQLException {
+        InMemoryRepository repository = new InMemoryRepository();
+        for (int i = 0; i < 2; i++) {
+            Driver driver = new Driver();
+            driver.setName("Parallel Driver " + i);
+            driver.setAvailable(true);
+            repository.addDriver(driver);
+
+            Vehicle vehicle = new Vehicle();
+            vehicle.setLicensePlate("PAR" + i);
+            vehicle.setCapacity(4);
+            repository.addVehicle(vehicle);
+        }
+
+        // Two rides every two hours on each of five days: everything fits
+        List<RideRequest> rides = new ArrayList<>();
+        for (int day = 0; day < 5; day++) {
+            for (int hour = 6; hour < 20; hour += 2) {
+                for (int i = 0; i < 2; i++) {
+                    RideRequest ride = new RideRequest();
+                    ride.setClientName("Parallel Client");
+                    ride.setPassengerCount(1);
+                    ride.setRequestDate(LocalDate.of(2025, 3, 3).plusDays(day));
+                    ride.setPickupTime(LocalTime.of(hour, 15));
+                    ride.setStatus("Pending");
+                    repository.addRideRequest(ride);
+                    rides.add(ride);
+                }
+            }
+        }
+
+        SchedulingService service = new SchedulingService(repository);
+        int scheduled = service.scheduleRideRequests(rides, 4);
+
+        assertThat(scheduled, is(rides.size()));
+        assertThat(repository.getAllSchedules().size(), is(rides.size()));
+        for (RideRequest ride : rides) {
+            assertThat(ride.getStatus(), is("Scheduled"));
+        }
+    }
+
+    @Test
+    public void testScheduleBatch_ShortTripsFreeResourcesSooner() throws SQLException {
+        InMemoryRepository repository = singleDriverRepository();
+        RideRequest first = addPendingRide(repository, LocalTime.of(9, 0));
+        RideRequest second = addPendingRide(repository, LocalTime.of(9, 45));
+
+        // 10 minute trips leave the 30 minute buffer between the rides
+        SchedulingService service = new SchedulingService(repository, TripDurationEstimator.fixed(10));
+
+        assertThat(service.scheduleBatch(first.getRequestDate()), is(2));
+        for (Schedule schedule : repository.getSchedulesByDate(first.getRequestDate())) {
+            assertThat(schedule.getDurationMinutes(), is(10));
+        }
+        assertThat(repository.getRideRequestById(second.getRequestID()).getStatus(), is("Scheduled"));
+    }
+
+    @Test
+    public void testScheduleRideRequest_LongTripBlocksLaterRide() throws SQLException {
+        InMemoryRepository repository = singleDriverRepository();
+        RideRequest first = addPendingRide(repository, LocalTime.of(9, 0));
+        RideRequest second = addPendingRide(repository, LocalTime.of(10, 45));
+
+        SchedulingService service = new SchedulingService(repository, TripDurationEstimator.fixed(90));
+
+        assertTrue(service.scheduleRideRequest(first));
+        assertFalse("The vehicle is busy until 10:30 plus the buffer", service.scheduleRideRequest(second));
+        assertThat(second.getStatus(), is("Pending"));
+    }
+
+    @Test
+    public void testScheduleRideRequest_ModifiedRideFreesOldSlot() throws SQLException {
+        InMemoryRepository repository = singleDriverRepository();
+        RideRequest moved = addPendingRide(repository, LocalTime.of(9, 0));
+        RideRequest other = addPendingRide(repository, LocalTime.of(9, 0));
+
+        SchedulingService service = new SchedulingService(repository);
+        assertTrue(service.scheduleRideRequest(moved));
+
+        moved.setPickupTime(LocalTime.of(13, 0));
+        repository.updateRideRequest(moved);
+        assertTrue(service.scheduleRideRequest(moved));
+
+        assertTrue("Only the moved ride's new slot is taken", service.scheduleRideRequest(other));
+        assertThat(repository.getSchedulesByDate(moved.getRequestDate()).size(), is(2));
+    }
+
+    @Test
+    public void testScheduleRideRequest_LateRideNextToEarlyRideOfSameDay() throws SQLException {
+        InMemoryRepository repository = singleDriverRepository();
+        RideRequest early = addPendingRide(repository, LocalTime.of(0, 15));
+        RideRequest late = addPendingRide(repository, LocalTime.of(23, 50));
+
+        SchedulingService service = new SchedulingService(repository);
+
+        assertTrue(service.scheduleRideRequest(early));
+        assertTrue("The late ride runs into the next day, not into the early ride",
+                service.scheduleRideRequest(late));
+        assertThat(repository.getSchedulesByDate(late.getRequestDate()).size(), is(2));
+    }
+
+    @Test
+    public void testScheduleRideRequest_EstimatesFromLocations() throws SQLException {
+        InMemoryRepository repository = singleDriverRepository();
+        RideRequest ride = addPendingRide(repository, LocalTime.of(9, 0));
+        ride.setPickUpLocation("100 Centre St NW");
+        ride.setDropOffLocation("200 Ogden Rd SE");
+
+        ZoneTripDurationEstimator estimator = new ZoneTripDurationEstimator(30);
+        estimator.setMinutes("NW", "SE", 45);
+        SchedulingService service = new SchedulingService(repository, estimator);
+
+        assertTrue(service.scheduleRideRequest(ride));
+        assertThat(repository.getSchedulesByDate(ride.getRequestDate()).get(0).getEndTime(),
+                is(LocalTime.of(9, 45)));
+    }
+
+    @Test
+    public void testScheduleRideRequest_PrefersNearestVehicle() throws SQLException {
+        InMemoryRepository repository = new InMemoryRepository();
+        Driver driver = new Driver();
+        driver.setName("Only Driver");
+        driver.setAvailable(true);
+        repository.addDriver(driver);
+
+        Vehicle far = new Vehicle();
+        far.setLicensePlate("FAR1");
+        far.setCapacity(4);
+        far.setCurrentLocation("North Garage");
+        repository.addVehicle(far);
+        Vehicle near = new Vehicle();
+        near.setLicensePlate("NEAR1");
+        near.setCapacity(6);
+        near.setCurrentLocation("South Garage");
+        repository.addVehicle(near);
+        RideRequest ride = addPendingRide(repository, LocalTime.of(9, 0));
+        ride.setPickUpLocation("200 Ogden Rd SE");
+
+        LocationRegistry locations = new LocationRegistry();
+        locations.setCoordinates("North Garage", 51.15, -114.10);
+        locations.setCoordinates("South Garage", 50.95, -114.05);
+        locations.setCoordinates("200 Ogden Rd SE", 50.98, -114.03);
+        SchedulingService service = new SchedulingService(repository,
+                TripDurationEstimator.fixed(TripDurationEstimator.DEFAULT_MINUTES), locations);
+
+        assertTrue(service.scheduleRideRequest(ride));
+        assertThat("The larger vehicle is chosen because it is nearer",
+                repository.getSchedulesByDate(ride.getRequestDate()).get(0).getVehicle().getLicensePlate(),
+                is("NEAR1"));
+    }
+
+    @Test
+    public void testScheduleRideRequest_UnknownPickupFallsBackToCapacity() throws SQLException {
+        InMemoryRepository repository = singleDriverRepository();
+        Vehicle larger = new Vehicle();
+        larger.setLicensePlate("BIG1");
+        larger.setCapacity(6);
+        larger.setCurrentLocation("South Garage");
+        repository.addVehicle(larger);
+        RideRequest ride = addPendingRide(repository, LocalTime.of(9, 0));
+        ride.setPickUpLocation("Somewhere Unknown");
+
+        LocationRegistry locations = new LocationRegistry();
+        locations.setCoordinates("South Garage", 50.95, -114.05);
+        SchedulingService service = new SchedulingService(repository,
+                TripDurationEstimator.fixed(TripDurationEstimator.DEFAULT_MINUTES), locations);
+
+        assertTrue(service.scheduleRideRequest(ride));
+        assertThat(repository.getSchedulesByDate(ride.getRequestDate()).get(0).getVehicle().getLicensePlate(),
+                is("ONLY1"));
+    }
+
+    @Test
+    public void testCrossMidnight_InMemoryRepository() throws SQLException {
+        InMemoryRepository repository = singleDriverRepository();
+        Driver driver = new Driver();
+        driver.setName("Second Driver");
+        driver.setAvailable(true);
+        repository.addDriver(driver);
+        Vehicle vehicle = new Vehicle();
+        vehicle.setLicensePlate("SECOND1");
+        vehicle.setCapacity(4);
+        repository.addVehicle(vehicle);
+
+        assertCrossMidnightRidesKeptApart(repository, LocalDate.of(2025, 3, 3));
+    }
+
+    @Test
+    public void testCrossMidnight_DataAccessManager() throws SQLException {
+        new SchemaMigrator().migrate();
+
+        assertCrossMidnightRidesKeptApart(new DataAccessManager(), LocalDate.of(2099, 2, 20));
+    }
+
+    /**
+     * Schedules a ride running past midnight with one service, then a ride just after
+     * midnight with another service whose index has not seen the first ride. The second
+     * ride must get a different driver and vehicle on the first try, not one the
+     * repository then rejects.
+     */
+    private void assertCrossMidnightRidesKeptApart(TransportationRepository repository, LocalDate date)
+            throws SQLException {
+        RideRequest late = addPendingRide(repository, date, LocalTime.of(23, 50));
+        RideRequest early = addPendingRide(repository, date.plusDays(1), LocalTime.of(0, 10));
+        try {
+            assertTrue(new SchedulingService(repository).scheduleRideRequest(late));
+            assertTrue("The ride from the day before must be indexed",
+                    new SchedulingService(repository).scheduleRideRequest(early));
+
+            Schedule first = scheduleOf(repository, late);
+            Schedule second = scheduleOf(repository, early);
+            assertNotEquals(first.getDriver().getDriverID(), second.getDriver().getDriverID());
+            assertNotEquals(first.getVehicle().getVehicleID(), second.getVehicle().getVehicleID());
+        } finally {
+            List<Schedule> saved = new ArrayList<>();
+            for (RideRequest ride : List.of(late, early)) {
+                Schedule schedule = scheduleOf(repository, ride);
+                if (schedule != null) {
+                    saved.add(schedule);
+                }
+            }
+            repository.releaseSchedules(saved);
+            repository.updateRideStatus(late.getRequestID(), "Cancelled");
+            repository.updateRideStatus(early.getRequestID(), "Cancelled");
+        }
+    }
+
+    private Schedule scheduleOf(TransportationRepository repository, RideRequest ride) throws SQLException {
+        for (Schedule schedule : repository.getSchedulesByDate(ride.getRequestDate())) {
+            if (schedule.getRideRequest().getRequestID() == ride.getRequestID()) {
+                return schedule;
+            }
+        }
+        return null;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testScheduleRideRequests_RejectsZeroThreads() {
+        schedulingService.scheduleRideRequests(List.of(testRequest), 0);
+    }
+
+    private InMemoryRepository singleDriverRepository() {
+        InMemoryRepository repository = new InMemoryRepository();
+        Driver driver = new Driver();
+        driver.setName("Only Driver");
+        driver.setAvailable(true);
+        repository.addDriver(driver);
+
+        Vehicle vehicle = new Vehicle();
+        vehicle.setLicensePlate("ONLY1");
+        vehicle.setCapacity(4);
+        repository.addVehicle(vehicle);
+        return repository;
+    }
+
+    private RideRequest addPendingRide(InMemoryRepository repository, LocalTime pickupTime) throws SQLException {
+        return addPendingRide(repository, LocalDate.of(2025, 3, 3), pickupTime);
+    }
+
+    private RideRequest addPendingRide(TransportationRepository repository, LocalDate date, LocalTime pickupTime)
+            throws SQLException {
+        RideRequest ride = new RideRequest();
+        ride.setClientName("Duration Client");
+        ride.setPassengerCount(1);
+        ride.setRequestDate(date);
+        ride.setPickupTime(pickupTime);
+        ride.setStatus("Pending");
+        repository.addRideRequest(ride);
+        return ride;
+    }
+
+    private RideRequest createPendingRequest(int id, String specialRequirements, LocalTime pickupTime) {
+        RideRequest request = new RideRequest();
+        request.setRequestID(id);
+        request.setClientName("Batch Client " + id);
+        request.setPassengerCount(1);
+        request.setSpecialRequirements(specialRequirements);
+        request.setRequestDate(testRequest.getRequestDate());
+        request.setPickupTime(pickupTime);
+        request.setStatus("Pending");
+        testDataManager.addTestRequest(request);
+        return request;
+    }
+
     /**
      * Test implementation of DataAccessManager for testing SchedulingService
      */
@@ -112,6 +646,10 @@ public class SchedulingServiceTest {
         private int driverIdCounter = 1;
         private int vehicleIdCounter = 1;
         private int scheduleIdCounter = 1;
+        private int availabilityQueryCount = 0;
+        private int commitCount = 0;
+        private int conflictsToReport = 0;
+        private int fleetReadCount = 0;
 
         private List<Driver> drivers = new ArrayList<>();
         private List<Vehicle> vehicles = new ArrayList<>();
@@ -159,8 +697,32 @@ public class SchedulingServiceTest {
             return schedules.size();
         }
 
+        public Schedule getScheduleFor(RideRequest request) {
+            return schedules.stream()
+                    .filter(schedule -> schedule.getRideRequest() == request)
+                    .findFirst()
+                    .orElse(null);
+        }
+
+        public int getAvailabilityQueryCount() {
+            return availabilityQueryCount;
+        }
+
+        public int getCommitCount() {
+            return commitCount;
+        }
+
+        public int getFleetReadCount() {
+            return fleetReadCount;
+        }
+
+        public void reportConflicts(int count) {
+            conflictsToReport = count;
+        }
+
         @Override
         public List<Driver> getAvailableDrivers(LocalDate date, LocalTime startTime, LocalTime endTime) throws SQLException {
+            availabilityQueryCount++;
             return drivers.stream()
                     .filter(driver -> driver.isAvailable())
                     .collect(java.util.stream.Collectors.toList());
@@ -168,6 +730,7 @@ public class SchedulingServiceTest {
 
         @Override
         public List<Vehicle> getAvailableVehicles(LocalDate date, LocalTime startTime, LocalTime endTime, boolean needsWheelchair, int passengerCount) throws SQLException {
+            availabilityQueryCount++;
             return vehicles.stream()
                     .filter(vehicle -> !needsWheelchair || vehicle.isWheelchairAccessible())
                     .filter(vehicle -> vehicle.getCapacity() >= passengerCount)
@@ -187,6 +750,75 @@ public class SchedulingServiceTest {
             return true;
         }
 
+        @Override
+        public List<Driver> getAllDrivers() throws SQLException {
+            return new ArrayList<>(drivers);
+        }
+
+        @Override
+        public List<Vehicle> getAllVehicles() throws SQLException {
+            fleetReadCount++;
+            return new ArrayList<>(vehicles);
+        }
+
+        @Override
+        public List<Schedule> getSchedulesByDate(LocalDate date) throws SQLException {
+            return schedules.stream()
+                    .filter(schedule -> date.equals(schedule.getDate()))
+                    .collect(java.util.stream.Collectors.toList());
+        }
+
+        @Override
+        public List<RideRequest> getRideRequestsByDateAndStatus(LocalDate date, String status) throws SQLException {
+            return requests.stream()
+                    .filter(request -> request != null)
+                    .filter(request -> date.equals(request.getRequestDate()) && status.equals(request.getStatus()))
+                    .collect(java.util.stream.Collectors.toList());
+        }
+
+        @Override
+        public boolean commitSchedules(List<Schedule> newSchedules) throws SQLException {
+            commitCount++;
+            for (Schedule schedule : newSchedules) {
+                addSchedule(schedule);
+            }
+            return true;
+        }
+
+        @Override
+        public boolean reserveSchedules(List<Schedule> newSchedules, int bufferMinutes) throws SQLException {
+            commitCount++;
+            if (conflictsToReport > 0) {
+                // Simulate another dispatcher having booked the slots first
+                conflictsToReport--;
+                return false;
+            }
+            for (Schedule schedule : newSchedules) {
+                addSchedule(schedule);
+            }
+            return true;
+        }
+
+        @Override
+        public List<Schedule> getSchedulesByDriverId(int driverId, LocalDate fromDate) throws SQLException {
+            return schedules.stream()
+                    .filter(schedule -> schedule.getDriver().getDriverID() == driverId)
+                    .filter(schedule -> !schedule.getDate().isBefore(fromDate))
+                    .collect(java.util.stream.Collectors.toList());
+        }
+
+        @Override
+        public int releaseSchedules(List<Schedule> released) throws SQLException {
+            schedules.removeAll(released);
+            return released.size();
+        }
+
+        @Override
+        public int updateRideStatuses(Map<Integer, String> statuses) throws SQLException {
+            // Statuses are already set on the in-memory requests
+            return statuses.size();
+        }
+
         @Override
         public List<Schedule> getAllSchedules() throws SQLException {
             return new ArrayList<>(schedules);
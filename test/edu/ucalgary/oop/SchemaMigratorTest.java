@@ -0,0 +1,46 @@
+package edu.ucalgary.oop;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+
+public class SchemaMigratorTest {
+
+    @Test
+    public void testMigrationsOfThisBuildAreOrdered() {
+        SchemaMigrator migrator = new SchemaMigrator();
+        assertThat(migrator.getLatestVersion(),
+                is(SchemaMigrator.MIGRATIONS.get(SchemaMigrator.MIGRATIONS.size() - 1).getVersion()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOutOfOrderVersionsAreRejected() {
+        new SchemaMigrator(List.of(
+                new SchemaMigrator.Migration(2, "Second", "SELECT 1"),
+                new SchemaMigrator.Migration(1, "First", "SELECT 1")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateVersionsAreRejected() {
+        new SchemaMigrator(List.of(
+                new SchemaMigrator.Migration(1, "First", "SELECT 1"),
+                new SchemaMigrator.Migration(1, "Again", "SELECT 1")));
+    }
+
+    @Test
+    public void testLatestVersionWithoutMigrations() {
+        assertThat(new SchemaMigrator(List.of()).getLatestVersion(), is(0));
+    }
+
+    @Test
+    public void testMigrateIsRepeatable() throws SQLException {
+        SchemaMigrator migrator = new SchemaMigrator();
+        migrator.migrate();
+
+        assertThat(migrator.migrate(), is(0));
+        assertThat(migrator.getCurrentVersion(), is(migrator.getLatestVersion()));
+    }
+}
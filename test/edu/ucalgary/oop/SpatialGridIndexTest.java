@@ -0,0 +1,133 @@
+package edu.ucalgary.oop;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+public class SpatialGridIndexTest {
+
+    private SpatialGridIndex index;
+
+    @Before
+    public void setUp() {
+        index = new SpatialGridIndex();
+    }
+
+    private static List<Integer> ids(List<SpatialGridIndex.Neighbor> neighbors) {
+        List<Integer> ids = new ArrayList<>();
+        for (SpatialGridIndex.Neighbor neighbor : neighbors) {
+            ids.add(neighbor.getId());
+        }
+        return ids;
+    }
+
+    @Test
+    public void testNearestFirst() {
+        index.put(1, 51.10, -114.10);
+        index.put(2, 51.05, -114.05);
+        index.put(3, 51.00, -114.00);
+
+        List<SpatialGridIndex.Neighbor> nearest = index.nearest(51.04, -114.04, 2, id -> true);
+
+        assertThat(ids(nearest), is(List.of(2, 3)));
+        assertTrue(nearest.get(0).getDistanceKm() < nearest.get(1).getDistanceKm());
+    }
+
+    @Test
+    public void testDistanceMatchesQueryDistance() {
+        index.put(1, 51.10, -114.10);
+
+        SpatialGridIndex.Neighbor nearest = index.nearest(51.04, -114.04, 1, id -> true).get(0);
+
+        assertEquals(nearest.getDistanceKm(), index.distanceKm(51.04, -114.04, 51.10, -114.10), 1e-9);
+        assertEquals(index.distanceKm(51.04, -114.04, 51.10, -114.10),
+                index.distanceKm(51.10, -114.10, 51.04, -114.04), 1e-9);
+    }
+
+    @Test
+    public void testNearestFindsDistantPoints() {
+        index.put(1, 51.30, -114.40);
+
+        assertThat(ids(index.nearest(50.90, -113.90, 3, id -> true)), is(List.of(1)));
+    }
+
+    @Test
+    public void testNearestSkipsRejectedIds() {
+        index.put(1, 51.05, -114.05);
+        index.put(2, 51.06, -114.06);
+
+        assertThat(ids(index.nearest(51.05, -114.05, 1, id -> id != 1)), is(List.of(2)));
+    }
+
+    @Test
+    public void testPutMovesPoint() {
+        index.put(1, 51.05, -114.05);
+        index.put(2, 51.10, -114.10);
+        index.put(1, 51.20, -114.20);
+
+        assertThat(index.size(), is(2));
+        assertThat(ids(index.nearest(51.05, -114.05, 1, id -> true)), is(List.of(2)));
+    }
+
+    @Test
+    public void testRemove() {
+        index.put(1, 51.05, -114.05);
+
+        assertTrue(index.remove(1));
+        assertFalse(index.remove(1));
+        assertFalse(index.contains(1));
+        assertTrue(index.nearest(51.05, -114.05, 1, id -> true).isEmpty());
+    }
+
+    @Test
+    public void testEmptyIndex() {
+        assertTrue(index.nearest(51.05, -114.05, 5, id -> true).isEmpty());
+    }
+
+    @Test
+    public void testMatchesLinearScan() {
+        Random random = new Random(16);
+        double[][] points = new double[500][];
+        for (int id = 0; id < points.length; id++) {
+            points[id] = new double[]{50.9 + random.nextDouble() * 0.3, -114.3 + random.nextDouble() * 0.4};
+            index.put(id, points[id][0], points[id][1]);
+        }
+
+        for (int query = 0; query < 50; query++) {
+            double latitude = 50.9 + random.nextDouble() * 0.3;
+            double longitude = -114.3 + random.nextDouble() * 0.4;
+
+            List<Integer> expected = new ArrayList<>();
+            for (int id = 0; id < points.length; id++) {
+                if (id % 3 != 0) {
+                    expected.add(id);
+                }
+            }
+            expected.sort(Comparator.comparingDouble(id -> LocationRegistry.distanceKm(
+                    latitude, longitude, points[id][0], points[id][1])));
+
+            // The grid ranks on a projected plane, so near ties may swap; compare distances
+            List<Integer> found = ids(index.nearest(latitude, longitude, 5, id -> id % 3 != 0));
+            assertThat(found.size(), is(5));
+            for (int i = 0; i < 5; i++) {
+                int expectedId = expected.get(i);
+                int foundId = found.get(i);
+                assertTrue(foundId % 3 != 0);
+                double expectedKm = LocationRegistry.distanceKm(latitude, longitude, points[expectedId][0], points[expectedId][1]);
+                double foundKm = LocationRegistry.distanceKm(latitude, longitude, points[foundId][0], points[foundId][1]);
+                assertEquals(expectedKm, foundKm, 0.01 + expectedKm * 0.01);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCellSizeRejected() {
+        new SpatialGridIndex(0, SpatialGridIndex.CALGARY_LATITUDE);
+    }
+}
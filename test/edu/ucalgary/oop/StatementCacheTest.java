@@ -0,0 +1,212 @@
+package edu.ucalgary.oop;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class StatementCacheTest {
+
+    private List<FakeStatementState> prepared;
+    private Connection connection;
+    private StatementCache.Counters counters;
+
+    @Before
+    public void setUp() {
+        prepared = new ArrayList<>();
+        connection = fakeConnection();
+        counters = new StatementCache.Counters();
+    }
+
+    @Test
+    public void testSameSqlIsPreparedOnce() throws SQLException {
+        StatementCache cache = new StatementCache(4, counters);
+
+        cache.prepare(connection, connection, "SELECT 1").close();
+        cache.prepare(connection, connection, "SELECT 1").close();
+        cache.prepare(connection, connection, "SELECT 1").close();
+
+        assertThat(prepared.size(), is(1));
+        assertThat(counters.getMissCount(), is(1L));
+        assertThat(counters.getHitCount(), is(2L));
+    }
+
+    @Test
+    public void testClosingReturnsStatementWithoutClosingIt() throws SQLException {
+        StatementCache cache = new StatementCache(4, counters);
+
+        PreparedStatement statement = cache.prepare(connection, connection, "SELECT 1");
+        statement.close();
+
+        assertTrue("The handle should report itself as closed", statement.isClosed());
+        assertFalse("The cached statement should stay open", prepared.get(0).closed);
+        assertThat(prepared.get(0).parameterClears, is(1));
+    }
+
+    @Test
+    public void testClosingResetsStateForNextBorrower() throws SQLException {
+        StatementCache cache = new StatementCache(4, counters);
+
+        PreparedStatement statement = cache.prepare(connection, connection, "SELECT 1");
+        statement.setFetchSize(200);
+        statement.setMaxRows(10);
+        statement.setQueryTimeout(5);
+        statement.executeQuery();
+        statement.close();
+
+        FakeStatementState state = prepared.get(0);
+        assertTrue("The open result set should be closed", state.resultSetClosed);
+        assertThat(state.fetchSize, is(0));
+        assertThat(state.maxRows, is(0));
+        assertThat(state.queryTimeout, is(0));
+        assertThat(state.batchClears, is(1));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedStatementIsEvicted() throws SQLException {
+        StatementCache cache = new StatementCache(2, counters);
+
+        cache.prepare(connection, connection, "SELECT 1").close();
+        cache.prepare(connection, connection, "SELECT 2").close();
+        cache.prepare(connection, connection, "SELECT 1").close();
+        cache.prepare(connection, connection, "SELECT 3").close();
+
+        assertThat(cache.size(), is(2));
+        assertThat(counters.getEvictionCount(), is(1L));
+        assertTrue("SELECT 2 was least recently used and should be closed", prepared.get(1).closed);
+        assertFalse("SELECT 1 was used recently and should stay open", prepared.get(0).closed);
+    }
+
+    @Test
+    public void testStatementInUseIsNotHandedOutTwice() throws SQLException {
+        StatementCache cache = new StatementCache(4, counters);
+
+        PreparedStatement first = cache.prepare(connection, connection, "SELECT 1");
+        PreparedStatement second = cache.prepare(connection, connection, "SELECT 1");
+        second.close();
+        first.close();
+
+        assertThat(prepared.size(), is(2));
+        assertThat(cache.size(), is(1));
+    }
+
+    @Test
+    public void testClosedHandleCannotBeUsed() throws SQLException {
+        StatementCache cache = new StatementCache(4, counters);
+
+        PreparedStatement statement = cache.prepare(connection, connection, "SELECT 1");
+        statement.close();
+
+        try {
+            statement.executeQuery();
+            fail("Using a closed statement handle should fail");
+        } catch (SQLException e) {
+            assertThat(e.getMessage(), containsString("closed"));
+        }
+    }
+
+    @Test
+    public void testPooledConnectionsReuseStatementsAcrossBorrows() throws SQLException {
+        ConnectionPool pool = new ConnectionPool(() -> connection, 0, 1);
+        pool.setStatementCacheSize(8);
+
+        for (int i = 0; i < 5; i++) {
+            try (Connection borrowed = pool.getConnection();
+                 PreparedStatement statement = borrowed.prepareStatement("SELECT 1")) {
+                assertSame("Statement should report the borrowed connection", borrowed, statement.getConnection());
+            }
+        }
+
+        assertThat(prepared.size(), is(1));
+        assertThat(pool.getStatementCacheCounters().getHitCount(), is(4L));
+        pool.close();
+    }
+
+    private Connection fakeConnection() {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "prepareStatement":
+                            return fakeStatement();
+                        case "getAutoCommit":
+                            return true;
+                        case "isClosed":
+                            return false;
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    private PreparedStatement fakeStatement() {
+        FakeStatementState state = new FakeStatementState();
+        prepared.add(state);
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            state.closed = true;
+                            return null;
+                        case "isClosed":
+                            return state.closed;
+                        case "clearParameters":
+                            state.parameterClears++;
+                            return null;
+                        case "clearBatch":
+                            state.batchClears++;
+                            return null;
+                        case "getFetchSize":
+                            return state.fetchSize;
+                        case "setFetchSize":
+                            state.fetchSize = (Integer) args[0];
+                            return null;
+                        case "getMaxRows":
+                            return state.maxRows;
+                        case "setMaxRows":
+                            state.maxRows = (Integer) args[0];
+                            return null;
+                        case "getQueryTimeout":
+                            return state.queryTimeout;
+                        case "setQueryTimeout":
+                            state.queryTimeout = (Integer) args[0];
+                            return null;
+                        case "executeQuery":
+                            return fakeResultSet(state);
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    private ResultSet fakeResultSet(FakeStatementState state) {
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("close")) {
+                        state.resultSetClosed = true;
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Observable state of a fake physical statement.
+     */
+    private static class FakeStatementState {
+        private boolean closed = false;
+        private int parameterClears = 0;
+        private int batchClears = 0;
+        private int fetchSize = 0;
+        private int maxRows = 0;
+        private int queryTimeout = 0;
+        private boolean resultSetClosed = false;
+    }
+}
@@ -0,0 +1,30 @@
+package edu.ucalgary.oop;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+import org.junit.Test;
+
+public class TripDurationEstimatorTest {
+
+    @Test
+    public void testFixedEstimatorIgnoresLocations() {
+        TripDurationEstimator estimator = TripDurationEstimator.fixed(25);
+        assertThat(estimator.estimateMinutes("1 Main St NW", "2 Main St SE"), is(25));
+        assertThat(estimator.estimateMinutes(null, null), is(25));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFixedEstimatorRejectsZero() {
+        TripDurationEstimator.fixed(0);
+    }
+
+    @Test
+    public void testEstimateFromRideRequestUsesItsLocations() {
+        RideRequest request = new RideRequest();
+        request.setPickUpLocation("Home");
+        request.setDropOffLocation("Clinic");
+
+        TripDurationEstimator estimator = (pickup, dropOff) -> pickup.length() + dropOff.length();
+        assertThat(estimator.estimateMinutes(request), is(10));
+    }
+}
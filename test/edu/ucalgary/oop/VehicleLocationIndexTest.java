@@ -0,0 +1,69 @@
+package edu.ucalgary.oop;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+public class VehicleLocationIndexTest {
+
+    private LocationRegistry registry;
+    private VehicleLocationIndex index;
+
+    @Before
+    public void setUp() {
+        registry = new LocationRegistry();
+        registry.setCoordinates("Foothills Medical Centre", 51.0650, -114.1337);
+        registry.setCoordinates("800 Macleod Tr SE", 51.0453, -114.0581);
+        registry.setCoordinates("3500 26 Ave NE", 51.0700, -113.9850);
+        index = new VehicleLocationIndex(registry);
+    }
+
+    private static Vehicle vehicle(int id, String location) {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setVehicleID(id);
+        vehicle.setCurrentLocation(location);
+        return vehicle;
+    }
+
+    @Test
+    public void testUpdateAllSkipsUnknownLocations() {
+        int placed = index.updateAll(List.of(
+                vehicle(1, "Foothills Medical Centre"),
+                vehicle(2, "3500 26 Avenue N.E."),
+                vehicle(3, "Downtown Garage"),
+                vehicle(4, null)));
+
+        assertThat(placed, is(2));
+        assertTrue(index.contains(2));
+        assertFalse(index.contains(3));
+        assertThat(index.size(), is(2));
+    }
+
+    @Test
+    public void testNearestToPickup() {
+        index.updateAll(List.of(
+                vehicle(1, "Foothills Medical Centre"),
+                vehicle(2, "3500 26 Ave NE")));
+
+        List<SpatialGridIndex.Neighbor> nearest = index.nearest("800 Macleod Trail SE", 2, id -> true);
+
+        assertThat(nearest.size(), is(2));
+        assertThat(nearest.get(0).getId(), is(1));
+    }
+
+    @Test
+    public void testMovingToUnknownLocationRemoves() {
+        index.update(1, "Foothills Medical Centre");
+        assertFalse(index.update(1, "Downtown Garage"));
+        assertFalse(index.contains(1));
+    }
+
+    @Test
+    public void testUnknownPickupFindsNothing() {
+        index.update(1, "Foothills Medical Centre");
+        assertTrue(index.nearest("Downtown Garage", 1, id -> true).isEmpty());
+    }
+}
@@ -0,0 +1,84 @@
+package edu.ucalgary.oop;
+
+import static org.junit.Assert.*;
+import static org.hamcrest.CoreMatchers.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+public class ZoneTripDurationEstimatorTest {
+
+    private ZoneTripDurationEstimator estimator;
+
+    @Before
+    public void setUp() {
+        estimator = new ZoneTripDurationEstimator(30);
+        estimator.setMinutes("NW", "NW", 15);
+        estimator.setMinutes("NW", "SE", 45);
+        estimator.setZone("Foothills Medical Centre", "NW");
+    }
+
+    @Test
+    public void testZoneFromQuadrant() {
+        assertThat(estimator.zoneOf("1403 29 St NW"), is("nw"));
+        assertThat(estimator.zoneOf("200 Ogden Rd SE."), is("se"));
+        assertThat(estimator.zoneOf("Downtown Garage"), is(nullValue()));
+        assertThat(estimator.zoneOf(null), is(nullValue()));
+    }
+
+    @Test
+    public void testExplicitZoneIgnoresCaseAndSpacing() {
+        assertThat(estimator.zoneOf("  foothills   medical centre "), is("nw"));
+    }
+
+    @Test
+    public void testEstimateUsesMatrix() {
+        assertThat(estimator.estimateMinutes("Foothills Medical Centre", "1 Crowchild Tr NW"), is(15));
+        assertThat(estimator.estimateMinutes("1 Crowchild Tr NW", "200 Ogden Rd SE"), is(45));
+    }
+
+    @Test
+    public void testEstimateFallsBackToReversePair() {
+        assertThat(estimator.estimateMinutes("200 Ogden Rd SE", "Foothills Medical Centre"), is(45));
+    }
+
+    @Test
+    public void testUnknownZoneOrPairTakesDefault() {
+        assertThat(estimator.estimateMinutes("Downtown Garage", "1 Crowchild Tr NW"), is(30));
+        assertThat(estimator.estimateMinutes("1 Main St NE", "2 Main St SW"), is(30));
+        assertThat(estimator.estimateMinutes(null, "1 Crowchild Tr NW"), is(30));
+    }
+
+    @Test
+    public void testLoad() throws IOException {
+        String file = "# Travel times\n"
+                + "\n"
+                + "zone,\"Rockyview Hospital, Main Entrance\",SW\n"
+                + "minutes,SW,NE,50\n";
+
+        ZoneTripDurationEstimator loaded = ZoneTripDurationEstimator.load(new StringReader(file), 20);
+
+        assertThat(loaded.estimateMinutes("Rockyview Hospital, Main Entrance", "5 Memorial Dr NE"), is(50));
+        assertThat(loaded.estimateMinutes("Somewhere", "Elsewhere"), is(20));
+    }
+
+    @Test
+    public void testLoadReportsLineOfMalformedEntry() throws IOException {
+        String file = "minutes,NW,NE,20\n"
+                + "# Comment\n"
+                + "minutes,NW,SE,soon\n";
+        try {
+            ZoneTripDurationEstimator.load(new StringReader(file), 30);
+            fail("Expected the malformed line to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), startsWith("Line 3: "));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroMinutesIsRejected() {
+        estimator.setMinutes("NE", "SW", 0);
+    }
+}